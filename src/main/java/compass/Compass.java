@@ -105,12 +105,15 @@ public class Compass {
 	protected static boolean reportOption = false;
 	protected static boolean deleteReport = false;
 	protected static boolean userSpecifiedBabelfishVersion = false;
+	protected static String versionMatrix = null;
 	protected static boolean listContents = false;
 	protected static boolean pgImport = false;
 	protected static boolean pgImportAppend = false;
 	protected static boolean pgImportTable = false;
 	protected static boolean importFormatArg = false;	
 	protected static String mergeReport = "";
+	protected static CompassShard shard = null;
+	protected static boolean symTabOnly = false;
 	protected static String userCfgFile = "";		
 	protected static boolean optimisticFlag = false;		
 	protected static boolean popupwindow = true;		
@@ -150,6 +153,11 @@ public class Compass {
 
 	protected static TSQLParser.Tsql_fileContext exportedParseTree;
 
+	// batches not parsed in pass 1 as they add nothing to the symbol table, by import file; pass 2 parses them anyway,
+	// and reports their syntax errors as pass 1 would have. Also the input file name that pass 1 used for the error batch file
+	protected static Map<String, BitSet> pass1SkippedBatches = new HashMap<>();
+	protected static Map<String, String> pass1SkippedErrBatchFile = new HashMap<>();
+
 	public static CompassUtilities u = CompassUtilities.getInstance();
 	public static CompassConfig cfg = CompassConfig.getInstance();
 	public static CompassAnalyze a = CompassAnalyze.getInstance();
@@ -215,6 +223,9 @@ public class Compass {
 					u.appOutput("        Without status=, no X-refs are generated for 'Supported' and 'Ignored' features");				
 					u.appOutput("    filter=<pattern> : only report X-ref items matching the pattern (case-insensitive)");				
 					u.appOutput("    linenrs=<number> : max.nr of line numbers shown in list (default="+CompassUtilities.maxLineNrsInListDefault+")");				
+					u.appOutput("    xrefmem=<MB>     : memory for sorting X-refs, beyond which they are sorted on disk (default=1/8 of max. heap)");				
+					u.appOutput("    xrefpages[=<lines>] : write X-refs to separate HTML pages of max. this many lines (default="+CompassUtilities.reportOptionXrefPagesDefault+"),");				
+					u.appOutput("                       in subdirectory '"+CompassUtilities.xrefDirName+"' of the report directory; the report lists the pages");				
 					u.appOutput("    notabs           : do not open a Xref link in a new tab(default=open in new tab)");				
 					u.appOutput("    batchnr          : in xref, show batch number + line nr in batch");				
 					u.appOutput("    hints            : list all popup hints from the SQL Summary section (included with xref)");				
@@ -264,10 +275,17 @@ public class Compass {
 				u.appOutput("   -reportfile <name>           : specifies file name for report file (without .html)");				
 				u.appOutput("   -list                        : display imported files/applications for a report");				
 				u.appOutput("   -analyze                     : (re-)run analysis on imported files, and generate report");					
+				u.appOutput("   -shard <i>/<n>               : import or -analyze only part <i> of <n> of the files, in one of <n> processes;");
+				u.appOutput("                                  import all shards first, then -analyze all shards, then use -reportonly");
+				u.appOutput("   -symtabonly                  : with -analyze, only rebuild the symbol table from the imported files;");
+				u.appOutput("                                  use with -shard to rebuild it in parallel before '-analyze -shard'");
 				u.appOutput("   -userconfigfile <filename>   : specifies user-defined .cfg file (default= " + CompassUtilities.defaultUserCfgFileName+")");	
 				u.appOutput("   -optimistic                  : use predefined " + CompassUtilities.optimisticUserCfgFileName+")");	
 				u.appOutput("   -nooverride                  : do not use overrides from user-defined .cfg file");												
 				u.appOutput("   -babelfish-version <version> : specify target Babelfish version (default=latest)");
+				u.appOutput("                                  with -reportonly: report earlier analysis for this version");
+				u.appOutput("   -versionmatrix [<versions>]  : also write a .csv file comparing the status of all items across");
+				u.appOutput("                                  Babelfish versions (comma-separated; default=all versions)");
 				u.appOutput("   -encoding <encoding>         : input file encoding, e.g. '-encoding UTF16'. Default="+Charset.defaultCharset());
 				u.appOutput("                                  use '-encoding help' to list available encodings");
 				u.appOutput("   -quotedid {on|off}           : set QUOTED_IDENTIFIER at start of script (default=ON)");
@@ -283,8 +301,12 @@ public class Compass {
   				u.appOutput("   -rewrite                     : rewrites selected unsupported SQL features");
   				u.appOutput("   -noupdatechk                 : do not check for " + CompassUtilities.thisProgName + " updates");
 				u.appOutput("   -nopopupwindow               : do not automatically open report in browser");  				
+				u.appOutput("   -daemon [-port <number>]     : keep running to process later " + CompassUtilities.thisProgName + " invocations from the same directory faster");
+				u.appOutput("   -daemonstop                  : stop the process started with -daemon");
+				u.appOutput("   -nodaemon                    : do not use the process started with -daemon");
 				u.appOutput("   -importformat <fmt>          : process special-format captured query files");
 				u.appOutput("   -nodedup                     : with -importfmt, do not de-duplicate captured queries");
+				u.appOutput("   -dedupspill                  : with -importfmt, keep de-duplicated queries on disk instead of in memory");
 				u.appOutput("   -noreportcomplexity          : do not include complexity scores in report");
 				u.appOutput("   -csvformat <fmt>             : format for generated .csv file");				
 				u.appOutput("   -csvitemidfile <filename>    : filename for item IDs when .csv format=flat (default=BabelfishCompassItemID.csv)");				
@@ -337,6 +359,15 @@ public class Compass {
 				i++;
 				continue;
 			}
+			if (arg.equals("-versionmatrix")) {
+				// optional list of versions; default is all versions
+				versionMatrix = "";
+				if ((i < args.length) && !CompassUtilities.getPatternGroup(args[i], "^(\\d[\\d\\.,]*)$", 1).isEmpty()) {
+					versionMatrix = args[i];
+					i++;
+				}
+				continue;
+			}
 			if (arg.equals("-appname")) {
 				if (i == args.length) {
 					u.appOutput("Must specify argument for -appname");
@@ -476,6 +507,10 @@ public class Compass {
 				u.deDupExtracted = false;
 				continue;			
 			}
+			if (arg.equals("-dedupspill")) {
+				u.deDupSpill = true;
+				continue;
+			}
 			if (arg.equals("-delete")) {
 				deleteReport = true;
 				continue;			
@@ -509,6 +544,23 @@ public class Compass {
 				importOnly = true;
 				continue;
 			}
+			if (arg.equals("-symtabonly")) {
+				symTabOnly = true;
+				continue;
+			}
+			if (arg.equals("-shard")) {
+				if (i == args.length) {
+					u.appOutput("Must specify argument for -shard");
+					u.errorExit();
+				}
+				shard = CompassShard.parse(args[i]);
+				if (shard == null) {
+					u.appOutput("Invalid argument for -shard: [" + args[i] + "]; must be i/n, with 1 <= i <= n");
+					u.errorExit();
+				}
+				i++;
+				continue;
+			}
 			if (arg.equals("-rewrite")) {
 				u.rewrite = true;
 				continue;
@@ -547,7 +599,7 @@ public class Compass {
 					u.errorExit();
 				}
 				reportOption = true;
-				List<String> reportOptions = Arrays.asList("xref", "detail", "status", "filter", "apps", "batchnr", "linenrs", "notabs", "hints");
+				List<String> reportOptions = Arrays.asList("xref", "detail", "status", "filter", "apps", "batchnr", "linenrs", "xrefmem", "xrefpages", "notabs", "hints");
 				List<String> reportOptionsXref = Arrays.asList("", "all", "object", "feature");
 				List<String> reportFlags = new LinkedList<>(Arrays.asList(args[i].split(",")));
 				reportFlags.removeIf(String::isEmpty);
@@ -604,6 +656,30 @@ public class Compass {
 							CompassUtilities.reportOptionLineNrs = true;
 							CompassUtilities.maxLineNrsInList = ln;  
 						}
+						else if (option.equals("xrefmem")) {
+							Integer mb = 0;
+							try {
+								mb = Integer.parseInt(optionValue);
+								if (mb < 1) Integer.parseInt("x");
+							} catch (Exception e) { 
+								u.appOutput("Invalid option '"+optionValue+"' for -reportoption xrefmem=, must be number > 0");
+								u.errorExit();								
+							}
+							CompassUtilities.reportOptionXrefMem = mb;  
+						}
+						else if (option.equals("xrefpages")) {
+							Integer nrLines = CompassUtilities.reportOptionXrefPagesDefault;
+							if (!optionValue.isEmpty()) {
+								try {
+									nrLines = Integer.parseInt(optionValue);
+									if (nrLines < 1) Integer.parseInt("x");
+								} catch (Exception e) { 
+									u.appOutput("Invalid option '"+optionValue+"' for -reportoption xrefpages=, must be number > 0");
+									u.errorExit();								
+								}
+							}
+							CompassUtilities.reportOptionXrefPages = nrLines;  
+						}
 						else if (option.equals("filter")) {							 
 							if (optionValue.isEmpty()) {
 								u.appOutput("No value specified for option 'filter='");
@@ -1083,6 +1159,27 @@ public class Compass {
 		} else {
 			u.targetBabelfishVersion = cfg.latestBabelfishVersion();
 		}
+
+		if (versionMatrix != null) {
+			List<String> versions = versionMatrix.isEmpty() ? new ArrayList<>(CompassConfig.Babelfish_VersionList) : new ArrayList<>(Arrays.asList(versionMatrix.split(",")));
+			versions.removeIf(String::isEmpty);
+			for (int j = 0; j < versions.size(); j++) {
+				String v = versions.get(j);
+				if (!CompassUtilities.getPatternGroup(v, "^(\\d+\\.\\d+)(\\.)?$", 1).isEmpty()) {
+					v = u.applyPatternFirst(v + ".0", "\\.\\.", ".");
+					versions.set(j, v);
+				}
+				if (!cfg.isValidBabelfishVersion(v)) {
+					u.appOutput("Invalid Babelfish version specified for -versionmatrix: [" + v + "]\nValid Babelfish versions: " + cfg.validBabelfishVersions());
+					return;
+				}
+			}
+			if (!generateReport) {
+				u.appOutput("-versionmatrix cannot be combined with -noreport");
+				return;
+			}
+			CompassUtilities.reportVersionMatrix = versions;
+		}
 				
 		if (userEncoding != null) {
 			if (userEncoding.equals("help")) {
@@ -1113,6 +1210,20 @@ public class Compass {
 				}
 			}
 
+			if ((shard != null) && !reAnalyze) {
+				// import only the input files in this shard
+				int nrInputFiles = inputFiles.size();
+				CompassInputDiscovery.PrefixTrie appNameDirs = comp.importAppNameDirs();
+				for (Iterator<String> it = inputFiles.iterator(); it.hasNext(); ) {
+					if (!shard.contains(comp.shardFileName(it.next(), appNameDirs))) it.remove();
+				}
+				u.appOutput("Shard " + shard + ": importing " + inputFiles.size() + " of " + nrInputFiles + " input files");
+				if (inputFiles.size() == 0) {
+					u.appOutput("No input files to process");
+					return;
+				}
+			}
+
 			if (deleteReport) {
 				// first delete the report dir before proceeding
 				u.deleteReportDir(reportName); 
@@ -1223,8 +1334,15 @@ public class Compass {
 		startRun = System.currentTimeMillis();								
 									
 		if (reAnalyze) {
-			// create fresh symbol table and capture file
-			u.deleteReAnalyze(reportName);					
+			// with -symtabonly, symbol table files are rewritten one by one, as other shards may be rebuilding theirs at the same time
+			if (!symTabOnly && shard != null) {
+				// other shards may be analyzing at the same time, and pass 2 uses the symbol table written earlier
+				if (!symTabComplete()) return;
+			}
+			else if (!symTabOnly) {
+				// create fresh symbol table and capture file
+				u.deleteReAnalyze(reportName);
+			}
 		}
 		
 		// read custom item ID file, if applicable
@@ -1240,7 +1358,7 @@ public class Compass {
 		} else {
 			// ---- pass 1 --------------------------------------
 
-			if ((inputFiles.size() > 0) || readStdin || reAnalyze) {
+			if ((inputFiles.size() > 0) || readStdin || (reAnalyze && ((shard == null) || symTabOnly))) {
 				u.analysisPass = 1;
 				comp.processInput(startRunFmt);
 
@@ -1254,8 +1372,17 @@ public class Compass {
 
 			// ---- pass 2 --------------------------------------
 			if (!parseOnly) {				
-				if (importOnly) {
-					u.appOutput("Not performing analysis or generating assessment report.\nUse -analyze later to analyze & generate a report.");
+				if (symTabOnly) {
+					String s = (shard == null) ? "" : "Shard " + shard + ": ";
+					u.appOutput(s + "Symbol table rebuilt. Use -analyze" + ((shard == null) ? "" : " -shard <i>/"+shard.nrShards) + " to analyze the imported files.");
+					u.appOutput("");
+				} else if (importOnly) {
+					if (shard != null) {
+						u.appOutput("Shard " + shard + " imported. When all shards have been imported, use '-analyze -shard <i>/"+shard.nrShards+"' to analyze\neach shard, and then -reportonly to generate the report.");
+					}
+					else {
+						u.appOutput("Not performing analysis or generating assessment report.\nUse -analyze later to analyze & generate a report.");
+					}
 					u.appOutput("");		
 				} else {
 					u.analysisPass = 2;
@@ -1348,6 +1475,37 @@ public class Compass {
 		u.closeSessionLogFile();		
 	}
 	
+	// runs a request for the Compass daemon as if the arguments were specified on the command line; see CompassDaemon.
+	// Returns the exit code instead of exiting
+	public static int runDaemonRequest(String[] args, Map<String, String> environment) throws Exception {
+		CompassUtilities.daemonRequest = true;
+		CompassUtilities.environment = environment;
+		try {
+			main(args);
+		} catch (CompassUtilities.ExitRequest e) {
+			return e.exitCode;
+		} finally {
+			CompassUtilities.deleteTempFiles();
+		}
+		return 0;
+	}
+
+	// with -analyze -shard, pass 2 needs the symbol table for all imported files, not only for the files in this shard
+	private static boolean symTabComplete() throws IOException {
+		List<String> missing = new ArrayList<>();
+		for (Path f : u.getImportFiles(reportName)) {
+			String line = u.importFileFirstLine(f.toString());
+			String srcFile = u.importFileAttribute(line, 1);
+			if (!Files.exists(Paths.get(u.getSymTabFilePathName(reportName, srcFile, u.importFileAttribute(line, 2))))) {
+				missing.add(srcFile);
+			}
+		}
+		if (missing.isEmpty()) return true;
+		u.appOutput("No symbol table found for " + missing.size() + " imported file(s), e.g. " + missing.get(0));
+		u.appOutput("All shards must have been imported with -shard, or the symbol table rebuilt with '-analyze -symtabonly', before using -analyze -shard");
+		return false;
+	}
+
 	protected static void copyMergeReport(String src, String tgt, String dirName) throws Exception {	
 		if (CompassUtilities.onWindows) {
 			String cmdA = "robocopy "+src+File.separator;
@@ -1439,26 +1597,12 @@ public class Compass {
 		if ((Files.isDirectory(path)) && (!path.toString().isEmpty())) {
 			if (recursiveInputFiles) {
 				// Recursively walk the directory tree and add files that we can read and match our filter patterns
-				Set<String> inputFilesToAdd;
-				try (Stream<Path> directoryStream = Files.walk(path, depth, FileVisitOption.FOLLOW_LINKS)) {
-					inputFilesToAdd = directoryStream
-							.filter(Files::isRegularFile)
-							.filter(Files::isReadable)
-							.filter(p -> {
-								if (includes != null && !includes.matches(p)) {
-									u.appOutput("Ignoring not included path '" + p.toString() + "'");
-								}
-								return includes == null || includes.matches(p);
-							})
-							.filter(p -> {
-								if (excludes != null && excludes.matches(p)) {
-									u.appOutput("Excluding path '" + p.toString() + "'");
-								}
-								return excludes == null || !excludes.matches(p);
-							})
-							.map(Path::toString)
-							.collect(Collectors.toSet());
-					inputFiles.addAll(inputFilesToAdd);
+				CompassInputDiscovery discovery = new CompassInputDiscovery(path, depth, includes, excludes);
+				try {
+					inputFiles.addAll(discovery.walk());
+					for (String msg : discovery.skippedPathsReport()) {
+						u.appOutput(msg);
+					}
 				} catch (IOException | UncheckedIOException ioe) {
 					nrFileNotFound++;
 					u.appOutput("Can't access input file '" + file + "'");
@@ -1610,6 +1754,35 @@ public class Compass {
 			}
 		}
 		
+		if (symTabOnly) {
+			if (!reAnalyze) {
+				u.appOutput("-symtabonly requires -analyze");
+				return false;
+			}
+			generateReport = false;
+		}
+
+		if (shard != null) {
+			if (readStdin || listContents || reportOnly || deleteReport || pgImport || parseOnly) {
+				u.appOutput("-shard cannot be combined with -stdin, -list, -reportonly, -delete, -pgimport or -parseonly");
+				return false;
+			}
+			if ((inputFiles.size() == 0) && !reAnalyze) {
+				u.appOutput("-shard requires input files to import, or -analyze");
+				return false;
+			}
+			if (!reAnalyze) {
+				// analysis needs the symbol table of all files, so it must wait until all shards have been imported
+				importOnly = true;
+				// all shards import into the same report
+				addReport = true;
+			}
+			else {
+				// the report is generated with -reportonly when all shards have been analyzed
+				generateReport = false;
+			}
+		}
+		
  		if (u.anonymizedData) {
  			if (readStdin || listContents) {
 				u.appOutput("-anon cannot be combined with other options");
@@ -1704,6 +1877,11 @@ public class Compass {
 			u.appOutput("Cannot use -nodedup without -importfmt");
 			return false;
 		}
+
+		if (u.deDupSpill && (!importFormatArg || !u.deDupExtracted)) {
+			u.appOutput("Cannot use -dedupspill without -importfmt, or with -nodedup");
+			return false;
+		}
 				
 		if (reAnalyze && importFormatArg) {
 			u.appOutput("Cannot combine -analyze and -importfmt");
@@ -1855,9 +2033,9 @@ public class Compass {
 		}				
 		
 		// validate reportoptions
-		if (!CompassUtilities.reportOptionStatus.isEmpty() || !CompassUtilities.reportOptionDetail.isEmpty() || !CompassUtilities.reportOptionFilter.isEmpty() || CompassUtilities.reportOptionNotabs || CompassUtilities.reportOptionLineNrs) {
+		if (!CompassUtilities.reportOptionStatus.isEmpty() || !CompassUtilities.reportOptionDetail.isEmpty() || !CompassUtilities.reportOptionFilter.isEmpty() || CompassUtilities.reportOptionNotabs || CompassUtilities.reportOptionLineNrs || (CompassUtilities.reportOptionXrefMem > 0) || (CompassUtilities.reportOptionXrefPages > 0)) {
 			if(CompassUtilities.reportOptionXref.isEmpty()) {
-				u.appOutput("Must also specify report option 'xref' when specifying option 'status', 'detail', 'filter', 'linenrs' or 'notabs' ");
+				u.appOutput("Must also specify report option 'xref' when specifying option 'status', 'detail', 'filter', 'linenrs', 'xrefmem', 'xrefpages' or 'notabs' ");
 				return false;
 			}
 		}
@@ -1884,8 +2062,9 @@ public class Compass {
 			if ((inputFiles.size() == 0) && (!autoDDL) && (!reAnalyze)) {
 				noInputFilesMsg = "\n(no valid input files specified)"; // add helpful msg
 			}
-			if (userSpecifiedBabelfishVersion) {
-				u.appOutput("Cannot specify -babelfish-version when not performing analysis"+noInputFilesMsg);
+			if (userSpecifiedBabelfishVersion && !reportOnly) {
+				// with -reportonly, the report is for the version specified
+				u.appOutput("Cannot specify -babelfish-version when not performing analysis or -reportonly"+noInputFilesMsg);
 				return false;					
 			}			
 			if (u.rewrite) {
@@ -2104,6 +2283,9 @@ public class Compass {
 		if (!u.reportFilePathName.equals(u.uninitialized)) {
 			u.appOutput("Assessment report    : "+ u.reportFilePathName, writeToReport);
 		}
+		if (!u.versionMatrixFilePathName.equals(u.uninitialized)) {
+			u.appOutput("Version comparison   : "+ u.versionMatrixFilePathName, writeToReport);
+		}
 		u.appOutput(u.composeOutputLine("","="), writeToReport);
 		
 		if (CompassUtilities.devOptions) {
@@ -2118,6 +2300,40 @@ public class Compass {
 
 	}
 
+	// application name for an input file being imported
+	private String importAppName(String inFile, CompassInputDiscovery.PrefixTrie appNameDirs) throws IOException {
+		String appName = forceAppName ? applicationName : u.getFileNameFromPathName(inFile);
+		if (autoDDL) {
+			appName = appName.replaceFirst(SMODDLTag, "");
+		}
+		appName = u.fixNameChars("appname", appName);
+
+		if (recursiveInputFiles && (!forceAppName)) {
+			// for recursive cases, without -appname, try to guess the appname to avoid ending up with as many appnames as inputfiles
+			String dirAppName = appNameDirs.lookup(inFile);
+			if (dirAppName != null) {
+				appName = dirAppName;
+			}
+		}
+		return appName;
+	}
+
+	// for recursive cases, without -appname, the application name is taken from the directory specified on the command line
+	private CompassInputDiscovery.PrefixTrie importAppNameDirs() throws IOException {
+		CompassInputDiscovery.PrefixTrie appNameDirs = new CompassInputDiscovery.PrefixTrie();
+		if (recursiveInputFiles && (!forceAppName) && (!reAnalyze)) {
+			for (String origFile : inputFilesOrig) {
+				appNameDirs.add(origFile, u.fixNameChars("appname", u.getFileNameFromPathName(origFile.replaceAll("\\\\", "/"))));
+			}
+		}
+		return appNameDirs;
+	}
+
+	// the name by which an input file is assigned to a shard: the name of its import copy, which is also what -analyze -shard finds
+	private String shardFileName(String inFile, CompassInputDiscovery.PrefixTrie appNameDirs) throws IOException {
+		return Paths.get(u.getImportFilePathName(reportName, inFile, importAppName(inFile, appNameDirs))).getFileName().toString();
+	}
+
 	private void processInput(String runStartTime) throws Exception {		
 		if (readStdin) {
 			// quick parse option, for development only
@@ -2162,18 +2378,27 @@ public class Compass {
 			//copy imported filenames into inputFiles
 			inputFiles.clear();  // should be redundant
 			for (Path imf : importFiles) {
+				// same name as shardFileName() gave at import
+				if ((shard != null) && !shard.contains(imf.getFileName().toString())) continue;
 				addInputFile(imf.toString());
 			}
+			if (shard != null) {
+				u.appOutput("Shard " + shard + ": analyzing " + inputFiles.size() + " of " + importFiles.size() + " imported files");
+				if (inputFiles.size() == 0) return;
+			}
 		} 
 		
 		// skip file names starting with a '.'
-		List<String> inputFilesTmp = new ArrayList<>(inputFiles);
-		for (String inFile : inputFilesTmp) {
-			if (!CompassUtilities.getPatternGroup(inFile, u.escapeRegexChars(File.separator) + "(\\.\\w)", 1).isEmpty()) {
+		Pattern dotFilePattern = Pattern.compile(u.escapeRegexChars(File.separator) + "(\\.\\w)", Pattern.CASE_INSENSITIVE);
+		List<String> inputFilesTmp = new ArrayList<>(inputFiles.size());
+		for (String inFile : inputFiles) {
+			if (dotFilePattern.matcher(inFile).find()) {
 				u.appOutput("Excluding file '"+inFile+"'");
-				inputFiles.remove(inFile);
+				continue;
 			}
+			inputFilesTmp.add(inFile);
 		}
+		inputFiles = inputFilesTmp;
 		if (inputFiles.size() == 0) {
 			u.appOutput("No input files specified");
 			u.errorExit();
@@ -2182,17 +2407,22 @@ public class Compass {
 		// remove duplicate input files
 		// sort files in app+pathname order so that we always process them in the same order
 		List<String> tmpInputFiles = new ArrayList<>();
-		List<String> tmpInputFilesUpperCase = new ArrayList<>();
+		Set<String> inputFilesSeen = new HashSet<>();
 		List<String> sortInputFiles = new ArrayList<>();
 		String sortKeySeparator = "~!~@~!~";
 		tmpInputFiles.addAll(inputFiles);
-		tmpInputFilesUpperCase.addAll(inputFiles);
-		u.listToUpperCase(tmpInputFilesUpperCase);
 		
 		inputFiles.clear();
 		for (int i = 0; i < tmpInputFiles.size(); i++) {
 			String f = tmpInputFiles.get(i);
 			if (f.isEmpty()) continue;
+			if ((u.analysisPass == 1) && (!reAnalyze)) {
+				// remove duplicate input files during initial import only
+				if (!inputFilesSeen.add(f.toUpperCase())) {
+					u.appOutput("Removing duplicate input file '"+f+"'");
+					continue;
+				}
+			}
 			//if ((u.analysisPass == 1) && (!reAnalyze)) {
 			if (!reAnalyze) {
 				inputFiles.add(f);
@@ -2205,20 +2435,6 @@ public class Compass {
 			}
 
 			if ((u.analysisPass == 1) && (!reAnalyze)) {
-				// remove duplicate input files during initial import only
-				// using tmpInputFilesUpperCase to speed up things in case of large numbers (1000's) of files
-				tmpInputFilesUpperCase.set(i,"");
-				if (tmpInputFilesUpperCase.contains(f.toUpperCase())) {
-					//u.appOutput(u.thisProc()+"searching to remove duplicate input file f=["+f+"] ");
-					for (int j = i+1; j < tmpInputFiles.size(); j++) {
-						if (f.equalsIgnoreCase(tmpInputFiles.get(j))) {
-							u.appOutput("Removing duplicate input file '"+f+"'");
-							tmpInputFiles.set(j,"");
-							tmpInputFilesUpperCase.set(j,"");
-						}
-					}
-				}
-				
 				//intercept .xel files
 				if (u.importFormat.equalsIgnoreCase(u.extendedEventsXMLFmt)) {
 					String suffix = f.substring(f.lastIndexOf(".")+1);
@@ -2247,6 +2463,23 @@ public class Compass {
 			}
 		}
 
+		CompassInputDiscovery.PrefixTrie appNameDirs = importAppNameDirs();
+
+		// when importing, input files are prepared (encoding, format, import copy) ahead of the file being analyzed
+		CompassImportPipeline importPipeline = null;
+		if ((u.analysisPass == 1) && (!reAnalyze)) {
+			List<String> appNames = new ArrayList<>();
+			for (String inFile : inputFiles) {
+				String appName = importAppName(inFile, appNameDirs);
+				if (appName.isEmpty() || !CompassUtilities.nameFormatValid("appname", appName).isEmpty()) appName = null;
+				appNames.add(appName);
+			}
+			importPipeline = new CompassImportPipeline(reportName, userEncoding, inputFiles, appNames);
+		}
+
+		// in pass 1, parse only the batches that add to the symbol table when pass 2 follows in this run
+		boolean skipPass1Batches = (u.analysisPass == 1) && !importOnly && !parseOnly && !symTabOnly && !readStdin && !dumpParseTree && !dumpBatchFile;
+
 		// process the input files
 		int nrFiles = inputFiles.size();
 		int fileCount = 0;
@@ -2259,6 +2492,8 @@ public class Compass {
 			String inFileCopy = "";
 			FileInputStream fis = null;
 			InputStreamReader isr = null;
+			CompassMappedFile mappedFile = null;
+			CompassMappedFile.LineReader mappedReader = null;
 			u.dynamicSQLBuffer.clear();
 			a.sqlcmdVars.clear();
 			retrySLLFile = 0;
@@ -2273,23 +2508,7 @@ public class Compass {
 				}
 						
 				// regular case
-				appName = forceAppName ? applicationName : u.getFileNameFromPathName(inFile);
-				if (autoDDL) {
-					appName = appName.replaceFirst(SMODDLTag, "");
-				}				
-				appName = u.fixNameChars("appname", appName);		
-				
-				if (recursiveInputFiles && (!forceAppName)) {
-					// for recursive cases, without -appname, try to guess the appname to avoid ending up with as many appnames as inputfiles
-					String inFileTest = inFile.replaceAll("\\\\", "/"); // doesn't hurt on non-Windows			
-					for (String origFile : inputFilesOrig) {
-						origFile = origFile.replaceAll("\\\\", "/");  // doesn't hurt on non-Windows			
-						if (inFileTest.toUpperCase().startsWith(origFile.toUpperCase() + "/")) {							
-							appName = u.fixNameChars("appname", u.getFileNameFromPathName(origFile));		
-							break;
-						}
-					}
-				}
+				appName = importAppName(inFile, appNameDirs);
 			
 				if (appName.isEmpty()) {
 					u.appOutput("Application name '" + appName + "' is blank for '"+inFile+"' . Use -appname");
@@ -2319,14 +2538,12 @@ public class Compass {
 			}
 
 			if (u.analysisPass == 1) {
-				boolean replacing = false;
+				CompassImportPipeline.PreparedFile prepared = null;
 				if (!reAnalyze) {
 					// process the input files when importing. i.e. the very first time
-					if (Files.exists(Paths.get(inFileCopy))) {
-						replacing = true;
-					}
+					prepared = importPipeline.get(fileCount-1);
 					u.appOutput(u.progressCnt(fileCount, nrFiles) + "Importing " + Paths.get(inFile).toAbsolutePath() + ", for application '" + appName + "'");
-					if (replacing) {
+					if (prepared.replacing) {
 						if (replaceFiles) {
 							u.appOutput("Replacing input file " + Paths.get(inFile).toAbsolutePath());
 						}
@@ -2348,59 +2565,50 @@ public class Compass {
 				// handle charset conversion
 				// NB: when specifying multiple input files, all input files will be handled with the same encoding
 				if (!reAnalyze) {
-					if (userEncoding == null) {
-						// if no encoding specified, try to detect cases of UTF16
-						String detectedEncoding = u.detectEncoding(inFile);
-						if (detectedEncoding != null) {
-							charset = Charset.forName(detectedEncoding);
-							u.appOutput(CompassUtilities.stringRepeat(" ", u.progressCnt(fileCount, nrFiles).length()) + "Detected encoding '" + detectedEncoding + "' for input file " + inFile);
-						} 
-						else {
-							charset = Charset.defaultCharset();
-						}
-					} 
-					else {
-						try {
-							charset = Charset.forName(userEncoding);
-						} catch (Exception e) {
-							u.appOutput("Invalid -encoding value specified: [" + userEncoding + "]\nUse '-encoding help' to list available encodings.");
-							return;
-						}
+					if (prepared.invalidEncoding) {
+						u.appOutput("Invalid -encoding value specified: [" + userEncoding + "]\nUse '-encoding help' to list available encodings.");
+						return;
 					}
+					if (prepared.detectedEncoding != null) {
+						u.appOutput(CompassUtilities.stringRepeat(" ", u.progressCnt(fileCount, nrFiles).length()) + "Detected encoding '" + prepared.detectedEncoding + "' for input file " + inFile);
+					}
+					charset = prepared.charset;
 					if (u.debugging) u.dbgOutput(CompassUtilities.thisProc() + "Using encoding=[" + charset.toString() + "]", u.debugBatch);
 
-					String detectedFmt = u.detectImportFileFormat(inFile, u.importFormat, charset);					
-					String useImportFormat = u.sqlcmdFmt;
-					if (u.importFormat.equalsIgnoreCase(u.autoFmt)) {
-						useImportFormat = detectedFmt;
-					}
-					if (u.importFormat.equalsIgnoreCase(detectedFmt)) {
-						useImportFormat = detectedFmt;
+					for (String msg : prepared.fmtMsgs) {
+						u.appOutput(msg);
 					}
-					if (useImportFormat.isEmpty()) useImportFormat = u.sqlcmdFmt; // catchall
-					if (u.debugging) u.dbgOutput(CompassUtilities.thisProc() + "u.importFormat=["+u.importFormat+"] detected fmt=["+detectedFmt+"] useImportFormat=["+useImportFormat+"] ", u.debugFmt || u.debugDir);
-					
-    				String useCharset = charset.toString();
+					String useImportFormat = prepared.useImportFormat;
 					if (useImportFormat.equalsIgnoreCase(u.sqlcmdFmt)) {	
-						// continue, no conversion needed
+						// continue, no conversion needed; the import copy was written already
 					}
 					else {			
 						// need to convert input format first
 						String inFileConverted = u.convertInputFileFormat(reportName, inFile, appName, useImportFormat, charset);
 						inFile = inFileConverted;
-						useCharset = "UTF-8";
 						charset = StandardCharsets.UTF_8;
 						String inFileCopyCopy = inFileCopy;
 						inFileCopy = u.getImportFilePathName(reportName, inFileConverted, appName);
 						if (u.debugging) u.dbgOutput(CompassUtilities.thisProc() + "mapping inFileCopy from ["+inFileCopyCopy+"] to ["+inFileCopy+"]  inFileConverted=["+inFileConverted+"] ", u.debugFmt || u.debugDir);
 						inputFilesMapped.put(inFileCopyCopy, inFileCopy);
+						prepared.isImportCopy = !u.writeImportCopy(reportName, inFile, appName, charset, "UTF-8");
+					}
+
+					// make sure it's not a file taken from the imported directory that is used as source here; this will cause trouble downstream
+					if (prepared.isImportCopy) {
+						// this is the header line from the import copy, abort
+						u.appOutput("This file contains a header line that indicates it was taken from an 'imported' subdirectory\nof a "+u.thisProgName+" report.");
+						u.appOutput("You must remove the first line; when reprocessing, ensure the file is encoded as UTF-8, or use '-encoding utf8'.");
+						u.appOutput("Aborting...");
+						u.errorExit();
 					}
-					
-					u.openImportFile(reportName, inFile, appName, useCharset);  // open to write a copy of the input file
 
-					fis = new FileInputStream(inFile);
-					isr = new InputStreamReader(fis, charset);
-					if (u.debugging) u.dbgOutput("reading inFile=["+inFile+"] ", u.debugDir);
+					// analyze the import copy, which is in UTF-8
+					u.importFilePathName = u.getImportFilePathName(reportName, inFile, appName);
+					u.importFileHTMLPathName = u.getImportFileHTMLPathName(reportName, inFile, appName);
+					fis = new FileInputStream(u.importFilePathName);
+					isr = new InputStreamReader(fis, StandardCharsets.UTF_8);
+					if (u.debugging) u.dbgOutput("reading import copy=["+u.importFilePathName+"] of inFile=["+inFile+"] ", u.debugDir);
 				}
 			}
 
@@ -2418,12 +2626,15 @@ public class Compass {
 					u.appOutput(u.progressCnt(fileCount, nrFiles) + w+" " + u.currentSrcFile + ", for application '" + u.currentAppName + "'; #batches/lines: " + batchesLines);
 				}
 			
-				fis = new FileInputStream(inFileCopy);
-				isr = new InputStreamReader(fis, StandardCharsets.UTF_8);				
-				if (u.debugging) u.dbgOutput("reading inFileCopy=["+inFileCopy+"] ", u.debugDir);
+				// the import copy is always UTF-8, so read it through a mapping of the file rather than a decoding reader;
+				// the same mapping is used again in pass 2 after pass 1 with -analyze
+				mappedFile = CompassMappedFile.open(inFileCopy);
+				mappedReader = mappedFile.newReader();
+				if (u.debugging) u.dbgOutput("reading mapped inFileCopy=["+inFileCopy+"] ", u.debugDir);
 			}
 			
-			BufferedReader inFileReader = new BufferedReader(isr);
+			BufferedReader inFileReader = null;
+			if (mappedReader == null) inFileReader = new BufferedReader(isr);
 			
 			if (u.analysisPass== 2) {
 				u.openCaptureFile(reportName, u.currentSrcFile, u.currentAppName);
@@ -2512,7 +2723,7 @@ public class Compass {
 						line = "go";   // this only applies in case the last batch does not have a terminator AND there is dynamic SQL to process
 					}
 					else {
-						line = inFileReader.readLine();
+						line = (mappedReader != null) ? mappedReader.readLine() : inFileReader.readLine();
 					}
 				}
 				else if (u.analysisPass == 2) {
@@ -2578,43 +2789,10 @@ public class Compass {
 					}
 				} 
 				else {
-					// make sure it's not a file taken from the imported directory that is used as source here; this will cause trouble downstream
-					if (u.analysisPass == 1) {
-						if (!reAnalyze) {
-							if (lineNr == 0) {
-								if (!u.importFileAttribute(line,1).isEmpty()) {
-									if (!u.importFileAttribute(line,2).isEmpty()) {
-										// this is the header line from the import copy, abort
-										u.appOutput("This file contains a header line that indicates it was taken from an 'imported' subdirectory\nof a "+u.thisProgName+" report.");
-										u.appOutput("You must remove the first line; when reprocessing, ensure the file is encoded as UTF-8, or use '-encoding utf8'.");
-										u.appOutput("Aborting...");
-										u.errorExit();
-									}
-								}					
-							}
-						}
-					}
-
-					// remove UTF-8 BOM if present: Java doesn't handle this. The BOM bytes for UTF8 are 0xEF 0xBB 0xBF, but the show up here as 0xFEFF
-					if (lineNr == 0) {
-						if (line.startsWith("\uFEFF")) {
-							if (u.debugging) u.dbgOutput("UTF-8 BOM found, removed", u.debugBatch);
-							line = line.substring(1);
-						}		
-					}						
-																			
-					if (u.analysisPass == 1) {
-						if (!reAnalyze) {
-							u.writeImportFile(line);
-						}
-					}
-					
-					if ((u.analysisPass == 2) || (reAnalyze && (u.analysisPass == 1))) {
-						if ((lineNr == 0) && (!pass2Init)) {
-							// skip first line
-							pass2Init = true;
-							continue;
-						}
+					// skip the header line of the import copy
+					if ((lineNr == 0) && (!pass2Init)) {
+						pass2Init = true;
+						continue;
 					}
 
 					// process the line. CR & LF have been stripped off the end
@@ -2858,6 +3036,7 @@ public class Compass {
 					if (u.debugging) u.dbgOutput("endBatchFound=["+endBatchFound+"] analyzingDynamicSQL=["+analyzingDynamicSQL+"] ", u.debugBatch);
 					// process the batch
 					if (!analyzingDynamicSQL) {
+						CompassUtilities.checkRequestCancelled();
 						batchNr++;
 						if (endOfFile && leadingBlankLines && !exitFound) batchNr--;
 						u.batchNrInFile = batchNr;
@@ -2916,11 +3095,27 @@ public class Compass {
 
 						if (u.debugging) u.dbgOutput("handing off to parser: u.analysisPass=["+u.analysisPass+"] batchNr=["+batchNr+"]  batchLines=["+batchLines+"]  ", u.debugBatch);
 						
-						charStream = CharStreams.fromString(batchText.toString());
+						// batches skipped in pass 1 are checked for syntax errors in pass 2
+						boolean skipParse = false;
+						boolean skippedInPass1 = false;
+						if (skipPass1Batches && !CompassAnalyze.pass1Needed(batchText)) {
+							skipParse = true;
+							pass1SkippedBatches.computeIfAbsent(inFileCopy, k -> new BitSet()).set(batchNr);
+							pass1SkippedErrBatchFile.putIfAbsent(inFileCopy, inFile);
+							exportedParseTree = null;
+							if (u.debugging) u.dbgOutput("not parsing batchNr=["+batchNr+"] in pass 1", u.debugBatch);
+						}
+						else if ((u.analysisPass == 2) && !analyzingDynamicSQL && pass1SkippedBatches.containsKey(inFileCopy)) {
+							skippedInPass1 = pass1SkippedBatches.get(inFileCopy).get(batchNr);
+						}
 
 						// parse a batch and put the parse tree in the list for subsequent analysis
 						startTime = System.currentTimeMillis();			
-						String ptreeText = parseBatch(charStream, inFile, batchNr, batchLines, antlrSLL);
+						String ptreeText = "";
+						if (!skipParse) {
+							charStream = CharStreams.fromString(batchText.toString());
+							ptreeText = parseBatch(charStream, inFile, batchNr, batchLines, antlrSLL);
+						}
 						endTime = System.currentTimeMillis();
 						duration = (endTime - startTime);
 						timeElapsed = duration;
@@ -2960,6 +3155,12 @@ public class Compass {
 									totalParseErrors++;
 								}								
 							}
+							if (skippedInPass1) {
+								printErrMsg = true;
+								if (hasParseError) {
+									totalParseErrors++;
+								}
+							}
 						}
 						if (hasParseError) {
 							if (printErrMsg) {
@@ -2969,12 +3170,13 @@ public class Compass {
 							}
 						}
 
-						if ((u.analysisPass == 1) || ((u.analysisPass == 2) && analyzingDynamicSQL)) {
+						if ((u.analysisPass == 1) || ((u.analysisPass == 2) && (analyzingDynamicSQL || skippedInPass1))) {
 							if (u.debugging) u.dbgOutput("u.analysisPass=["+u.analysisPass+"]  analyzingDynamicSQL=["+analyzingDynamicSQL+"] dumpParseTree=["+dumpParseTree+"] ", u.debugBatch);
 							if (hasParseError) {
-								// write error batch
+								// write error batch; for a batch skipped in pass 1, add it to the file written in pass 1
+								String errInFile = skippedInPass1 ? pass1SkippedErrBatchFile.get(inFileCopy) : inFile;
 								if (u.errBatchFileWriter == null) {
-									u.openErrBatchFile(reportName, inFile, runStartTime);
+									u.openErrBatchFile(reportName, errInFile, runStartTime, skippedInPass1);
 								}
 
 								// log error batch to file
@@ -2984,7 +3186,7 @@ public class Compass {
 									b = "Dynamic SQL";
 									b2 = "dynamic SQL ";
 								}
-								u.writeErrBatchFile("Syntax error "+b2+"in batch " + batchNr + ", starting at line " + startBatchLineNr + " in file " + Paths.get(inFile).toAbsolutePath() + "\n"+b+"=[" + batchText + "]");
+								u.writeErrBatchFile("Syntax error "+b2+"in batch " + batchNr + ", starting at line " + startBatchLineNr + " in file " + Paths.get(errInFile).toAbsolutePath() + "\n"+b+"=[" + batchText + "]");
 								u.writeErrBatchFile(parseErrorMsg.toString().trim() + "\n");
 								u.writeErrBatchFile(u.composeOutputLine("-", "-") + "\n");			
 								
@@ -3069,7 +3271,11 @@ public class Compass {
 				totalParseErrors += nrParseErrors;				
 			}
 
-			inFileReader.close();
+			if (mappedReader != null) {
+				mappedReader.close();
+				CompassMappedFile.close(mappedFile);
+			}
+			else inFileReader.close();
 
 			if (u.analysisPass == 1) {
 				// save symbol table to disk
@@ -3077,7 +3283,7 @@ public class Compass {
 					String inFileTmp = inFile;
 					if (reAnalyze) inFileTmp = u.currentSrcFile;
 					//u.appOutput(CompassUtilities.thisProc()+"symtab inFile=["+inFileTmp+"] ");
-					if (!importOnly) u.writeSymTab(reportName, inFileTmp, appName);
+					if (!importOnly || (shard != null)) u.writeSymTab(reportName, inFileTmp, appName);
 				} catch (Exception e) {
 					u.appOutput("Error writing symbol table " + u.symTabFilePathName);
 					throw e;
@@ -3093,16 +3299,11 @@ public class Compass {
 			if (u.analysisPass == 2) {
 				// if substitutions required, apply them
 				if (u.rewriteTextList.size() > 0) {
-					long startRewrite = System.currentTimeMillis();							
-					u.performRewriting(reportName, u.currentAppName,inFileCopy);	
-					long endRewrite = System.currentTimeMillis();										
-					long secsRewrite = endRewrite - startRewrite;	
-					timeCount.put("secsRewrite", secsRewrite);
-											
-					if (CompassUtilities.devOptions) {	  
-						u.appOutput("SQL rewrite time: " + (timeCount.get("secsRewrite")/1000) + " seconds" );
-					} 										
+					u.submitRewriting(reportName, u.currentAppName,inFileCopy);	
 				}
+
+				// this was the last read of the import copy; a pending rewrite keeps its own reference
+				CompassMappedFile.release(inFileCopy);
 			}
 
 			if (u.analysisPass == 2) {	
@@ -3119,7 +3320,6 @@ public class Compass {
 			u.currentAppName = "";
 
 			if (!reAnalyze) {
-				u.closeImportFile();
 				if (u.analysisPass == 1) {
 					u.importFileUpdateBatchLines(inFileCopy, batchNr, nrLinesInFile);
 				}
@@ -3132,8 +3332,19 @@ public class Compass {
 				u.closeErrBatchFile();
 			}		
 		} //for inputfiles
-		
+		if (importPipeline != null) {
+			importPipeline.close();
+		}
+		if (u.analysisPass == 2) {
+			u.waitForRewriting();
+			timeCount.put("secsRewrite", u.rewriteMillis);
+		}
 	
+		// all passes over the import copies are done now; also drops any copies mapped in pass 1 but not analyzed in pass 2
+		if (u.analysisPass == 2) {
+			CompassMappedFile.releaseAll();
+		}
+		
 		// generate anonymized capture files
 		if (u.analysisPass == 2) {
 			if (u.anonymizedData) {
@@ -3201,7 +3412,7 @@ public class Compass {
 		String nowD = new SimpleDateFormat("yyyy-MMM-dd").format(startRunDate);
 		SMODDLTag = "_SMO_DDL_"+nowD;
 		
-		SMOOutputFolder = System.getenv().get("TEMP");
+		SMOOutputFolder = CompassUtilities.environment.get("TEMP");
 		if (!u.onWindows) SMOOutputFolder = "/tmp";
 		SMOOutputFolder += File.separator + "CompassAutoDDL-" + nowTS;
 			
@@ -3369,6 +3580,7 @@ public class Compass {
 	protected String parseBatch(CharStream batchText, String fileName, int batchNr, int batchLines, boolean useSLL)  {
 		String batchTextCopy = batchText.toString();
 		TSQLLexer lexer = new TSQLLexer(batchText);
+		lexer.unmatchedCharacterHandler = u::setErrorMsg;
 		CommonTokenStream tokenStream = new CommonTokenStream(lexer);
 		TSQLParser parser = new TSQLParser(tokenStream);
 
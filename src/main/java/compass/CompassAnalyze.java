@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.*;
 import java.util.stream.*;
+import java.util.regex.Pattern;
 import java.lang.Math;
 
 import parser.*;
@@ -413,6 +414,25 @@ public class CompassAnalyze {
 	private static String featureSupportedInVersion(String section, String name, String optionValue) {
 		return cfg.featureSupportedInVersion(u.targetBabelfishVersion, section, name, optionValue);
 	}
+
+	// the status keys of the lookups above: passed to captureItem() along with a status that came from such a lookup,
+	// so that a report can resolve the status for another Babelfish version
+	private static String featureArgStatusKey(String section, String arg, String argValue) {
+		if (argValue.startsWith("@") || argValue.startsWith("(")) {
+			// variables and expressions are not looked up, and should not end up in the capture file
+			return null;
+		}
+		return CompassConfig.statusKey(CompassConfig.statusKeyArg, section, arg, argValue);
+	}
+	public static String featureStatusKey(String section) {
+		return CompassConfig.statusKey(CompassConfig.statusKeySection, section);
+	}
+	public static String featureStatusKey(String section, String name) {
+		return CompassConfig.statusKey(CompassConfig.statusKeyName, section, name);
+	}
+	private static String featureStatusKey(String section, String name, String optionValue) {
+		return CompassConfig.statusKey(CompassConfig.statusKeyOption, section, name, optionValue);
+	}
 	private static int featureIntValueSupportedInVersion(String section) {
 		return cfg.featureIntValueSupportedInVersion(u.targetBabelfishVersion, section);
 	}
@@ -662,14 +682,13 @@ public class CompassAnalyze {
 	private String lookupTableView(String name) {
 		String objType = "";
 		String resolvedName = u.decodeIdentifier(u.resolveName(name.toUpperCase()));
-		if (CompassUtilities.tableViewSymTab.containsKey(resolvedName)) {
-			objType = CompassUtilities.tableViewSymTab.get(resolvedName);
-		}
-		else {
+		String found = CompassUtilities.lookupSymTab(CompassSymTabFile.kindObjType, resolvedName);
+		if (found == null) {
 			String resolvedName2 = u.resolveName(resolvedName, "dbo");
-			if (CompassUtilities.tableViewSymTab.containsKey(resolvedName2)) {
-				objType = CompassUtilities.tableViewSymTab.get(resolvedName2);
-			}
+			found = CompassUtilities.lookupSymTab(CompassSymTabFile.kindObjType, resolvedName2);
+		}
+		if (found != null) {
+			objType = found;
 		}
 		return objType;
 	}
@@ -678,14 +697,13 @@ public class CompassAnalyze {
 	private String lookupSUDF(String name) {
 		String resultType = "";
 		String resolvedName = u.decodeIdentifier(u.resolveName(name.toUpperCase()));
-		if (CompassUtilities.SUDFSymTab.containsKey(resolvedName)) {
-			resultType = CompassUtilities.SUDFSymTab.get(resolvedName);
-		}
-		else {
+		String found = CompassUtilities.lookupSymTab(CompassSymTabFile.kindSUDF, resolvedName);
+		if (found == null) {
 			String resolvedName2 = u.resolveName(resolvedName, "dbo");
-			if (CompassUtilities.SUDFSymTab.containsKey(resolvedName2)) {
-				resultType = CompassUtilities.SUDFSymTab.get(resolvedName2);
-			}
+			found = CompassUtilities.lookupSymTab(CompassSymTabFile.kindSUDF, resolvedName2);
+		}
+		if (found != null) {
+			resultType = found;
 		}
 		return resultType;
 	}
@@ -694,14 +712,13 @@ public class CompassAnalyze {
 	private String lookupTUDF(String name) {
 		String resultType = "";
 		String resolvedName = u.decodeIdentifier(u.resolveName(name.toUpperCase()));
-		if (CompassUtilities.TUDFSymTab.containsKey(resolvedName)) {
-			resultType = CompassUtilities.TUDFSymTab.get(resolvedName);
-		}
-		else {
+		String found = CompassUtilities.lookupSymTab(CompassSymTabFile.kindTUDF, resolvedName);
+		if (found == null) {
 			String resolvedName2 = u.resolveName(resolvedName, "dbo");
-			if (CompassUtilities.TUDFSymTab.containsKey(resolvedName2)) {
-				resultType = CompassUtilities.TUDFSymTab.get(resolvedName2);
-			}
+			found = CompassUtilities.lookupSymTab(CompassSymTabFile.kindTUDF, resolvedName2);
+		}
+		if (found != null) {
+			resultType = found;
 		}
 		return resultType;
 	}
@@ -722,14 +739,13 @@ public class CompassAnalyze {
 			name = name.substring(0,name.indexOf(" IDENTITY"));
 		}
 		String resolvedName = u.decodeIdentifier(u.resolveName(name));
-		if (CompassUtilities.UDDSymTab.containsKey(resolvedName)) {
-			resultType = CompassUtilities.UDDSymTab.get(resolvedName);
-		}
-		else {
+		String found = CompassUtilities.lookupSymTab(CompassSymTabFile.kindUDD, resolvedName);
+		if (found == null) {
 			String resolvedName2 = u.resolveName(resolvedName, "dbo");
-			if (CompassUtilities.UDDSymTab.containsKey(resolvedName2)) {
-				resultType = CompassUtilities.UDDSymTab.get(resolvedName2);
-			}
+			found = CompassUtilities.lookupSymTab(CompassSymTabFile.kindUDD, resolvedName2);
+		}
+		if (found != null) {
+			resultType = found;
 		}
 		if (resultType.isEmpty()) {
 			// is this a system datatype?
@@ -755,14 +771,13 @@ public class CompassAnalyze {
 	private String lookupProc(String name) {
 		String resultType = "";
 		String resolvedName = u.decodeIdentifier(u.resolveName(name.toUpperCase()));
-		if (CompassUtilities.procSymTab.containsKey(resolvedName)) {
-			resultType = CompassUtilities.procSymTab.get(resolvedName);
-		}
-		else {
+		String found = CompassUtilities.lookupSymTab(CompassSymTabFile.kindProc, resolvedName);
+		if (found == null) {
 			String resolvedName2 = u.resolveName(resolvedName, "dbo");
-			if (CompassUtilities.procSymTab.containsKey(resolvedName2)) {
-				resultType = CompassUtilities.procSymTab.get(resolvedName2);
-			}
+			found = CompassUtilities.lookupSymTab(CompassSymTabFile.kindProc, resolvedName2);
+		}
+		if (found != null) {
+			resultType = found;
 		}
 		return resultType;
 	}
@@ -771,20 +786,9 @@ public class CompassAnalyze {
 	private String lookupTrigOnView(String viewName) {
 		// u.appOutput("viewName=["+viewName+"] ");
 		viewName = u.resolveName(viewName);
-		// u.appOutput("viewName resolved=["+viewName+"] ");	    
-		String trigName = "";
-		for (String trig : CompassUtilities.trigSymTab.keySet()) {
-			String rawAttributes = CompassUtilities.trigSymTab.get(trig);
-			List<String> trigAttributes = new ArrayList<String>(Arrays.asList(rawAttributes.split(u.symTabSeparator2)));
-			String trigType = trigAttributes.get(0);			
-			String baseTable = trigAttributes.get(1);	
-			if (!trigType.equals("INSTEAD OF")) continue;	
-			// u.appOutput("trigAttributes=["+trigAttributes+"] baseTable=["+baseTable+"] viewName=["+viewName+"] ");		
-			if (baseTable.equals(viewName)) {
-				trigName = trig;
-				break;
-			}
-		}	
+		// u.appOutput("viewName resolved=["+viewName+"] ");
+		String trigName = CompassUtilities.lookupInsteadOfTrig(viewName);
+		if (trigName == null) trigName = "";
 		return trigName;
 	}
 
@@ -795,8 +799,9 @@ public class CompassAnalyze {
 		String colKey = u.makeColSymTabKey(resolvedObjName, colName);
 		//u.appOutput(u.thisProc()+"objName=["+objName+"] colName=["+colName+"]  resolvedName=["+resolvedObjName+"] colKey=["+colKey+"] ");
 		//u.dumpSymTab("lookupCol objName=["+objName+"] colName=["+colName+"]  resolvedName=["+resolvedObjName+"] colKey=["+colKey+"]");
-		if (CompassUtilities.colSymTab.containsKey(colKey)) {
-			resultType = CompassUtilities.colSymTab.get(colKey);
+		String found = CompassUtilities.lookupSymTab(CompassSymTabFile.kindCol, colKey);
+		if (found != null) {
+			resultType = found;
 		}
 		//u.appOutput(u.thisProc()+"resultType=["+resultType+"] ");
 		return resultType;
@@ -807,8 +812,9 @@ public class CompassAnalyze {
 		String parDft = "";
 		String resolvedName = u.decodeIdentifier(u.resolveName(objName.toUpperCase()));
 		String parNoKey = u.makeParSymTabKey(resolvedName, parNo);
-		if (CompassUtilities.parSymTab.containsKey(parNoKey)) {
-			parDft = CompassUtilities.parSymTab.get(parNoKey);
+		String found = CompassUtilities.lookupSymTab(CompassSymTabFile.kindPar, parNoKey);
+		if (found != null) {
+			parDft = found;
 		}
 		return parDft;
 	}
@@ -817,8 +823,9 @@ public class CompassAnalyze {
 		String parDft = "";
 		String resolvedName = u.decodeIdentifier(u.resolveName(objName.toUpperCase()));
 		String parNameKey = u.makeParSymTabKey(resolvedName, parName);
-		if (CompassUtilities.parSymTab.containsKey(parNameKey)) {
-			parDft = CompassUtilities.parSymTab.get(parNameKey);
+		String found = CompassUtilities.lookupSymTab(CompassSymTabFile.kindPar, parNameKey);
+		if (found != null) {
+			parDft = found;
 		}
 		return parDft;
 	}
@@ -1084,13 +1091,24 @@ public class CompassAnalyze {
 	}
 
 	//--- item capture entry point --------------------------------------------
+	// statusKey: the key of the .cfg lookup that the status came from (see featureStatusKey()), or null;
+	// it is ignored when the status was not taken from the .cfg file, e.g. Rewritten
 	protected void captureItem(String item, String itemDetail, String section, String sectionItem, String status, Integer lineNr) {
-		captureItem(item, itemDetail, section, sectionItem, status, lineNr, "");
+		captureItem(item, itemDetail, section, sectionItem, status, null, lineNr, "");
 	}
 	protected void captureItem(String item, String itemDetail, String section,  String sectionItem, String status, Integer lineNr, Integer misc) {
-		captureItem(item, itemDetail, section, sectionItem, status, lineNr, misc.toString());
+		captureItem(item, itemDetail, section, sectionItem, status, null, lineNr, misc.toString());
 	}
 	protected void captureItem(String item, String itemDetail, String section,  String sectionItem, String status, Integer lineNr, String misc) {
+		captureItem(item, itemDetail, section, sectionItem, status, null, lineNr, misc);
+	}
+	protected void captureItem(String item, String itemDetail, String section, String sectionItem, String status, String statusKey, Integer lineNr) {
+		captureItem(item, itemDetail, section, sectionItem, status, statusKey, lineNr, "");
+	}
+	protected void captureItem(String item, String itemDetail, String section,  String sectionItem, String status, String statusKey, Integer lineNr, Integer misc) {
+		captureItem(item, itemDetail, section, sectionItem, status, statusKey, lineNr, misc.toString());
+	}
+	protected void captureItem(String item, String itemDetail, String section,  String sectionItem, String status, String statusKey, Integer lineNr, String misc) {
 		assert u.supportOptions.contains(status): CompassUtilities.thisProc()+"invalid status value: ["+status+"] ";
 		if (!status.equals(u.ObjCountOnly) && !status.equals(u.ObjectReference)) u.constructsFound++;
 
@@ -1228,6 +1246,15 @@ public class CompassAnalyze {
 		// cleanup
 		itemLine = u.applyPatternAll(itemLine, ",\\s*,", ",");
 
+		// the lookup behind the status, so that a report can resolve the status for another Babelfish version
+		if ((statusKey != null) && CompassUtilities.cfgStatusOptions.contains(status)) {
+			try {
+				u.appendCaptureFile(CompassUtilities.statusKeyLineTag + statusKey);
+			} catch (Exception e) {
+				u.appOutput("Error writing to capture file");
+			}
+		}
+
 		//write record
 		try {
 			u.appendCaptureFile(itemLine);
@@ -1270,6 +1297,7 @@ public class CompassAnalyze {
 			}
 
 			String status = u.Supported;
+			String statusKey = null;
 			String objName = "";
 			if (sel.getAttributes().contains(" INTO ")) {
 				String tabType = CompassUtilities.getPatternGroup(sel.getAttributes(), " INTO (.*?) ", 1);
@@ -1280,10 +1308,11 @@ public class CompassAnalyze {
 
 				if (tabType.equals(GlobalTmpTableFmt)) {
 					status = featureSupportedInVersion(GlobalTmpTable);
+					statusKey = featureStatusKey(GlobalTmpTable);
 				}
 			}
 
-			captureItem(item, objName, DMLReportGroup, "", status, sel.getLineNr());
+			captureItem(item, objName, DMLReportGroup, "", status, statusKey, sel.getLineNr());
 
 			if (sel.getAttributes().contains(" VIEW ")) return;  //cases below do not apply
 			if (sel.getAttributes().contains(" RETURNS ")) return;  //cases below do not apply
@@ -1292,7 +1321,7 @@ public class CompassAnalyze {
 				// flag TOP without ORDER-BY, but not when it is in an EXISTS predicate
 				if (!sel.getAttributes().contains(" EXISTS ")) {
 					String statusTOP = featureSupportedInVersion(SelectTopWoOrderBy);
-					captureItem(SelectTopWoOrderBy, "", DMLReportGroup, "", statusTOP, sel.getLineNr());
+					captureItem(SelectTopWoOrderBy, "", DMLReportGroup, "", statusTOP, featureStatusKey(SelectTopWoOrderBy), sel.getLineNr());
 				}
 			}
 
@@ -1323,7 +1352,7 @@ public class CompassAnalyze {
 				}
 				if (!SelectIntoVariant.isEmpty()) {
 					String siStatus = featureSupportedInVersion(SelectInto, SelectIntoVariant);
-					captureItem(SelectIntoVariantFmt, "", DMLReportGroup, "", siStatus, sel.getLineNr());
+					captureItem(SelectIntoVariantFmt, "", DMLReportGroup, "", siStatus, featureStatusKey(SelectInto, SelectIntoVariant), sel.getLineNr());
 				}
 			}
 
@@ -1350,19 +1379,20 @@ public class CompassAnalyze {
 	public void CaptureXMLNameSpaces(RuleContext parent, String stmt, int lineNr) {
 		if (parent == null) {
 			String status = featureSupportedInVersion(XMLFeatures,"WITH XMLNAMESPACES");
-			captureItem("WITH XMLNAMESPACES", "", XMLFeatures, "WITH XMLNAMESPACES", status, lineNr);
+			captureItem("WITH XMLNAMESPACES", "", XMLFeatures, "WITH XMLNAMESPACES", status, featureStatusKey(XMLFeatures,"WITH XMLNAMESPACES"), lineNr);
 		}
 		else {
 			// this may not be relevant anymore after the grammar incorporates XMLNAMESPACES as part of CTE
 			if (hasParent(parent,"declare_xmlnamespaces_statement")) {
 				String status = featureSupportedInVersion(XMLFeatures,"WITH XMLNAMESPACES");
-				captureItem("WITH XMLNAMESPACES.."+stmt, "", XMLFeatures, "WITH XMLNAMESPACES", status, lineNr);
+				captureItem("WITH XMLNAMESPACES.."+stmt, "", XMLFeatures, "WITH XMLNAMESPACES", status, featureStatusKey(XMLFeatures,"WITH XMLNAMESPACES"), lineNr);
 			}
 		}
 	}
 
 	private void captureXMLFeature (String stmt, String feature, String fmt, int lineNr) {
 		String status = featureSupportedInVersion(XMLFeatures, feature);
+		String statusKey = featureStatusKey(XMLFeatures, feature);
 		String compCol = "";
 		if (inCompCol) {
 			// this is a XML method call inside a computed column
@@ -1370,13 +1400,15 @@ public class CompassAnalyze {
 			if (status.equals(u.Supported)) {
 				String statusUDF = featureSupportedInVersion(CompColFeatures, cfgXmlMethodCall);
 				status = statusUDF;
+				statusKey = featureStatusKey(CompColFeatures, cfgXmlMethodCall);
 			}
 		}
-		captureItem(stmt+feature+fmt+compCol, "", XMLFeatures, feature, status, lineNr, "0");
+		captureItem(stmt+feature+fmt+compCol, "", XMLFeatures, feature, status, statusKey, lineNr, "0");
 	}
 
 	private void captureHIERARCHYIDFeature (String stmt, String feature, String fmt, int lineNr) {
 		String status = featureSupportedInVersion(HIERARCHYIDFeatures, feature);
+		String statusKey = featureStatusKey(HIERARCHYIDFeatures, feature);
 		String compCol = "";
 		if (inCompCol) {
 			// this is a HIERARCHYID method call inside a computed column
@@ -1384,11 +1416,12 @@ public class CompassAnalyze {
 			if (status.equals(u.Supported)) {
 				String statusUDF = featureSupportedInVersion(CompColFeatures, cfgHierachyIdMethodCall);
 				status = statusUDF;
+				statusKey = featureStatusKey(CompColFeatures, cfgHierachyIdMethodCall);
 			}
 		}
 		// method names are case-sensitive, apply correct case
 		feature = CompassUtilities.HIERARCHYIDmethodsFmt.get(CompassUtilities.HIERARCHYIDmethods.indexOf(feature.toUpperCase()));
-		captureItem(stmt+feature+fmt+compCol, "", HIERARCHYIDFeatures, feature, status, lineNr, "0");
+		captureItem(stmt+feature+fmt+compCol, "", HIERARCHYIDFeatures, feature, status, statusKey, lineNr, "0");
 	}
 
 	private void captureDoubleQuotedString(String s, int startLine, int startPos, int stopLine, int stopPos, int startIndex, int stopIndex) {
@@ -1423,7 +1456,7 @@ public class CompassAnalyze {
 				addRewrite(item);
 			}
 		}
-		captureItem(item, "", "", "", status, startLine);
+		captureItem(item, "", "", "", status, featureStatusKey(DoubleQuotedString, itemChk), startLine);
 	}
 
 	// --- handling SET QUOTED_IDENTIFIER ----------------------------------------------
@@ -1444,7 +1477,7 @@ public class CompassAnalyze {
 		String status = featureSupportedInVersion(SetQuotedIdInBatch);
 		String warningMessage = "";
 		if (!status.equals(u.Supported)) warningMessage = ": applies at next batch";
-		captureItem("SET QUOTED_IDENTIFIER "+on_off+", before end of batch" + warningMessage, "", "", "", status, ctx.start.getLine());
+		captureItem("SET QUOTED_IDENTIFIER "+on_off+", before end of batch" + warningMessage, "", "", "", status, featureStatusKey(SetQuotedIdInBatch), ctx.start.getLine());
 	}
 
 	// Check if the subsequent statements in the batch are session-level SET statements (i.e. the set_special rule)
@@ -1516,6 +1549,16 @@ public class CompassAnalyze {
 
 	// ---------------------------------------------------------------------------------
 
+	// the statements pass1Analysis looks at, by their leading keyword or name: CREATE/ALTER, USE, SET QUOTED_IDENTIFIER
+	// and sp_addtype. A batch without any of these adds nothing to the symbol table, so it need not be parsed in pass 1.
+	// A match in a comment or string only means the batch is parsed anyway. Keep this in line with pass1Analysis
+	private static final Pattern pass1KeywordPattern = Pattern.compile(
+		"(?<![a-z_@#$])(CREATE|ALTER|USE|QUOTED_IDENTIFIER|SP_ADDTYPE)(?![a-z0-9_@#$])", Pattern.CASE_INSENSITIVE);
+
+	public static boolean pass1Needed(CharSequence batchText) {
+		return pass1KeywordPattern.matcher(batchText).find();
+	}
+
 	public void analyzeTree(TSQLParser.Tsql_fileContext tree, Integer batchNr, Integer batchLines, Integer pass)  {
 		final StringBuilder visitTracker = new StringBuilder("");
 		Map<Integer, CompassItem> stmt = new HashMap<Integer, CompassItem>();
@@ -1879,6 +1922,7 @@ public class CompassAnalyze {
 						// is this a known global variable, or a user-defined variable starting with '@@' ?
 						if (featureExists(AtAtVariable, varName)) {
 							String status = u.NotSupported;
+							String statusKey = null;
 							String msg = "";
 							if (type.equals("declare") || type.equals("named_arg")) {
 								// predefined @@globalvar names not allowed here; in older BBF versions it would not raise an error but would produce incorrect results
@@ -1888,9 +1932,10 @@ public class CompassAnalyze {
 							}
 							else {
 								status = featureSupportedInVersion(AtAtVariable, varName);
+								statusKey = featureStatusKey(AtAtVariable, varName);
 								msg = globalAtAtVarReference;
 							}
-							captureItem(varName+msg, "", AtAtVariable, varName, status, lineNr);
+							captureItem(varName+msg, "", AtAtVariable, varName, status, statusKey, lineNr);
 						}
 						else {
 							// it's a user-defined name
@@ -1900,7 +1945,7 @@ public class CompassAnalyze {
 							if (type.equals("named_arg")) varTypeReport = NamedArgAtAt;
 							
 							String status = featureSupportedInVersion(VarDeclareAtAt);
-							captureItem(varTypeReport, varName, "", varName, status, lineNr);
+							captureItem(varTypeReport, varName, "", varName, status, featureStatusKey(VarDeclareAtAt), lineNr);
 						}
 					}
 				}
@@ -2320,6 +2365,7 @@ public class CompassAnalyze {
 			}
 			private void captureBIF(String funcName, int lineNr, String options, Integer nrArgs, List<TSQLParser.ExpressionContext> argList, List<String> argListText, Integer startLine, Integer startCharPositionInLine, Integer stopLine, Integer stopCharPositionInLine, Integer startIndex, Integer stopIndex) {
 				String status = u.NotSupported;
+				String statusKey = null;
 				String statusArgN = u.NotSupported;
 				String groupCapture = BuiltInFunctions;  // used only for STRING_AGG()
 				int argNum = 0;
@@ -2334,6 +2380,7 @@ public class CompassAnalyze {
 
 				if (featureExists(BuiltInFunctions, funcName)) {
 					status = featureSupportedInVersion(BuiltInFunctions, funcName);
+					statusKey = featureStatusKey(BuiltInFunctions, funcName);
 					// any argument needs to be validated?
 					String argN = cfg.featureExistsArg(funcName);
 
@@ -2351,6 +2398,7 @@ public class CompassAnalyze {
 							String argStrValidate = mapBIFArgStrValidate(funcName, nrArgs, argStr);
 							String argStrReport = mapBIFArgStrReport(funcName, argStr, argStrValidate);
 							statusArgN = status = featureArgSupportedInVersion(funcName, argN, argStrValidate);
+							statusKey = featureArgStatusKey(funcName, argN, argStrValidate);
 							funcNameReport = funcName + "("+ argStrReport.toLowerCase()+")";
 
 							String argReportGrp = featureGroup(funcName, u.stripStringQuotes(argStrValidate));
@@ -2371,6 +2419,7 @@ public class CompassAnalyze {
 							}
 							if (status.equals(u.Supported)) {
 								status = statusNrArg;
+								statusKey = featureStatusKey(funcName+withNArgumentValidateStr, nrArgs.toString());
 							}
 						}
 					}
@@ -2420,6 +2469,7 @@ public class CompassAnalyze {
 					if (!statusCC.equals(u.Supported)) {
 						if (status.equals(u.Supported)) {
 							status = statusCC;
+							statusKey = featureStatusKey(CompColFeatures, funcName);
 						}
 					}
 				}
@@ -2432,7 +2482,7 @@ public class CompassAnalyze {
 						funcNameReport = StringAggWithinGroup;
 						String statusWG = featureSupportedInVersion(StringAggWithinGroup);
 						if (!statusWG.equals(u.Supported)) {
-							captureItem(StringAggWithinGroup, "", AggregateFunctions, funcName, statusWG, lineNr);
+							captureItem(StringAggWithinGroup, "", AggregateFunctions, funcName, statusWG, featureStatusKey(StringAggWithinGroup), lineNr);
 							captured = true;
 						}
 					}
@@ -2456,7 +2506,7 @@ public class CompassAnalyze {
 							if (featureExists(UDDForIdentity)) {
 								statusIDtype = featureSupportedInVersion(UDDForIdentity, "IDENTITY()");
 								if (!statusIDtype.equals(u.Supported)) {
-									captureItem(UDDForIdentity + "() function, IDENTITY("+idType+")", idType, UDDatatypes, funcName, statusIDtype, lineNr);
+									captureItem(UDDForIdentity + "() function, IDENTITY("+idType+")", idType, UDDatatypes, funcName, statusIDtype, featureStatusKey(UDDForIdentity, "IDENTITY()"), lineNr);
 								}
 							}
 						}
@@ -2465,7 +2515,7 @@ public class CompassAnalyze {
 								if (featureExists(UDDForIdentity)) {
 									statusIDtype = featureSupportedInVersion(UDDForIdentity, "IDENTITY(TINYINT)");
 									if (!statusIDtype.equals(u.Supported)) {
-										captureItem(TinyintForIdentity, idType, UDDatatypes, funcName, statusIDtype, lineNr);
+										captureItem(TinyintForIdentity, idType, UDDatatypes, funcName, statusIDtype, featureStatusKey(UDDForIdentity, "IDENTITY(TINYINT)"), lineNr);
 									}
 								}
 							}
@@ -2479,7 +2529,7 @@ public class CompassAnalyze {
 							if (idTypeFmt.startsWith("NUMERIC(") || idTypeFmt.startsWith("DECIMAL(") || idTypeFmt.startsWith("DEC(")) {
 								String statusNumericBigint = featureSupportedInVersion("NUMERIC datatype for IDENTITY", "IDENTITY()");
 								if (!statusNumericBigint.equals(u.Supported)) {
-									captureItem("IDENTITY column created as BIGINT, declared as "+idTypeFmt, "", Datatypes, "", statusNumericBigint, lineNr);
+									captureItem("IDENTITY column created as BIGINT, declared as "+idTypeFmt, "", Datatypes, "", statusNumericBigint, featureStatusKey("NUMERIC datatype for IDENTITY", "IDENTITY()"), lineNr);
 								}
 							}
 						}
@@ -2505,6 +2555,7 @@ public class CompassAnalyze {
 						// report culture param if present
 						String culture = argListText.get(2);
 						String statusCulture = u.NotSupported;
+						String statusCultureKey = null;
 						if (culture.charAt(0) == '@') {
 							culture = "@var";
 							statusCulture = u.ReviewManually;
@@ -2516,6 +2567,7 @@ public class CompassAnalyze {
 						else {
 							culture = u.stripStringQuotes(culture);
 							statusCulture = featureSupportedInVersion(FormatCulture, culture);
+							statusCultureKey = featureStatusKey(FormatCulture, culture);
 							//format culture arg
 							culture = culture.toLowerCase();
 							int rix = culture.lastIndexOf("-");
@@ -2525,7 +2577,7 @@ public class CompassAnalyze {
 							culture = "'" + culture + "'";
 						}
 						String cultureReport = "FORMAT() culture "+culture;
-						captureItem(cultureReport, funcDetail, BuiltInFunctions, funcName, statusCulture, lineNr);
+						captureItem(cultureReport, funcDetail, BuiltInFunctions, funcName, statusCulture, statusCultureKey, lineNr);
 					}
 				}
 
@@ -2552,6 +2604,7 @@ public class CompassAnalyze {
 							String statusContains = featureSupportedInVersion(FullTextContains, options);
 							if (!statusContains.equals(u.Supported)) {
 								status = statusContains;
+								statusKey = featureStatusKey(FullTextContains, options);
 							}
 						}
 					}
@@ -2565,6 +2618,7 @@ public class CompassAnalyze {
 								// If it's a single word, assume we're good in case CONTAINS() is not-not-supported
 								if (!status.equals(u.NotSupported)) {
 									status = u.Supported;
+									statusKey = null;
 								}
 							}
 							else {
@@ -2581,13 +2635,16 @@ public class CompassAnalyze {
 								if (featureExists(FullTextContains, keywd1)) {
 									if (!status.equals(u.NotSupported)) {
 										String statusContains = featureSupportedInVersion(FullTextContains, keywd1);
+										String statusContainsKey = featureStatusKey(FullTextContains, keywd1);
 										if (statusContains.equals(u.Supported)) {
 											if (!keywd2.isEmpty() && featureExists(FullTextContains, keywd2)) {
 												statusContains = featureSupportedInVersion(FullTextContains, keywd2);
+												statusContainsKey = featureStatusKey(FullTextContains, keywd2);
 											}
 										}
 										if (!statusContains.equals(u.Supported)) {
 											status = statusContains;
+											statusKey = statusContainsKey;
 										}
 									}
 								}
@@ -2667,7 +2724,7 @@ public class CompassAnalyze {
 				}
 
 				if (!captured) {
-					captureItem(funcNameReport, funcDetail, groupCapture, funcName, status, lineNr);
+					captureItem(funcNameReport, funcDetail, groupCapture, funcName, status, statusKey, lineNr);
 				}
 			}
 
@@ -2738,7 +2795,7 @@ public class CompassAnalyze {
 							}
 						}
 
-						captureItem(funcNameReportNumDate, "argument #"+argNum, NumericAsDateTime, "", statusNumDate, lineNr);
+						captureItem(funcNameReportNumDate, "argument #"+argNum, NumericAsDateTime, "", statusNumDate, featureStatusKey(NumericAsDateTime, funcName), lineNr);
 					}
 				}
 				else if (isNumeric(dataType)) {
@@ -2747,7 +2804,7 @@ public class CompassAnalyze {
 					if (isDateTime(exprType)) {
 						String statusDateToNum = featureSupportedInVersion(DateTimeToNumeric, funcName);
 						String funcNameReportDateNum = DateTimeToNumeric + " in " + funcNameReport;
-						captureItem(funcNameReportDateNum, "", DateTimeToNumeric, "", statusDateToNum, lineNr);
+						captureItem(funcNameReportDateNum, "", DateTimeToNumeric, "", statusDateToNum, featureStatusKey(DateTimeToNumeric, funcName), lineNr);
 					}
 				}
 				else {
@@ -2757,7 +2814,7 @@ public class CompassAnalyze {
 						if (isDateTime(exprType)) {  // T-SQL can convert any datetime type to binary, not just [SMALL]DATETIME
 							String statusDateToBin = featureSupportedInVersion(DateTimeToBinary, funcName);
 							String funcNameReportDateBin = DateTimeToBinary + " in " + funcNameReport;
-							captureItem(funcNameReportDateBin, "", DateTimeToBinary, "", statusDateToBin, lineNr);
+							captureItem(funcNameReportDateBin, "", DateTimeToBinary, "", statusDateToBin, featureStatusKey(DateTimeToBinary, funcName), lineNr);
 						}
 					}
 					else if (isBinary(exprType)) {
@@ -2767,7 +2824,7 @@ public class CompassAnalyze {
 							// remove any arguments from the call for display
 							funcNameReport = u.applyPatternFirst(funcNameReport, "^(.*\\().*?(\\).*)$", "$1$2");
 							String funcNameReportBinDate = BinaryAsDateTime + " in " + funcNameReport;
-							captureItem(funcNameReportBinDate, "argument #"+argNum, BinaryAsDateTime, "", statusBinDate, lineNr);
+							captureItem(funcNameReportBinDate, "argument #"+argNum, BinaryAsDateTime, "", statusBinDate, featureStatusKey(BinaryAsDateTime, funcName), lineNr);
 						}
 					}
 				}
@@ -2799,7 +2856,7 @@ public class CompassAnalyze {
 							}
 						}
 
-						captureItem(NumericDateTimeVarAssign, name, NumericAsDateTime, "", statusNumDate, lineNr);
+						captureItem(NumericDateTimeVarAssign, name, NumericAsDateTime, "", statusNumDate, featureStatusKey(NumericDateTimeVarAssign), lineNr);
 					}
 				}
 			}
@@ -2983,7 +3040,7 @@ public class CompassAnalyze {
 
 					if (hasPercent) {
 						String status = featureSupportedInVersion(SelectTopPercent, topClauseTest);
-						captureItem("SELECT TOP "+topClauseText+ " PERCENT", topClauseCopy, SelectTopPercent, topClauseTest, status, ctx.top_clause().start.getLine());
+						captureItem("SELECT TOP "+topClauseText+ " PERCENT", topClauseCopy, SelectTopPercent, topClauseTest, status, featureStatusKey(SelectTopPercent, topClauseTest), ctx.top_clause().start.getLine());
 					}
 					else {
 						captureItem("SELECT TOP "+topClauseText, topClauseCopy, DMLReportGroup, "", u.Supported, ctx.top_clause().start.getLine());
@@ -2991,21 +3048,21 @@ public class CompassAnalyze {
 
 					if (ctx.top_clause().TIES() != null) {
 						String status = featureSupportedInVersion(SelectTopWithTies);
-						captureItem(SelectTopWithTies, topClauseCopy, SelectTopWithTies, "", status, ctx.top_clause().start.getLine());
+						captureItem(SelectTopWithTies, topClauseCopy, SelectTopWithTies, "", status, featureStatusKey(SelectTopWithTies), ctx.top_clause().start.getLine());
 					}
 
 					// capture SELECT TOP inside a multi-stmt TUDF/TVF (but not in subquery): can be created but not called
 					if (inMultiStmtTUDF) {
 						if (!hasParent(ctx.parent,"subquery")) {
 							String status = featureSupportedInVersion(SelectTopInTUDF);
-							captureItem(SelectTopInTUDF, "", SelectTopInTUDF, "", status, ctx.top_clause().start.getLine());
+							captureItem(SelectTopInTUDF, "", SelectTopInTUDF, "", status, featureStatusKey(SelectTopInTUDF), ctx.top_clause().start.getLine());
 						}
 					}
 				}
 
 				if (ctx.groupByAll != null) {
 					String status = featureSupportedInVersion(GroupByAll);
-					captureItem(GroupByAll, ctx.getText(), GroupByAll, "", status, ctx.start.getLine());
+					captureItem(GroupByAll, ctx.getText(), GroupByAll, "", status, featureStatusKey(GroupByAll), ctx.start.getLine());
 				}
 
 				CaptureXMLNameSpaces(ctx.parent, "SELECT", ctx.start.getLine());
@@ -3181,7 +3238,7 @@ public class CompassAnalyze {
 												}
 											}
 
-											captureItem(tag, "", AggregateFunctions, "", xStatus, ctx.start.getLine());
+											captureItem(tag, "", AggregateFunctions, "", xStatus, featureStatusKey(SyntaxIssues, StringAggXMLPath), ctx.start.getLine());
 
 											if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 											return null;	// any other constructs in the subquery will not be reported -- can we fix that?
@@ -3396,7 +3453,7 @@ public class CompassAnalyze {
 							}
 						}
 					}
-					captureItem(itemTxt, "", ParamValueDEFAULT, "procedure", statusDft, ctx.start.getLine());
+					captureItem(itemTxt, "", ParamValueDEFAULT, "procedure", statusDft, featureStatusKey(ParamValueDEFAULT, "procedure"), ctx.start.getLine());
 				}
 
 				if (ctx.id() != null) {
@@ -3437,7 +3494,7 @@ public class CompassAnalyze {
 									}
 								}
 
-								captureItem(item, s, UnQuotedString, "", status, startLine);
+								captureItem(item, s, UnQuotedString, "", status, featureStatusKey(UnQuotedString, type), startLine);
 							}
 						}
 					}
@@ -3446,12 +3503,14 @@ public class CompassAnalyze {
 
 			private void captureAtAtErrorValue(Integer exprInt, String via, String op, int lineNr) {
 				String status = featureSupportedInVersion(AtAtErrorValueRef, exprInt.toString());
+				String statusKey = featureStatusKey(AtAtErrorValueRef, exprInt.toString());
 				String usrDefined = "";
 				if (exprInt >= 50000) {
 					usrDefined = " (user-defined)";
 					status = u.Supported;
+					statusKey = null;
 				}
-				captureItem(AtAtErrorValueRef+ " " +String.format("%6d",exprInt)+usrDefined+via, via, AtAtErrorValueRef, exprInt.toString(), status, lineNr);
+				captureItem(AtAtErrorValueRef+ " " +String.format("%6d",exprInt)+usrDefined+via, via, AtAtErrorValueRef, exprInt.toString(), status, statusKey, lineNr);
 			}
 
 			private void captureAtAtErrorValueRef (String varName, TSQLParser.PredicateContext ctx) {
@@ -3588,7 +3647,7 @@ public class CompassAnalyze {
 										else {
 											addRewrite(item);
 										}
-										captureItem(item, op+"@@", OperatorsReportGroup, "", status, ctx.start.getLine());
+										captureItem(item, op+"@@", OperatorsReportGroup, "", status, featureStatusKey(PGOpWhitespace, op+"@@"), ctx.start.getLine());
 									}
 								}
 							}
@@ -3617,7 +3676,7 @@ public class CompassAnalyze {
 						if (opOJ.equals("*=")) typeOJ = "Left OJ";
 						if (!opOJ.isEmpty()) {
 							String statusOJ = featureSupportedInVersion(TSQLOJ, typeOJ);
-							captureItem("T-SQL " + typeOJ.replaceAll("OJ", "Outer Join") + " " + opOJ, "", TSQLOJ, "", statusOJ, ctx.comparison_operator().start.getLine());
+							captureItem("T-SQL " + typeOJ.replaceAll("OJ", "Outer Join") + " " + opOJ, "", TSQLOJ, "", statusOJ, featureStatusKey(TSQLOJ, typeOJ), ctx.comparison_operator().start.getLine());
 						}
 					}
 
@@ -3625,14 +3684,17 @@ public class CompassAnalyze {
 						boolean captured = false;
 						String escapeClause = "";
 						String statusODBCEscape = u.Supported;
+						String statusODBCEscapeKey = null;
 						String statusLike = u.Supported;
 						String status = statusLike;
+						String statusKey = null;
 						String itemReport = "LIKE operator";
 						if (ctx.like_escape_clause() != null) {
 							escapeClause = ", with ESCAPE";
 							if (ctx.like_escape_clause().L_CURLY() != null) {
 								escapeClause = ", with ODBC {ESCAPE}";
 								statusODBCEscape = featureSupportedInVersion(ODBCEscape);
+								statusODBCEscapeKey = featureStatusKey(ODBCEscape);
 								//u.appOutput(u.thisProc()+"statusODBCEscape=["+statusODBCEscape+"] ");
 							}
 						}
@@ -3661,9 +3723,11 @@ public class CompassAnalyze {
 									//u.appOutput(u.thisProc()+"LIKE [] found: x=["+ctx.expression().get(1).getText()+"] ");
 									statusLike = featureSupportedInVersion(LikeSquareBracketsCfg);
 									status = statusLike;
+									statusKey = featureStatusKey(LikeSquareBracketsCfg);
 									if (!statusODBCEscape.equals(u.Supported)) {
 										if (!statusLike.equals(u.NotSupported)) {
 											status = statusODBCEscape;
+											statusKey = statusODBCEscapeKey;
 										}
 										if (!statusLike.equals(u.Supported)) {
 											escapeClause = ""; // don't report this if LIKE [...] is not supported itself
@@ -3682,7 +3746,10 @@ public class CompassAnalyze {
 						if (!captured) {
 							// report supported LIKE operator but take ESCAPE into account
 							statusLike = u.Supported;
-							if (!statusODBCEscape.equals(u.Supported)) status = statusODBCEscape;
+							if (!statusODBCEscape.equals(u.Supported)) {
+								status = statusODBCEscape;
+								statusKey = statusODBCEscapeKey;
+							}
 							itemReport = "LIKE operator"+escapeClause;
 						}
 
@@ -3698,7 +3765,7 @@ public class CompassAnalyze {
 								addRewrite(ODBCEscape+", with LIKE operator");
 							}
 						}
-						captureItem(itemReport, "",  OperatorsReportGroup, "", status, ctx.LIKE().getSymbol().getLine());
+						captureItem(itemReport, "",  OperatorsReportGroup, "", status, statusKey, ctx.LIKE().getSymbol().getLine());
 					}
 				}
 				visitChildren(ctx);
@@ -3744,9 +3811,11 @@ public class CompassAnalyze {
 				String UDDdatatype = "";
 				String section = UDDatatypes;
 				String statusDataType = u.Supported;
+				String statusDataTypeKey = null;
 				if (ctx.external_type() != null) {
 					// EXTERNAL NAME
 					statusDataType = featureSupportedInVersion(Datatypes, "EXTERNAL NAME");
+					statusDataTypeKey = featureStatusKey(Datatypes, "EXTERNAL NAME");
 					UDDdatatype = "EXTERNAL NAME";
 				}
 				else if (ctx.FROM() != null) {
@@ -3754,6 +3823,7 @@ public class CompassAnalyze {
 					UDDdatatype = u.normalizeName(ctx.data_type().getText().toUpperCase(), "datatype");
 					if (featureExists(Datatypes, getBaseDataType(UDDdatatype))) {
 						statusDataType = featureSupportedInVersion(Datatypes, getBaseDataType(UDDdatatype));
+						statusDataTypeKey = featureStatusKey(Datatypes, getBaseDataType(UDDdatatype));
 					}
 					else {
 						// datatype is not listed, means: supported
@@ -3769,7 +3839,7 @@ public class CompassAnalyze {
 					u.setContext("TABLE", UDDname);
 				}
 				if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"UDD "+ ctx.getText()+", UDDname=["+UDDname+"] UDDdatatype=["+UDDdatatype+"] ", u.debugPtree);
-				captureItem("CREATE TYPE, "+UDDdatatype, UDDname, section, "", statusDataType, ctx.start.getLine(), 0);
+				captureItem("CREATE TYPE, "+UDDdatatype, UDDname, section, "", statusDataType, statusDataTypeKey, ctx.start.getLine(), 0);
 
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -3792,7 +3862,7 @@ public class CompassAnalyze {
 
 						String chk = "index ON "+schema+"table";
 						String status = featureSupportedInVersion(DropIndex, chk);
-						captureItem(DropIndex + " " + chk, ixName + " ON " +objName, DropIndex, "", status, ix.start.getLine());
+						captureItem(DropIndex + " " + chk, ixName + " ON " +objName, DropIndex, "", status, featureStatusKey(DropIndex, chk), ix.start.getLine());
 					}
 					captureIndexOptions("", "", DropIndex, ctx.with_index_options());
 				}
@@ -3820,14 +3890,14 @@ public class CompassAnalyze {
 									String rewriteText = ixName + " ON " + objName;
 									if (addRewrite(DDLReportGroup, ix.getText(), u.rewriteTypeReplace, rewriteText, ix.start.getLine(), ix.start.getCharPositionInLine(), ix.start.getLine(), ctx.start.getCharPositionInLine(), ix.start.getStartIndex(), ix.stop.getStopIndex()))
 										status = u.Rewritten;
-									captureItem(s, "", DropIndex, "", status, ix.start.getLine());
+									captureItem(s, "", DropIndex, "", status, featureStatusKey(DropIndex, chk), ix.start.getLine());
 								}
 								else {
 									addRewrite(s);
 								}
 							}
 						}
-						captureItem(s, ixName + " ON " +objName, DropIndex, "", status, ix.start.getLine());
+						captureItem(s, ixName + " ON " +objName, DropIndex, "", status, featureStatusKey(DropIndex, chk), ix.start.getLine());
 					}
 					captureIndexOptions("", "", DropIndex, ctx.with_index_options());
 				}
@@ -3885,23 +3955,27 @@ public class CompassAnalyze {
 
 			private void captureDropObject(String objType, int nrDropped, List<String> nameList, TSQLParser.If_existsContext if_exists, String reportGroup, int lineNr) {
 				String status = u.Supported; // true for tables, views, etc.
+				String statusKey = null;
 				String nrDroppedFmt = "";
 				String ifExists = "";
 				objType = objType.toUpperCase();
 				if (nrDropped > 1) {
 					status = featureSupportedInVersion(DropMultipleObjects, objType);
+					statusKey = featureStatusKey(DropMultipleObjects, objType);
 					nrDroppedFmt = ", >1 object";
 				}
 				if (if_exists != null) {
 					ifExists = " IF EXISTS";
 					if (status.equals(u.Supported)) {
 						status = featureSupportedInVersion(DropIfExists, objType);
+						statusKey = featureStatusKey(DropIfExists, objType);
 					}
 				}
 				if (reportGroup.isEmpty()) reportGroup = DDLReportGroup;
 				if (status.equals(u.Supported)) {
 					if (featureExists(MiscObjects, objType)) {
 						status = featureSupportedInVersion(MiscObjects, objType);
+						statusKey = featureStatusKey(MiscObjects, objType);
 					}
 				}
 				// don't report IF EXISTS separately if supported
@@ -3910,7 +3984,7 @@ public class CompassAnalyze {
 						ifExists = "";
 					}
 				}
-				captureItem("DROP "+objType+ifExists+nrDroppedFmt, nameList.get(0).toUpperCase(), reportGroup, "", status, lineNr);
+				captureItem("DROP "+objType+ifExists+nrDroppedFmt, nameList.get(0).toUpperCase(), reportGroup, "", status, statusKey, lineNr);
 				if (nrDropped > 1) {
 					for (int i=1; i<nrDropped; i++)
 					captureItem("DROP "+objType+ifExists+nrDroppedFmt, nameList.get(i).toUpperCase(), reportGroup, "", u.ObjectReference, lineNr);
@@ -3973,7 +4047,7 @@ public class CompassAnalyze {
 											addRewrite(s);
 										}
 									}
-									captureItem(s, "", SyntaxIssues, "", status, collist.get(i).stop.getLine());
+									captureItem(s, "", SyntaxIssues, "", status, featureStatusKey(SyntaxIssues, NoCommaInColumnWithTableConstraint), collist.get(i).stop.getLine());
 								}
 
 								i++; //skip over the table_constraint
@@ -3999,9 +4073,11 @@ public class CompassAnalyze {
 				CaptureIdentifier(tableName, tableName, "CREATE TABLE", ctx.start.getLine());
 
 				String status = u.Supported;
+				String statusKey = null;
 				String tableType = getTmpTableType(tableName);
 				if (tableType.equals(GlobalTmpTableFmt)) {
 					status = featureSupportedInVersion(GlobalTmpTable);
+					statusKey = featureStatusKey(GlobalTmpTable);
 				}
 
 				// ToDo: check for multiple constraints in a column if there's one FK involved
@@ -4044,10 +4120,11 @@ public class CompassAnalyze {
 					tableType = "(temporal)";
 					if (status.equals(u.Supported)) {
 						status = featureSupportedInVersion(TemporalTable);
+						statusKey = featureStatusKey(TemporalTable);
 					}
 				}
 				String item = "CREATE TABLE" + " " +tableType;
-				captureItem(item, tableName.toUpperCase(), DDLReportGroup, "", status, ctx.CREATE().getSymbol().getLine(), 0);
+				captureItem(item, tableName.toUpperCase(), DDLReportGroup, "", status, statusKey, ctx.CREATE().getSymbol().getLine(), 0);
 
 				// clear context
 				u.resetSubContext();
@@ -4106,7 +4183,7 @@ public class CompassAnalyze {
 
 				if (ctx.REFERENCES() != null) {
 					String status = featureSupportedInVersion(FKrefDBname);
-					captureItem(FKrefDBname, riName, FKrefDBname, "", status, ctx.REFERENCES().getSymbol().getLine());
+					captureItem(FKrefDBname, riName, FKrefDBname, "", status, featureStatusKey(FKrefDBname), ctx.REFERENCES().getSymbol().getLine());
 				}
 
 				if (ctx.UNIQUE() != null) {
@@ -4166,7 +4243,7 @@ public class CompassAnalyze {
 					String tableName = ctx.table_name().getText();
 					if (!u.getDBNameFromID(tableName).isEmpty()) {
 						String status = featureSupportedInVersion(FKrefDBname);
-						captureItem(FKrefDBname, riName, FKrefDBname, "", status, ctx.REFERENCES().getSymbol().getLine());
+						captureItem(FKrefDBname, riName, FKrefDBname, "", status, featureStatusKey(FKrefDBname), ctx.REFERENCES().getSymbol().getLine());
 					}
 				}
 
@@ -4199,7 +4276,7 @@ public class CompassAnalyze {
 					if (colDataType.endsWith(" NULL")) {
 						String status = featureSupportedInVersion(UniqueOnNullableCol, typeChk);
 						String typeFmt = type;
-						captureItem(UniqueOnNullableCol+" with "+typeFmt, tabcol, "", UniqueOnNullableCol, status, lineNr);
+						captureItem(UniqueOnNullableCol+" with "+typeFmt, tabcol, "", UniqueOnNullableCol, status, featureStatusKey(UniqueOnNullableCol, typeChk), lineNr);
 						//u.appOutput(CompassUtilities.thisProc()+"found typeChk=["+typeChk+"] on nullable column tabcol=["+tabcol+"] status=["+status+"] ");
 					}
 					return;
@@ -4220,7 +4297,7 @@ public class CompassAnalyze {
 						String typeFmt = "";
 						if (status.equals(u.ReviewSemantics)) typeFmt = type + ", on multiple columns";
 						else typeFmt = type;
-						captureItem(UniqueOnNullableCol+" with "+typeFmt, tabcol, "", UniqueOnNullableCol, status, col.start.getLine());
+						captureItem(UniqueOnNullableCol+" with "+typeFmt, tabcol, "", UniqueOnNullableCol, status, featureStatusKey(UniqueOnNullableCol, typeChk), col.start.getLine());
 						//u.appOutput(CompassUtilities.thisProc()+"found typeChk=["+typeChk+"] on nullable column tabcol=["+tabcol+"] status=["+status+"] ");
 						break;
 					}
@@ -4247,7 +4324,7 @@ public class CompassAnalyze {
 				String baseObjType = lookupTableView(tableName.toUpperCase());  // returns only table or view (or blank)
 				if (baseObjType.equals("VIEW")) {
 					String status = featureSupportedInVersion(IndexedView);
-					captureItem(IndexedView+" (materialized view)", ixName, DDLReportGroup, IndexedView, status, ctx.start.getLine(), 0);
+					captureItem(IndexedView+" (materialized view)", ixName, DDLReportGroup, IndexedView, status, featureStatusKey(IndexedView), ctx.start.getLine(), 0);
 					captureItem("CREATE " +"indexed view (materialized view)", "", u.ObjCountOnly, "", u.ObjCountOnly, ctx.start.getLine(), 0);
 				}
 
@@ -4271,7 +4348,7 @@ public class CompassAnalyze {
 						}
 					}
 					String status = featureSupportedInVersion(IndexAttribute, type);
-					captureItem(type + " index: " + hint, ixName, DDLReportGroup, type, status, ctx.start.getLine(), 0);
+					captureItem(type + " index: " + hint, ixName, DDLReportGroup, type, status, featureStatusKey(IndexAttribute, type), ctx.start.getLine(), 0);
 				}
 
 				captureIndexConstraint(ixName, ixType, ixContext, clustered, false, ctx.start.getLine());
@@ -4320,7 +4397,7 @@ public class CompassAnalyze {
 					option = u.applyPatternFirst(option, "^(\\w+)\\b.*$", "$1");
 					//u.appOutput(u.thisProc()+"option=["+option+"] ");
 					String status = featureSupportedInVersion(AlterIndex, option);
-					captureItem(AlterIndex+".."+option, tableName+"."+ixName, DDLReportGroup, "", status, ctx.start.getLine(), 0);
+					captureItem(AlterIndex+".."+option, tableName+"."+ixName, DDLReportGroup, "", status, featureStatusKey(AlterIndex, option), ctx.start.getLine(), 0);
 				}
 
 				visitChildren(ctx);
@@ -4434,14 +4511,14 @@ public class CompassAnalyze {
 				}
 
 				if (!clustered_columnstore) {
-					captureItem(InlineIndex+" in "+ixContext, "", DDLReportGroup, InlineIndex, ixStatus, ctx.start.getLine(), 0);
+					captureItem(InlineIndex+" in "+ixContext, "", DDLReportGroup, InlineIndex, ixStatus, featureStatusKey(InlineIndex), ctx.start.getLine(), 0);
 				}
 				else {
 					// CLUSTERED COLUMNSTORE inline index
 					String type = "CLUSTERED COLUMNSTORE";
 					String hint = ": no equivalent in PG";
 					String ccIxstatus = featureSupportedInVersion(IndexAttribute, type);
-					captureItem(type + " inline index in "+ixContext+hint, "", DDLReportGroup, InlineIndex, ccIxstatus, ctx.start.getLine(), 0);
+					captureItem(type + " inline index in "+ixContext+hint, "", DDLReportGroup, InlineIndex, ccIxstatus, featureStatusKey(IndexAttribute, type), ctx.start.getLine(), 0);
 				}
 
 				visitChildren(ctx);
@@ -4481,6 +4558,7 @@ public class CompassAnalyze {
 				if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"name=["+name+"] type=["+type+"] context=["+context+"] ", u.debugPtree);
 
 				String status = u.Supported;
+				String statusKey = null;
 				String userHint = "";
 
 				if (type.startsWith("FOREIGN")) {
@@ -4491,6 +4569,7 @@ public class CompassAnalyze {
 
 				if (type.startsWith("CONNECTION")) {
 					status = featureSupportedInVersion(SQLGraph);
+					statusKey = featureStatusKey(SQLGraph);
 				}
 
 				if (type.equals("PRIMARY KEY")) {
@@ -4515,6 +4594,7 @@ public class CompassAnalyze {
 					if (clustered != null) {
 						if (clustered.HASH() != null) {
 							status = featureSupportedInVersion(HashIndex);
+							statusKey = featureStatusKey(HashIndex);
 							String hash = "NONCLUSTERED HASH";
 							type = "NONCLUSTERED HASH " + type;
 
@@ -4535,6 +4615,7 @@ public class CompassAnalyze {
 						String clusteredKwd = clustered.getText().toUpperCase();
 						if (clusteredKwd.startsWith("CLUSTERED")) {
 							status = featureSupportedInVersion(ClusteredIndex);
+							statusKey = featureStatusKey(ClusteredIndex);
 							if (!status.equals(u.Supported)) {
 								type += ", CLUSTERED";
 								userHint += " : created as NONCLUSTERED, no physical row order in PG";
@@ -4549,7 +4630,7 @@ public class CompassAnalyze {
 						// table index
 						String ixStatus = featureSupportedInVersion(InlineIndex);
 						if (!ixStatus.equals(u.Supported)) type = "index";
-						captureItem("Inline "+type+" in "+context, name, DDLReportGroup, InlineIndex, ixStatus, lineNr, 0);
+						captureItem("Inline "+type+" in "+context, name, DDLReportGroup, InlineIndex, ixStatus, featureStatusKey(InlineIndex), lineNr, 0);
 						return;  // do not capture this index again	below
 					}
 				}
@@ -4558,6 +4639,7 @@ public class CompassAnalyze {
 				if (desc) {
 					if (status.equals(u.Supported)) {
 						status = featureSupportedInVersion(DescConstraint);
+						statusKey = featureStatusKey(DescConstraint);
 						type += ", with DESC order";
 						userHint += " : created as ASC in PG";
 					}
@@ -4575,7 +4657,7 @@ public class CompassAnalyze {
 					fmt = type+context+userHint;
 				}
 				if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"capturing: type=["+type+"] context=["+context+"] ", u.debugPtree);
-				captureItem(CompassUtilities.capitalizeFirstChar(fmt), name, DDLReportGroup, "", status, lineNr, 0);
+				captureItem(CompassUtilities.capitalizeFirstChar(fmt), name, DDLReportGroup, "", status, statusKey, lineNr, 0);
 			}
 
 			private void captureForReplication(String name, String type, String kwd, TSQLParser.For_replicationContext forReplication) {
@@ -4607,7 +4689,7 @@ public class CompassAnalyze {
 						type += " column";
 					}
 
-					captureItem(feature+", " + type, name, section, typeOrig, status, forReplication.start.getLine());
+					captureItem(feature+", " + type, name, section, typeOrig, status, featureStatusKey(feature, typeOrig), forReplication.start.getLine());
 				}
 			}
 
@@ -4644,9 +4726,11 @@ public class CompassAnalyze {
 							if (optVal.isEmpty()) optVal = "ON";
 
 							String status = "";
+							String statusKey = null;
 							String userHint = "";
 							if (optVal.equals("ON")) {
 								status = featureSupportedInVersion(IgnoreDupkeyIndex,optVal);
+								statusKey = featureStatusKey(IgnoreDupkeyIndex,optVal);
 								if (!status.equals(u.Supported)) {
 									userHint = ": duplicate-key errors cannot be ignored in PG";
 								}
@@ -4655,7 +4739,7 @@ public class CompassAnalyze {
 								status = u.Ignored;
 							}
 							type = u.applyPatternFirst(type, "^(Index)\\b", "index");   // for unclear historic reasons
-							captureItem("Option "+option+"="+optVal+", "+type+context+userHint, name, IgnoreDupkeyIndex, "", status, ixOp.start.getLine());
+							captureItem("Option "+option+"="+optVal+", "+type+context+userHint, name, IgnoreDupkeyIndex, "", status, statusKey, ixOp.start.getLine());
 						}
 						else if (featureExists(IndexOptions,option)) {
 							String type2 = u.applyPatternFirst(type, "^index, UNIQUE\\b", "index");
@@ -4663,7 +4747,7 @@ public class CompassAnalyze {
 							String status = featureSupportedInVersion(IndexOptions,option);
 							String optionFmt = option;
 							if (!optVal.isEmpty()) optionFmt += "="+optVal;
-							captureItem("Option "+optionFmt+", "+type2+context, name, DDLReportGroup, IndexOptions, status, ixOp.start.getLine());
+							captureItem("Option "+optionFmt+", "+type2+context, name, DDLReportGroup, IndexOptions, status, featureStatusKey(IndexOptions,option), ixOp.start.getLine());
 						}
 						else {
 							// if we get here, something is missing from the .cfg file
@@ -4698,10 +4782,12 @@ public class CompassAnalyze {
 					String colName = "timestamp";
 					String dataType = "TIMESTAMP";
 					String status = u.NotSupported;
+					String statusKey = null;
 					if (featureExists(TimestampColumnSolo)) {
 						status = featureSupportedInVersion(TimestampColumnSolo);
+						statusKey = featureStatusKey(TimestampColumnSolo);
 					}
-					captureItem(TimestampColumnSolo, colName, Datatypes, "", status, ctx.start.getLine());
+					captureItem(TimestampColumnSolo, colName, Datatypes, "", status, statusKey, ctx.start.getLine());
 					return null;
 				}
 
@@ -4766,7 +4852,7 @@ public class CompassAnalyze {
 											if (featureExists(NumericColNonNumDft)) {
 												String statusDft = featureSupportedInVersion(NumericColNonNumDft);
 												if (!statusDft.equals(u.Supported)) {
-													captureItem(NumericColNonNumDft, colName, DatatypeConversion, "", statusDft, ctx.start.getLine());
+													captureItem(NumericColNonNumDft, colName, DatatypeConversion, "", statusDft, featureStatusKey(NumericColNonNumDft), ctx.start.getLine());
 												}
 											}
 		            					}
@@ -4818,9 +4904,11 @@ public class CompassAnalyze {
 					}
 
 					String status = u.Supported;
+					String statusKey = null;
 					mostRecentDatatype(getBaseDataType(dataType));
 					if (featureExists(Datatypes, getBaseDataType(dataType))) {
 						status = featureSupportedInVersion(Datatypes, getBaseDataType(dataType));
+						statusKey = featureStatusKey(Datatypes, getBaseDataType(dataType));
 					}
 					else {
 						// datatype is not listed, means: supported
@@ -4834,7 +4922,7 @@ public class CompassAnalyze {
 							if (featureExists(UDDForIdentity)) {
 								String statusIDtype = featureSupportedInVersion(UDDForIdentity, stmtType);
 								if (!statusIDtype.equals(u.Supported)) {
-									captureItem(UDDForIdentity + " column, " + stmtType + " ("+UDDName+")", UDDName, UDDatatypes, "", statusIDtype, ctx.start.getLine());
+									captureItem(UDDForIdentity + " column, " + stmtType + " ("+UDDName+")", UDDName, UDDatatypes, "", statusIDtype, featureStatusKey(UDDForIdentity, stmtType), ctx.start.getLine());
 								}
 							}
 						}
@@ -4858,23 +4946,25 @@ public class CompassAnalyze {
 							// raise warning about BIGINT datatype being used for NUMERIC/IDENTITY
 							String statusNumericBigint = featureSupportedInVersion("NUMERIC datatype for IDENTITY", stmtType);
 							if (!statusNumericBigint.equals(u.Supported)) {
-								captureItem("IDENTITY column created as BIGINT, declared as "+dataType, "", Datatypes, "", statusNumericBigint, ctx.start.getLine());
+								captureItem("IDENTITY column created as BIGINT, declared as "+dataType, "", Datatypes, "", statusNumericBigint, featureStatusKey("NUMERIC datatype for IDENTITY", stmtType), ctx.start.getLine());
 							}
 						}
 					}
-					captureItem(dataType+dataTypeOrig+" column "+colType, colName, Datatypes, getBaseDataType(dataType), status, ctx.start.getLine());
+					captureItem(dataType+dataTypeOrig+" column "+colType, colName, Datatypes, getBaseDataType(dataType), status, statusKey, ctx.start.getLine());
 	            }
 
 	            if (ctx.AS() != null) {
 	            	// computed column
 	            	isCompCol = true;
 	            	String status = u.Supported;
+	            	String statusKey = null;
 	            	String persisted = "";
 	            	String expression = ctx.expression().getText().toUpperCase();
 	            	if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"compcol: colName=["+colName+"] expression=["+expression+"] ", u.debugPtree);
 
 	            	if (ctx.PERSISTED() == null) {
 	            		status = featureSupportedInVersion(NonPersistedCompCol);
+	            		statusKey = featureStatusKey(NonPersistedCompCol);
 	            		if (status.equals(u.Supported)) {
 	            			persisted = " (not persisted)";
 	            		}
@@ -4886,7 +4976,7 @@ public class CompassAnalyze {
 	            	else {
 	            		persisted = " (persisted)";
 	            	}
-					captureItem("Computed column"+persisted+colType, colName, NonPersistedCompCol, "", status, ctx.start.getLine());
+					captureItem("Computed column"+persisted+colType, colName, NonPersistedCompCol, "", status, statusKey, ctx.start.getLine());
 	            }
 
 				if (isCompCol) inCompCol = true;
@@ -4928,7 +5018,7 @@ public class CompassAnalyze {
 					}
 
 					String status = featureSupportedInVersion(ColumnAttribute, option);
-					captureItem(ColumnAttribute+" " +option, colName, ColumnAttribute, option, status, ctx.start.getLine(), 0);
+					captureItem(ColumnAttribute+" " +option, colName, ColumnAttribute, option, status, featureStatusKey(ColumnAttribute, option), ctx.start.getLine(), 0);
 				}
 
 				visitChildren(ctx);
@@ -4949,6 +5039,7 @@ public class CompassAnalyze {
 
 				//  find sub-command & determine if supported
 				String status = u.Supported;
+				String statusKey = null;
 				String subcmd = "";
 				boolean captured = false;
 				String EnDisAble = "ENABLE";
@@ -4977,36 +5068,44 @@ public class CompassAnalyze {
 				else if (ctx.SYSTEM_VERSIONING() != null) {
 					subcmd = "SET SYSTEM_VERSIONING";
 					status = featureSupportedInVersion(AlterTable, subcmd);
+					statusKey = featureStatusKey(AlterTable, subcmd);
 				}
 				else if (ctx.FILESTREAM_ON() != null) {
 					subcmd = "SET FILESTREAM_ON";
 					status = featureSupportedInVersion(AlterTable, subcmd);
+					statusKey = featureStatusKey(AlterTable, subcmd);
 				}
 				else if (ctx.LOCK_ESCALATION() != null) {
 					subcmd = "SET LOCK_ESCALATION";
 					status = featureSupportedInVersion(AlterTable, subcmd);
+					statusKey = featureStatusKey(AlterTable, subcmd);
 				}
 				else if (ctx.file_table_option().size() > 0) {
 					// only taking the first option
 					String opt = ctx.file_table_option().get(0).id().keyword().getText().toUpperCase();
 					subcmd = u.escapeHTMLChars("SET "+opt);
 					status = featureSupportedInVersion(AlterTable, "SET "+opt);
+					statusKey = featureStatusKey(AlterTable, "SET "+opt);
 				}
 				else if (ctx.REBUILD() != null) {
 					subcmd = "REBUILD";
 					status = featureSupportedInVersion(AlterTable, subcmd);
+					statusKey = featureStatusKey(AlterTable, subcmd);
 				}
 				else if (ctx.CHANGE_TRACKING() != null) {
 					subcmd = EnDisAble + " CHANGE_TRACKING";
 					status = featureSupportedInVersion(AlterTable, subcmd);
+					statusKey = featureStatusKey(AlterTable, subcmd);
 				}
 				else if (ctx.TRIGGER() != null) {
 					subcmd = EnDisAble + " TRIGGER";
 					status = featureSupportedInVersion(AlterTable, subcmd);
+					statusKey = featureStatusKey(AlterTable, subcmd);
 				}
 				else if (ctx.CONSTRAINT() != null) {
 					subcmd = CheckNoCheck + " CONSTRAINT";
 					status = featureSupportedInVersion(AlterTable, subcmd);
+					statusKey = featureStatusKey(AlterTable, subcmd);
 				}
 				else if (ctx.COLUMN() != null) {
 					subcmd = "ALTER COLUMN"; // todo: not checking all possible options here
@@ -5018,12 +5117,14 @@ public class CompassAnalyze {
 						}
 					}
 					status = featureSupportedInVersion(AlterTable, subcmd);
+					statusKey = featureStatusKey(AlterTable, subcmd);
 				}
 				else if (ctx.column_def_table_constraints() != null) {
 					int nrAdd = ctx.column_def_table_constraints().column_def_table_constraint().size();
 					if (nrAdd > 1) {
 						subcmd = AlterTableAddMultiple;
 						status = featureSupportedInVersion(AlterTable, subcmd);
+						statusKey = featureStatusKey(AlterTable, subcmd);
 						if (!status.equals(u.Supported)) {
 							if (u.rewrite) {
 								String rewriteText = "";
@@ -5042,10 +5143,12 @@ public class CompassAnalyze {
 						if (ctx.column_def_table_constraints().column_def_table_constraint().get(0).period_for_system_time() != null) {
 							subcmd = "ADD PERIOD FOR SYSTEM TIME";
 							status = featureSupportedInVersion(AlterTable, subcmd);
+							statusKey = featureStatusKey(AlterTable, subcmd);
 						}
 						else if (ctx.column_def_table_constraints().column_def_table_constraint().get(0).column_definition() != null) {
 							subcmd = "ADD column";
 							status = featureSupportedInVersion(AlterTable, subcmd);
+							statusKey = featureStatusKey(AlterTable, subcmd);
 						}
 						else {
 							captured = true; // single-ADD constraint case is captured elsewhere
@@ -5061,11 +5164,13 @@ public class CompassAnalyze {
 					if ((dropList.size() > 1) && (!dropType.startsWith("P")))  {
 						subcmd = "DROP multiple items";
 						status = featureSupportedInVersion(AlterTable, subcmd);
+						statusKey = featureStatusKey(AlterTable, subcmd);
 					}
 					else {
 						if (dropType.startsWith("P")) {
 							subcmd = "DROP " + dropType;
 							status = featureSupportedInVersion(AlterTable, subcmd);
+							statusKey = featureStatusKey(AlterTable, subcmd);
 						}
 						else {
 							for (TSQLParser.Alter_table_dropContext d : dropList) {
@@ -5074,10 +5179,12 @@ public class CompassAnalyze {
 									int nrCols = d.alter_table_drop_column().COMMA().size() + 1;
 									if (nrCols > 1) subcmd = "DROP multiple columns";
 									status = featureSupportedInVersion(AlterTable, subcmd);
+									statusKey = featureStatusKey(AlterTable, subcmd);
 								}
 								else if (d.alter_table_drop_constraint_id() != null) {
 									subcmd = "DROP CONSTRAINT_BY_NAME_ONLY";
 									status = featureSupportedInVersion(AlterTable, subcmd);
+									statusKey = featureStatusKey(AlterTable, subcmd);
 									subcmd = u.escapeHTMLChars("DROP <constraint-name>");
 								}
 								else if (d.alter_table_drop_constraint() != null) {
@@ -5085,9 +5192,10 @@ public class CompassAnalyze {
 									int nrCols = d.alter_table_drop_constraint().COMMA().size() + 1;
 									if (nrCols > 1) subcmd = "DROP multiple constraints";
 									status = featureSupportedInVersion(AlterTable, subcmd);
+									statusKey = featureStatusKey(AlterTable, subcmd);
 								}
 								if (!subcmd.isEmpty()) subcmd = ".." + subcmd;
-								captureItem("ALTER TABLE"+subcmd, tableName, DDLReportGroup, "", status, ctx.start.getLine(), 0);
+								captureItem("ALTER TABLE"+subcmd, tableName, DDLReportGroup, "", status, statusKey, ctx.start.getLine(), 0);
 								captured = true;
 							}
 						}
@@ -5097,7 +5205,7 @@ public class CompassAnalyze {
 				if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"subcmd=["+subcmd+"] captured=["+captured+"] ", u.debugPtree);
 				if (!captured) {
 					if (!subcmd.isEmpty()) subcmd = ".." + subcmd;
-					captureItem("ALTER TABLE"+subcmd, tableName, DDLReportGroup, "", status, ctx.start.getLine(), 0);
+					captureItem("ALTER TABLE"+subcmd, tableName, DDLReportGroup, "", status, statusKey, ctx.start.getLine(), 0);
 				}
 
 				visitChildren(ctx);
@@ -5147,10 +5255,12 @@ public class CompassAnalyze {
 
 				String kwd = "CREATE";
 				String status = u.Supported;
+				String statusKey = null;
 				if (ctx.ALTER() != null) {
 					kwd = "ALTER";
 					if (ctx.CREATE() != null) kwd = "CREATE OR ALTER";
 					status = featureSupportedInVersion("ALTER TRIGGER"); // ALTER and CREATE OR ALTER go together
+					statusKey = featureStatusKey("ALTER TRIGGER");
 				}
 
 				String trigType = "";
@@ -5178,7 +5288,7 @@ public class CompassAnalyze {
 				String trigStatus = "";
 				if (ctx.external_name() != null) {
 					trigStatus = featureSupportedInVersion(TriggerOptions, "external");
-					captureItem(kwd + " TRIGGER, external", trigName, TriggerOptions, "EXTERNAL", trigStatus, ctx.start.getLine(), 0);
+					captureItem(kwd + " TRIGGER, external", trigName, TriggerOptions, "EXTERNAL", trigStatus, featureStatusKey(TriggerOptions, "external"), ctx.start.getLine(), 0);
 				}
 				else {
 					String IOT = "";
@@ -5193,6 +5303,7 @@ public class CompassAnalyze {
 							trigStatus = featureSupportedInVersion(InsteadOfTrigger, baseObj);
 							if (status.equals(u.Supported)) {
 								status = trigStatus;
+								statusKey = featureStatusKey(InsteadOfTrigger, baseObj);
 							}
 						}
 						else {
@@ -5201,18 +5312,20 @@ public class CompassAnalyze {
 								IOT = ", base object unresolved: table or view?";
 								if (status.equals(u.Supported)) {
 									status = u.ReviewManually;
+									statusKey = null;
 								}
 							}
 							else {
 								IOT = " on table/view";
 								status = u.NotSupported;
+								statusKey = null;
 							}
 						}
-						captureItem(kwd + " TRIGGER, " + trigType + " " + trigOps + IOT, trigName, InsteadOfTrigger, baseObj, status, ctx.start.getLine(), batchLines.toString());
+						captureItem(kwd + " TRIGGER, " + trigType + " " + trigOps + IOT, trigName, InsteadOfTrigger, baseObj, status, statusKey, ctx.start.getLine(), batchLines.toString());
 					}
 					else {
 						// FOR/AFTER trigger
-						captureItem(kwd + " TRIGGER, " + trigType + " " + trigOps, trigName, TriggersReportGroup, "", status, ctx.start.getLine(), batchLines.toString());
+						captureItem(kwd + " TRIGGER, " + trigType + " " + trigOps, trigName, TriggersReportGroup, "", status, statusKey, ctx.start.getLine(), batchLines.toString());
 					}
 				}
 
@@ -5220,7 +5333,7 @@ public class CompassAnalyze {
 				if (!trigSchema.isEmpty()) {
 					String statusSchema = featureSupportedInVersion(TriggerSchemaName);
 					if (!statusSchema.equals(u.Supported)) {
-						captureItem(TriggerSchemaName, trigName, TriggerSchemaName, "", statusSchema, ctx.start.getLine());
+						captureItem(TriggerSchemaName, trigName, TriggerSchemaName, "", statusSchema, featureStatusKey(TriggerSchemaName), ctx.start.getLine());
 					}
 				}
 
@@ -5254,7 +5367,7 @@ public class CompassAnalyze {
 						// commented out, this no longer applies after an earlier fix for schema name resolution
 						//hint = ": name resolution aspect not included in PG";
 					}
-					captureItem("Trigger, option WITH "+formatOptionDisplay(option,optionValue)+hint, trigName, TriggerOptions, option, trigStatus, lineNr);
+					captureItem("Trigger, option WITH "+formatOptionDisplay(option,optionValue)+hint, trigName, TriggerOptions, option, trigStatus, featureStatusKey(TriggerOptions, option, optionValue), lineNr);
 				}
 			}
 
@@ -5281,7 +5394,7 @@ public class CompassAnalyze {
 					String trigAction = n.getText().toUpperCase();
 					status = featureSupportedInVersion(DDLTrigger, trigAction);
 					// capturing each action separately
-					captureItem(kwd + " TRIGGER (DDL, "+trigAction+")", trigName, DDLTrigger, trigAction, status, ctx.start.getLine(),  nrLines.toString());
+					captureItem(kwd + " TRIGGER (DDL, "+trigAction+")", trigName, DDLTrigger, trigAction, status, featureStatusKey(DDLTrigger, trigAction), ctx.start.getLine(),  nrLines.toString());
 					nrLines = 0;   // do not count lines double
 				}
 
@@ -5296,14 +5409,14 @@ public class CompassAnalyze {
 
 			@Override public String visitEnable_trigger(TSQLParser.Enable_triggerContext ctx) {
 				String status = featureSupportedInVersion(EnableTrigger);
-				captureItem(EnableTrigger, "", EnableTrigger, "", status, ctx.start.getLine());
+				captureItem(EnableTrigger, "", EnableTrigger, "", status, featureStatusKey(EnableTrigger), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
 
 			@Override public String visitDisable_trigger(TSQLParser.Disable_triggerContext ctx) {
 				String status = featureSupportedInVersion(DisableTrigger);
-				captureItem(DisableTrigger, "", DisableTrigger, "", status, ctx.start.getLine());
+				captureItem(DisableTrigger, "", DisableTrigger, "", status, featureStatusKey(DisableTrigger), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
@@ -5337,15 +5450,17 @@ public class CompassAnalyze {
 						if (!UDD.equals(Undefined)) sudfDataType = UDD;
 					}
 					String statusDataType = u.Supported;
+					String statusDataTypeKey = null;
 					if (featureExists(Datatypes, getBaseDataType(sudfDataType))) {
 						statusDataType = featureSupportedInVersion(Datatypes, getBaseDataType(sudfDataType));
+						statusDataTypeKey = featureStatusKey(Datatypes, getBaseDataType(sudfDataType));
 					}
 					else {
 						// datatype is not listed, means: supported
 					}
 
 					if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"UDF "+ ctx.getText()+", funcName=["+funcName+"] sudfDataType=["+sudfDataType+"] ", u.debugPtree);
-					captureItem(sudfDataType + sudfDataTypeReport + " scalar function result type", "", Datatypes, getBaseDataType(sudfDataType), statusDataType, ctx.start.getLine());
+					captureItem(sudfDataType + sudfDataTypeReport + " scalar function result type", "", Datatypes, getBaseDataType(sudfDataType), statusDataType, statusDataTypeKey, ctx.start.getLine());
 					// for UDDs, the AS keyword is mandatory in Babelfish, though it should be optional. For system datatypes, it is optional
 					if (ctx.func_body_returns_scalar().AS() == null) {
 						if (ctx.func_body_returns_scalar().BEGIN() != null) {
@@ -5371,7 +5486,7 @@ public class CompassAnalyze {
 									else {
 										addRewrite(ScalarUDFOptionalASKwd);
 									}
-									captureItem(ScalarUDFOptionalASKwd, dataTypeChk, FunctionOptions, "", statusAs, ctx.start.getLine());
+									captureItem(ScalarUDFOptionalASKwd, dataTypeChk, FunctionOptions, "", statusAs, featureStatusKey(ScalarUDFOptionalASKwd, dataTypeChk), ctx.start.getLine());
 								}
 							}
 						}
@@ -5405,10 +5520,12 @@ public class CompassAnalyze {
 
 				String kwd = "CREATE";
 				String status = u.Supported;
+				String statusKey = null;
 				if (ctx.ALTER() != null) {
 					kwd = "ALTER";
 					if (ctx.CREATE() != null) kwd = "CREATE OR ALTER";
 					status = featureSupportedInVersion("ALTER FUNCTION");  // ALTER and CREATE OR ALTER go together
+					statusKey = featureStatusKey("ALTER FUNCTION");
 				}
 
 				if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"UDF "+ getTextSpaced(ctx) +", funcName=["+funcName+"] udfType=["+udfType+"] udfType2=["+udfType2+"] ", u.debugPtree);
@@ -5417,10 +5534,10 @@ public class CompassAnalyze {
 				String udfStatus = "";
 				if (!udfType2.isEmpty()) {
 					udfStatus = featureSupportedInVersion(FunctionOptions, udfType2);
-					captureItem(kwd + " FUNCTION, " + udfType + ", " + udfType2, funcName, FunctionOptions, udfType2, udfStatus, ctx.start.getLine(), 0);
+					captureItem(kwd + " FUNCTION, " + udfType + ", " + udfType2, funcName, FunctionOptions, udfType2, udfStatus, featureStatusKey(FunctionOptions, udfType2), ctx.start.getLine(), 0);
 				}
 				else {
-					captureItem(kwd + " FUNCTION, " + udfType, funcName, FunctionOptions, udfType, status, ctx.start.getLine(), batchLines.toString());
+					captureItem(kwd + " FUNCTION, " + udfType, funcName, FunctionOptions, udfType, status, statusKey, ctx.start.getLine(), batchLines.toString());
 				}
 
 				captureParameters("function", funcName, udfType, ctx.procedure_param());
@@ -5446,7 +5563,7 @@ public class CompassAnalyze {
 							// commented out, this no longer applies after an earlier fix for schema name resolution
 							//hint = ": name resolution aspect not included in PG";
 						}
-						captureItem("Function ("+kwd+"), option WITH "+formatOptionDisplay(option,optionValue)+hint, funcName, FunctionOptions, option, funcStatus, ctx.start.getLine());
+						captureItem("Function ("+kwd+"), option WITH "+formatOptionDisplay(option,optionValue)+hint, funcName, FunctionOptions, option, funcStatus, featureStatusKey(FunctionOptions, option, optionValue), ctx.start.getLine());
 					}
 					if (nativeCompileFound && schemabindingFound) {
 						captureSchemabinding(schemabindingFound, "Function", funcName, FunctionOptions, ctx.start.getLine());
@@ -5477,16 +5594,18 @@ public class CompassAnalyze {
 
 				String kwd = "CREATE";
 				String status = u.Supported;
+				String statusKey = null;
 				if (ctx.ALTER() != null) {
 					kwd = "ALTER";
 					if (ctx.CREATE() != null) kwd = "CREATE OR ALTER";
 					status = featureSupportedInVersion("ALTER PROCEDURE"); // ALTER and CREATE OR ALTER go together
+					statusKey = featureStatusKey("ALTER PROCEDURE");
 				}
 				boolean captured = false;
 
 				if (ctx.proc_version != null) {
 					String procStatus = featureSupportedInVersion(ProcVersionDeclare);
-					captureItem(kwd + " PROCEDURE proc;version", procName+";"+ctx.proc_version.getText(), ProcVersionDeclare, "", procStatus, ctx.start.getLine(), batchLines.toString());
+					captureItem(kwd + " PROCEDURE proc;version", procName+";"+ctx.proc_version.getText(), ProcVersionDeclare, "", procStatus, featureStatusKey(ProcVersionDeclare), ctx.start.getLine(), batchLines.toString());
 					captured = true;
 				}
 
@@ -5495,7 +5614,7 @@ public class CompassAnalyze {
 					if (procName.startsWith("#") || procName.startsWith("[#")) {
 						procStatus = featureSupportedInVersion(TemporaryProcedures);
 						if (!procStatus.equals(u.Supported)) {
-							captureItem(kwd + " PROCEDURE, #temporary: not dropped automatically", procName, TemporaryProcedures, "", procStatus, ctx.start.getLine(), batchLines.toString());
+							captureItem(kwd + " PROCEDURE, #temporary: not dropped automatically", procName, TemporaryProcedures, "", procStatus, featureStatusKey(TemporaryProcedures), ctx.start.getLine(), batchLines.toString());
 							captured = true;
 						}
 					}
@@ -5504,13 +5623,13 @@ public class CompassAnalyze {
 				if (!captured) {
 					if (!procType.isEmpty()) {
 						procStatus = featureSupportedInVersion(ProcedureOptions,procType);
-						captureItem(kwd + " PROCEDURE, "+procType, procName, ProcedureOptions, procType, procStatus, ctx.start.getLine(), batchLines.toString());
+						captureItem(kwd + " PROCEDURE, "+procType, procName, ProcedureOptions, procType, procStatus, featureStatusKey(ProcedureOptions, procType), ctx.start.getLine(), batchLines.toString());
 						captured = true;
 					}
 				}
 
 				if (!captured) {
-					captureItem(kwd + " PROCEDURE", procName, ProceduresReportGroup, "", status, ctx.start.getLine(), batchLines.toString());
+					captureItem(kwd + " PROCEDURE", procName, ProceduresReportGroup, "", status, statusKey, ctx.start.getLine(), batchLines.toString());
 					captured = true;
 				}
 
@@ -5548,7 +5667,7 @@ public class CompassAnalyze {
 								}
 							}
 						}
-						captureItem(s, procName, ProcedureOptions, option, procOptionStatus, ctx.start.getLine());
+						captureItem(s, procName, ProcedureOptions, option, procOptionStatus, featureStatusKey(ProcedureOptions, option, optionValue), ctx.start.getLine());
 					}
 					if (nativeCompileFound && schemabindingFound) {
 						captureSchemabinding(schemabindingFound, "Procedure", procName, ProcedureOptions, ctx.start.getLine());
@@ -5665,19 +5784,21 @@ public class CompassAnalyze {
 				  	parItem = parItem.replaceFirst("value\\) \\(", "value, ");
 
 					String statusDataType = u.Supported;
+					String statusDataTypeKey = null;
 					mostRecentDatatype(getBaseDataType(dataType));
 					if (featureExists(Datatypes, getBaseDataType(dataType))) {
 						statusDataType = featureSupportedInVersion(Datatypes, getBaseDataType(dataType));
+						statusDataTypeKey = featureStatusKey(Datatypes, getBaseDataType(dataType));
 					}
 					else {
 						// datatype is not listed, means: supported
 					}
 					if (dataType.equals("CURSOR")) {
 						String statusCursorParam = featureSupportedInVersion(CursorParameters);
-						captureItem(parItem, parName, CursorsReportGroup, dataType, statusCursorParam, params.get(i).start.getLine());
+						captureItem(parItem, parName, CursorsReportGroup, dataType, statusCursorParam, featureStatusKey(CursorParameters), params.get(i).start.getLine());
 					}
 					else {
-						captureItem(parItem, parName, dataType.equals("TABLE")? TableVariablesType : Datatypes, getBaseDataType(dataType), statusDataType, params.get(i).start.getLine());
+						captureItem(parItem, parName, dataType.equals("TABLE")? TableVariablesType : Datatypes, getBaseDataType(dataType), statusDataType, statusDataTypeKey, params.get(i).start.getLine());
 					}
 
 					// test for special chars in identifiers not currently supported
@@ -5768,7 +5889,7 @@ public class CompassAnalyze {
 					hint = ": created in PG as without SCHEMABINDING";
 				}
 				String status = featureSupportedInVersion(section, option);
-				captureItem(objType+", "+optionFmt+hint, objName, section, option, status, lineNr);
+				captureItem(objType+", "+optionFmt+hint, objName, section, option, status, featureStatusKey(section, option), lineNr);
 			}
 
 			@Override public String visitCreate_or_alter_view(TSQLParser.Create_or_alter_viewContext ctx) {
@@ -5778,22 +5899,25 @@ public class CompassAnalyze {
 
 				String kwd = "CREATE";
 				String status = u.Supported;
+				String statusKey = null;
 				String statusDependObjChk = "";
 				String statusDependObjChkFmt = "";
 				if (ctx.ALTER() != null) {
 					kwd = "ALTER";
 					if (ctx.CREATE() != null) kwd = "CREATE OR ALTER";
 					status = featureSupportedInVersion("ALTER VIEW", "VIEW");  // ALTER and CREATE OR ALTER go together
+					statusKey = featureStatusKey("ALTER VIEW", "VIEW");
 					if (status.equals(u.Supported)){
 						String trigName = lookupTrigOnView(viewName);
 						if (!trigName.isEmpty()) {
 							statusDependObjChk = "TRIGGER";
 							statusDependObjChkFmt = ", with " + statusDependObjChk;
 							status = featureSupportedInVersion("ALTER VIEW", statusDependObjChk);
+							statusKey = featureStatusKey("ALTER VIEW", statusDependObjChk);
 						}
 					}
 				}
-				captureItem(kwd + " VIEW" + statusDependObjChkFmt, viewName, ViewsReportGroup, "", status, ctx.start.getLine(), batchLines.toString());
+				captureItem(kwd + " VIEW" + statusDependObjChkFmt, viewName, ViewsReportGroup, "", status, statusKey, ctx.start.getLine(), batchLines.toString());
 
 				// set context
 				u.setContext("VIEW", viewName);
@@ -5805,14 +5929,14 @@ public class CompassAnalyze {
 					String option = vOption.getText().toUpperCase();
 					if (option.equals("SCHEMABINDING")) schemabindingFound = true;  	// need to check for absence of SCHEMABINDING
 					String statusOpt = featureSupportedInVersion(ViewOptions, option);
-					captureItem("View, with "+option, "", ViewOptions, option, statusOpt, vOption.start.getLine());
+					captureItem("View, with "+option, "", ViewOptions, option, statusOpt, featureStatusKey(ViewOptions, option), vOption.start.getLine());
 				}
 				captureSchemabinding(schemabindingFound, "View", viewName, ViewOptions, ctx.start.getLine());
 
 				if (ctx.CHECK() != null) {
 					String option = "CHECK OPTION";
 					String statusOpt = featureSupportedInVersion(ViewOptions, option);
-					captureItem("View, with "+option, "", ViewOptions, option, statusOpt, ctx.start.getLine());
+					captureItem("View, with "+option, "", ViewOptions, option, statusOpt, featureStatusKey(ViewOptions, option), ctx.start.getLine());
 				}
 
 				visitChildren(ctx);
@@ -5862,15 +5986,17 @@ public class CompassAnalyze {
 			private void captureAggregateFunction(String aggFuncName, int lineNr) {
 				aggFuncName = aggFuncName.toUpperCase();
 				String status = u.NotSupported;
+				String statusKey = null;
 				if (featureExists(AggregateFunctions, aggFuncName)) {
 					status = featureSupportedInVersion(AggregateFunctions, aggFuncName);
+					statusKey = featureStatusKey(AggregateFunctions, aggFuncName);
 				}
 				else {
 					// this means we're missing an item in the list= key in the .cfg file
 					u.appOutput("Function ["+aggFuncName+"] not found in section ["+AggregateFunctions+"] in .cfg file");
 					if (CompassUtilities.devOptions) u.errorExitStackTrace();
 				}
-				captureItem(aggFuncName+"()", "", AggregateFunctions, aggFuncName, status, lineNr);
+				captureItem(aggFuncName+"()", "", AggregateFunctions, aggFuncName, status, statusKey, lineNr);
 			}
 
 			@Override public String visitFunction_call(TSQLParser.Function_callContext ctx) {
@@ -5899,7 +6025,7 @@ public class CompassAnalyze {
 							String funcNameFmt = funcObjName.toLowerCase()+"()";
 							int lineNr = ctx.start.getLine();
 							if (funcNameFmt.startsWith("dm_")) funcNameFmt = "sys." + funcNameFmt;
-							captureItem(funcNameFmt, "", SystemFunctions, funcObjName, status, lineNr);
+							captureItem(funcNameFmt, "", SystemFunctions, funcObjName, status, featureStatusKey(SystemFunctions, funcObjName), lineNr);
 							done = true;
 
 							if (funcObjName.equalsIgnoreCase("fn_listextendedproperty")) {
@@ -5978,7 +6104,7 @@ public class CompassAnalyze {
 												// couldn't find the function, so don't attempt to rewrite
 											}
 										}
-										captureItem(itemTxt, "", ParamValueDEFAULT, "function", statusDft, ctx.start.getLine());
+										captureItem(itemTxt, "", ParamValueDEFAULT, "function", statusDft, featureStatusKey(ParamValueDEFAULT, "function"), ctx.start.getLine());
 									}
 								}
 							}
@@ -6007,7 +6133,7 @@ public class CompassAnalyze {
 							}
 							else {
 								// check for XML/HIERARCHYID methods, these can be parsed as UDF calls
-								if (udfIsBifMethod(funcName, CompassUtilities.XMLmethods, CompassUtilities.SUDFNamesLikeXML, CompassUtilities.SUDFSymTab)) {
+								if (udfIsBifMethod(funcName, CompassUtilities.XMLmethods, CompassUtilities.SUDFNamesLikeXML, CompassSymTabFile.kindSUDF)) {
 									captureXMLFeature("XML.", u.getObjectNameFromID(funcName).toLowerCase(), "()", ctx.start.getLine());
 
 									// check for EVENTDATA(), in case of EVENTDATA().VALUE(...)
@@ -6017,16 +6143,18 @@ public class CompassAnalyze {
 										}
 									}
 								}
-								else if (udfIsBifMethod(funcName, CompassUtilities.HIERARCHYIDmethods, CompassUtilities.SUDFNamesLikeHIERARCHYID, CompassUtilities.SUDFSymTab)) {
+								else if (udfIsBifMethod(funcName, CompassUtilities.HIERARCHYIDmethods, CompassUtilities.SUDFNamesLikeHIERARCHYID, CompassSymTabFile.kindSUDF)) {
 									captureHIERARCHYIDFeature("HIERARCHYID.", u.getObjectNameFromID(funcName), "()", ctx.start.getLine());
 								}
 								else {
 									String statusUDF = u.Supported;
+									String statusUDFKey = null;
 									String UDFcontext = "";
 									if (inCompCol) {
 										// this is a SUDF call inside a computed column
 										UDFcontext = ", in computed column"+inCompColType;
 										statusUDF = featureSupportedInVersion(CompColFeatures, cfgScalarUdfCall);
+										statusUDFKey = featureStatusKey(CompColFeatures, cfgScalarUdfCall);
 									}
 									else {
 										if (hasParent(ctx.parent, "table_constraint") || hasParent(ctx.parent, "column_constraint")) {
@@ -6039,17 +6167,19 @@ public class CompassAnalyze {
 												// CHECK constraint
 												String statusUDFInCHECK = featureSupportedInVersion(SUDFinTableDDL, ddl + " CHECK");
 												if (!statusUDFInCHECK.equals(u.Supported)) statusUDF = statusUDFInCHECK;
+												statusUDFKey = featureStatusKey(SUDFinTableDDL, ddl + " CHECK");
 												UDFcontext = ", in CHECK constraint ("+ddl+")";
 											}
 											else {
 												// column DEFAULT
 												String statusUDFInDEFAULT = featureSupportedInVersion(SUDFinTableDDL, ddl + " DEFAULT");
 												if (!statusUDFInDEFAULT.equals(u.Supported)) statusUDF = statusUDFInDEFAULT;
+												statusUDFKey = featureStatusKey(SUDFinTableDDL, ddl + " DEFAULT");
 												UDFcontext = ", in column DEFAULT ("+ddl+")";
 											}
 										}
 									}
-									captureItem("Function call, scalar"+UDFcontext, funcName+"()", FunctionsReportGroup, "", statusUDF, ctx.start.getLine());
+									captureItem("Function call, scalar"+UDFcontext, funcName+"()", FunctionsReportGroup, "", statusUDF, statusUDFKey, ctx.start.getLine());
 								}
 							}
 						}
@@ -6070,7 +6200,7 @@ public class CompassAnalyze {
 
 				String seqName = u.normalizeName(ctx.full_object_name().getText());
 				String statusNVF = featureSupportedInVersion(NextValueFor);
-				captureItem(NextValueFor, seqName, NextValueFor, "", statusNVF, ctx.start.getLine());
+				captureItem(NextValueFor, seqName, NextValueFor, "", statusNVF, featureStatusKey(NextValueFor), ctx.start.getLine());
 
 				String nvfContext = "";
 				if (hasParent(ctx.parent, "declare_local")) {
@@ -6111,7 +6241,7 @@ public class CompassAnalyze {
 					if (!statusNVFC.equals(u.Supported)) {
 						String s = " in ";
 						if (nvfContext.startsWith("OVER")) s = " with ";
-						captureItem(NextValueFor + s + nvfContext, seqName, NextValueFor, "", statusNVFC, ctx.start.getLine());
+						captureItem(NextValueFor + s + nvfContext, seqName, NextValueFor, "", statusNVFC, featureStatusKey(NextValueForContext, nvfContext), ctx.start.getLine());
 					}
 				}
 
@@ -6122,7 +6252,7 @@ public class CompassAnalyze {
 					String statusNVFC = featureSupportedInVersion(NextValueForContext, nvfContext);
 					if (!statusNVFC.equals(u.Supported)) {
 						String s = " with '..' syntax";
-						captureItem(NextValueFor + s , seqName, NextValueFor, "", statusNVFC, ctx.start.getLine());
+						captureItem(NextValueFor + s , seqName, NextValueFor, "", statusNVFC, featureStatusKey(NextValueForContext, nvfContext), ctx.start.getLine());
 					}
 				}
 
@@ -6131,11 +6261,11 @@ public class CompassAnalyze {
 				return null;
 			}
 
-			private boolean udfIsBifMethod(String funcName, List<String>refMethodList,  Map<String, String>UDFListLikeMethod,  Map<String, String>UDFList) {
+			private boolean udfIsBifMethod(String funcName, List<String>refMethodList,  Map<String, String>UDFListLikeMethod,  int UDFKind) {
 				boolean isMethod = false;
 				// ToDo: we can improve here: if the function takes a non-string as input argument, it cannot be an XML method for example
 				String funcNameBase = u.getObjectNameFromID(funcName);
-				if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"funcName=["+funcName+"]  funcNameBase=["+funcNameBase+"] refMethodList=["+refMethodList+"]  UDFListLikeMethod=["+UDFListLikeMethod.keySet()+"] UDFList=["+UDFList.keySet()+"] ", u.debugPtree);
+				if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"funcName=["+funcName+"]  funcNameBase=["+funcNameBase+"] refMethodList=["+refMethodList+"]  UDFListLikeMethod=["+UDFListLikeMethod.keySet()+"] UDFKind=["+CompassSymTabFile.kindTags[UDFKind]+"] ", u.debugPtree);
 				if (refMethodList.contains((funcNameBase))) {
 					String schemaName = u.getSchemaNameFromID(funcNameBase);
 					if (schemaName.equals("DBO") || schemaName.equals("GUEST")) {
@@ -6150,7 +6280,7 @@ public class CompassAnalyze {
 						else {
 							// is this UDF in the symbol table?
 							String resolvedName = u.resolveName(funcName);
-							if (UDFList.containsKey(resolvedName)) {
+							if (CompassUtilities.lookupSymTab(UDFKind, resolvedName) != null) {
 								isMethod = false;  //  UDF found, so not a method
 							}
 							else {
@@ -6229,7 +6359,7 @@ public class CompassAnalyze {
 				String txt = ctx.getText().toUpperCase();
 				txt = txt.substring(2);
 				String status = featureSupportedInVersion(SQLGraph);
-				captureItem("CREATE TABLE..AS "+txt, "", SQLGraph, "", status, ctx.start.getLine());
+				captureItem("CREATE TABLE..AS "+txt, "", SQLGraph, "", status, featureStatusKey(SQLGraph), ctx.start.getLine());
 
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -6340,22 +6470,26 @@ public class CompassAnalyze {
 				if (u.debugging) dbgTraceVisitEntry(CompassUtilities.thisProc());
 
 				String status = u.Supported;
+				String statusKey = null;
 				String funcName = ctx.bif.getText().toUpperCase();
 				String dataType = u.normalizeName(ctx.data_type().getText().toUpperCase(), "datatype");
 				if (featureExists(BuiltInFunctions, funcName)) {
 					status = featureSupportedInVersion(BuiltInFunctions, funcName);
+					statusKey = featureStatusKey(BuiltInFunctions, funcName);
 				}
-				captureItem(funcName+"()", "", BuiltInFunctions, funcName, status, ctx.start.getLine());
+				captureItem(funcName+"()", "", BuiltInFunctions, funcName, status, statusKey, ctx.start.getLine());
 
 				String statusDataType = u.Supported;
+				String statusDataTypeKey = null;
 				if (featureExists(Datatypes, getBaseDataType(dataType))) {
 					statusDataType = featureSupportedInVersion(Datatypes, getBaseDataType(dataType));
+					statusDataTypeKey = featureStatusKey(Datatypes, getBaseDataType(dataType));
 				}
 				else {
 					// datatype is not listed, means: supported
 					// cannot CAST to a UDD, so no need to check
 				}
-				captureItem(funcName+"() to "+dataType, "",DatatypeConversion, getBaseDataType(dataType), statusDataType, ctx.start.getLine());
+				captureItem(funcName+"() to "+dataType, "",DatatypeConversion, getBaseDataType(dataType), statusDataType, statusDataTypeKey, ctx.start.getLine());
 
 				// check for numeric-as-date
 				checkNumericAsDate(dataType, funcName, funcName+"()", ctx.expression(), 1, ctx.start.getLine());
@@ -6375,10 +6509,12 @@ public class CompassAnalyze {
 				if (u.debugging) dbgTraceVisitEntry(CompassUtilities.thisProc());
 
 				String status = u.NotSupported;
+				String statusKey = null;
 				String funcName = ctx.bif.getText().toUpperCase();
 				String dataType = u.normalizeName(ctx.data_type().getText().toUpperCase(), "datatype");
 				if (featureExists(BuiltInFunctions, funcName)) {
 					status = featureSupportedInVersion(BuiltInFunctions, funcName);
+					statusKey = featureStatusKey(BuiltInFunctions, funcName);
 				}
 
 				String fmt = "";
@@ -6389,19 +6525,21 @@ public class CompassAnalyze {
 					style = style.replaceAll("\\)", "");
 					fmt = " with style";
 				}
-				captureItem(funcName+"()"+fmt, style, BuiltInFunctions, funcName, status, ctx.start.getLine());
+				captureItem(funcName+"()"+fmt, style, BuiltInFunctions, funcName, status, statusKey, ctx.start.getLine());
 
 				// only do the tests below when the BIF is supported
 				if (status.equals(u.Supported)) {
 					String statusDataType = u.Supported;
+					String statusDataTypeKey = null;
 					if (featureExists(Datatypes, getBaseDataType(dataType))) {
 						statusDataType = featureSupportedInVersion(Datatypes, getBaseDataType(dataType));
+						statusDataTypeKey = featureStatusKey(Datatypes, getBaseDataType(dataType));
 					}
 					else {
 						// datatype is not listed, means: supported
 						// cannot CONVERT to a UDD, so no need to check
 					}
-					captureItem(funcName+"() to "+dataType+fmt, "", DatatypeConversion, dataType, statusDataType, ctx.start.getLine());
+					captureItem(funcName+"() to "+dataType+fmt, "", DatatypeConversion, dataType, statusDataType, statusDataTypeKey, ctx.start.getLine());
 
 					// check for numeric-as-date
 					checkNumericAsDate(dataType, funcName, funcName+"()", ctx.convert_expression, 2, ctx.start.getLine());
@@ -6431,7 +6569,7 @@ public class CompassAnalyze {
 					String statusCC = u.Supported;
 					if (featureExists(CompColFeatures, chkCast)) {
 						statusCC = featureSupportedInVersion(CompColFeatures, chkCast);
-						captureItem(funcName + "() involving "+chkType+", in computed column"+inCompColType, "", DatatypeConversion, "", statusCC, lineNo);
+						captureItem(funcName + "() involving "+chkType+", in computed column"+inCompColType, "", DatatypeConversion, "", statusCC, featureStatusKey(CompColFeatures, chkCast), lineNo);
 					}
 				}
 				else {
@@ -6446,7 +6584,7 @@ public class CompassAnalyze {
 					String arg = ctx.arg.getText().toUpperCase();
 					String status = featureSupportedInVersion("TRIM", arg);
 					if (!status.equals(u.Supported)) {
-						captureItem("TRIM("+arg+")", arg, BuiltInFunctions, "TRIM", status, ctx.start.getLine());
+						captureItem("TRIM("+arg+")", arg, BuiltInFunctions, "TRIM", status, featureStatusKey("TRIM", arg), ctx.start.getLine());
 						captured = true;
 					}
 				}
@@ -6567,7 +6705,7 @@ public class CompassAnalyze {
 					String varName = ctx.LOCAL_ID().getText();
 					u.setContext("TABLE", varName);
 					String status = featureSupportedInVersion(TableVariables);
-					captureItem("TABLE variable declaration", varName, TableVariablesType, "", status, ctx.start.getLine());
+					captureItem("TABLE variable declaration", varName, TableVariablesType, "", status, featureStatusKey(TableVariables), ctx.start.getLine());
 					
 					captureAtAtVariables(varName.toUpperCase(), ctx.LOCAL_ID().getSymbol().getLine(), "declare");	
 				}
@@ -6589,6 +6727,7 @@ public class CompassAnalyze {
 
 				String varItem = dataType+" variable";
 				String statusDataType = u.Supported;
+				String statusDataTypeKey = null;
 				String section = Datatypes;
 				boolean captured = false;
 
@@ -6596,7 +6735,7 @@ public class CompassAnalyze {
 					statusDataType = featureSupportedInVersion(XMLFeatures, "XML TYPE DEFINITION");
 					dataType = cfgXMLSchema;
 					varItem = dataType+" variable";
-					captureItem(varItem, varName, XMLFeatures, "", statusDataType, ctx.start.getLine());
+					captureItem(varItem, varName, XMLFeatures, "", statusDataType, featureStatusKey(XMLFeatures, "XML TYPE DEFINITION"), ctx.start.getLine());
 					captured = true;
 				}
 				else {
@@ -6625,6 +6764,7 @@ public class CompassAnalyze {
 					mostRecentDatatype(getBaseDataType(dataType));
 					if (featureExists(Datatypes, getBaseDataType(dataType))) {
 						statusDataType = featureSupportedInVersion(Datatypes, getBaseDataType(dataType));
+						statusDataTypeKey = featureStatusKey(Datatypes, getBaseDataType(dataType));
 					}
 					else {
 						// datatype is not listed, means: supported
@@ -6638,7 +6778,7 @@ public class CompassAnalyze {
 				}
 
 				if (!captured)
-				captureItem(varItem, varName, section, dataType, statusDataType, ctx.start.getLine());
+				captureItem(varItem, varName, section, dataType, statusDataType, statusDataTypeKey, ctx.start.getLine());
 
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -6681,7 +6821,7 @@ public class CompassAnalyze {
 							if (u.currentObjectAttributes.contains(" " + TrigMultiDMLAttr + " ")) {
 								String status = featureSupportedInVersion(TransitionTableMultiDMLTrig);
 								if (!status.equals(u.Supported)) {
-									captureItem(TransitionTableMultiDMLTrig, u.currentObjectName, TransitionTableMultiDMLTrig, name.toUpperCase(), status, ctx.start.getLine());
+									captureItem(TransitionTableMultiDMLTrig, u.currentObjectName, TransitionTableMultiDMLTrig, name.toUpperCase(), status, featureStatusKey(TransitionTableMultiDMLTrig), ctx.start.getLine());
 								}
 							}
 						}
@@ -6705,7 +6845,7 @@ public class CompassAnalyze {
 					boolean isXMLMethod = false;
 					// first check if this is an XML.nodes() call, it is sometimes parsed as a TUDF call
 					if (TUDFname.contains(".NODES")) {
-						isXMLMethod = udfIsBifMethod(TUDFname, u.XMLmethods, u.TUDFNamesLikeXML, u.TUDFSymTab);
+						isXMLMethod = udfIsBifMethod(TUDFname, u.XMLmethods, u.TUDFNamesLikeXML, CompassSymTabFile.kindTUDF);
 					}
 
 					if (isXMLMethod) {
@@ -6765,7 +6905,7 @@ public class CompassAnalyze {
 
 				if (ctx.UNPIVOT() != null) {
 					String status = featureSupportedInVersion(SelectUnpivot);
-					captureItem(SelectUnpivot, "", SelectUnpivot, "", status, ctx.UNPIVOT().getSymbol().getLine());
+					captureItem(SelectUnpivot, "", SelectUnpivot, "", status, featureStatusKey(SelectUnpivot), ctx.UNPIVOT().getSymbol().getLine());
 				}
 
 				if (ctx.JOIN() != null) {
@@ -6791,7 +6931,7 @@ public class CompassAnalyze {
 					String inDML = "";
 					if (hasParent(ctx.parent,"update_statement")) inDML = ", in UPDATE";
 					else if (hasParent(ctx.parent,"delete_statement")) inDML = ", in DELETE";
-					captureItem(type+" ("+LateralJoin.toLowerCase()+")"+inDML, "", LateralJoin, type, status, ctx.lj.getLine());
+					captureItem(type+" ("+LateralJoin.toLowerCase()+")"+inDML, "", LateralJoin, type, status, featureStatusKey(LateralJoin, type), ctx.lj.getLine());
 				}
 
 				if (ctx.colon_colon() != null) {
@@ -6807,21 +6947,23 @@ public class CompassAnalyze {
 							addRewrite(ColonColonFunctionCall);
 						}
 					}
-					captureItem(ColonColonFunctionCall, funcName, ColonColonFunctionCall, "", status, ctx.colon_colon().start.getLine());
+					captureItem(ColonColonFunctionCall, funcName, ColonColonFunctionCall, "", status, featureStatusKey(ColonColonFunctionCall), ctx.colon_colon().start.getLine());
 				}
 
 				visitChildren(ctx);
 
 				// perform capture for PIVOT
 				if (statusPivot.equals(u.Supported)) {
+					String statusPivotKey = featureStatusKey(SelectPivot, "PIVOT");
 					if (!statusPivotChk.isEmpty()) {
 						statusPivot = featureSupportedInVersion(SelectPivot, statusPivotChk);
+						statusPivotKey = featureStatusKey(SelectPivot, statusPivotChk);
 					}
 					if (statusPivot.equals(u.Supported)) {
 						statusPivotChkFmt = "";
 					}
 					//u.appOutput(u.thisProc()+"statusPivot=["+statusPivot+"] statusPivotChk=["+statusPivotChk+"] statusPivotChkFmt=["+statusPivotChkFmt+"] inAnsiJoin=["+inAnsiJoin+"] inPivot=["+inPivot+"] lineNrPivot=["+lineNrPivot+"] ");
-					captureItem(SelectPivot+statusPivotChkFmt, "", SelectPivot, "", statusPivot, lineNrPivot);
+					captureItem(SelectPivot+statusPivotChkFmt, "", SelectPivot, "", statusPivot, statusPivotKey, lineNrPivot);
 				}
 
 				if (ctx.JOIN() != null) {
@@ -6850,7 +6992,7 @@ public class CompassAnalyze {
 			@Override public String visitJoin_hint(TSQLParser.Join_hintContext ctx) {
 				String hint = ctx.getText().toUpperCase();
 				String status = featureSupportedInVersion(JoinHint, hint);
-				captureItem(JoinHint+ " " + hint, "", JoinHint, hint, status, ctx.start.getLine());
+				captureItem(JoinHint+ " " + hint, "", JoinHint, hint, status, featureStatusKey(JoinHint, hint), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
@@ -6889,7 +7031,7 @@ public class CompassAnalyze {
 						}
 						//w = u.collapseWhitespace(u.applyPatternAll(w, "(FORCE|DISABLE|HINT|PLAN|GROUP|UNION|JOIN|NOEXPAND|VIEWS|FOR|PARAMETERIZATION)", " $1 "));
 						String status = featureSupportedInVersion(TableHint, hintChk);
-						captureItem(TableHint+ " " + w, w2, TableHint, u.decodeIdentifier(hint), status, ctx.start.getLine());
+						captureItem(TableHint+ " " + w, w2, TableHint, u.decodeIdentifier(hint), status, featureStatusKey(TableHint, hintChk), ctx.start.getLine());
 					}
 					else {
 						if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"not a table hint: ["+hint+"] ", u.debugPtree);
@@ -6909,7 +7051,7 @@ public class CompassAnalyze {
 				}
 				else {
 					String status = featureSupportedInVersion(QueryHint, hint);
-					captureItem(QueryHint+ " " + hint, "", QueryHint, hint, status, ctx.start.getLine());
+					captureItem(QueryHint+ " " + hint, "", QueryHint, hint, status, featureStatusKey(QueryHint, hint), ctx.start.getLine());
 				}
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -6923,11 +7065,11 @@ public class CompassAnalyze {
 				}
 				if (s.contains("\\\n")) {  // note that CRLF has been changed to LF by now
 					String status = featureSupportedInVersion(LineContinuationChar,"CHAR");
-					captureItem(LineContinuationChar + " in character string", "", LineContinuationChar, "", status, ctx.start.getLine());
+					captureItem(LineContinuationChar + " in character string", "", LineContinuationChar, "", status, featureStatusKey(LineContinuationChar,"CHAR"), ctx.start.getLine());
 				}
 				if (s.contains("\\\n")) {  // note that CRLF has been changed to LF by now
 					String status = featureSupportedInVersion(LineContinuationChar,"CHAR");
-					captureItem(LineContinuationChar + " in character string", "", LineContinuationChar, "", status, ctx.start.getLine());
+					captureItem(LineContinuationChar + " in character string", "", LineContinuationChar, "", status, featureStatusKey(LineContinuationChar,"CHAR"), ctx.start.getLine());
 				}
 
 				// check for sqlcmd variables. Here only checking for the exact string. May not report all occurrences in a string
@@ -6940,7 +7082,7 @@ public class CompassAnalyze {
 						if (s.endsWith(")")) {
 							if (!u.getPatternGroup(s, "^(\\$\\(\\w+\\))$", 1).isEmpty()) {
 				 				// todo: highlight predefined sqlcmd variables?
-				 				captureItem(sqlcmdVariable + " " + s, "", sqlcmdReportGroup, "", status, ctx.start.getLine());
+				 				captureItem(sqlcmdVariable + " " + s, "", sqlcmdReportGroup, "", status, featureStatusKey(sqlcmdVariable), ctx.start.getLine());
 				 				found = true;
 							}
 						}
@@ -6952,7 +7094,7 @@ public class CompassAnalyze {
 							for (String v: sqlcmdVars) {
 								String var = u.getPatternGroup(s, "(\\$\\("+v+"\\))", 1); // case-insensitive by default
 								if (!var.isEmpty()) {
-									captureItem(sqlcmdVariable + " " + var, "", sqlcmdReportGroup, "", status, ctx.start.getLine());
+									captureItem(sqlcmdVariable + " " + var, "", sqlcmdReportGroup, "", status, featureStatusKey(sqlcmdVariable), ctx.start.getLine());
 								}
 							}
 						}
@@ -6977,7 +7119,7 @@ public class CompassAnalyze {
 				String s = ctx.getText().toUpperCase();
 				s = s.replaceFirst("WITH", "WITH ");
 				// reporting here as WithRollupCubeOldSyntax for better clarity. But we cannot change the .cfg file so keeping RollupCubeOldSyntax there
-				captureItem(WithRollupCubeOldSyntax, s, RollupCubeOldSyntax, s, status, ctx.start.getLine());
+				captureItem(WithRollupCubeOldSyntax, s, RollupCubeOldSyntax, s, status, featureStatusKey(RollupCubeOldSyntax), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
@@ -7007,7 +7149,7 @@ public class CompassAnalyze {
 					execute_statement_procName = procName;
 					if (!lookupSUDF(procName).isEmpty()) {
 						String status = featureSupportedInVersion(ExecuteSQLFunction);
-						captureItem(ExecuteSQLFunction, procName, ExecuteSQLFunction, "", status, ctx.start.getLine());
+						captureItem(ExecuteSQLFunction, procName, ExecuteSQLFunction, "", status, featureStatusKey(ExecuteSQLFunction), ctx.start.getLine());
 					}
 				}
 
@@ -7019,7 +7161,7 @@ public class CompassAnalyze {
 
 				if (!proc_var.isEmpty()) {
 					String procStatus = featureSupportedInVersion(ProcExecAsVariable);
-					captureItem("EXECUTE procedure"+proc_var+return_status, ctx.proc_var.getText(), ProcExecAsVariable, "", procStatus, ctx.start.getLine());
+					captureItem("EXECUTE procedure"+proc_var+return_status, ctx.proc_var.getText(), ProcExecAsVariable, "", procStatus, featureStatusKey(ProcExecAsVariable), ctx.start.getLine());
 					//String args= getTextSpaced(ctx.execute_statement_arg());
 					//u.appOutput(u.thisProc()+"EXECUTE procedure"+proc_var+return_status+":" + args);
 				}
@@ -7053,7 +7195,7 @@ public class CompassAnalyze {
 					else {
 						// if we cannot figure out the query in the argument, mark as review manually
 						String DynamicSQLStatus = featureSupportedInVersion(DynamicSQL);
-						captureItem(DynamicSQLEXECStringReview, "", DynamicSQL, "", DynamicSQLStatus, ctx.start.getLine());
+						captureItem(DynamicSQLEXECStringReview, "", DynamicSQL, "", DynamicSQLStatus, featureStatusKey(DynamicSQL), ctx.start.getLine());
 					}
 				}
 
@@ -7110,7 +7252,7 @@ public class CompassAnalyze {
 					}
 					if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"execVarOptions i=["+i+"] option=["+option+"]  optionRawSpaced=["+optionRawSpaced+"]", u.debugPtree);
 					String status = featureSupportedInVersion(ExecStringOptions,option);
-					captureItem("EXECUTE(string"+execArg2+"), "+option+optionFmt, optionValue, DynamicSQL, option, status, ctx.start.getLine());
+					captureItem("EXECUTE(string"+execArg2+"), "+option+optionFmt, optionValue, DynamicSQL, option, status, featureStatusKey(ExecStringOptions,option), ctx.start.getLine());
 				}
 
 				visitChildren(ctx);
@@ -7195,7 +7337,7 @@ public class CompassAnalyze {
 					else {
 						// if we cannot figure out the query in the argument, mark as review manually
 						String DynamicSQLStatus = featureSupportedInVersion(DynamicSQL);
-						captureItem(DynamicSQLEXECSPReview, "", DynamicSQL, "", DynamicSQLStatus, lineNr);
+						captureItem(DynamicSQLEXECSPReview, "", DynamicSQL, "", DynamicSQLStatus, featureStatusKey(DynamicSQL), lineNr);
 					}
 				}
 				else {
@@ -7207,6 +7349,7 @@ public class CompassAnalyze {
 							if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"featureExists: "+ " sysProcName=["+sysProcName+"]  ", u.debugPtree);
 							section = SystemStoredProcs;
 							String procStatus = featureSupportedInVersion(SystemStoredProcs, sysProcName);
+							String procStatusKey = featureStatusKey(SystemStoredProcs, sysProcName);
 
 							if (procStatus.equals(u.Supported)) {
 								String argN = cfg.featureExistsArg(sysProcName);
@@ -7214,6 +7357,7 @@ public class CompassAnalyze {
 
 								if (!argN.isEmpty()) {
 									String statusArgN = u.NotSupported;
+									String statusArgNKey = null;
 									int argNum = Integer.parseInt(argN.substring(3));
 									String argNValue = u.stripStringQuotes(getArgProcExec(argNum, procName, arg)).trim().toUpperCase();
 									if (argNValue.isEmpty()) argNValue="NULL_OR_BLANK"; 						
@@ -7221,6 +7365,7 @@ public class CompassAnalyze {
 									if (!argNValue.isEmpty()) {
 										if (argNValue.charAt(0) != '@') {
 											statusArgN = featureArgSupportedInVersion(procName, argN, argNValue);
+											statusArgNKey = featureArgStatusKey(procName, argN, argNValue);
 											argMsg = ", '"+argNValue+"'";
 											if (argNValue.equals("NULL_OR_BLANK")) {
 												argMsg = ", no value for argument #"+argNum;
@@ -7232,10 +7377,11 @@ public class CompassAnalyze {
 										}
 									}
 									procStatus = statusArgN;
+									procStatusKey = statusArgNKey;
 									if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"validating arg=["+argN+"] argNValue=["+argNValue+"] for system proc=["+sysProcName+"]: statusArgN=["+statusArgN+"] ", u.debugPtree);
 								}
 							}
-							captureItem("EXECUTE procedure "+sysProcName+argMsg+firstStmt+return_status, procName, SystemStoredProcs, sysProcName, procStatus, lineNr);
+							captureItem("EXECUTE procedure "+sysProcName+argMsg+firstStmt+return_status, procName, SystemStoredProcs, sysProcName, procStatus, procStatusKey, lineNr);
 
 							// check extended property object types
 							if (sysProcName.equals("sp_addextendedproperty") || sysProcName.equals("sp_updateextendedproperty") || sysProcName.equals("sp_dropextendedproperty")) {
@@ -7282,7 +7428,7 @@ public class CompassAnalyze {
 					// proc versioning?
 					if (proc_version != null) {
 						String procStatus = featureSupportedInVersion(ProcVersionExecute);
-						captureItem("EXECUTE proc;version"+firstStmt+return_status, procName+";"+proc_version.getText(), ProcVersionExecute, "", procStatus, lineNr);
+						captureItem("EXECUTE proc;version"+firstStmt+return_status, procName+";"+proc_version.getText(), ProcVersionExecute, "", procStatus, featureStatusKey(ProcVersionExecute), lineNr);
 					}
 					else {
 						captureItem("EXECUTE procedure"+firstStmt+return_status, procName, section, "", u.Supported, lineNr);
@@ -7298,14 +7444,16 @@ public class CompassAnalyze {
 				if (exProp.isEmpty()) return;
 				String varName = "";
 				String typeStatus = featureSupportedInVersion(ExtendedPropType, exProp);
+				String typeStatusKey = featureStatusKey(ExtendedPropType, exProp);
 				if (exProp.charAt(0) == '@') {
 					typeStatus = u.ReviewManually;
+					typeStatusKey = null;
 					varName = exProp;
 					exProp = "in @var";
 				}
 				//u.appOutput(u.thisProc()+"exProp=["+exProp+"] procName=["+procName+"] typeStatus=["+typeStatus+"] ");
 				if (!typeStatus.equals(u.Supported)) {
-					captureItem("Extended property type "+exProp+" in " + procName, varName, group, "", typeStatus, lineNr);
+					captureItem("Extended property type "+exProp+" in " + procName, varName, group, "", typeStatus, typeStatusKey, lineNr);
 				}
 				return;
 			}
@@ -7407,7 +7555,7 @@ public class CompassAnalyze {
 							}
 						}
 					}
-					captureItem(s, procName, ExecProcedureOptions, option, status, lineNr);
+					captureItem(s, procName, ExecProcedureOptions, option, status, featureStatusKey(ExecProcedureOptions, option), lineNr);
 				}
 			}
 
@@ -7424,7 +7572,7 @@ public class CompassAnalyze {
 					}
 					if (options.size() > 1) {
 						String status = featureSupportedInVersion(SetMultipleOptions);
-						captureItem(SetMultipleOptions+" ("+options.size()+")", "", SetMultipleOptions, "", status, ctx.start.getLine());
+						captureItem(SetMultipleOptions+" ("+options.size()+")", "", SetMultipleOptions, "", status, featureStatusKey(SetMultipleOptions), ctx.start.getLine());
 					}
 				}
 				else if (ctx.IDENTITY_INSERT() != null) {
@@ -7472,7 +7620,7 @@ public class CompassAnalyze {
 						}
 						if (options.size() > 1) {
 							String status = featureSupportedInVersion(SetMultipleOptions);
-							captureItem(SetMultipleOptions+" ("+options.size()+")", "", SetMultipleOptions, "STATISTICS", status, ctx.start.getLine());
+							captureItem(SetMultipleOptions+" ("+options.size()+")", "", SetMultipleOptions, "STATISTICS", status, featureStatusKey(SetMultipleOptions), ctx.start.getLine());
 						}
 					}
 				}
@@ -7485,7 +7633,7 @@ public class CompassAnalyze {
 						}
 						if (options.size() > 1) {
 							String status = featureSupportedInVersion(SetMultipleOptions);
-							captureItem(SetMultipleOptions+" ("+options.size()+")", "", SetMultipleOptions, "OFFSETS", status, ctx.start.getLine());
+							captureItem(SetMultipleOptions+" ("+options.size()+")", "", SetMultipleOptions, "OFFSETS", status, featureStatusKey(SetMultipleOptions), ctx.start.getLine());
 						}
 					}
 				}
@@ -7569,14 +7717,16 @@ public class CompassAnalyze {
 				}
 				if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"feature=["+feature+"] setValueTest=["+setValueTest+"] ", u.debugPtree);
 				String status = featureSupportedInVersion(feature, setValueTest);
+				String statusKey = featureStatusKey(feature, setValueTest);
 				if (setValueTest.equals(cfgVariable)) {
 					if (status.equals(u.NotSupported)) {
 						if (!feature.equals("SET ROWCOUNT")) {
 							status = u.ReviewManually;
+							statusKey = null;
 						}
 					}
 				}
-				captureItem(formatItemDisplay(feature+" "+setValueFmt), itemDetail, SetOptions, feature, status, lineNr);
+				captureItem(formatItemDisplay(feature+" "+setValueFmt), itemDetail, SetOptions, feature, status, statusKey, lineNr);
 			}
 
 			@Override public String visitSet_statement(TSQLParser.Set_statementContext ctx) {
@@ -7605,7 +7755,7 @@ public class CompassAnalyze {
 
 					if (ctx.CURSOR() != null) {
 						String status = featureSupportedInVersion(CursorVariables);
-						captureItem("CURSOR variable assignment", varName, CursorVariables, "SET", status, ctx.start.getLine());
+						captureItem("CURSOR variable assignment", varName, CursorVariables, "SET", status, featureStatusKey(CursorVariables), ctx.start.getLine());
 					}
 					else {
 						String op = "=";
@@ -7699,7 +7849,7 @@ public class CompassAnalyze {
 				}
 
 				String status = featureSupportedInVersion(AtTimeZone);
-				captureItem(AtTimeZone + " " + expr, "", "", "", status, ctx.start.getLine());
+				captureItem(AtTimeZone + " " + expr, "", "", "", status, featureStatusKey(AtTimeZone), ctx.start.getLine());
 
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -7728,7 +7878,7 @@ public class CompassAnalyze {
 								addRewrite(item);
 							}
 						}
-						captureItem(item, "", OperatorsReportGroup, "", status, ctx.PLUS().getSymbol().getLine());						
+						captureItem(item, "", OperatorsReportGroup, "", status, featureStatusKey(item), ctx.PLUS().getSymbol().getLine());						
 					}
 				}
 				visitChildren(ctx);
@@ -7780,7 +7930,7 @@ public class CompassAnalyze {
 									String statusCC = u.Supported;
 									if (featureExists(CompColFeatures, cfgStringConcatPlus)) {
 										statusCC = featureSupportedInVersion(CompColFeatures, cfgStringConcatPlus);
-										captureItem(opFmt + ", in computed column"+inCompColType, "", OperatorsReportGroup, "", statusCC, ctx.start.getLine());
+										captureItem(opFmt + ", in computed column"+inCompColType, "", OperatorsReportGroup, "", statusCC, featureStatusKey(CompColFeatures, cfgStringConcatPlus), ctx.start.getLine());
 									}
 								}
 							}
@@ -7841,7 +7991,7 @@ public class CompassAnalyze {
 						}
 					}
 
-					captureItem(item, op, OperatorsReportGroup, "", status, ctx.start.getLine());
+					captureItem(item, op, OperatorsReportGroup, "", status, featureStatusKey(ComparisonOperator, opChk), ctx.start.getLine());
 
 					// no children to visit
 					return null;
@@ -7873,7 +8023,7 @@ public class CompassAnalyze {
 						}
 					}
 				}
-				captureItem(item, op, OperatorsReportGroup, "", status, ctx.start.getLine());
+				captureItem(item, op, OperatorsReportGroup, "", status, featureStatusKey(CompoundOpWhitespace, op), ctx.start.getLine());
 
 				// no children to visit
 				return null;
@@ -7884,7 +8034,7 @@ public class CompassAnalyze {
 				// SQL2022 feature
 
 				String status = featureSupportedInVersion(DistinctFromOperator);
-				captureItem("DISTINCT FROM operator", "", OperatorsReportGroup, "", status, ctx.start.getLine());
+				captureItem("DISTINCT FROM operator", "", OperatorsReportGroup, "", status, featureStatusKey(DistinctFromOperator), ctx.start.getLine());
 
 				// no children to visit
 				return null;
@@ -7942,7 +8092,7 @@ public class CompassAnalyze {
 					}
 				}
 				 // ctx.getText() could be very long due to embedded expressions
-				captureItem(ODBCScalarFunction+" { fn "+funcName+"() }", "{ fn "+funcName+"() }", ODBCScalarFunction, funcName, status, ctx.start.getLine());
+				captureItem(ODBCScalarFunction+" { fn "+funcName+"() }", "{ fn "+funcName+"() }", ODBCScalarFunction, funcName, status, featureStatusKey(ODBCScalarFunction, funcName), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -7970,7 +8120,7 @@ public class CompassAnalyze {
 						}
 					}
 				}
-				captureItem(ODBCLiterals+" { "+funcName+u.escapeHTMLChars(" <string> }"), ctx.getText(), ODBCLiterals, funcName, status, ctx.start.getLine());
+				captureItem(ODBCLiterals+" { "+funcName+u.escapeHTMLChars(" <string> }"), ctx.getText(), ODBCLiterals, funcName, status, featureStatusKey(ODBCLiterals, funcName), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -7979,7 +8129,7 @@ public class CompassAnalyze {
 			@Override public String visitOdbc_outer_join(TSQLParser.Odbc_outer_joinContext ctx) {
 				if (u.debugging) dbgTraceVisitEntry(CompassUtilities.thisProc());
 				String status = featureSupportedInVersion(ODBCOJ);
-				captureItem(ODBCOJ, "", ODBCOJ, "", status, ctx.start.getLine());
+				captureItem(ODBCOJ, "", ODBCOJ, "", status, featureStatusKey(ODBCOJ), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -7987,21 +8137,21 @@ public class CompassAnalyze {
 
 			@Override public String visitReadtext_statement(TSQLParser.Readtext_statementContext ctx) {
 				String status = featureSupportedInVersion(ReadText);
-				captureItem(ReadText, ctx.col.getText(), ReadText, "", status, ctx.start.getLine());
+				captureItem(ReadText, ctx.col.getText(), ReadText, "", status, featureStatusKey(ReadText), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
 
 			@Override public String visitWritetext_statement(TSQLParser.Writetext_statementContext ctx) {
 				String status = featureSupportedInVersion(WriteText);
-				captureItem(WriteText, ctx.col.getText(), WriteText, "", status, ctx.start.getLine());
+				captureItem(WriteText, ctx.col.getText(), WriteText, "", status, featureStatusKey(WriteText), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
 
 			@Override public String visitUpdatetext_statement(TSQLParser.Updatetext_statementContext ctx) {
 				String status = featureSupportedInVersion(UpdateText);
-				captureItem(UpdateText, ctx.col.getText(), UpdateText, "", status, ctx.start.getLine());
+				captureItem(UpdateText, ctx.col.getText(), UpdateText, "", status, featureStatusKey(UpdateText), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
@@ -8018,19 +8168,21 @@ public class CompassAnalyze {
 						String flag = u.applyPatternFirst(flags.get(i), "^[0]+", "");
 						if (flag.equals("-1")) continue;
 						String status = u.NotSupported;
+						String statusKey = null;
 						if (flag.charAt(0) == '@') {
 							status = u.ReviewManually;
 							flag = formatItemDisplay(flag);
 						}
 						else {
 							status = featureSupportedInVersion(Traceflags,flag);
+							statusKey = featureStatusKey(Traceflags,flag);
 						}
-						captureItem("DBCC "+cmd+"("+flag+")", flag, Traceflags, flag, status, ctx.start.getLine());
+						captureItem("DBCC "+cmd+"("+flag+")", flag, Traceflags, flag, status, statusKey, ctx.start.getLine());
 					}
 				}
 				else {
 					String status = featureSupportedInVersion(DbccStatements,cmd);
-					captureItem("DBCC "+cmd, cmd, DbccStatements, cmd, status, ctx.start.getLine());
+					captureItem("DBCC "+cmd, cmd, DbccStatements, cmd, status, featureStatusKey(DbccStatements,cmd), ctx.start.getLine());
 				}
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -8085,6 +8237,7 @@ public class CompassAnalyze {
 				}
 
 				String status = featureSupportedInVersion(Collations,collationName);
+				String statusKey = featureStatusKey(Collations,collationName);
 				String CSmsg = "";
 
 				if (collationName.toUpperCase().contains("_CS_")) {
@@ -8092,6 +8245,7 @@ public class CompassAnalyze {
 						String CSstatus = featureSupportedInVersion(CaseSensitiveCollation,contextCS);
 						if (!CSstatus.equals(u.Supported)) {
 							status = CSstatus;
+							statusKey = featureStatusKey(CaseSensitiveCollation,contextCS);
 							CSmsg = CaseSensitiveCollation + " ";
 						}
 					}
@@ -8108,19 +8262,23 @@ public class CompassAnalyze {
 					if (statusCrdb.equals(u.NotSupported)) {
 						msg = "CREATE DATABASE...COLLATE";
 						status = statusCrdb;
+						statusKey = featureStatusKey(CreateDatabaseOptions, "COLLATE");
 					}
 					else {
 						status = statusCrdbV24 = statusCrdb;  // CREATE DATABASE...COLLATE is IGNORED
+						statusKey = featureStatusKey(CreateDatabaseOptions, "COLLATE");
 						
 						statusCrdb = featureSupportedInVersion(CreateDatabaseOptions, "COLLATE " + collationName);
 						String statusv31 = featureSupportedInVersion(CreateDatabaseOptions,"COLLATE SQL_LATIN1_GENERAL_CP1_CI_AS");
 						if (statusCrdb.equals(u.Supported)) {
 							msg = CSmsg+collationName+", "+context;
 							status = statusCrdb;
+							statusKey = featureStatusKey(CreateDatabaseOptions, "COLLATE " + collationName);
 						}
 						else {
 							if (statusv31.equals(u.Supported)) {
 								status = u.NotSupported;
+								statusKey = null;
 							}
 							else {
 								status = statusCrdbV24;
@@ -8129,7 +8287,7 @@ public class CompassAnalyze {
 					}
 				}
 				
-				captureItem(msg, columnName, Collations, "", status, ctx.COLLATE().getSymbol().getLine());
+				captureItem(msg, columnName, Collations, "", status, statusKey, ctx.COLLATE().getSymbol().getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -8146,14 +8304,16 @@ public class CompassAnalyze {
 					//if (option.equals("CATALOG_COLLATION=DATABASE_DEFAULT")) continue;
 
 					String status = u.uninitialized;
+					String statusKey = null;
 					boolean captured = false;
 					if (option.startsWith("CATALOG_COLLATION=")) {
 						optionChk = optionChk.replaceFirst("=", " ");
 						String catalogCollation = getOptionValue(option);
 						if (catalogCollation.toUpperCase().contains("_CS_")) {
 							status = featureSupportedInVersion(CaseSensitiveCollation,"CATALOG_COLLATION");
+							statusKey = featureStatusKey(CaseSensitiveCollation,"CATALOG_COLLATION");
 							if (!status.equals(u.Supported)) {
-								captureItem(CaseSensitiveCollation + " "+catalogCollation+", in CREATE DATABASE..CATALOG_COLLATION", "", Collations, "", status, options.get(i).start.getLine());
+								captureItem(CaseSensitiveCollation + " "+catalogCollation+", in CREATE DATABASE..CATALOG_COLLATION", "", Collations, "", status, statusKey, options.get(i).start.getLine());
 								captured = true;
 							}
 						}
@@ -8161,9 +8321,10 @@ public class CompassAnalyze {
 			
 					if (status.equals(u.uninitialized) && !captured) {
 						status = featureSupportedInVersion(CreateDatabaseOptions,optionChk);
+						statusKey = featureStatusKey(CreateDatabaseOptions,optionChk);
 					}
 					if (!captured) {
-						captureItem("Option "+option+", in CREATE DATABASE", option, CreateDatabaseOptions, option, status, options.get(i).start.getLine());
+						captureItem("Option "+option+", in CREATE DATABASE", option, CreateDatabaseOptions, option, status, statusKey, options.get(i).start.getLine());
 					}
 				}
 
@@ -8171,7 +8332,7 @@ public class CompassAnalyze {
 					String option = "CONTAINMENT";
 					String optionValue = ctx.containment.getText().toUpperCase();
 					String status = featureSupportedInVersion(CreateDatabaseOptions, option, optionValue);
-					captureItem("Option "+formatOptionDisplay(option,optionValue)+	", in CREATE DATABASE", option, CreateDatabaseOptions, option, status, ctx.start.getLine());
+					captureItem("Option "+formatOptionDisplay(option,optionValue)+	", in CREATE DATABASE", option, CreateDatabaseOptions, option, status, featureStatusKey(CreateDatabaseOptions, option, optionValue), ctx.start.getLine());
 				}
 				captureItem("CREATE DATABASE "+dbName, dbName, DatabasesReportGroup, "", u.Supported, ctx.start.getLine(), "0");
 				visitChildren(ctx);
@@ -8186,14 +8347,14 @@ public class CompassAnalyze {
 				// is ALTER DATABASE supported at all?
 				String AlterDBStatus = featureSupportedInVersion(AlterDatabase);
 				if (!AlterDBStatus.equals(u.Supported)) {
-					captureItem("ALTER DATABASE", "", DatabasesReportGroup, "", AlterDBStatus, ctx.start.getLine());
+					captureItem("ALTER DATABASE", "", DatabasesReportGroup, "", AlterDBStatus, featureStatusKey(AlterDatabase), ctx.start.getLine());
 				}
 				else {
 					if (ctx.database != null) dbName = ctx.database.getText();
 					else {
 						dbName = "CURRENT";
 						String status = featureSupportedInVersion(AlterDatabaseOptions, dbName);
-						captureItem("ALTER DATABASE CURRENT", "", AlterDatabaseOptions, "CURRENT", status, ctx.start.getLine());
+						captureItem("ALTER DATABASE CURRENT", "", AlterDatabaseOptions, "CURRENT", status, featureStatusKey(AlterDatabaseOptions, dbName), ctx.start.getLine());
 					}
 					dbName = u.normalizeName(dbName.toUpperCase());
 
@@ -8224,14 +8385,14 @@ public class CompassAnalyze {
 						}
 
 						String status = featureSupportedInVersion(AlterDatabaseOptions, option, optionValue);
-						captureItem("Option "+formatOptionDisplay(option,optionValue)+", in ALTER DATABASE", option, AlterDatabaseOptions, option, status, ctx.start.getLine());
+						captureItem("Option "+formatOptionDisplay(option,optionValue)+", in ALTER DATABASE", option, AlterDatabaseOptions, option, status, featureStatusKey(AlterDatabaseOptions, option, optionValue), ctx.start.getLine());
 						if (u.debugging) u.dbgOutput("ALTER DATABASE, dbName=["+dbName+"]  option=["+option+"] optionValue=["+optionValue+"]  status=["+status+"] ", u.debugPtree);
 					}
 
 					if (ctx.MODIFY() != null) {
 						String option = "MODIFY NAME";
 						String status = featureSupportedInVersion(AlterDatabaseOptions, option, "");
-						captureItem("Option "+option+", in ALTER DATABASE", option, AlterDatabaseOptions, option, status, ctx.start.getLine());
+						captureItem("Option "+option+", in ALTER DATABASE", option, AlterDatabaseOptions, option, status, featureStatusKey(AlterDatabaseOptions, option, ""), ctx.start.getLine());
 					}
 				}
 
@@ -8259,6 +8420,7 @@ public class CompassAnalyze {
 				if (!u.getPatternGroup(idOrig, "^(GEOGRAPHY|GEOMETRY)\\s*::", 1).isEmpty()) {
 					String spatialCall = u.getPatternGroup(idOrig, "^\\w+\\s*::\\s*(\\w+)\\b", 1);					
 					String status = featureSupportedInVersion(Geospatial,spatialCall);
+					String statusKey = featureStatusKey(Geospatial,spatialCall);
 					if (status.equals(u.Supported)) {
 						if (featureExists(spatialCall)) {
 							// for function calls like STGeomFromText, assuming this is about validating the first argument only
@@ -8275,18 +8437,19 @@ public class CompassAnalyze {
 										}			
 										String status2 = featureSupportedInVersion(spatialCall, spatialFunction);
 										status = status2;
+										statusKey = featureStatusKey(spatialCall, spatialFunction);
 										spatialCall += "("+spatialFunction+")";
 									}
 								}
 							}
 						}
 					}
-					captureItem(SpatialMethodCallFmt + " " + spatialCall, "", SpatialReportGroup, "", status, ctx.start.getLine());
+					captureItem(SpatialMethodCallFmt + " " + spatialCall, "", SpatialReportGroup, "", status, statusKey, ctx.start.getLine());
 				}
 				else {
 					if (featureExists(SpecialColumNames,id)) {
 						String status = featureSupportedInVersion(SpecialColumNames,id);
-						captureItem("Special column name "+id, id, SpecialColumNames, id, status, ctx.start.getLine());
+						captureItem("Special column name "+id, id, SpecialColumNames, id, status, featureStatusKey(SpecialColumNames,id), ctx.start.getLine());
 					}
 
 					int maxIdLen = featureIntValueSupportedInVersion(MaxIdentifierLength);
@@ -8329,7 +8492,7 @@ public class CompassAnalyze {
 				if (id.contains(SpecialChar)) {
 					if (featureExists(section,u.decodeIdentifier(SpecialChar))) {
 						String status = featureSupportedInVersion(section,u.decodeIdentifier(SpecialChar));
-						captureItem(section+": '"+u.decodeIdentifier(SpecialChar)+"'", id, SpecialCharsIdentifier, u.decodeIdentifier(SpecialChar), status, lineNr);
+						captureItem(section+": '"+u.decodeIdentifier(SpecialChar)+"'", id, SpecialCharsIdentifier, u.decodeIdentifier(SpecialChar), status, featureStatusKey(section,u.decodeIdentifier(SpecialChar)), lineNr);
 					}
 				}
 			}
@@ -8368,14 +8531,14 @@ public class CompassAnalyze {
 					xactName = ctx.xactnamevar.getText();
 					String xactNameTest = "TRANSACTION NAME IN VARIABLE";
 					String status = featureSupportedInVersion(Transactions,xactNameTest);
-					captureItem(stmt+scope+xactNameFmt, xactName, Transactions, xactNameTest, status, ctx.start.getLine());
+					captureItem(stmt+scope+xactNameFmt, xactName, Transactions, xactNameTest, status, featureStatusKey(Transactions,xactNameTest), ctx.start.getLine());
 					captured = true;
 				}
 
 				if (ctx.DISTRIBUTED() != null) {
 					stmt = "BEGIN DISTRIBUTED TRANSACTION";
 					String status = featureSupportedInVersion(Transactions,stmt);
-					captureItem(stmt+scope+xactNameFmt, "", Transactions, stmt, status, ctx.start.getLine());
+					captureItem(stmt+scope+xactNameFmt, "", Transactions, stmt, status, featureStatusKey(Transactions,stmt), ctx.start.getLine());
 					captured = true;
 				}
 
@@ -8383,7 +8546,7 @@ public class CompassAnalyze {
 					String option = "MARK";
 					String hint = ", WITH " + option;
 					String status = featureSupportedInVersion(Transactions,option);
-					captureItem(stmt+scope+xactNameFmt+hint, "", Transactions, option, status, ctx.start.getLine());
+					captureItem(stmt+scope+xactNameFmt+hint, "", Transactions, option, status, featureStatusKey(Transactions,option), ctx.start.getLine());
 					captured = true;
 				}
 
@@ -8392,7 +8555,7 @@ public class CompassAnalyze {
 					String optionValue = "ON";
 					if (ctx.OFF() != null) optionValue = "OFF";
 					String status = featureSupportedInVersion(Transactions, option, optionValue);
-					captureItem(stmt+scope+xactNameFmt+", WITH " +formatOptionDisplay(option,optionValue), "", Transactions, option, status, ctx.start.getLine());
+					captureItem(stmt+scope+xactNameFmt+", WITH " +formatOptionDisplay(option,optionValue), "", Transactions, option, status, featureStatusKey(Transactions, option, optionValue), ctx.start.getLine());
 					captured = true;
 				}
 
@@ -8404,7 +8567,7 @@ public class CompassAnalyze {
 				if (u.currentObjectAttributes.contains(" EXECUTE AS OWNER ")) {
 					String status = featureSupportedInVersion(SecurityDefinerXact);
 					if (!status.equals(u.Supported)) {
-						captureItem(stmt+" not supported with PostgreSQL SECURITY DEFINER(=EXECUTE AS OWNER)", stmt, SecurityDefinerXact, stmt, status, ctx.start.getLine());
+						captureItem(stmt+" not supported with PostgreSQL SECURITY DEFINER(=EXECUTE AS OWNER)", stmt, SecurityDefinerXact, stmt, status, featureStatusKey(SecurityDefinerXact), ctx.start.getLine());
 					}
 				}
 
@@ -8417,7 +8580,7 @@ public class CompassAnalyze {
 				if (u.debugging) dbgTraceVisitEntry(CompassUtilities.thisProc());
 				if (ctx.getText().contains("\\\n")) {  // note that CRLF has been changed to LF by now
 					String status = featureSupportedInVersion(LineContinuationChar,"HEX");
-					captureItem(LineContinuationChar + " in hex string", "", LineContinuationChar, "", status, ctx.start.getLine());
+					captureItem(LineContinuationChar + " in hex string", "", LineContinuationChar, "", status, featureStatusKey(LineContinuationChar,"HEX"), ctx.start.getLine());
 
 					//visitChildren(ctx); // has no children
 				}
@@ -8436,7 +8599,7 @@ public class CompassAnalyze {
 				stmt = "EXECUTE AS " + stmt;
 
 				String status = featureSupportedInVersion(ExecuteAsRevert,stmt);
-				captureItem(stmt + " (statement)", stmt, ExecuteAsRevert, stmt, status, ctx.start.getLine());
+				captureItem(stmt + " (statement)", stmt, ExecuteAsRevert, stmt, status, featureStatusKey(ExecuteAsRevert,stmt), ctx.start.getLine());
 
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -8449,7 +8612,7 @@ public class CompassAnalyze {
 				// ToDo: handle COOKIE
 				String stmt = "REVERT";
 				String status = featureSupportedInVersion(ExecuteAsRevert,stmt);
-				captureItem(stmt, stmt, ExecuteAsRevert, stmt, status, ctx.start.getLine());
+				captureItem(stmt, stmt, ExecuteAsRevert, stmt, status, featureStatusKey(ExecuteAsRevert,stmt), ctx.start.getLine());
 
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -8460,7 +8623,7 @@ public class CompassAnalyze {
 				if (u.debugging) dbgTraceVisitEntry(CompassUtilities.thisProc());
 				if (hasParent(ctx.parent,"table_source_item")) {
 					String status = featureSupportedInVersion(TableValueConstructor);
-					captureItem(TableValueConstructor+": VALUES(...)", "", TableValueConstructor, "", status, ctx.start.getLine());
+					captureItem(TableValueConstructor+": VALUES(...)", "", TableValueConstructor, "", status, featureStatusKey(TableValueConstructor), ctx.start.getLine());
 				}
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -8474,6 +8637,7 @@ public class CompassAnalyze {
 				String type = "VALUES()";
 				String typeFmt = "";
 				String updateTVFStatus = u.Supported;
+				String updateTVFStatusKey = null;
 				String functionCall = "";
 				if (ctx.ddl_object() != null) {
 					String tableNameRaw = ctx.ddl_object().getText().toUpperCase();
@@ -8484,6 +8648,7 @@ public class CompassAnalyze {
 					String tableNameRaw = ctx.function_call().func_proc_name_server_database_schema().getText().toUpperCase();
 					tableName = u.normalizeName(tableNameRaw);
 					updateTVFStatus = featureSupportedInVersion(InsertStmt,"TABLE FUNCTION");
+					updateTVFStatusKey = featureStatusKey(InsertStmt,"TABLE FUNCTION");
 					functionCall = ", on table function";
 				}
 				else {
@@ -8491,6 +8656,7 @@ public class CompassAnalyze {
 					type = tableName = tableName.substring(0,tableName.indexOf("("));
 					functionCall = ", " + tableName + "()";
 					updateTVFStatus = featureSupportedInVersion(InsertStmt,tableName);
+					updateTVFStatusKey = featureStatusKey(InsertStmt,tableName);
 				}
 				String itemDetail = tableName;
 
@@ -8535,35 +8701,48 @@ public class CompassAnalyze {
 				}
 
 				String status = u.Supported;
+				String statusKey = null;
 				String top = "";
 				if (ctx.TOP() != null) {
 					top = " TOP";
 					status = featureSupportedInVersion(InsertStmt,"TOP");
+					statusKey = featureStatusKey(InsertStmt,"TOP");
 					if (ctx.select_statement() != null) {
 						String statusSubq = featureSupportedInVersion(InsertStmt,"TOP SUBQUERY");
 						if (!statusSubq.equals(u.Supported)) {
-							captureItem("INSERT TOP(subquery)", tableName, InsertStmt, "INSERT", statusSubq, ctx.start.getLine());
+							captureItem("INSERT TOP(subquery)", tableName, InsertStmt, "INSERT", statusSubq, featureStatusKey(InsertStmt,"TOP SUBQUERY"), ctx.start.getLine());
 						}
 					}
 				}
 				if (status.equals(u.Supported)) {
 					status = featureSupportedInVersion(InsertStmt,type);
+					statusKey = featureStatusKey(InsertStmt,type);
 				}
 
 				String outputClause = getOutputClause(ctx.output_clause(), status, InsertStmt, "text", tableName);
+				String outputStatusKey = getOutputClause(ctx.output_clause(), status, InsertStmt, "statusKey", tableName);
 				status = getOutputClause(ctx.output_clause(), status, InsertStmt, "status", tableName);
+				if (!outputStatusKey.isEmpty()) statusKey = outputStatusKey;
 
 				StringBuilder CTE = new StringBuilder("");
- 				status = checkDMLCTE(InsertStmt, targetTableName, ctx.with_expression(), status, CTE, ctx.start.getLine());
+				StringBuilder CTEstatusKey = new StringBuilder("");
+ 				status = checkDMLCTE(InsertStmt, targetTableName, ctx.with_expression(), status, CTE, CTEstatusKey, ctx.start.getLine());
+				if (CTEstatusKey.length() > 0) statusKey = CTEstatusKey.toString();
 
 				if (!updateTVFStatus.equals(u.Supported)) {
-					if (updateTVFStatus.equals(u.NotSupported)) status = u.NotSupported;
-					else if (!status.equals(u.Supported)) status = updateTVFStatus;
+					if (updateTVFStatus.equals(u.NotSupported)) {
+						status = u.NotSupported;
+						statusKey = updateTVFStatusKey;
+					}
+					else if (!status.equals(u.Supported)) {
+						status = updateTVFStatus;
+						statusKey = updateTVFStatusKey;
+					}
 				}
 
 				if (typeFmt.isEmpty()) typeFmt = type;
 				if (!captureTableSrcDML(ctx.parent, tableName, "INSERT", ctx.start.getLine())) {
-					captureItem("INSERT"+top+".."+typeFmt+CTE.toString()+outputClause+functionCall, itemDetail, InsertStmt, "", status, ctx.start.getLine());
+					captureItem("INSERT"+top+".."+typeFmt+CTE.toString()+outputClause+functionCall, itemDetail, InsertStmt, "", status, statusKey, ctx.start.getLine());
 					CaptureXMLNameSpaces(ctx.parent, "INSERT", ctx.start.getLine());
 				}
 
@@ -8579,18 +8758,21 @@ public class CompassAnalyze {
 				if (hasParent(parent,"dml_statement_with_change_tracking_context")) {
 					String status = featureSupportedInVersion(BuiltInFunctions,"CHANGE_TRACKING_CONTEXT");
 					//u.appOutput(u.thisProc()+"status=["+status+"] ");
-					captureItem("CHANGE_TRACKING_CONTEXT(), with "+stmtType, "", BuiltInFunctions, "", status, lineNr);
+					captureItem("CHANGE_TRACKING_CONTEXT(), with "+stmtType, "", BuiltInFunctions, "", status, featureStatusKey(BuiltInFunctions,"CHANGE_TRACKING_CONTEXT"), lineNr);
 				}
 				return;
 			}
 
-			private String checkDMLCTE(String stmtType, String targetTableName, TSQLParser.With_expressionContext with, String status, StringBuilder CTE, int lineNr) {
+			// statusKey: set to the key of the lookup when the status is changed here
+			private String checkDMLCTE(String stmtType, String targetTableName, TSQLParser.With_expressionContext with, String status, StringBuilder CTE, StringBuilder statusKey, int lineNr) {
 				if (with != null) {
 					// ToDo: determine whether CTE is recursive
 					String recursive = ""; // ", recursive"
 					CTE.append(", WITH (Common Table Expression"+recursive+")");
 					if (status.equals(u.Supported)) {
 						status = featureSupportedInVersion(stmtType,"CTE");
+						statusKey.setLength(0);
+						statusKey.append(featureStatusKey(stmtType,"CTE"));
 					}
 
 					for (int i = 0; i < with.ctes.size(); i++) {
@@ -8601,10 +8783,12 @@ public class CompassAnalyze {
 					    	String statusCTEtarget = featureSupportedInVersion(stmtType,"TARGET CTE");
 							if (status.equals(u.Supported)) {
 								status = statusCTEtarget;
+								statusKey.setLength(0);
+								statusKey.append(featureStatusKey(stmtType,"TARGET CTE"));
 							}
 
 							if (stmtType.equals(MergeStmt)) {
-								captureItem("MERGE"+CTE.toString(), "", stmtType, "", statusCTEtarget, lineNr);
+								captureItem("MERGE"+CTE.toString(), "", stmtType, "", statusCTEtarget, featureStatusKey(stmtType,"TARGET CTE"), lineNr);
 							}
 					    	break;
 					    }
@@ -8621,7 +8805,7 @@ public class CompassAnalyze {
 				String DMLTableSrcStatus = u.NotSupported;
 				DMLTableSrcStatus = featureSupportedInVersion(DMLTableSrc, stmt);
 				String msg = DMLTableSrcFmt+stmt+"..OUTPUT)";
-				captureItem(msg, tableName, DMLTableSrc, msg, DMLTableSrcStatus, lineNr);
+				captureItem(msg, tableName, DMLTableSrc, msg, DMLTableSrcStatus, featureStatusKey(DMLTableSrc, stmt), lineNr);
 
 				return true;
 			}
@@ -8630,10 +8814,11 @@ public class CompassAnalyze {
 				return getOutputClause(opClause, status, section, callType, "");
 			}
 			public String getOutputClause(TSQLParser.Output_clauseContext opClause, String status, String section, String callType, String baseTableName) {
-				assert (callType.equals("text") || callType.equals("status")) : CompassUtilities.thisProc()+"invalid callType=["+callType+"] ";
+				// callType 'statusKey': the key of the lookup that determines the status returned for callType 'status', or "" when that is the status passed in
+				assert (callType.equals("text") || callType.equals("status") || callType.equals("statusKey")) : CompassUtilities.thisProc()+"invalid callType=["+callType+"] ";
 				if (opClause == null) {
-					if (callType.equals("text")) return "";
-					else return status;
+					if (callType.equals("status")) return status;
+					else return "";
 				}
 
 				String tmpTabType = "";
@@ -8644,11 +8829,13 @@ public class CompassAnalyze {
 					}
 				}
 
-				if (callType.equals("status")) {
+				if (callType.equals("status") || callType.equals("statusKey")) {
+					String statusKey = "";
 					if (status.equals(u.Supported)) {
 						String item = "OUTPUT";
 						if (opClause.output_clause() != null) item = "OUTPUT OUTPUT";
 						status = featureSupportedInVersion(section,item);
+						statusKey = featureStatusKey(section,item);
 					}
 					if (opClause.INTO() != null) {
 						if (opClause.LOCAL_ID() == null) {
@@ -8656,11 +8843,13 @@ public class CompassAnalyze {
 								String statusGlobTmpTab = featureSupportedInVersion(GlobalTmpTable);
 								if (!statusGlobTmpTab.equals(u.Supported)) {
 									status = statusGlobTmpTab;
+									statusKey = featureStatusKey(GlobalTmpTable);
 								}
 							}
 
 						}
 					}
+					if (callType.equals("statusKey")) return statusKey;
 					return status;
 				}
 
@@ -8719,7 +8908,7 @@ public class CompassAnalyze {
 
 				if (objNameRaw.charAt(0) == '.') {
 					String status = featureSupportedInVersion(LeadingDotsId);
-					captureItem(LeadingDotsId, objNameRaw, LeadingDotsId, stmt, status, lineNr);
+					captureItem(LeadingDotsId, objNameRaw, LeadingDotsId, stmt, status, featureStatusKey(LeadingDotsId), lineNr);
 				}
 
 				if (objName.charAt(0) == '@') {
@@ -8730,7 +8919,7 @@ public class CompassAnalyze {
 //						if (stmt.equals("MERGE")) {
 //							status = featureSupportedInVersion(stmt);
 //						}
-						captureItem(stmtFmt + " @tableVariable", objName.toUpperCase(), TableVariables, stmt, status, lineNr);
+						captureItem(stmtFmt + " @tableVariable", objName.toUpperCase(), TableVariables, stmt, status, featureStatusKey(TableVariables), lineNr);
 					}
 				}
 				if (objName.contains(".")) {
@@ -8746,6 +8935,7 @@ public class CompassAnalyze {
 						if (parts.size() == 3) {
 							String dbName = u.getDBNameFromID(objName);
 							String status = "";
+							String statusKey = null;
 							String ownDB = "";
 							if (dbName.equalsIgnoreCase(u.currentDatabase)) {
 								status = u.Supported;
@@ -8757,8 +8947,9 @@ public class CompassAnalyze {
 								stmtTest = u.applyPatternFirst(stmtTest, "^EXECUTE procedure$", "EXECUTE");
 								//u.appOutput(u.thisProc()+"stmt=["+stmt+"]  stmtTest=["+stmtTest+"] ");
 								status = featureSupportedInVersion(CrossDbReference,stmtTest);
+								statusKey = featureStatusKey(CrossDbReference,stmtTest);
 							}
-							captureItem(CrossDbReference+" by "+stmt+ownDB, objName.toUpperCase(), CrossDbReference, stmt, status, lineNr);
+							captureItem(CrossDbReference+" by "+stmt+ownDB, objName.toUpperCase(), CrossDbReference, stmt, status, statusKey, lineNr);
 						}
 					}
 
@@ -8766,7 +8957,7 @@ public class CompassAnalyze {
 						if (parts.size() == 4) {
 							String serverName = u.getServerNameFromID(objName);
 							String status = featureSupportedInVersion(RemoteObjectReference, stmt);						
-							captureItem(RemoteObjectReference+" by "+stmt, objName.toUpperCase()+fmt, RemoteObjectReference, stmt, status, lineNr);
+							captureItem(RemoteObjectReference+" by "+stmt, objName.toUpperCase()+fmt, RemoteObjectReference, stmt, status, featureStatusKey(RemoteObjectReference, stmt), lineNr);
 						}
 					}
 				}
@@ -8798,13 +8989,13 @@ public class CompassAnalyze {
 					if (featureExists(LegacySchemaNames,schema)) {
 						String statusLegacySchema = featureSupportedInVersion(LegacySchemaNames,schema);
 						if (!statusLegacySchema.equals(u.Supported)) {
-							captureItem("Legacy schema name "+schema, "", LegacySchemaNames, "", statusLegacySchema, lineNr);
+							captureItem("Legacy schema name "+schema, "", LegacySchemaNames, "", statusLegacySchema, featureStatusKey(LegacySchemaNames,schema), lineNr);
 						}
 					}
 				}
 				if (!catName.isEmpty()) {
 					String status = featureSupportedInVersion(section,name);
-					captureItem("Catalog reference "+catName, "", reportGroup, "", status, lineNr);
+					captureItem("Catalog reference "+catName, "", reportGroup, "", status, featureStatusKey(section,name), lineNr);
 				}
 
 				if (stmt.startsWith("INSERT") || stmt.startsWith("UPDATE") || stmt.startsWith("DELETE") || stmt.startsWith("MERGE")) {
@@ -8812,7 +9003,7 @@ public class CompassAnalyze {
 						String statusGlobTmpTab = featureSupportedInVersion(GlobalTmpTable);
 						if (!statusGlobTmpTab.equals(u.Supported)) {
 							String reportStr = stmt + " " + GlobalTmpTableFmt;
-							captureItem(reportStr, objName, DMLReportGroup, "", statusGlobTmpTab, lineNr);
+							captureItem(reportStr, objName, DMLReportGroup, "", statusGlobTmpTab, featureStatusKey(GlobalTmpTable), lineNr);
 						}
 					}
 				}
@@ -8822,7 +9013,7 @@ public class CompassAnalyze {
 				if (u.debugging) dbgTraceVisitEntry(CompassUtilities.thisProc());
 				String tableName = u.normalizeName(ctx.ddl_object().getText().toUpperCase());
 				String status = featureSupportedInVersion(BulkInsertStmt);
-				captureItem("BULK INSERT", tableName, BulkInsertStmt, "BULK INSERT", status, ctx.start.getLine());
+				captureItem("BULK INSERT", tableName, BulkInsertStmt, "BULK INSERT", status, featureStatusKey(BulkInsertStmt), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -8832,7 +9023,7 @@ public class CompassAnalyze {
 				if (u.debugging) dbgTraceVisitEntry(CompassUtilities.thisProc());
 				String tableName = u.normalizeName(ctx.table_name().getText().toUpperCase());
 				String status = featureSupportedInVersion(InsertBulkStmt);
-				captureItem("INSERT BULK (via bulk API only)", tableName, InsertBulkStmt, "INSERT BULK", status, ctx.start.getLine());
+				captureItem("INSERT BULK (via bulk API only)", tableName, InsertBulkStmt, "INSERT BULK", status, featureStatusKey(InsertBulkStmt), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -8841,11 +9032,13 @@ public class CompassAnalyze {
 			@Override public String visitUpdate_statement(TSQLParser.Update_statementContext ctx) {
 				if (u.debugging) dbgTraceVisitEntry(CompassUtilities.thisProc());
 				String status = u.Supported;
+				String statusKey = null;
 				String tableName = "";
 				String targetTableName = "";
 				String tableNameRaw = "";
 				String functionCall = "";
 				String updateTVFStatus = u.Supported;
+				String updateTVFStatusKey = null;
 				if (ctx.ddl_object() != null) {
 					tableNameRaw = ctx.ddl_object().getText().toUpperCase();
 					tableName = targetTableName = u.normalizeName(tableNameRaw);
@@ -8855,12 +9048,14 @@ public class CompassAnalyze {
 					tableNameRaw = ctx.function_call().func_proc_name_server_database_schema().getText().toUpperCase();
 					tableName = u.normalizeName(tableNameRaw);
 					updateTVFStatus = featureSupportedInVersion(UpdateStmt,"TABLE FUNCTION");
+					updateTVFStatusKey = featureStatusKey(UpdateStmt,"TABLE FUNCTION");
 					functionCall = ", on table function";
 				}
 				else {
 					tableName = ctx.rowset_function().getText().toUpperCase();
 					tableName = tableName.substring(0,tableName.indexOf("("));
 					status = featureSupportedInVersion(UpdateStmt,tableName);
+					statusKey = featureStatusKey(UpdateStmt,tableName);
 					functionCall = ", " + tableName + "()";
 				}
 
@@ -8868,25 +9063,31 @@ public class CompassAnalyze {
 				if (ctx.TOP() != null) {
 					top = " TOP";
 					status = featureSupportedInVersion(UpdateStmt,"TOP");
+					statusKey = featureStatusKey(UpdateStmt,"TOP");
 					if (ctx.select_statement() != null) {
 						String statusSubq = featureSupportedInVersion(UpdateStmt,"TOP SUBQUERY");
 						if (!statusSubq.equals(u.Supported)) {
-							captureItem("UPDATE TOP(subquery)", tableName, UpdateStmt, "UPDATE", statusSubq, ctx.start.getLine());
+							captureItem("UPDATE TOP(subquery)", tableName, UpdateStmt, "UPDATE", statusSubq, featureStatusKey(UpdateStmt,"TOP SUBQUERY"), ctx.start.getLine());
 						}
 					}
 				}
 
 				String outputClause = getOutputClause(ctx.output_clause(), status, UpdateStmt, "text", tableName);
+				String outputStatusKey = getOutputClause(ctx.output_clause(), status, UpdateStmt, "statusKey", tableName);
 				status = getOutputClause(ctx.output_clause(), status, UpdateStmt, "status", tableName);
+				if (!outputStatusKey.isEmpty()) statusKey = outputStatusKey;
 
 				StringBuilder CTE = new StringBuilder("");
- 				status = checkDMLCTE(UpdateStmt, targetTableName, ctx.with_expression(), status, CTE, ctx.start.getLine());
+				StringBuilder CTEstatusKey = new StringBuilder("");
+ 				status = checkDMLCTE(UpdateStmt, targetTableName, ctx.with_expression(), status, CTE, CTEstatusKey, ctx.start.getLine());
+				if (CTEstatusKey.length() > 0) statusKey = CTEstatusKey.toString();
 
 				String whereCurrentOf = "";
 				if (ctx.CURRENT() != null) {
 					whereCurrentOf = ", WHERE CURRENT OF";
 					if (status.equals(u.Supported)) {
 						status = featureSupportedInVersion(UpdateStmt,whereCurrentOf);
+						statusKey = featureStatusKey(UpdateStmt,whereCurrentOf);
 					}
 				}
 
@@ -8898,12 +9099,18 @@ public class CompassAnalyze {
 				visitChildren(ctx);
 
 				if (!updateTVFStatus.equals(u.Supported)) {
-					if (updateTVFStatus.equals(u.NotSupported)) status = u.NotSupported;
-					else if (!status.equals(u.Supported)) status = updateTVFStatus;
+					if (updateTVFStatus.equals(u.NotSupported)) {
+						status = u.NotSupported;
+						statusKey = updateTVFStatusKey;
+					}
+					else if (!status.equals(u.Supported)) {
+						status = updateTVFStatus;
+						statusKey = updateTVFStatusKey;
+					}
 				}
 
 				if (!captureTableSrcDML(ctx.parent, tableName, "UPDATE", ctx.start.getLine())) {
-					captureItem("UPDATE"+top+updVarAssign+CTE.toString()+outputClause+whereCurrentOf+functionCall, tableName, UpdateStmt, "UPDATE", status, ctx.start.getLine());
+					captureItem("UPDATE"+top+updVarAssign+CTE.toString()+outputClause+whereCurrentOf+functionCall, tableName, UpdateStmt, "UPDATE", status, statusKey, ctx.start.getLine());
 					captureVariableAssignDepends("UPDATE", ctx.start.getLine(), true);
 
 					CaptureXMLNameSpaces(ctx.parent, "UPDATE", ctx.start.getLine());
@@ -8988,7 +9195,7 @@ public class CompassAnalyze {
 									if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"capturing possible variable aggregation: k=["+k+"] ", u.debugPtree);
 									String status = u.ReviewSemantics;
 									status = featureSupportedInVersion(VarAggrAcrossRows);
-									captureItem(VarAggrAcrossRowsFmt + " in "+stmt, k, "DML", "", status, lineNr);
+									captureItem(VarAggrAcrossRowsFmt + " in "+stmt, k, "DML", "", status, featureStatusKey(VarAggrAcrossRows), lineNr);
 								}
 							}
 						}
@@ -9048,7 +9255,7 @@ public class CompassAnalyze {
 								if (u.debugging) u.dbgOutput(CompassUtilities.thisProc()+"capturing: v=["+v+"] => k=["+k+"] ", u.debugPtree);
 								String status = u.ReviewSemantics;
 								status = featureSupportedInVersion(VarAssignDependency);
-								captureItem(VarAssignDependency+" in "+stmt+": order of assignments not guaranteed; may work differently on Babelfish", v+"->"+k, "DML", "", status, lineNr);
+								captureItem(VarAssignDependency+" in "+stmt+": order of assignments not guaranteed; may work differently on Babelfish", v+"->"+k, "DML", "", status, featureStatusKey(VarAssignDependency), lineNr);
 								break;
 							}
 						}
@@ -9060,21 +9267,25 @@ public class CompassAnalyze {
 			@Override public String visitDelete_statement(TSQLParser.Delete_statementContext ctx) {
 				if (u.debugging) dbgTraceVisitEntry(CompassUtilities.thisProc());
 				String status = u.Supported;
+				String statusKey = null;
 				String tableName = "";
 				String tableNameRaw = "";
 				String targetTableName = "";
 				String functionCall = "";
 				String updateTVFStatus = u.Supported;
+				String updateTVFStatusKey = null;
 				if (ctx.delete_statement_from().rowset_function() != null) {
 					tableName = ctx.delete_statement_from().rowset_function().getText().toUpperCase();
 					tableName = tableName.substring(0,tableName.indexOf("("));
 					status = featureSupportedInVersion(DeleteStmt,tableName);
+					statusKey = featureStatusKey(DeleteStmt,tableName);
 					functionCall = ", " + tableName + "()";
 				}
 				else if (ctx.delete_statement_from().function_call() != null) {
 					tableNameRaw = ctx.delete_statement_from().function_call().func_proc_name_server_database_schema().getText().toUpperCase();
 					tableName = u.normalizeName(tableNameRaw);
 					updateTVFStatus = featureSupportedInVersion(DeleteStmt,"TABLE FUNCTION");
+					updateTVFStatusKey = featureStatusKey(DeleteStmt,"TABLE FUNCTION");
 					functionCall = ", on table function";
 				}
 				else {
@@ -9088,36 +9299,48 @@ public class CompassAnalyze {
 					top = " TOP";
 					if (status.equals(u.Supported)) {
 						status = featureSupportedInVersion(DeleteStmt,"TOP");
+						statusKey = featureStatusKey(DeleteStmt,"TOP");
 						if (ctx.select_statement() != null) {
 							String statusSubq = featureSupportedInVersion(DeleteStmt,"TOP SUBQUERY");
 							if (!statusSubq.equals(u.Supported)) {
-								captureItem("DELETE TOP(subquery)", tableName, DeleteStmt, "DELETE", statusSubq, ctx.start.getLine());
+								captureItem("DELETE TOP(subquery)", tableName, DeleteStmt, "DELETE", statusSubq, featureStatusKey(DeleteStmt,"TOP SUBQUERY"), ctx.start.getLine());
 							}
 						}
 					}
 				}
 
 				String outputClause = getOutputClause(ctx.output_clause(), status, DeleteStmt, "text", tableName);
+				String outputStatusKey = getOutputClause(ctx.output_clause(), status, DeleteStmt, "statusKey", tableName);
 				status = getOutputClause(ctx.output_clause(), status, DeleteStmt, "status", tableName);
+				if (!outputStatusKey.isEmpty()) statusKey = outputStatusKey;
 
 				StringBuilder CTE = new StringBuilder("");
- 				status = checkDMLCTE(DeleteStmt, targetTableName, ctx.with_expression(), status, CTE, ctx.start.getLine());
+				StringBuilder CTEstatusKey = new StringBuilder("");
+ 				status = checkDMLCTE(DeleteStmt, targetTableName, ctx.with_expression(), status, CTE, CTEstatusKey, ctx.start.getLine());
+				if (CTEstatusKey.length() > 0) statusKey = CTEstatusKey.toString();
 
 				String whereCurrentOf = "";
 				if (ctx.CURRENT() != null) {
 					whereCurrentOf = ", WHERE CURRENT OF";
 					if (status.equals(u.Supported)) {
 						status = featureSupportedInVersion(DeleteStmt,whereCurrentOf);
+						statusKey = featureStatusKey(DeleteStmt,whereCurrentOf);
 					}
 				}
 
 				if (!updateTVFStatus.equals(u.Supported)) {
-					if (updateTVFStatus.equals(u.NotSupported)) status = u.NotSupported;
-					else if (!status.equals(u.Supported)) status = updateTVFStatus;
+					if (updateTVFStatus.equals(u.NotSupported)) {
+						status = u.NotSupported;
+						statusKey = updateTVFStatusKey;
+					}
+					else if (!status.equals(u.Supported)) {
+						status = updateTVFStatus;
+						statusKey = updateTVFStatusKey;
+					}
 				}
 
 				if (!captureTableSrcDML(ctx.parent, tableName, "DELETE", ctx.start.getLine())) {
-					captureItem("DELETE"+top+CTE.toString()+outputClause+whereCurrentOf+functionCall, tableName, DeleteStmt, "DELETE", status, ctx.start.getLine());
+					captureItem("DELETE"+top+CTE.toString()+outputClause+whereCurrentOf+functionCall, tableName, DeleteStmt, "DELETE", status, statusKey, ctx.start.getLine());
 					CaptureXMLNameSpaces(ctx.parent, "DELETE", ctx.start.getLine());
 				}
 
@@ -9199,7 +9422,7 @@ public class CompassAnalyze {
 								String item    = stmt+DMLTabVarCorrNameUDFErrorText;
 								String status  = featureSupportedInVersion(SyntaxIssues, itemChk);
 								if (!status.equals(u.Supported)) {
-									captureItem(item, tableNameRaw, SyntaxIssues, tableNameRaw, status, lineNr);
+									captureItem(item, tableNameRaw, SyntaxIssues, tableNameRaw, status, featureStatusKey(SyntaxIssues, itemChk), lineNr);
 									break;
 								}
 							}
@@ -9223,7 +9446,7 @@ public class CompassAnalyze {
 								String item    = UpdateQualifiedSetColumnErrorText;
 								String status  = featureSupportedInVersion(SyntaxIssues, itemChk);
 								if (!status.equals(u.Supported)) {
-									captureItem(item, setCol, SyntaxIssues, "", status, e.full_column_name().start.getLine());
+									captureItem(item, setCol, SyntaxIssues, "", status, featureStatusKey(SyntaxIssues, itemChk), e.full_column_name().start.getLine());
 								}
 							}
 						}
@@ -9332,7 +9555,7 @@ public class CompassAnalyze {
 												String item    = UpdateCorrColumnUnqualifiedErrorText;
 												String status  = featureSupportedInVersion(SyntaxIssues, itemChk);
 												if (!status.equals(u.Supported)) {
-													captureItem(item, "column '" + colFound+"' for correlation name '"+tableNameRaw+"'", SyntaxIssues, tableNameRaw, status, e.expression().start.getLine());
+													captureItem(item, "column '" + colFound+"' for correlation name '"+tableNameRaw+"'", SyntaxIssues, tableNameRaw, status, featureStatusKey(SyntaxIssues, itemChk), e.expression().start.getLine());
 												}
 											}
 										}
@@ -9349,10 +9572,12 @@ public class CompassAnalyze {
 				String status = u.Supported;
 				String statusMerge = featureSupportedInVersion(MergeStmt, "MERGE");
 				status = statusMerge;
+				String statusKey = featureStatusKey(MergeStmt, "MERGE");
 
 				String tableName = "";
 				String targetTableName = "";
 				String updateTVFStatus = u.Supported;
+				String updateTVFStatusKey = null;
 				String functionCall = "";
 				if (ctx.ddl_object() != null) {
 					String tableNameRaw = ctx.ddl_object().getText().toUpperCase();
@@ -9363,6 +9588,7 @@ public class CompassAnalyze {
 					String tableNameRaw = ctx.function_call().func_proc_name_server_database_schema().getText().toUpperCase();
 					tableName = u.normalizeName(tableNameRaw);
 					updateTVFStatus = featureSupportedInVersion(MergeStmt,"TABLE FUNCTION");
+					updateTVFStatusKey = featureStatusKey(MergeStmt,"TABLE FUNCTION");
 					functionCall = ", on table function";
 				}
 
@@ -9370,17 +9596,28 @@ public class CompassAnalyze {
 				if (ctx.TOP() != null) {
 					top = " TOP";
 					status = featureSupportedInVersion(MergeStmt,"TOP");
+					statusKey = featureStatusKey(MergeStmt,"TOP");
 				}
 
 				String outputClause = getOutputClause(ctx.output_clause(), status, MergeStmt, "text", tableName);
+				String outputStatusKey = getOutputClause(ctx.output_clause(), status, MergeStmt, "statusKey", tableName);
 				status = getOutputClause(ctx.output_clause(), status, MergeStmt, "status", tableName);
+				if (!outputStatusKey.isEmpty()) statusKey = outputStatusKey;
 
 				StringBuilder CTE = new StringBuilder("");
- 				status = checkDMLCTE(MergeStmt, targetTableName, ctx.with_expression(), status, CTE, ctx.start.getLine());
+				StringBuilder CTEstatusKey = new StringBuilder("");
+ 				status = checkDMLCTE(MergeStmt, targetTableName, ctx.with_expression(), status, CTE, CTEstatusKey, ctx.start.getLine());
+				if (CTEstatusKey.length() > 0) statusKey = CTEstatusKey.toString();
 
 				if (!updateTVFStatus.equals(u.Supported)) {
-					if (updateTVFStatus.equals(u.NotSupported)) status = u.NotSupported;
-					else if (!status.equals(u.Supported)) status = updateTVFStatus;
+					if (updateTVFStatus.equals(u.NotSupported)) {
+						status = u.NotSupported;
+						statusKey = updateTVFStatusKey;
+					}
+					else if (!status.equals(u.Supported)) {
+						status = updateTVFStatus;
+						statusKey = updateTVFStatusKey;
+					}
 				}
 
 				if (!captureTableSrcDML(ctx.parent, tableName, "MERGE", ctx.start.getLine())) {
@@ -9396,7 +9633,7 @@ public class CompassAnalyze {
 							addRewrite(MergeStmt);
 						}
 					}
-					captureItem("MERGE"+top+CTE.toString()+outputClause+functionCall, tableName, MergeStmt, "MERGE", status, ctx.start.getLine());
+					captureItem("MERGE"+top+CTE.toString()+outputClause+functionCall, tableName, MergeStmt, "MERGE", status, statusKey, ctx.start.getLine());
 
 					CaptureXMLNameSpaces(ctx.parent, "MERGE", ctx.start.getLine());
 				}
@@ -9481,7 +9718,7 @@ public class CompassAnalyze {
 				}
 
 				String status = featureSupportedInVersion(TruncateTableStmt,"TRUNCATE TABLE");
-				captureItem("TRUNCATE TABLE", tableName, TruncateTableStmt, "", status, ctx.start.getLine());
+				captureItem("TRUNCATE TABLE", tableName, TruncateTableStmt, "", status, featureStatusKey(TruncateTableStmt,"TRUNCATE TABLE"), ctx.start.getLine());
 
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -9497,6 +9734,7 @@ public class CompassAnalyze {
 			
 			private void capturePartitioning(String stmt, String stmtFmt, String tableName, int lineNr, String dataType) {
 				String status = featureSupportedInVersion(Partitioning,stmt);
+				String statusKey = featureStatusKey(Partitioning,stmt);
 				String fmt = "Partitioning, "+stmtFmt;
 				if (stmt.startsWith("CREATE PARTITION") || stmt.startsWith("ALTER PARTITION") || stmt.startsWith("DROP PARTITION")) fmt = stmtFmt;
 				else if (stmt.equals("$PARTITION")) fmt = "$PARTITION.function()";
@@ -9512,12 +9750,13 @@ public class CompassAnalyze {
 							String statusSV = featureSupportedInVersion(Partitioning,"SQL_VARIANT");
 							if (! statusSV.equals(u.Supported)) {
 								status = statusSV;
+								statusKey = featureStatusKey(Partitioning,"SQL_VARIANT");
 								fmt = "CREATE PARTITION FUNCTION, on SQL_VARIANT datatype";
 							}
 						}					
 					}
 				}
-				captureItem(fmt, tableName, Partitioning, stmt, status, lineNr);
+				captureItem(fmt, tableName, Partitioning, stmt, status, statusKey, lineNr);
 			}
 
 			@Override public String visitCreate_partition_scheme(TSQLParser.Create_partition_schemeContext ctx) {
@@ -9577,7 +9816,7 @@ public class CompassAnalyze {
 
 			@Override public String visitUpdate_statistics(TSQLParser.Update_statisticsContext ctx) {
 				String status = featureSupportedInVersion(UpdateStatisticsStmt);
-				captureItem(UpdateStatisticsStmt, "", UpdateStatisticsStmt, "", status, ctx.start.getLine());
+				captureItem(UpdateStatisticsStmt, "", UpdateStatisticsStmt, "", status, featureStatusKey(UpdateStatisticsStmt), ctx.start.getLine());
 
 				if (status.equals(u.Supported)) {
 					String tableNameRaw = ctx.table_name().getText().toUpperCase();
@@ -9638,7 +9877,7 @@ public class CompassAnalyze {
 						}
 					}
 				}
-				captureItem("WAITFOR "+type, "", WaitForStmt, type, status, ctx.start.getLine());
+				captureItem("WAITFOR "+type, "", WaitForStmt, type, status, featureStatusKey(WaitForStmt, type), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -9662,7 +9901,7 @@ public class CompassAnalyze {
 				String cmdFormat = cmd;
 				if (cmd.equals("BACKUP")) cmdFormat = "BACKUP DATABASE/LOG";
 				String status = featureSupportedInVersion(DBAStmts, cmd);
-				captureItem(cmdFormat, "", DBAStmts, cmd, status, ctx.start.getLine());
+				captureItem(cmdFormat, "", DBAStmts, cmd, status, featureStatusKey(DBAStmts, cmd), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -9677,7 +9916,7 @@ public class CompassAnalyze {
 				String cmdFormat = cmd;
 				if (cmd.equals("RESTORE")) cmdFormat = "RESTORE DATABASE/LOG";
 				String status = featureSupportedInVersion(DBAStmts, cmd);
-				captureItem(cmdFormat, "", DBAStmts, cmd, status, ctx.start.getLine());
+				captureItem(cmdFormat, "", DBAStmts, cmd, status, featureStatusKey(DBAStmts, cmd), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -9711,7 +9950,7 @@ public class CompassAnalyze {
 				killType = killType.trim();
 				killTypeFmt = u.escapeHTMLChars(killType.replace("SPID", "<spid>"));
 				String status = featureSupportedInVersion(DBAStmts, killType);
-				captureItem(killTypeFmt, "", DBAStmts, killTypeFmt, status, ctx.start.getLine());
+				captureItem(killTypeFmt, "", DBAStmts, killTypeFmt, status, featureStatusKey(DBAStmts, killType), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -9720,7 +9959,7 @@ public class CompassAnalyze {
 			@Override public String visitCheckpoint_statement(TSQLParser.Checkpoint_statementContext ctx) {
 				if (u.debugging) dbgTraceVisitEntry(CompassUtilities.thisProc());
 				String status = featureSupportedInVersion(CheckpointStmt);
-				captureItem(CheckpointStmt, "", CheckpointStmt, "", status, ctx.start.getLine());
+				captureItem(CheckpointStmt, "", CheckpointStmt, "", status, featureStatusKey(CheckpointStmt), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -9734,7 +9973,7 @@ public class CompassAnalyze {
 						// an IF-block with only a DECLARE -- that's weird, but it happens: review semantics
 						String status = featureSupportedInVersion(IFELSEblockDeclare);
 						if (!status.equals(u.Supported)) {
-							captureItem(IFblockDeclare, "", ControlFlowReportGroup, "", status, ctx.sql_clauses().get(0).start.getLine());
+							captureItem(IFblockDeclare, "", ControlFlowReportGroup, "", status, featureStatusKey(IFELSEblockDeclare), ctx.sql_clauses().get(0).start.getLine());
 						}
 					}
 				}
@@ -9744,7 +9983,7 @@ public class CompassAnalyze {
 							// an ELSE-block with only a DECLARE -- that's weird, but it happens: review semantics
 							String status = featureSupportedInVersion(IFELSEblockDeclare);
 							if (!status.equals(u.Supported)) {
-								captureItem(ELSEblockDeclare, "", ControlFlowReportGroup, "", status, ctx.sql_clauses().get(1).start.getLine());
+								captureItem(ELSEblockDeclare, "", ControlFlowReportGroup, "", status, featureStatusKey(IFELSEblockDeclare), ctx.sql_clauses().get(1).start.getLine());
 							}
 						}
 					}
@@ -9819,7 +10058,7 @@ public class CompassAnalyze {
 				if (ctx.GOTO() != null) fmt = "GOTO label";
 				else fmt = "label: (for GOTO)";
 				String status = featureSupportedInVersion(GotoStmt);
-				captureItem(fmt, "", GotoStmt, "", status, ctx.start.getLine());
+				captureItem(fmt, "", GotoStmt, "", status, featureStatusKey(GotoStmt), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -9915,14 +10154,16 @@ public class CompassAnalyze {
 				else if (ctx.RELATIVE() != null) kwd = "RELATIVE";
 
 				String status = u.Supported;
+				String statusKey = null;
 				if (!kwd.isEmpty()) {
 					status = featureSupportedInVersion(CursorFetch, kwd);
+					statusKey = featureStatusKey(CursorFetch, kwd);
 				}
-				captureItem(stmt + " " +kwd, "", CursorsReportGroup, "", status, ctx.start.getLine());
+				captureItem(stmt + " " +kwd, "", CursorsReportGroup, "", status, statusKey, ctx.start.getLine());
 
 				if (ctx.GLOBAL() != null) {
 					String statusG = featureSupportedInVersion(CursorGlobal, stmt);
-					captureItem("GLOBAL option for " + stmt, stmt, CursorsReportGroup, stmt, statusG, ctx.start.getLine());
+					captureItem("GLOBAL option for " + stmt, stmt, CursorsReportGroup, stmt, statusG, featureStatusKey(CursorGlobal, stmt), ctx.start.getLine());
 				}
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -9940,7 +10181,7 @@ public class CompassAnalyze {
 
 					if (ctx.GLOBAL() != null) {
 						String statusG = featureSupportedInVersion(CursorGlobal, stmt);
-						captureItem("GLOBAL option for " + stmt, stmt, CursorsReportGroup, stmt, statusG, ctx.start.getLine());
+						captureItem("GLOBAL option for " + stmt, stmt, CursorsReportGroup, stmt, statusG, featureStatusKey(CursorGlobal, stmt), ctx.start.getLine());
 					}
 
 					// When OPEN is found, check if there is a declare_cursor before it in the same block
@@ -9964,7 +10205,7 @@ public class CompassAnalyze {
 
 							if (doCapture) {
 								String status = featureSupportedInVersion(DynamicCreateCursor);
-								captureItem(DynamicCreateCursor, cursorName, CursorsReportGroup, cursorName, status, ctx.start.getLine());
+								captureItem(DynamicCreateCursor, cursorName, CursorsReportGroup, cursorName, status, featureStatusKey(DynamicCreateCursor), ctx.start.getLine());
 							}
 						}
 					}
@@ -9978,70 +10219,70 @@ public class CompassAnalyze {
 				String override = "";
 				if (ctx.OVERRIDE() != null) override = " WITH OVERRIDE";
 				String status = featureSupportedInVersion(DBAStmts, "RECONFIGURE");
-				captureItem("RECONFIGURE"+override, "", DBAStmts, "RECONFIGURE", status, ctx.start.getLine());
+				captureItem("RECONFIGURE"+override, "", DBAStmts, "RECONFIGURE", status, featureStatusKey(DBAStmts, "RECONFIGURE"), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
 
 			@Override public String visitShutdown_statement(TSQLParser.Shutdown_statementContext ctx) {
 				String status = featureSupportedInVersion(DBAStmts, "SHUTDOWN");
-				captureItem("SHUTDOWN", "", DBAStmts, "SHUTDOWN", status, ctx.start.getLine());
+				captureItem("SHUTDOWN", "", DBAStmts, "SHUTDOWN", status, featureStatusKey(DBAStmts, "SHUTDOWN"), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
 
 			@Override public String visitSetuser_statement(TSQLParser.Setuser_statementContext ctx) {
 				String status = featureSupportedInVersion(SetuserStmt, "SHUTDOWN");
-				captureItem(SetuserStmt, "", SetuserStmt, "", status, ctx.start.getLine());
+				captureItem(SetuserStmt, "", SetuserStmt, "", status, featureStatusKey(SetuserStmt, "SHUTDOWN"), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
 
 			@Override public String visitAlter_server_configuration(TSQLParser.Alter_server_configurationContext ctx) {
 				String status = featureSupportedInVersion(AlterServerConfig);
-				captureItem(AlterServerConfig, "", AlterServerConfig, "", status, ctx.start.getLine());
+				captureItem(AlterServerConfig, "", AlterServerConfig, "", status, featureStatusKey(AlterServerConfig), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
 
 			@Override public String visitAdd_signature_statement(TSQLParser.Add_signature_statementContext ctx) {
 				String status = featureSupportedInVersion(AddSignature);
-				captureItem(AddSignature, "", AddSignature, "", status, ctx.start.getLine());
+				captureItem(AddSignature, "", AddSignature, "", status, featureStatusKey(AddSignature), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
 
 			@Override public String visitDrop_signature_statement(TSQLParser.Drop_signature_statementContext ctx) {
 				String status = featureSupportedInVersion(DropSignature);
-				captureItem(DropSignature, "", DropSignature, "", status, ctx.start.getLine());
+				captureItem(DropSignature, "", DropSignature, "", status, featureStatusKey(DropSignature), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
 
 			@Override public String visitAdd_sensitivity_classification(TSQLParser.Add_sensitivity_classificationContext ctx) {
 				String status = featureSupportedInVersion(AddSensitivityClass);
-				captureItem(AddSensitivityClass, "", AddSensitivityClass, "", status, ctx.start.getLine());
+				captureItem(AddSensitivityClass, "", AddSensitivityClass, "", status, featureStatusKey(AddSensitivityClass), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
 
 			@Override public String visitDrop_sensitivity_classification(TSQLParser.Drop_sensitivity_classificationContext ctx) {
 				String status = featureSupportedInVersion(DropSensitivityClass);
-				captureItem(DropSensitivityClass, "", DropSensitivityClass, "", status, ctx.start.getLine());
+				captureItem(DropSensitivityClass, "", DropSensitivityClass, "", status, featureStatusKey(DropSensitivityClass), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
 
 			@Override public String visitCreate_materialized_view(TSQLParser.Create_materialized_viewContext ctx) {
 				String status = featureSupportedInVersion(MaterializedView);
-				captureItem("CREATE MATERIALIZED VIEW", "", MaterializedView, "", status, ctx.start.getLine());
+				captureItem("CREATE MATERIALIZED VIEW", "", MaterializedView, "", status, featureStatusKey(MaterializedView), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
 
 			@Override public String visitAlter_materialized_view(TSQLParser.Alter_materialized_viewContext ctx) {
 				String status = featureSupportedInVersion(MaterializedView);
-				captureItem("ALTER MATERIALIZED VIEW", "", MaterializedView, "", status, ctx.start.getLine());
+				captureItem("ALTER MATERIALIZED VIEW", "", MaterializedView, "", status, featureStatusKey(MaterializedView), ctx.start.getLine());
 				visitChildren(ctx);
 				return null;
 			}
@@ -10059,9 +10300,10 @@ public class CompassAnalyze {
 				String fmt = section;
 				if (fmt.endsWith("options")) fmt = CompassUtilities.removeLastChar(fmt);
 				String status = featureSupportedInVersion(section, option);
+				String statusKey = featureStatusKey(section, option);
 				if (!fmt3.isEmpty()) fmt = fmt3;
 				if (!sectionReport.isEmpty()) section = sectionReport;
-				captureItem(fmt+" " + option+fmt2, option, section, option, status, lineNr);
+				captureItem(fmt+" " + option+fmt2, option, section, option, status, statusKey, lineNr);
 			}
 
 			// Generic catchall, called only for rules named '{create|alter|drop}_stmt'
@@ -10075,7 +10317,7 @@ public class CompassAnalyze {
 				words.remove(0);
 				String obj = String.join(" ", words);
 				String status = featureSupportedInVersion(MiscObjects, obj);
-				captureItem(kwd + " " + obj + misc, objectName, MiscObjects, obj, status, lineNr);
+				captureItem(kwd + " " + obj + misc, objectName, MiscObjects, obj, status, featureStatusKey(MiscObjects, obj), lineNr);
 				if (!kwd.equals("CREATE") && !kwd.equals("DROP")) {
 					captureItem("CREATE " + obj, objectName, "", "", u.ObjCountOnly, 0, 0);
 				}
@@ -10181,7 +10423,7 @@ public class CompassAnalyze {
 
  				// find out if USER objects are supported at all
  				String status = featureSupportedInVersion(MiscObjects, "USER");
- 				captureItem("CREATE USER", name, UsersReportGroup, "", status, ctx.start.getLine());
+ 				captureItem("CREATE USER", name, UsersReportGroup, "", status, featureStatusKey(MiscObjects, "USER"), ctx.start.getLine());
 
  				if (status.equals(u.Supported)) {
 					if (ctx.ALLOW_ENCRYPTED_VALUE_MODIFICATIONS().size() > 0)
@@ -10221,7 +10463,7 @@ public class CompassAnalyze {
 
  				// find out if USER objects are supported at all
  				String status = featureSupportedInVersion(MiscObjects, "USER");
- 				captureItem("ALTER USER", name, UsersReportGroup, "", status, ctx.start.getLine());
+ 				captureItem("ALTER USER", name, UsersReportGroup, "", status, featureStatusKey(MiscObjects, "USER"), ctx.start.getLine());
 
  				if (status.equals(u.Supported)) {
 					if (ctx.ALLOW_ENCRYPTED_VALUE_MODIFICATIONS().size() > 0)
@@ -10257,7 +10499,7 @@ public class CompassAnalyze {
 				String fmtRole = "<dbrole>";
  				// find out if CREATE ROLE is supported at all
  				String status = featureSupportedInVersion(CreateDbRole);
- 				captureItem(CreateDbRole+" "+u.escapeHTMLChars(fmtRole), name, UsersReportGroup, "", status, ctx.start.getLine());
+ 				captureItem(CreateDbRole+" "+u.escapeHTMLChars(fmtRole), name, UsersReportGroup, "", status, featureStatusKey(CreateDbRole), ctx.start.getLine());
 
 				if (status.equals(u.Supported)) {
 					if (ctx.AUTHORIZATION() != null)
@@ -10277,6 +10519,7 @@ public class CompassAnalyze {
 
  				// find out if ALTER ROLE is supported for this release
  				String status = featureSupportedInVersion(AlterDbRole);
+				String statusKey = featureStatusKey(AlterDbRole);
 				String fmtRole = "<dbrole>";
 
 				// predefined role ?
@@ -10285,7 +10528,10 @@ public class CompassAnalyze {
 
 					String roleStatus = featureSupportedInVersion(DbRoles, name);
 					if (status.equals(u.Supported)) {
-						if (!roleStatus.equals(u.Supported)) status = roleStatus;
+						if (!roleStatus.equals(u.Supported)) {
+							status = roleStatus;
+							statusKey = featureStatusKey(DbRoles, name);
+						}
 					}
 				}
 
@@ -10297,11 +10543,14 @@ public class CompassAnalyze {
  				if (status.equals(u.Supported)) {
  					String optionStatus = featureSupportedInVersion(DbRoleOptions, option);
 					if (status.equals(u.Supported)) {
-						if (!optionStatus.equals(u.Supported)) status = optionStatus;
+						if (!optionStatus.equals(u.Supported)) {
+							status = optionStatus;
+							statusKey = featureStatusKey(DbRoleOptions, option);
+						}
 					}
 				}
 
-				captureItem(AlterDbRole+" "+ u.escapeHTMLChars(fmtRole) + " " + option, u.escapeHTMLChars(memberName), UsersReportGroup, "", status, ctx.start.getLine());
+				captureItem(AlterDbRole+" "+ u.escapeHTMLChars(fmtRole) + " " + option, u.escapeHTMLChars(memberName), UsersReportGroup, "", status, statusKey, ctx.start.getLine());
 
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -10322,7 +10571,7 @@ public class CompassAnalyze {
  				// find out if CREATE SERVER ROLE is supported at all
  				String status = featureSupportedInVersion(CreateSrvRole);
 				String fmtRole = "<srvrole>";
- 				captureItem(CreateSrvRole+" "+u.escapeHTMLChars(fmtRole), name, UsersReportGroup, "", status, ctx.start.getLine());
+ 				captureItem(CreateSrvRole+" "+u.escapeHTMLChars(fmtRole), name, UsersReportGroup, "", status, featureStatusKey(CreateSrvRole), ctx.start.getLine());
 				if (status.equals(u.Supported)) {
 					if (ctx.AUTHORIZATION() != null)
 						captureOption(SrvRoleOptions, "AUTHORIZATION", ctx.start.getLine(), ", in "+CreateSrvRole+" "+u.escapeHTMLChars(fmtRole));
@@ -10339,6 +10588,7 @@ public class CompassAnalyze {
 
  				// find out if ALTER SERVER ROLE is supported for this role
  				String status = featureSupportedInVersion(AlterSrvRole,name);
+ 				String statusKey = featureStatusKey(AlterSrvRole,name);
  				String fmtRole = "<srvrole>";
 
  				// predefined role ?
@@ -10347,7 +10597,10 @@ public class CompassAnalyze {
 
 					String roleStatus = featureSupportedInVersion(AlterSrvRole, name);
 					if (status.equals(u.Supported)) {
-						if (!roleStatus.equals(u.Supported)) status = roleStatus;
+						if (!roleStatus.equals(u.Supported)) {
+							status = roleStatus;
+							statusKey = featureStatusKey(AlterSrvRole, name);
+						}
 					}
 				}
 
@@ -10359,10 +10612,13 @@ public class CompassAnalyze {
  				if (status.equals(u.Supported)) {
  					String optionStatus = featureSupportedInVersion(SrvRoleOptions, option);
 					if (status.equals(u.Supported)) {
-						if (!optionStatus.equals(u.Supported)) status = optionStatus;
+						if (!optionStatus.equals(u.Supported)) {
+							status = optionStatus;
+							statusKey = featureStatusKey(SrvRoleOptions, option);
+						}
 					}
 				}
-				captureItem(AlterSrvRole+" "+u.escapeHTMLChars(fmtRole) + " " + option, name, UsersReportGroup, "", status, ctx.start.getLine());
+				captureItem(AlterSrvRole+" "+u.escapeHTMLChars(fmtRole) + " " + option, name, UsersReportGroup, "", status, statusKey, ctx.start.getLine());
 
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -10412,7 +10668,7 @@ public class CompassAnalyze {
 
  				// find out if ALTER SCHEMA is supported at all
  				String status = featureSupportedInVersion(AlterSchema);
- 				captureItem(AlterSchema, name, UsersReportGroup, "", status, ctx.start.getLine());
+ 				captureItem(AlterSchema, name, UsersReportGroup, "", status, featureStatusKey(AlterSchema), ctx.start.getLine());
  				if (status.equals(u.Supported)) {
 					if (ctx.OBJECT() != null)
 						captureOption(SchemaOptions, "TRANSFER OBJECT", ctx.start.getLine(), ", in ALTER SCHEMA");
@@ -10442,6 +10698,7 @@ public class CompassAnalyze {
 				if (u.debugging) u.dbgOutput(u.thisProc()+"stmt=["+stmt+"] permRaw=["+permRaw+"] onObject=["+onObject+"] grantee=["+grantee+"] grantOption=["+grantOption+"] asGrantor=["+asGrantor+"] cascade=["+cascade+"] ", u.debugPtree);
 				String statusStmt = featureSupportedInVersion(stmt);
 				String status = u.NotSupported;
+				String statusKey = null;
 				permRaw = u.applyPatternAll(permRaw, "\\(.+?\\)", "(col)");
 
 				List<String> permList = new ArrayList<String>(Arrays.asList(permRaw.split(",")));
@@ -10491,16 +10748,17 @@ public class CompassAnalyze {
 						validatePerm = validatePerm.replaceAll("\\(column\\)", "");
 						validatePerm = validatePerm.replaceAll("::", "");
 						status = featureSupportedInVersion(stmt, validatePerm);
+						statusKey = featureStatusKey(stmt, validatePerm);
 						if (u.debugging) u.dbgOutput(u.thisProc()+"stmt=["+stmt+"]  validatePerm=["+validatePerm+"]  status=["+status+"] ", u.debugPtree);
 					}
-	 				captureItem(reportPerm.trim(), onObject, stmt, "", status, lineNo);
+	 				captureItem(reportPerm.trim(), onObject, stmt, "", status, statusKey, lineNo);
 
 	 				// v.1.2.0 does not support GRANT..TO PUBLIC WITH GRANT OPTION, test for that explicitly
 	 				if (grantee.trim().equalsIgnoreCase("PUBLIC")) {
 	 					if (grantOption.equalsIgnoreCase("WITH GRANT OPTION")) {
 	 						String validateStr = "TO PUBLIC WITH GRANT OPTION";  // put this in .cfg file when supported
 		 					String statusPublicGrantOption = featureSupportedInVersion(stmt, validateStr);
-			 				captureItem("GRANT.." + validateStr, onObject, stmt, "", statusPublicGrantOption, lineNo);
+			 				captureItem("GRANT.." + validateStr, onObject, stmt, "", statusPublicGrantOption, featureStatusKey(stmt, validateStr), lineNo);
 	 					}
 	 				}
 
@@ -10511,7 +10769,7 @@ public class CompassAnalyze {
 	 					String validateAs = reportAs;
 	 					reportAs = stmt + ".." + reportAs;
 	 					String statusAs = featureSupportedInVersion(stmt, validateAs);
-		 				captureItem(reportAs.trim(), onObject, stmt, "", statusAs, lineNo);
+		 				captureItem(reportAs.trim(), onObject, stmt, "", statusAs, featureStatusKey(stmt, validateAs), lineNo);
 	 				}
 
 	 				// handle 'CASCADE' separately
@@ -10520,7 +10778,7 @@ public class CompassAnalyze {
 	 					String validateCascade = reportCascade;
 	 					reportCascade = stmt + ".." + reportCascade;
 	 					String statusCascade = featureSupportedInVersion(stmt, validateCascade);
-		 				captureItem(reportCascade.trim(), onObject, stmt, "", statusCascade, lineNo);
+		 				captureItem(reportCascade.trim(), onObject, stmt, "", statusCascade, featureStatusKey(stmt, validateCascade), lineNo);
 	 				}
 	 			}
 			}
@@ -10650,7 +10908,7 @@ public class CompassAnalyze {
 				if (grantee.equals("SCHEMAOWNER")) granteeReport = "SCHEMA OWNER";
 				else granteeReport = "principal";
 
- 				captureItem(AlterAuthStmt+ " ON " + objReport + " TO " + granteeReport, objDetail, AlterAuthStmt, "", status, ctx.start.getLine());
+ 				captureItem(AlterAuthStmt+ " ON " + objReport + " TO " + granteeReport, objDetail, AlterAuthStmt, "", status, featureStatusKey(AlterAuthStmt, objTypeChk), ctx.start.getLine());
 
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -10675,7 +10933,7 @@ public class CompassAnalyze {
 				}
 				else {
 					String status = featureSupportedInVersion(Geospatial,spatialCall);
-					captureItem(SpatialMethodCallFmt + " ." + spatialCall, "", SpatialReportGroup, "", status, ctx.start.getLine());
+					captureItem(SpatialMethodCallFmt + " ." + spatialCall, "", SpatialReportGroup, "", status, featureStatusKey(Geospatial,spatialCall), ctx.start.getLine());
 				}
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
@@ -10707,7 +10965,7 @@ public class CompassAnalyze {
 
 			private void captureServiceBroker(String stmt, int lineNr) {
 				String status = featureSupportedInVersion(ServiceBroker, stmt);
-				captureItem(stmt, "", ServiceBroker, stmt, status, lineNr);
+				captureItem(stmt, "", ServiceBroker, stmt, status, featureStatusKey(ServiceBroker, stmt), lineNr);
 			}
 
 			@Override public String visitOpen_key(TSQLParser.Open_keyContext ctx) {
@@ -10715,7 +10973,7 @@ public class CompassAnalyze {
 				String stmt = "OPEN SYMMETRIC KEY";
 				if (ctx.MASTER() != null) stmt = "OPEN MASTER KEY";
  				String status = featureSupportedInVersion(OpenKeyStmt);
- 				captureItem(stmt, "", OpenKeyStmt, stmt, status, ctx.start.getLine());
+ 				captureItem(stmt, "", OpenKeyStmt, stmt, status, featureStatusKey(OpenKeyStmt), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -10727,7 +10985,7 @@ public class CompassAnalyze {
 				if (ctx.ALL() != null) stmt = "CLOSE ALL SYMMETRIC KEYS";
 				else if (ctx.MASTER() != null) stmt = "CLOSE MASTER KEY";
  				String status = featureSupportedInVersion(CloseKeyStmt);
- 				captureItem(stmt, "", CloseKeyStmt, stmt, status, ctx.start.getLine());
+ 				captureItem(stmt, "", CloseKeyStmt, stmt, status, featureStatusKey(CloseKeyStmt), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -10761,7 +11019,7 @@ public class CompassAnalyze {
 					assert false : "sqlcmd command: cannot be empty";
 				}
  				String status = featureSupportedInVersion(sqlcmdCommand);
- 				captureItem(sqlcmdCommand + " :" + cmd, "", sqlcmdReportGroup, "", status, ctx.start.getLine());
+ 				captureItem(sqlcmdCommand + " :" + cmd, "", sqlcmdReportGroup, "", status, featureStatusKey(sqlcmdCommand), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -10774,7 +11032,7 @@ public class CompassAnalyze {
 				else varName = ctx.keyword().getText();
  				String status = featureSupportedInVersion(sqlcmdVariable);
  				// todo: highlight predefined slqcmd variables?
- 				captureItem(sqlcmdVariable + " $(" + varName + ")", "", sqlcmdReportGroup, "", status, ctx.start.getLine());
+ 				captureItem(sqlcmdVariable + " $(" + varName + ")", "", sqlcmdReportGroup, "", status, featureStatusKey(sqlcmdVariable), ctx.start.getLine());
 				visitChildren(ctx);
 				if (u.debugging) dbgTraceVisitExit(CompassUtilities.thisProc());
 				return null;
@@ -10794,7 +11052,7 @@ public class CompassAnalyze {
 							String rewriteText = "";
 							if (addRewrite(DDLReportGroup, "NO CACHE", u.rewriteTypeReplace, rewriteText, ctx.no_cache.getLine(), ctx.no_cache.getCharPositionInLine(), ctx.no_cache_kwd.getLine(), ctx.no_cache_kwd.getCharPositionInLine(), ctx.no_cache.getStartIndex(), ctx.no_cache_kwd.getStopIndex()))
 								status = u.Rewritten;
-							captureItem("Option NO CACHE in CREATE SEQUENCE", "", DDLReportGroup, "", status, ctx.start.getLine());
+							captureItem("Option NO CACHE in CREATE SEQUENCE", "", DDLReportGroup, "", status, featureStatusKey(SequenceOptions, "NO CACHE"), ctx.start.getLine());
 							noCache = null;
 						}
 						else {
@@ -10821,7 +11079,7 @@ public class CompassAnalyze {
 							String rewriteText = "";
 							if (addRewrite(DDLReportGroup, "NO CACHE", u.rewriteTypeReplace, rewriteText, ctx.no_cache.getLine(), ctx.no_cache.getCharPositionInLine(), ctx.no_cache_kwd.getLine(), ctx.no_cache_kwd.getCharPositionInLine(), ctx.no_cache.getStartIndex(), ctx.no_cache_kwd.getStopIndex()))
 								status = u.Rewritten;
-							captureItem("Option NO CACHE in ALTER SEQUENCE", "", DDLReportGroup, "", status, ctx.start.getLine());
+							captureItem("Option NO CACHE in ALTER SEQUENCE", "", DDLReportGroup, "", status, featureStatusKey(SequenceOptions, "NO CACHE"), ctx.start.getLine());
 							noCache = null;
 						}
 						else {
@@ -10883,14 +11141,17 @@ public class CompassAnalyze {
 				kwd = kwd.trim().toUpperCase();
 				option = option.trim().toUpperCase();
 				String status = featureSupportedInVersion(MiscObjects, FullTextIndex);
+				String statusKey = featureStatusKey(MiscObjects, FullTextIndex);
 				//u.appOutput(u.thisProc()+"kwd=["+kwd+"] status FULLTEXT INDEX=["+status+"] ");
 				if (status.equals(u.Supported)) {
 					// check for detailed features
 					status = featureSupportedInVersion(FullTextIndex, kwd);
+					statusKey = featureStatusKey(FullTextIndex, kwd);
 					//u.appOutput(u.thisProc()+"kwd=["+kwd+"] status kwd=["+status+"] ");
 					if (!option.isEmpty()) {
 						if (status.equals(u.Supported)) {
 							status = featureSupportedInVersion(FullTextIndex, kwd + " " + option);
+							statusKey = featureStatusKey(FullTextIndex, kwd + " " + option);
 							//u.appOutput(u.thisProc()+"kwd=["+kwd+"] status option=["+status+"] ");
 						}
 					}
@@ -10902,14 +11163,17 @@ public class CompassAnalyze {
 								if (status.equals(u.Supported) && (c.TYPE() != null)) {
 									option = "TYPE COLUMN";
 									status = featureSupportedInVersion(FullTextIndex, kwd + " " + option);
+									statusKey = featureStatusKey(FullTextIndex, kwd + " " + option);
 								}
 								if (status.equals(u.Supported) && (c.LANGUAGE() != null)) {
 									option = "LANGUAGE";
 									status = featureSupportedInVersion(FullTextIndex, kwd + " " + option);
+									statusKey = featureStatusKey(FullTextIndex, kwd + " " + option);
 								}
 								if (status.equals(u.Supported) && (c.STATISTICAL_SEMANTICS() != null)) {
 									option = "STATISTICAL_SEMANTICS";
 									status = featureSupportedInVersion(FullTextIndex, kwd + " " + option);
+									statusKey = featureStatusKey(FullTextIndex, kwd + " " + option);
 								}
 								if (!status.equals(u.Supported)) {
 									break;
@@ -10919,7 +11183,7 @@ public class CompassAnalyze {
 					}
 				}
 				//u.appOutput(u.thisProc()+"kwd=["+kwd+"] option=["+option+"] status final=["+status+"] ");
-				captureItem(kwd + " " + FullTextIndex + " " + option, objectName, FullTextSearchReportGroup, objectName2, status, lineNr);
+				captureItem(kwd + " " + FullTextIndex + " " + option, objectName, FullTextSearchReportGroup, objectName2, status, statusKey, lineNr);
 
 				return;
 			}
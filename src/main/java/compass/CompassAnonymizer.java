@@ -0,0 +1,211 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.regex.Pattern;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+// removes customer-specific identifiers from capture files, replacing them by names like 'procedure_<id>', 'app_<id>', etc.
+// The <id> is a keyed hash (HMAC-SHA256) of the identifier, so the same identifier gets the same name in every capture file
+// without the files having to share a name counter, and files can be anonymized in parallel.
+// The key is random and not kept, so names cannot be traced back by hashing candidate identifiers.
+public class CompassAnonymizer {
+	static CompassUtilities u = CompassUtilities.getInstance();
+
+	// #hex digits in a name: 64 bits, so different identifiers will not end up with the same name
+	static final int idLength = 16;
+
+	private static final Pattern objPatt = Pattern.compile("^(\\w+)\\s+(.*)$", Pattern.CASE_INSENSITIVE);
+	private static final Pattern varPatt = Pattern.compile("^([@]+)\\w+\\b", Pattern.CASE_INSENSITIVE);
+	private static final Pattern anonVarPatt = Pattern.compile("^[@]+anonvar", Pattern.CASE_INSENSITIVE);
+	private static final List<Pattern> fieldValuesOK = new ArrayList<>();
+	private static final List<Pattern> dbNamesOK = new ArrayList<>();
+	static {
+		for (String k : Arrays.asList("schema::", "dbo", "guest", "master", "tempdb", "msdb", "model", "db_owner", "on", "off", "\\.", "\\W+")) {
+			fieldValuesOK.add(Pattern.compile("\\b"+k+"\\b", Pattern.CASE_INSENSITIVE));
+		}
+		for (String k : Arrays.asList("master", "tempdb", "msdb", "model")) {
+			dbNamesOK.add(Pattern.compile("\\b"+k+"\\b", Pattern.CASE_INSENSITIVE));
+		}
+	}
+
+	private final ThreadLocal<Mac> mac;
+
+	public CompassAnonymizer() {
+		this(newKey());
+	}
+
+	CompassAnonymizer(byte[] key) {
+		SecretKeySpec keySpec = new SecretKeySpec(key, "HmacSHA256");
+		mac = ThreadLocal.withInitial(() -> {
+			try {
+				Mac m = Mac.getInstance("HmacSHA256");
+				m.init(keySpec);
+				return m;
+			} catch (GeneralSecurityException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	private static byte[] newKey() {
+		byte[] key = new byte[32];
+		new SecureRandom().nextBytes(key);
+		return key;
+	}
+
+	// the anonymized name for an identifier; identifiers are case-insensitive, and each kind of identifier
+	// (file, app, object, UDD, database) is hashed separately
+	public String name(String prefix, String kind, String identifier) {
+		Mac m = mac.get();
+		m.update(kind.getBytes(StandardCharsets.UTF_8));
+		m.update((byte) 0);
+		byte[] h = m.doFinal(identifier.toLowerCase().getBytes(StandardCharsets.UTF_8));
+		StringBuilder s = new StringBuilder(prefix.length() + 1 + idLength);
+		s.append(prefix).append('_');
+		for (int i = 0; i < idLength/2; i++) {
+			s.append(Character.forDigit((h[i] >> 4) & 0xF, 16));
+			s.append(Character.forDigit(h[i] & 0xF, 16));
+		}
+		return s.toString();
+	}
+
+	// anonymizes a capture file into outFile; cfgFileName is the user .cfg file of the capture file
+	public void anonymizeFile(Path cf, String cfgFileName, String outFile) throws IOException {
+		try (BufferedReader capFile = new BufferedReader(new InputStreamReader(new FileInputStream(cf.toFile()), StandardCharsets.UTF_8));
+			 BufferedWriter anonFileWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outFile), StandardCharsets.UTF_8), 256 * 1024)) {
+			String capLine;
+			while ((capLine = capFile.readLine()) != null) {
+				capLine = anonymizeLine(capLine, cfgFileName);
+				if (capLine == null) continue;
+				anonFileWriter.write(capLine);
+				anonFileWriter.write("\n");
+			}
+		}
+	}
+
+	// anonymizes a line of a capture file; returns null for a line that is dropped
+	public String anonymizeLine(String capLine, String cfgFileName) {
+		String sep = CompassUtilities.captureFileSeparator;
+		capLine = capLine.trim();
+		if (capLine.isEmpty()) return null;
+		// contains .cfg file section and item names only
+		if (capLine.startsWith(CompassUtilities.statusKeyLineTag)) return capLine;
+		if (capLine.charAt(0) == '#') {
+			// uncomment the below to anonymize report name; note that the report file name is still not anonymized
+			// we keep the report name otherwise it's not possile to identify the customer/app for whom the report is
+			//capLine = captureFileLinePart1 + "[" + "anon" + capLine.substring(capLine.indexOf("]"));
+
+			// anonymize user-defined cfg file if not using the defaults
+			if (!cfgFileName.equalsIgnoreCase(CompassUtilities.defaultUserCfgFileName) && !cfgFileName.equalsIgnoreCase(CompassUtilities.optimisticUserCfgFileName)) {
+				capLine = capLine.substring(0,capLine.lastIndexOf("[")+1) + "anonymized]";
+			}
+
+			// mark file as anonymized
+			if (!capLine.endsWith(u.captureFileLinePart6)) capLine += u.captureFileLinePart6;
+			return capLine;
+		}
+		if (capLine.charAt(0) == CompassUtilities.metricsLineChar1) {
+			// handle metrics line
+			String[] tmp = capLine.split(sep);
+			tmp[0] = tmp[0].substring(tmp[0].indexOf(CompassUtilities.metricsLineChar2)+1);
+			tmp[0] = tmp[0].replaceAll("\\\\", "\\\\\\\\");
+			tmp[0] = name("file", "file", tmp[0]);
+			tmp[1] = name("app", "app", tmp[1]);
+			return CompassUtilities.metricsLineChar1 + CompassUtilities.metricsLineTag + CompassUtilities.metricsLineChar2 + String.join(sep, tmp) + sep;
+		}
+
+		// strip off the last two semicolons
+		capLine = capLine.substring(0,capLine.lastIndexOf(sep));
+		capLine = capLine.substring(0,capLine.lastIndexOf(sep));
+		capLine = u.unEscapeHTMLChars(capLine);
+
+		// remove customer-specific items
+		String[] tmp = capLine.split(sep);
+		if (tmp.length < 12) {
+			int n = tmp.length;
+			tmp = Arrays.copyOf(tmp, 12);
+			Arrays.fill(tmp, n, 12, "");  // compensate for some empty fields
+		}
+
+		if (!(tmp[9].equals(u.BatchContext))) {
+			// anonymize identifiers in context
+			String objType = CompassUtilities.getPatternGroup(tmp[9], objPatt, 1, CompassUtilities.MatchMethod.FIND);
+			String objName = CompassUtilities.getPatternGroup(tmp[9], objPatt, 2, CompassUtilities.MatchMethod.FIND);
+			if (!objType.isEmpty()) {
+				tmp[9] = objType+" "+name(objType.toLowerCase(), "obj", objName);
+			}
+		}
+
+		if (!tmp[10].isEmpty()) {
+			// anonymize identifiers in context
+			String objType = CompassUtilities.getPatternGroup(tmp[10], objPatt, 1, CompassUtilities.MatchMethod.FIND);
+			String objName = CompassUtilities.getPatternGroup(tmp[10], objPatt, 2, CompassUtilities.MatchMethod.FIND);
+			if (!objType.isEmpty()) {
+				tmp[10] = objType+" "+name("table", "obj", objName);
+			}
+		}
+
+		// anonymize input file name
+		tmp[6] = name("file", "file", tmp[6]);
+
+		// anonymize appname
+		tmp[5] = name("app", "app", tmp[5]);
+
+		tmp[1] = anonField(tmp[1]);
+
+		// anonymize UDD name
+		if (tmp[0].indexOf(" (UDD ") > -1) {
+			String uddName = tmp[0].substring(tmp[0].indexOf(" (UDD ")+6);
+			uddName = uddName.substring(0,uddName.lastIndexOf(")"));
+			tmp[0] = tmp[0].substring(0, tmp[0].indexOf(" (UDD "))+" (UDD "+name("udd", "udd", uddName)+")" + tmp[0].substring(tmp[0].lastIndexOf(")")+1);
+		}
+		else if (tmp[0].indexOf(" (UDD, ") > -1) {
+			String uddName = tmp[0].substring(0,tmp[0].indexOf(" (UDD, ")+6);
+			tmp[0] = name("udd", "udd", uddName) + tmp[0].substring(tmp[0].indexOf(" (UDD, "));
+		}
+
+		// anonymize DB name
+		if (tmp[0].startsWith("USE ")) {
+			String dbName = tmp[0].substring(4).toLowerCase();
+			tmp[0] = "USE " +anonDbName(dbName);
+		}
+		if (tmp[0].contains(" DATABASE ")) {
+			String dbName = tmp[0].substring(tmp[0].indexOf(" DATABASE ")+" DATABASE ".length()).toLowerCase();
+			tmp[0] = tmp[0].substring(0, tmp[0].indexOf(" DATABASE ")+" DATABASE ".length())+anonDbName(dbName);
+		}
+		return String.join(sep, tmp) + sep + "~" + sep;
+	}
+
+	private String anonField(String s) {
+		if (s.trim().length() == 0) return s.trim();
+		s = varPatt.matcher(s).replaceAll("$1" + "anonvar");
+		String s2 = s;
+		s2 = anonVarPatt.matcher(s2).replaceAll(" ");
+		for (Pattern p : fieldValuesOK) {
+			s2 = p.matcher(s2).replaceFirst(" ");
+		}
+		if (s2.trim().length() == 0) return s;
+		return "anonymized";
+	}
+
+	private String anonDbName(String s) {
+		if (s.trim().length() == 0) return s.trim();
+		String s2 = s.toLowerCase();
+		for (Pattern p : dbNamesOK) {
+			s2 = p.matcher(s2).replaceFirst(" ");
+		}
+		if (s2.trim().length() == 0) return s;
+		return name("db", "db", s);
+	}
+}
@@ -0,0 +1,91 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// matches items against the entries of the custom item ID file, which are compiled once.
+// An entry matches an item when the item starts with the entry, or, for an entry containing \d+ or \w+, when the start of the
+// item matches the entry with these as patterns. The first matching entry in the file wins.
+// Literal prefixes are found by looking up each prefix of the item, for the lengths of entries only; all pattern entries are
+// combined into one pattern, in which the first alternative that matches is the first matching entry.
+public class CompassCSVItemMatcher {
+	static final String digitsPattern = "\\D+";   // as found in the upper-cased entries
+	static final String wordPattern   = "\\W+";
+
+	private final List<String> entries;
+	private final Map<String, Integer> entryIndex = new HashMap<>();
+	private final int[] entryLengths;
+	private final Pattern combinedPattern;
+	private final int[] patternEntry;         // entry index per alternative of the combined pattern
+
+	// entries: lookup keys, in file order
+	public CompassCSVItemMatcher(List<String> entries) {
+		this.entries = new ArrayList<>(entries);
+		SortedSet<Integer> lengths = new TreeSet<>();
+		StringBuilder rgx = new StringBuilder();
+		List<Integer> patternEntries = new ArrayList<>();
+		for (int i = 0; i < this.entries.size(); i++) {
+			String s = this.entries.get(i);
+			entryIndex.putIfAbsent(s, i);
+			lengths.add(s.length());
+			if (s.contains(digitsPattern) || s.contains(wordPattern)) {
+				rgx.append(patternEntries.isEmpty() ? "" : "|").append("(").append(toPattern(s)).append(")");
+				patternEntries.add(i);
+			}
+		}
+		entryLengths = new int[lengths.size()];
+		int n = 0;
+		for (int len : lengths) entryLengths[n++] = len;
+		patternEntry = new int[patternEntries.size()];
+		for (int i = 0; i < patternEntry.length; i++) patternEntry[i] = patternEntries.get(i);
+		combinedPattern = patternEntries.isEmpty() ? null : Pattern.compile("^(?:" + rgx + ")", Pattern.CASE_INSENSITIVE);
+	}
+
+	// the entry as a pattern: \D+ and \W+ match digits and word characters, everything else is literal
+	static String toPattern(String s) {
+		StringBuilder rgx = new StringBuilder();
+		int from = 0;
+		int i = 0;
+		while (i < s.length()) {
+			if (s.startsWith(digitsPattern, i) || s.startsWith(wordPattern, i)) {
+				if (i > from) rgx.append(Pattern.quote(s.substring(from, i)));
+				rgx.append(s.startsWith(digitsPattern, i) ? "\\d+" : "\\w+");
+				i += digitsPattern.length();
+				from = i;
+			}
+			else {
+				i++;
+			}
+		}
+		if (from < s.length()) rgx.append(Pattern.quote(s.substring(from)));
+		return rgx.toString();
+	}
+
+	// returns the first matching entry for an item's lookup key, or an empty string
+	public String match(String item) {
+		int best = Integer.MAX_VALUE;
+		for (int len : entryLengths) {
+			if (len > item.length()) break;
+			Integer ix = entryIndex.get(item.substring(0, len));
+			if ((ix != null) && (ix < best)) best = ix;
+		}
+		if (combinedPattern != null) {
+			Matcher m = combinedPattern.matcher(item);
+			if (m.find()) {
+				for (int g = 1; g <= patternEntry.length; g++) {
+					if (m.group(g) != null) {
+						best = Math.min(best, patternEntry[g-1]);
+						break;
+					}
+				}
+			}
+		}
+		return (best == Integer.MAX_VALUE) ? "" : entries.get(best);
+	}
+}
@@ -0,0 +1,291 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// counts and lists collected from capture files for the report.
+// Each capture file is read into its own aggregate, so files can be read in parallel; the aggregates are then added to the
+// total in the order of the capture files. The maps of a single file keep the order in which keys were first added, so the
+// total has its keys added in the same order as when the files are read one after another. The total uses plain hash maps,
+// as the report did before: with the same keys added in the same order, these iterate in the same order as before.
+// Results that depend on what was read from earlier files (source file numbering, X-ref keys, links to object definitions,
+// rewrite opportunities) are kept as-is here and applied to the report when the aggregate is added.
+// The aggregate of a capture file does not depend on the report options other than X-ref, so it is also saved in a sidecar
+// file next to the capture file; reports without X-ref use the sidecar as long as the capture file is unchanged.
+public class CompassCaptureAggregate {
+	int capCount = 0;
+	int totalBatches = 0;
+	int totalErrorBatches = 0;
+	int totalLinesDDL = 0;
+	int linesSQLInObjects = 0;
+	int constructsFound = 0;
+	int rewritten = 0;                  // #rewritten items
+	long sortSizeSummary = 0L;
+	long sortSizeXRefByFeature = 0L;
+	long sortSizeXRefByObject = 0L;
+
+	Map<String, Integer> appCount;
+	Map<String, Integer> srcFileCount;
+	Map<String, Integer> objTypeCount;
+	Map<String, Integer> objTypeLineCount;
+	Map<String, String>  objTypeMap;
+	Map<String, String>  objTypeMapCase;
+	Map<String, Integer> objTypeMapCount;
+	Map<String, Integer> objIssueCount;
+	List<String> objComplexityCountTmp = new ArrayList<>();
+	Map<String, Long> statusCount;
+	Map<String, String>  statusItems;      // distinct status+item keys, with the key of their unique count
+	Map<String, String>  lastItemGroup;    // group of the last item found, per status
+	Map<String, Integer> itemCount;
+	Map<String, Integer> appItemListRaw;
+	Map<String, Integer> constructsFoundDistinct;
+
+	// only for a single capture file:
+	List<String> msgs = new ArrayList<>();
+	Map<String, Integer> rewriteOpptyItems = new LinkedHashMap<>();  // before the first rewritten item
+	Map<String, Integer> srcFiles = new LinkedHashMap<>();           // source files in the order they were found
+	List<String[]> xrefOnlyItems = new ArrayList<>();
+	List<SrcFileKey> contextLinks = new ArrayList<>();
+	List<SrcFileKey> xrefByFeature = new ArrayList<>();
+	List<SrcFileKey> xrefByObject = new ArrayList<>();
+
+	// total: the aggregate for the report, which uses plain hash maps (see above)
+	public CompassCaptureAggregate(boolean total) {
+		appCount = newMap(total);
+		srcFileCount = newMap(total);
+		objTypeCount = newMap(total);
+		objTypeLineCount = newMap(total);
+		objTypeMap = newMap(total);
+		objTypeMapCase = newMap(total);
+		objTypeMapCount = newMap(total);
+		objIssueCount = newMap(total);
+		statusCount = newMap(total);
+		statusItems = newMap(total);
+		lastItemGroup = newMap(total);
+		itemCount = newMap(total);
+		appItemListRaw = newMap(total);
+		constructsFoundDistinct = newMap(total);
+	}
+
+	private static <K, V> Map<K, V> newMap(boolean total) {
+		return total ? new HashMap<>() : new LinkedHashMap<>();
+	}
+
+	// a sort key containing the number of a source file, which is assigned when the aggregate is added to the report
+	static class SrcFileKey {
+		final String partition;     // the X-ref status, or the key of the link to an object definition
+		final String[] fields;
+		final int srcFile;
+		final int srcFilePos;       // position of the source file number in the fields
+
+		SrcFileKey(String partition, int srcFile, int srcFilePos, String... fields) {
+			this.partition = partition;
+			this.srcFile = srcFile;
+			this.srcFilePos = srcFilePos;
+			this.fields = fields;
+		}
+
+		CompassSortKey key(String srcFileIx) {
+			fields[srcFilePos] = srcFileIx;
+			return new CompassSortKey(fields);
+		}
+
+		int length() {
+			int len = 0;
+			for (String f : fields) {
+				if (f != null) len += f.length();
+			}
+			return len;
+		}
+	}
+
+	// local number of a source file in this aggregate
+	int srcFileIx(String srcFile) {
+		Integer ix = srcFiles.get(srcFile);
+		if (ix == null) {
+			ix = srcFiles.size();
+			srcFiles.put(srcFile, ix);
+		}
+		return ix;
+	}
+
+	// counts an item for a status; the status+item keys are counted as unique items when added to the total
+	void addStatusItem(String status, String statusItem, String statusUnique) {
+		statusCount.put(status, statusCount.getOrDefault(status, 0L) + 1);
+		statusItems.putIfAbsent(statusItem, statusUnique);
+	}
+
+	// adds the counts of an aggregate read from a capture file
+	void add(CompassCaptureAggregate a) {
+		capCount += a.capCount;
+		totalBatches += a.totalBatches;
+		totalErrorBatches += a.totalErrorBatches;
+		totalLinesDDL += a.totalLinesDDL;
+		linesSQLInObjects += a.linesSQLInObjects;
+		constructsFound += a.constructsFound;
+		rewritten += a.rewritten;
+		sortSizeSummary += a.sortSizeSummary;
+		sortSizeXRefByFeature += a.sortSizeXRefByFeature;
+		sortSizeXRefByObject += a.sortSizeXRefByObject;
+
+		addCounts(appCount, a.appCount);
+		addCounts(srcFileCount, a.srcFileCount);
+		addCounts(objTypeCount, a.objTypeCount);
+		addCounts(objTypeLineCount, a.objTypeLineCount);
+		addCounts(objTypeMapCount, a.objTypeMapCount);
+		addCounts(objIssueCount, a.objIssueCount);
+		addCounts(itemCount, a.itemCount);
+		addCounts(appItemListRaw, a.appItemListRaw);
+		addCounts(constructsFoundDistinct, a.constructsFoundDistinct);
+
+		// the name as first found is kept, for objects not found in earlier files
+		for (Map.Entry<String, String> e : a.objTypeMapCase.entrySet()) {
+			if (!objTypeMap.containsKey(e.getKey().toUpperCase())) {
+				objTypeMapCase.put(e.getKey(), e.getValue());
+			}
+		}
+		objTypeMap.putAll(a.objTypeMap);
+		objComplexityCountTmp.addAll(a.objComplexityCountTmp);
+
+		for (Map.Entry<String, Long> e : a.statusCount.entrySet()) {
+			statusCount.put(e.getKey(), statusCount.getOrDefault(e.getKey(), 0L) + e.getValue());
+		}
+		// a status+item key not found in earlier files adds to the status' unique count
+		for (Map.Entry<String, String> e : a.statusItems.entrySet()) {
+			if (!statusCount.containsKey(e.getKey())) {
+				statusCount.put(e.getKey(), 0L);
+				statusCount.put(e.getValue(), statusCount.getOrDefault(e.getValue(), 0L) + 1);
+			}
+		}
+		lastItemGroup.putAll(a.lastItemGroup);
+	}
+
+	static final String sidecarMagic = "BBFCAGG1";
+
+	// writes the aggregate, without the X-ref keys, to a sidecar file; hash identifies the capture file's contents
+	void writeSidecar(String path, String version, byte[] hash) throws IOException {
+		Path tmp = Paths.get(path + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp.toFile()), 256 * 1024))) {
+			out.writeUTF(sidecarMagic);
+			out.writeUTF(version);
+			out.writeInt(hash.length);
+			out.write(hash);
+			out.writeInt(capCount);
+			out.writeInt(totalBatches);
+			out.writeInt(totalErrorBatches);
+			out.writeInt(totalLinesDDL);
+			out.writeInt(linesSQLInObjects);
+			out.writeInt(constructsFound);
+			out.writeInt(rewritten);
+			out.writeLong(sortSizeSummary);
+			for (Map<String, Integer> m : Arrays.asList(appCount, srcFileCount, objTypeCount, objTypeLineCount, objTypeMapCount, objIssueCount, itemCount, appItemListRaw, constructsFoundDistinct, rewriteOpptyItems)) {
+				out.writeInt(m.size());
+				for (Map.Entry<String, Integer> e : m.entrySet()) {
+					writeString(out, e.getKey());
+					out.writeInt(e.getValue());
+				}
+			}
+			for (Map<String, String> m : Arrays.asList(objTypeMap, objTypeMapCase, statusItems, lastItemGroup)) {
+				out.writeInt(m.size());
+				for (Map.Entry<String, String> e : m.entrySet()) {
+					writeString(out, e.getKey());
+					writeString(out, e.getValue());
+				}
+			}
+			out.writeInt(statusCount.size());
+			for (Map.Entry<String, Long> e : statusCount.entrySet()) {
+				writeString(out, e.getKey());
+				out.writeLong(e.getValue());
+			}
+			for (List<String> l : Arrays.asList(objComplexityCountTmp, msgs)) {
+				out.writeInt(l.size());
+				for (String v : l) {
+					writeString(out, v);
+				}
+			}
+			out.writeInt(xrefOnlyItems.size());
+			for (String[] x : xrefOnlyItems) {
+				out.writeInt(x.length);
+				for (String v : x) {
+					writeString(out, v);
+				}
+			}
+		}
+		Files.move(tmp, Paths.get(path), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	// reads an aggregate from a sidecar file; returns null if the file was not written by this version for these contents
+	static CompassCaptureAggregate readSidecar(String path, String version, byte[] hash) {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 256 * 1024))) {
+			if (!in.readUTF().equals(sidecarMagic)) return null;
+			if (!in.readUTF().equals(version)) return null;
+			byte[] h = new byte[in.readInt()];
+			in.readFully(h);
+			if (!Arrays.equals(h, hash)) return null;
+
+			CompassCaptureAggregate a = new CompassCaptureAggregate(false);
+			a.capCount = in.readInt();
+			a.totalBatches = in.readInt();
+			a.totalErrorBatches = in.readInt();
+			a.totalLinesDDL = in.readInt();
+			a.linesSQLInObjects = in.readInt();
+			a.constructsFound = in.readInt();
+			a.rewritten = in.readInt();
+			a.sortSizeSummary = in.readLong();
+			for (Map<String, Integer> m : Arrays.asList(a.appCount, a.srcFileCount, a.objTypeCount, a.objTypeLineCount, a.objTypeMapCount, a.objIssueCount, a.itemCount, a.appItemListRaw, a.constructsFoundDistinct, a.rewriteOpptyItems)) {
+				for (int n = in.readInt(); n > 0; n--) {
+					m.put(readString(in), in.readInt());
+				}
+			}
+			for (Map<String, String> m : Arrays.asList(a.objTypeMap, a.objTypeMapCase, a.statusItems, a.lastItemGroup)) {
+				for (int n = in.readInt(); n > 0; n--) {
+					m.put(readString(in), readString(in));
+				}
+			}
+			for (int n = in.readInt(); n > 0; n--) {
+				a.statusCount.put(readString(in), in.readLong());
+			}
+			for (List<String> l : Arrays.asList(a.objComplexityCountTmp, a.msgs)) {
+				for (int n = in.readInt(); n > 0; n--) {
+					l.add(readString(in));
+				}
+			}
+			for (int n = in.readInt(); n > 0; n--) {
+				String[] x = new String[in.readInt()];
+				for (int i = 0; i < x.length; i++) {
+					x[i] = readString(in);
+				}
+				a.xrefOnlyItems.add(x);
+			}
+			return a;
+		} catch (IOException e) {
+			// unreadable or truncated: the capture file is read instead
+			return null;
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(b.length);
+		out.write(b);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] b = new byte[in.readInt()];
+		in.readFully(b);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+
+	private static void addCounts(Map<String, Integer> total, Map<String, Integer> m) {
+		for (Map.Entry<String, Integer> e : m.entrySet()) {
+			total.put(e.getKey(), total.getOrDefault(e.getKey(), 0) + e.getValue());
+		}
+	}
+}
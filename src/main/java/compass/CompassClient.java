@@ -0,0 +1,44 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.nio.file.Path;
+import java.util.*;
+
+// entry point of compass.jar: sends the command line to a running Compass daemon (see CompassDaemon) if there is one,
+// and runs Compass itself otherwise.
+// Also starts and stops the daemon:
+//   -daemon [-port <number>] : start the daemon in the current directory; runs until stopped
+//   -daemonstop              : stop the daemon
+//   -nodaemon                : do not use the daemon for this command line
+public class CompassClient {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0 && args[0].equals("-daemon")) {
+			CompassDaemon.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+
+		Path daemonFile = CompassDaemon.getDaemonFile();
+		if (args.length > 0 && args[0].equals("-daemonstop")) {
+			Integer exitCode = CompassDaemon.request(daemonFile, CompassDaemon.requestStop, Collections.emptyList(), System.out);
+			System.out.println(exitCode == null ? "No Compass daemon running" : "Compass daemon stopped");
+			return;
+		}
+
+		List<String> argList = new ArrayList<>(Arrays.asList(args));
+		boolean useDaemon = !argList.remove("-nodaemon");
+
+		// -stdin reads from this process' stdin
+		if (useDaemon && !argList.contains("-stdin")) {
+			Integer exitCode = CompassDaemon.request(daemonFile, CompassDaemon.requestRun, argList, System.out);
+			if (exitCode != null) {
+				System.exit(exitCode);
+			}
+		}
+		Compass.main(argList.toArray(new String[0]));
+	}
+}
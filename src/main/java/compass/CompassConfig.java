@@ -178,6 +178,60 @@ public class CompassConfig {
 		//u.appOutput(u.thisProc()+"setting lastCfgCheckSection=["+lastCfgCheckSection+"] lastCfgCheckName=["+lastCfgCheckName+"] ");
 	}
 
+	// the raw lookup behind a status, so that the status can be resolved again for another Babelfish version (see resolveStatusKey()):
+	// the kind of lookup followed by its arguments
+	static final String statusKeySection = "S";   // featureSupportedInVersion(version, section)
+	static final String statusKeyName    = "N";   // featureSupportedInVersion(version, section, name)
+	static final String statusKeyOption  = "O";   // featureSupportedInVersion(version, section, name, optionValue)
+	static final String statusKeyArg     = "A";   // featureArgSupportedInVersion(version, section, arg, argValue)
+
+	// the key of a lookup, as written to the capture file
+	static String statusKey(String kind, String... args) {
+		StringBuilder key = new StringBuilder(kind);
+		for (String a : args) {
+			a = a.replaceAll("[\\r\\n]", " ");
+			if (a.contains(CompassUtilities.captureFileSeparator)) a = a.replaceAll(CompassUtilities.captureFileSeparator, CompassUtilities.captureFileSeparatorMarker);
+			key.append(CompassUtilities.captureFileSeparator).append(a);
+		}
+		return key.toString();
+	}
+
+	// the status of a lookup with a key made by statusKey(), for the version specified; returns null for an invalid key
+	public static String resolveStatusKey(String requestVersion, String key) {
+		List<String> args = new ArrayList<>(Arrays.asList(key.split(CompassUtilities.captureFileSeparator, -1)));
+		for (int i = 1; i < args.size(); i++) {
+			args.set(i, args.get(i).replaceAll(CompassUtilities.captureFileSeparatorMarker, CompassUtilities.captureFileSeparator));
+		}
+		String kind = args.get(0);
+		if (kind.equals(statusKeySection) && args.size() == 2) {
+			return featureSupportedInVersion(requestVersion, args.get(1));
+		}
+		if (kind.equals(statusKeyName) && args.size() == 3 && !args.get(2).isEmpty()) {
+			return featureSupportedInVersion(requestVersion, args.get(1), args.get(2));
+		}
+		if (kind.equals(statusKeyOption) && args.size() == 4) {
+			return featureSupportedInVersion(requestVersion, args.get(1), args.get(2), args.get(3));
+		}
+		if (kind.equals(statusKeyArg) && args.size() == 4 && !args.get(3).isEmpty()) {
+			return featureArgSupportedInVersion(requestVersion, args.get(1), args.get(2), args.get(3));
+		}
+		return null;
+	}
+
+	// the .cfg section and name of a status key, as kept by setLastCfgCheck()
+	public static String[] statusKeyCfgCheck(String key) {
+		String[] args = key.replaceAll(CompassUtilities.captureFileSeparatorMarker, ",").split(CompassUtilities.captureFileSeparator, -1);
+		String name = "";
+		if ((args[0].equals(statusKeyName) || args[0].equals(statusKeyOption)) && (args.length > 2)) {
+			name = args[2];
+			if (args[0].equals(statusKeyOption) && (args.length > 3) && !args[3].isEmpty()) name += "=" + args[3];
+		}
+		else if (args[0].equals(statusKeyArg) && (args.length > 3)) {
+			name = args[2] + "=" + args[3];
+		}
+		return new String[] { args.length > 1 ? args[1].trim().toUpperCase() : "", name.trim().toUpperCase() };
+	}
+
 	public static boolean isValidBabelfishVersion(String version) {
 		return isValidBabelfishVersion(version, false);
 	}
@@ -1263,6 +1317,25 @@ public class CompassConfig {
         }
 		u.appOutput("Reading "+configFileName);
 
+		// use the parsed .cfg file from the previous run if the file has not changed
+		// not when maintaining the .cfg file, or when debugging since nothing would be shown
+		if (u.configOnly || u.debugging) {
+			return parseCfgFile();
+		}
+		String cachePathName = CompassConfigCache.getCachePathName(configFileName);
+		long[] cacheKey = CompassConfigCache.fileKey(configFileName);
+		if (CompassConfigCache.load(cachePathName, cacheKey)) {
+			return cfgFileValid;
+		}
+		cfgFileValid = parseCfgFile();
+		if (cfgFileValid) {
+			CompassConfigCache.save(cachePathName, cacheKey);
+		}
+		return cfgFileValid;
+	}
+
+	private static boolean parseCfgFile() throws Exception {
+		boolean cfgFileValid = true;
         cfg = getCfg(configFileName);
 
 		// sanity check, expecting at least a particular number of entries. '25' is arbitrarily chosen here
@@ -2336,7 +2409,7 @@ public class CompassConfig {
 			hexChecksum = "0" + hexChecksum;
 		}
 		if (u.configOnly) {
-			if (System.getenv().containsKey("COMPASS_CHECKSUM") || System.getenv().containsKey("compass_checksum")) {
+			if (CompassUtilities.environment.containsKey("COMPASS_CHECKSUM") || CompassUtilities.environment.containsKey("compass_checksum")) {
 				if (nrChecksumLine == -1) {
 					BufferedWriter bw = new BufferedWriter(new FileWriter(configFileName, true));
 					bw.write("#-----------------------------------------------------------------------------------");
@@ -0,0 +1,202 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+// binary cache of the parsed BabelfishFeatures.cfg, so that the file does not need to be parsed and validated on every run.
+// Layout:
+//   header : magic, version, Compass version, length + CRC32 of the .cfg file contents
+//   data   : the structures built by CompassConfig.readCfgFile: raw sections, section names, versions, feature lists, etc.
+// The cache is only used when the header matches the .cfg file and this Compass version; otherwise the .cfg file
+// is parsed as before and the cache is rewritten. Only the main .cfg file is cached: the user .cfg file is small,
+// and reading it may also update it.
+public class CompassConfigCache {
+	static CompassUtilities u = CompassUtilities.getInstance();
+
+	static final byte[] magic = "BBFCFGCA".getBytes(StandardCharsets.US_ASCII);
+	static final int version = 1;
+
+	static final String cacheFileSuffix = ".cache";
+
+	// the cache file for a .cfg file: in the reports root folder
+	public static String getCachePathName(String cfgFileName) {
+		return CompassUtilities.getFilePathname(CompassUtilities.getDocDirPathname(), Paths.get(cfgFileName).getFileName().toString() + cacheFileSuffix);
+	}
+
+	// identifies the contents of the .cfg file: length and CRC32 of the bytes, so it is cheap to compute
+	public static long[] fileKey(String cfgFileName) throws IOException {
+		byte[] b = Files.readAllBytes(Paths.get(cfgFileName));
+		CRC32 crc = new CRC32();
+		crc.update(b, 0, b.length);
+		return new long[] { b.length, crc.getValue() };
+	}
+
+	// load the cached .cfg structures into CompassConfig; returns false if there is no usable cache
+	public static boolean load(String cachePathName, long[] key) {
+		File f = new File(cachePathName);
+		if (!f.exists()) return false;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 64 * 1024))) {
+			byte[] b = new byte[magic.length];
+			in.readFully(b);
+			if (!Arrays.equals(b, magic)) return false;
+			if (in.readInt() != version) return false;
+			if (!readString(in).equals(CompassUtilities.thisProgVersion)) return false;
+			if (in.readLong() != key[0] || in.readLong() != key[1]) return false;
+
+			Map<String, Map<String, String>> cfg = new LinkedHashMap<>();
+			for (int n = in.readInt(); n > 0; n--) {
+				String sectionName = readString(in);
+				Map<String, String> section = new LinkedHashMap<>();
+				for (int m = in.readInt(); m > 0; m--) {
+					String k = readString(in);
+					section.put(k, readString(in));
+				}
+				cfg.put(sectionName, section);
+			}
+			List<String> cfgSections = readList(in);
+			List<String> versionList = readList(in);
+			Map<String, Map<String, List<String>>> sectionList = readSections(in);
+			Map<String, Map<String, List<String>>> sectionComplexityList = readSections(in);
+			Map<String, String> featureArgOptions = readMap(in);
+			Map<String, String> versionAliasList = readMap(in);
+			int fileFormatVersion = in.readInt();
+			String fileTimestamp = readString(in);
+
+			// only change anything once the whole cache was read
+			CompassConfig.cfg = cfg;
+			CompassConfig.cfgSections.addAll(cfgSections);
+			CompassConfig.Babelfish_VersionList = versionList;
+			CompassConfig.sectionList = sectionList;
+			CompassConfig.sectionComplexityList = sectionComplexityList;
+			CompassConfig.featureArgOptions = featureArgOptions;
+			CompassConfig.versionAliasList = versionAliasList;
+			CompassUtilities.cfgFileFormatVersionRead = fileFormatVersion;
+			u.cfgFileTimestamp = fileTimestamp;
+		} catch (IOException | RuntimeException e) {
+			// a damaged or truncated cache: just parse the .cfg file
+			if (u.debugging) u.dbgOutput(CompassUtilities.thisProc() + "cannot use " + cachePathName + ": " + e, u.debugCfg);
+			return false;
+		}
+		return true;
+	}
+
+	// write the .cfg structures in CompassConfig to the cache; the cache is written to a temp file first,
+	// so that a concurrent run never sees a partial cache
+	public static void save(String cachePathName, long[] key) {
+		Path cachePath = Paths.get(cachePathName);
+		Path tmpPath = Paths.get(cachePathName + "." + Thread.currentThread().getId() + "." + System.nanoTime() + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpPath.toFile()), 64 * 1024))) {
+				out.write(magic);
+				out.writeInt(version);
+				writeString(out, CompassUtilities.thisProgVersion);
+				out.writeLong(key[0]);
+				out.writeLong(key[1]);
+
+				out.writeInt(CompassConfig.cfg.size());
+				for (Map.Entry<String, Map<String, String>> e : CompassConfig.cfg.entrySet()) {
+					writeString(out, e.getKey());
+					writeMap(out, e.getValue());
+				}
+				writeList(out, CompassConfig.cfgSections);
+				writeList(out, CompassConfig.Babelfish_VersionList);
+				writeSections(out, CompassConfig.sectionList);
+				writeSections(out, CompassConfig.sectionComplexityList);
+				writeMap(out, CompassConfig.featureArgOptions);
+				writeMap(out, CompassConfig.versionAliasList);
+				out.writeInt(CompassUtilities.cfgFileFormatVersionRead);
+				writeString(out, u.cfgFileTimestamp);
+			}
+			try {
+				Files.move(tmpPath, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			// not being able to write the cache only means the .cfg file is parsed again next time
+			if (u.debugging) u.dbgOutput(CompassUtilities.thisProc() + "cannot write " + cachePathName + ": " + e, u.debugCfg);
+			try { Files.deleteIfExists(tmpPath); } catch (IOException ignored) { }
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(b.length);
+		out.write(b);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] b = new byte[in.readInt()];
+		in.readFully(b);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+
+	// a null list is written as length -1: the WILDCARD key only needs to exist
+	private static void writeList(DataOutputStream out, List<String> list) throws IOException {
+		if (list == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(list.size());
+		for (String s : list) writeString(out, s);
+	}
+
+	private static List<String> readList(DataInputStream in) throws IOException {
+		int n = in.readInt();
+		if (n < 0) return null;
+		List<String> list = new ArrayList<>(n);
+		for (; n > 0; n--) list.add(readString(in));
+		return list;
+	}
+
+	private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+		out.writeInt(map.size());
+		for (Map.Entry<String, String> e : map.entrySet()) {
+			writeString(out, e.getKey());
+			writeString(out, e.getValue());
+		}
+	}
+
+	private static Map<String, String> readMap(DataInputStream in) throws IOException {
+		Map<String, String> map = new LinkedHashMap<>();
+		for (int n = in.readInt(); n > 0; n--) {
+			String k = readString(in);
+			map.put(k, readString(in));
+		}
+		return map;
+	}
+
+	private static void writeSections(DataOutputStream out, Map<String, Map<String, List<String>>> sections) throws IOException {
+		out.writeInt(sections.size());
+		for (Map.Entry<String, Map<String, List<String>>> e : sections.entrySet()) {
+			writeString(out, e.getKey());
+			out.writeInt(e.getValue().size());
+			for (Map.Entry<String, List<String>> f : e.getValue().entrySet()) {
+				writeString(out, f.getKey());
+				writeList(out, f.getValue());
+			}
+		}
+	}
+
+	private static Map<String, Map<String, List<String>>> readSections(DataInputStream in) throws IOException {
+		Map<String, Map<String, List<String>>> sections = new LinkedHashMap<>();
+		for (int n = in.readInt(); n > 0; n--) {
+			String sectionName = readString(in);
+			Map<String, List<String>> featureList = new LinkedHashMap<>();
+			for (int m = in.readInt(); m > 0; m--) {
+				String k = readString(in);
+				featureList.put(k, readList(in));
+			}
+			sections.put(sectionName, featureList);
+		}
+		return sections;
+	}
+}
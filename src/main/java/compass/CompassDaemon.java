@@ -0,0 +1,376 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.util.*;
+
+import parser.TSQLLexer;
+
+// long-running Compass process: runs Compass command lines sent by CompassClient, so that these do not each pay for
+// starting a JVM, loading the classes and warming up the parser.
+// Each request runs the Compass classes in a class loader of its own, so every request starts with fresh Compass state,
+// exactly like a new process. The parser and ANTLR classes are shared by all requests: their DFA caches and JIT-compiled
+// code stay warm. Requests are run one at a time; a request's output (stdout/stderr) is streamed back to the client.
+// When the client goes away (e.g. Ctrl-C), the request is cancelled: it ends at the next point where Compass checks for this.
+//
+// The daemon listens on the loopback interface only. Its port, and a random token that clients must send, are written
+// to a file in the reports root folder which only the current user can read.
+// Clients also send their Compass version and the location of their classes: a request from another Compass version or
+// installation is run by the client itself, so that a command line never runs with Compass code other than the one invoked.
+// Since a JVM cannot change its working directory, only requests from the directory the daemon was started in are
+// accepted; relative input file names would otherwise resolve differently. Other requests are run by the client itself.
+// The client's environment variables are sent with the request, and Compass uses these instead of the daemon's.
+//
+// Classes used by the client must not refer to other Compass classes: that would load these in the client as well.
+public class CompassDaemon {
+	static final String daemonFileName = "compass.daemon";
+
+	// request kinds
+	static final byte requestRun = 'R';
+	static final byte requestStop = 'S';
+
+	// reply frames: <length> <bytes> for output, or one of these followed by an int
+	static final int replyExit = -1;
+	static final int replyNotHere = -2;
+	static final int replyOtherBuild = -3;
+
+	private final ServerSocket server;
+	private final String token;
+	private final String build;
+	private final String workDir;
+	private final URL[] classPath;
+	private final Path daemonFile;
+
+	private CompassDaemon(ServerSocket server, String token, Path daemonFile) throws IOException {
+		this.server = server;
+		this.token = token;
+		this.daemonFile = daemonFile;
+		this.build = getBuild();
+		this.workDir = new File("").getAbsolutePath();
+		String[] cp = System.getProperty("java.class.path").split(File.pathSeparator);
+		classPath = new URL[cp.length];
+		for (int i = 0; i < cp.length; i++) {
+			classPath[i] = new File(cp[i]).toURI().toURL();
+		}
+	}
+
+	// the file with the port and token of the running daemon: in the reports root folder.
+	// Same as CompassUtilities.getDocDirPathname(), but without loading CompassUtilities
+	static Path getDaemonFile() {
+		String home = System.getProperty("user.home");
+		if (System.getProperty("os.name").toLowerCase().startsWith("windows")) {
+			return Paths.get(home, "Documents", CompassUtilities.BabelfishCompassFolderNameWindows, daemonFileName);
+		}
+		return Paths.get(home, CompassUtilities.BabelfishCompassFolderNameLinux, daemonFileName);
+	}
+
+	// the Compass version and the location of the Compass classes (the jar) of this process.
+	// The version constants are compiled in, so this does not load CompassUtilities either
+	static String getBuild() {
+		return CompassUtilities.thisProgVersion + " " + CompassUtilities.thisProgVersionDate + " " + CompassDaemon.class.getProtectionDomain().getCodeSource().getLocation();
+	}
+
+	// start the daemon; runs until stopped with -daemonstop
+	public static void main(String[] args) throws Exception {
+		int port = 0;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-port") && i + 1 < args.length) {
+				try {
+					port = Integer.parseInt(args[++i]);
+				} catch (NumberFormatException e) {
+					port = -1;
+				}
+				if (port < 0 || port > 65535) {
+					System.out.println("Invalid port number for -daemon -port: " + args[i]);
+					System.exit(1);
+				}
+				continue;
+			}
+			System.out.println("Invalid option for -daemon: [" + args[i] + "]. Valid options: -port <number>");
+			System.exit(1);
+		}
+
+		Path daemonFile = getDaemonFile();
+		if (isRunning(daemonFile)) {
+			System.out.println("Compass daemon already running (" + daemonFile + ")");
+			System.exit(1);
+		}
+
+		byte[] b = new byte[16];
+		new SecureRandom().nextBytes(b);
+		StringBuilder token = new StringBuilder();
+		for (byte x : b) token.append(String.format("%02x", x));
+
+		ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		CompassDaemon daemon = new CompassDaemon(server, token.toString(), daemonFile);
+		daemon.writeDaemonFile();
+		Runtime.getRuntime().addShutdownHook(new Thread(daemon::removeDaemonFile));
+		System.out.println("Compass daemon listening on " + server.getInetAddress().getHostAddress() + ":" + server.getLocalPort() + ", directory " + daemon.workDir);
+		daemon.serve();
+		daemon.removeDaemonFile();
+		System.out.println("Compass daemon stopped");
+	}
+
+	private void writeDaemonFile() throws IOException {
+		Files.createDirectories(daemonFile.getParent());
+		Files.deleteIfExists(daemonFile);
+		try {
+			Files.createFile(daemonFile, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		} catch (UnsupportedOperationException e) {
+			// Windows: the reports root folder is in the user's profile
+			Files.createFile(daemonFile);
+		}
+		Files.write(daemonFile, (server.getLocalPort() + " " + token + "\n").getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void removeDaemonFile() {
+		try {
+			// only remove our own file, not that of a daemon started later
+			if (Files.exists(daemonFile) && new String(Files.readAllBytes(daemonFile), StandardCharsets.UTF_8).contains(" " + token)) {
+				Files.delete(daemonFile);
+			}
+		} catch (IOException ignored) { }
+	}
+
+	private void serve() throws IOException {
+		while (true) {
+			try (Socket s = server.accept()) {
+				// a client that does not send its request must not block the daemon
+				s.setSoTimeout(10000);
+				DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+				String clientToken = readString(in);
+				if (!clientToken.equals(token)) continue;
+				String clientBuild = readString(in);
+				byte kind = in.readByte();
+				String dir = readString(in);
+				List<String> args = new ArrayList<>();
+				for (int n = in.readInt(); n > 0; n--) args.add(readString(in));
+				Map<String, String> env = new HashMap<>();
+				for (int n = in.readInt(); n > 0; n--) env.put(readString(in), readString(in));
+
+				if (kind == requestStop) {
+					out.writeInt(replyExit);
+					out.writeInt(0);
+					out.flush();
+					server.close();
+					return;
+				}
+				if (!clientBuild.equals(build)) {
+					out.writeInt(replyOtherBuild);
+					out.writeInt(0);
+					out.flush();
+					continue;
+				}
+				if (!dir.equals(workDir)) {
+					out.writeInt(replyNotHere);
+					out.writeInt(0);
+					out.flush();
+					continue;
+				}
+				s.setSoTimeout(0);
+				int exitCode = run(args.toArray(new String[0]), env, in, out);
+				out.writeInt(replyExit);
+				out.writeInt(exitCode);
+				out.flush();
+			} catch (IOException e) {
+				// client went away; carry on with the next request
+				if (server.isClosed()) return;
+			}
+		}
+	}
+
+	// run a Compass command line with fresh Compass classes, sending its output to the client
+	private int run(String[] args, Map<String, String> env, DataInputStream in, DataOutputStream out) throws IOException {
+		PrintStream requestOut = new PrintStream(new BufferedOutputStream(new FrameOutputStream(out), 8192), true);
+		PrintStream origOut = System.out;
+		PrintStream origErr = System.err;
+		int[] exitCode = { 1 };
+		System.setOut(requestOut);
+		System.setErr(requestOut);
+		try (RequestClassLoader loader = new RequestClassLoader(classPath, CompassDaemon.class.getClassLoader())) {
+			// the only state in the shared parser classes
+			TSQLLexer.QUOTED_IDENTIFIER_FLAG = true;
+
+			// a new thread, so that nothing is left behind in thread-locals
+			Thread t = new Thread(() -> {
+				try {
+					Class<?> c = Class.forName("compass.Compass", true, loader);
+					exitCode[0] = (Integer) c.getMethod("runDaemonRequest", String[].class, Map.class).invoke(null, args, Collections.unmodifiableMap(env));
+				} catch (InvocationTargetException e) {
+					e.getCause().printStackTrace();
+				} catch (Throwable e) {
+					e.printStackTrace();
+				}
+			}, "compass-request");
+			t.setContextClassLoader(loader);
+			t.start();
+
+			// the client sends nothing more, so reading ends only when the connection is closed
+			Thread watch = new Thread(() -> {
+				try {
+					while (in.read() >= 0) { }
+				} catch (IOException ignored) { }
+				if (t.isAlive()) cancel(loader, t);
+			}, "compass-request-watch");
+			watch.setDaemon(true);
+			watch.start();
+			t.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			requestOut.flush();
+			System.setOut(origOut);
+			System.setErr(origErr);
+		}
+		return exitCode[0];
+	}
+
+	// the client went away: cancel the request
+	private static void cancel(ClassLoader loader, Thread t) {
+		try {
+			Class.forName("compass.CompassUtilities", true, loader).getField("requestCancelled").setBoolean(null, true);
+		} catch (ReflectiveOperationException ignored) { }
+		t.interrupt();
+	}
+
+	// loads the Compass classes itself, everything else (the parser, ANTLR, the JDK) comes from the parent
+	static class RequestClassLoader extends URLClassLoader {
+		RequestClassLoader(URL[] urls, ClassLoader parent) {
+			super(urls, parent);
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.startsWith("compass.")) return super.loadClass(name, resolve);
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> c = findLoadedClass(name);
+				if (c == null) c = findClass(name);
+				if (resolve) resolveClass(c);
+				return c;
+			}
+		}
+	}
+
+	// output of a request: each write becomes a <length> <bytes> frame
+	static class FrameOutputStream extends OutputStream {
+		private final DataOutputStream out;
+
+		FrameOutputStream(DataOutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public synchronized void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public synchronized void write(byte[] b, int off, int len) throws IOException {
+			if (len == 0) return;
+			out.writeInt(len);
+			out.write(b, off, len);
+		}
+
+		@Override
+		public synchronized void flush() throws IOException {
+			out.flush();
+		}
+	}
+
+	// is a daemon answering for this daemon file?
+	static boolean isRunning(Path daemonFile) {
+		try (Socket s = connect(daemonFile)) {
+			return s != null;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private static Socket connect(Path daemonFile) throws IOException {
+		if (!Files.exists(daemonFile)) return null;
+		String[] f = new String(Files.readAllBytes(daemonFile), StandardCharsets.UTF_8).trim().split(" ");
+		if (f.length != 2) return null;
+		Socket s = new Socket();
+		try {
+			s.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(f[0])), 1000);
+		} catch (IOException | NumberFormatException e) {
+			s.close();
+			return null;
+		}
+		return s;
+	}
+
+	// send a request to the daemon, copying its output to 'output'; returns the exit code, or null if there
+	// is no daemon or the request must be run by the client itself
+	static Integer request(Path daemonFile, byte kind, List<String> args, OutputStream output) {
+		boolean started = false;
+		try (Socket s = connect(daemonFile)) {
+			if (s == null) return null;
+			String token = new String(Files.readAllBytes(daemonFile), StandardCharsets.UTF_8).trim().split(" ")[1];
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+			writeString(out, token);
+			writeString(out, getBuild());
+			out.writeByte(kind);
+			writeString(out, new File("").getAbsolutePath());
+			out.writeInt(args.size());
+			for (String a : args) writeString(out, a);
+			Map<String, String> env = System.getenv();
+			out.writeInt(env.size());
+			for (Map.Entry<String, String> e : env.entrySet()) {
+				writeString(out, e.getKey());
+				writeString(out, e.getValue());
+			}
+			out.flush();
+
+			DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+			byte[] buf = new byte[8192];
+			while (true) {
+				int n = in.readInt();
+				if (n == replyExit) {
+					output.flush();
+					return in.readInt();
+				}
+				if (n == replyNotHere || n == replyOtherBuild) return null;
+				if (n < 0) throw new IOException("invalid reply from Compass daemon");
+				started = true;
+				while (n > 0) {
+					int r = in.read(buf, 0, Math.min(n, buf.length));
+					if (r < 0) throw new EOFException();
+					output.write(buf, 0, r);
+					n -= r;
+				}
+				output.flush();
+			}
+		} catch (IOException e) {
+			// the daemon went away: if it did not start on the request yet, the client runs it; otherwise the request failed
+			if (!started) return null;
+			new PrintStream(output, true).println("Compass daemon request failed: " + e);
+			return 1;
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(b.length);
+		out.write(b);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int n = in.readInt();
+		if (n < 0 || n > 1024 * 1024) throw new IOException("invalid request");
+		byte[] b = new byte[n];
+		in.readFully(b);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+}
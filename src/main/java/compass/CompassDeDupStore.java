@@ -0,0 +1,193 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// de-duplication store for captured queries.
+// Queries are identified by a 128-bit fingerprint (MD5) of their normalized text, so the normalized text itself is not kept.
+// For each distinct query only the first original text is kept, in memory or, with spilling, in a temporary file, until
+// the de-duplicated queries of the current input file are written out in the order they were first found.
+// Fingerprints are kept across input files: a query found in an earlier input file is a duplicate in later files as well.
+public class CompassDeDupStore {
+	private static final ThreadLocal<MessageDigest> md5 = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	});
+
+	// open-addressing hash table on the fingerprint
+	private long[] fpHi = new long[1024];
+	private long[] fpLo = new long[1024];
+	private int[] fpFileNr = new int[1024];   // input file in which the query was first found; 0 = empty slot
+	private int[] fpOrderIx = new int[1024];  // order of the first occurrence in that file
+	private int nrFingerprints = 0;
+
+	// current input file
+	private int fileNr = 0;
+	private int nrQueries = 0;
+	private int[] dupCount = new int[1024];
+	private List<String> queries = new ArrayList<>();
+	private File spillFile = null;
+	private DataOutputStream spillWriter = null;
+
+	public static long[] fingerprint(String s) {
+		MessageDigest md = md5.get();
+		md.reset();
+		byte[] d = md.digest(s.getBytes(StandardCharsets.UTF_8));
+		long hi = 0;
+		long lo = 0;
+		for (int i = 0; i < 8; i++) {
+			hi = (hi << 8) | (d[i] & 0xFF);
+			lo = (lo << 8) | (d[i + 8] & 0xFF);
+		}
+		return new long[] { hi, lo };
+	}
+
+	// start de-duplicating the queries of a new input file; with a spill directory, the queries are kept in a temporary file there
+	public void startFile(String spillDir) throws IOException {
+		close();
+		fileNr++;
+		nrQueries = 0;
+		Arrays.fill(dupCount, 0);
+		queries.clear();
+		if (spillDir != null) {
+			spillFile = CompassUtilities.createTempFile("dedup-", new File(spillDir));
+			spillWriter = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile), 256 * 1024));
+		}
+	}
+
+	private int slot(long hi, long lo) {
+		int mask = fpHi.length - 1;
+		int ix = (int) (lo ^ (lo >>> 32)) & mask;
+		while (fpFileNr[ix] != 0 && !(fpHi[ix] == hi && fpLo[ix] == lo)) {
+			ix = (ix + 1) & mask;
+		}
+		return ix;
+	}
+
+	private void grow() {
+		long[] oldHi = fpHi;
+		long[] oldLo = fpLo;
+		int[] oldFileNr = fpFileNr;
+		int[] oldOrderIx = fpOrderIx;
+		int cap = oldHi.length * 2;
+		fpHi = new long[cap];
+		fpLo = new long[cap];
+		fpFileNr = new int[cap];
+		fpOrderIx = new int[cap];
+		for (int i = 0; i < oldHi.length; i++) {
+			if (oldFileNr[i] == 0) continue;
+			int ix = slot(oldHi[i], oldLo[i]);
+			fpHi[ix] = oldHi[i];
+			fpLo[ix] = oldLo[i];
+			fpFileNr[ix] = oldFileNr[i];
+			fpOrderIx[ix] = oldOrderIx[i];
+		}
+	}
+
+	// add a query; returns false if it is a duplicate
+	public boolean add(long[] fp, String qryOrig) throws IOException {
+		int ix = slot(fp[0], fp[1]);
+		if (fpFileNr[ix] != 0) {
+			if (fpFileNr[ix] == fileNr) {
+				dupCount[fpOrderIx[ix]]++;
+			}
+			return false;
+		}
+
+		if (nrQueries == dupCount.length) {
+			dupCount = Arrays.copyOf(dupCount, nrQueries * 2);
+		}
+		fpHi[ix] = fp[0];
+		fpLo[ix] = fp[1];
+		fpFileNr[ix] = fileNr;
+		fpOrderIx[ix] = nrQueries++;
+		if (spillWriter != null) {
+			byte[] b = qryOrig.getBytes(StandardCharsets.UTF_8);
+			spillWriter.writeInt(b.length);
+			spillWriter.write(b);
+		}
+		else {
+			queries.add(qryOrig);
+		}
+
+		nrFingerprints++;
+		if (nrFingerprints * 10L > fpHi.length * 6L) {
+			grow();
+		}
+		return true;
+	}
+
+	// number of distinct queries in the current input file
+	public int size() {
+		return nrQueries;
+	}
+
+	// reads back the distinct queries of the current input file, in the order they were first found
+	public QueryReader openReader() throws IOException {
+		return new QueryReader();
+	}
+
+	public class QueryReader {
+		private int ix = -1;
+		private DataInputStream spillReader = null;
+
+		private QueryReader() throws IOException {
+			if (spillWriter != null) {
+				spillWriter.close();
+				spillWriter = null;
+			}
+			if (spillFile != null) {
+				spillReader = new DataInputStream(new BufferedInputStream(new FileInputStream(spillFile), 256 * 1024));
+			}
+		}
+
+		// next query, or null when all have been read
+		public String next() throws IOException {
+			ix++;
+			if (ix >= nrQueries) {
+				if (spillReader != null) {
+					spillReader.close();
+					spillReader = null;
+				}
+				return null;
+			}
+			if (spillReader == null) {
+				return queries.get(ix);
+			}
+			byte[] b = new byte[spillReader.readInt()];
+			spillReader.readFully(b);
+			return new String(b, StandardCharsets.UTF_8);
+		}
+
+		// number of duplicates removed for the last query read
+		public int getDupCount() {
+			return dupCount[ix];
+		}
+	}
+
+	// release the queries of the current input file; the fingerprints are kept
+	public void close() throws IOException {
+		if (spillWriter != null) {
+			spillWriter.close();
+			spillWriter = null;
+		}
+		if (spillFile != null) {
+			CompassUtilities.deleteTempFile(spillFile);
+			spillFile = null;
+		}
+		queries.clear();
+	}
+}
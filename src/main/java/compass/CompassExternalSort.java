@@ -0,0 +1,223 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// sorting of report sort keys that may not fit in memory.
+// Keys are added to a partition (the X-ref sections are sorted per status); while the keys held in memory exceed the memory
+// budget, each partition's keys are sorted and written to a temporary run file. Reading a partition merges its runs.
+// Keys are sorted by CompassSortKey.ORDER with a stable sort: equal keys come out in the order they were added.
+public class CompassExternalSort {
+	// heap layout of a 64-bit JVM with compressed references
+	static final int objectHeader = 12;
+	static final int arrayHeader = 16;
+	static final int refSize = 4;
+
+	private final long memBudget;
+	private final File tmpDir;
+	private final Comparator<CompassSortKey> cmp = CompassSortKey.ORDER;
+	private final Map<String, Partition> partitions = new LinkedHashMap<>();
+	private long memUsed = 0;
+	private int nrRuns = 0;
+	private CompassSortKey prevKey = null;
+
+	private static class Partition {
+		List<CompassSortKey> keys = new ArrayList<>();
+		List<File> runs = new ArrayList<>();
+	}
+
+	// memBudget in bytes; run files are created in tmpDir
+	public CompassExternalSort(long memBudget, String tmpDir) {
+		this.memBudget = memBudget;
+		this.tmpDir = new File(tmpDir);
+	}
+
+	public void add(String partition, CompassSortKey key) throws IOException {
+		partitions.computeIfAbsent(partition, k -> new Partition()).keys.add(key);
+		memUsed += memSize(key, prevKey);
+		prevKey = key;
+		if (memUsed > memBudget) {
+			spill();
+		}
+	}
+
+	// heap use of a key in bytes: the key, its array and the list reference, and the strings of its fields.
+	// Fields that repeat across keys are shared strings, so a field that is the same string as in the previous key is not counted again
+	static long memSize(CompassSortKey key, CompassSortKey prev) {
+		long size = align(objectHeader + refSize) + align(arrayHeader + (long) refSize * key.size()) + refSize;
+		for (int i = 0; i < key.size(); i++) {
+			String f = key.get(i);
+			if ((prev != null) && (i < prev.size()) && (prev.get(i) == f)) continue;
+			size += stringSize(f);
+		}
+		return size;
+	}
+
+	// heap use of a string in bytes: the String object and its byte array, with one byte per character when all characters are Latin-1
+	static long stringSize(String s) {
+		int bytesPerChar = 1;
+		for (int i = 0; i < s.length(); i++) {
+			if (s.charAt(i) > 0xFF) {
+				bytesPerChar = 2;
+				break;
+			}
+		}
+		return align(objectHeader + 4 + 2 + refSize) + align(arrayHeader + (long) bytesPerChar * s.length());
+	}
+
+	private static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+
+	// number of runs written to disk
+	public int getNrRuns() {
+		return nrRuns;
+	}
+
+	private void spill() throws IOException {
+		for (Partition p : partitions.values()) {
+			if (p.keys.isEmpty()) continue;
+			p.keys.sort(cmp);
+			File run = CompassUtilities.createTempFile("xref-", tmpDir);
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), 256 * 1024))) {
+				for (CompassSortKey k : p.keys) {
+					writeKey(out, k);
+				}
+			}
+			p.runs.add(run);
+			p.keys = new ArrayList<>();
+			nrRuns++;
+		}
+		memUsed = 0;
+		prevKey = null;
+	}
+
+	private static void writeKey(DataOutputStream out, CompassSortKey k) throws IOException {
+		out.writeInt(k.size());
+		for (int i = 0; i < k.size(); i++) {
+			byte[] b = k.get(i).getBytes(StandardCharsets.UTF_8);
+			out.writeInt(b.length);
+			out.write(b);
+		}
+	}
+
+	private static CompassSortKey readKey(DataInputStream in) throws IOException {
+		int n;
+		try {
+			n = in.readInt();
+		} catch (EOFException e) {
+			return null;
+		}
+		String[] fields = new String[n];
+		for (int i = 0; i < n; i++) {
+			byte[] b = new byte[in.readInt()];
+			in.readFully(b);
+			fields[i] = new String(b, StandardCharsets.UTF_8);
+		}
+		return new CompassSortKey(fields);
+	}
+
+	// the sorted keys of a partition, read as a stream; may be iterated more than once
+	public Iterable<CompassSortKey> sorted(String partition) {
+		Partition p = partitions.get(partition);
+		if (p == null) {
+			return Collections.emptyList();
+		}
+		p.keys.sort(cmp);
+		if (p.runs.isEmpty()) {
+			return p.keys;
+		}
+		return () -> new MergeIterator(p);
+	}
+
+	// removes the run files
+	public void close() {
+		for (Partition p : partitions.values()) {
+			for (File run : p.runs) {
+				CompassUtilities.deleteTempFile(run);
+			}
+		}
+		partitions.clear();
+		memUsed = 0;
+		prevKey = null;
+	}
+
+	// merges the runs of a partition and the keys still in memory, which were added last
+	private class MergeIterator implements Iterator<CompassSortKey> {
+		private final List<DataInputStream> inputs = new ArrayList<>();
+		private final Iterator<CompassSortKey> memKeys;
+		private final PriorityQueue<Head> heads = new PriorityQueue<>((x, y) -> {
+			int c = cmp.compare(x.key, y.key);
+			return (c != 0) ? c : Integer.compare(x.source, y.source);
+		});
+
+		private class Head {
+			CompassSortKey key;
+			final int source;
+
+			Head(CompassSortKey key, int source) {
+				this.key = key;
+				this.source = source;
+			}
+		}
+
+		MergeIterator(Partition p) {
+			memKeys = p.keys.iterator();
+			try {
+				for (int i = 0; i < p.runs.size(); i++) {
+					DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(p.runs.get(i)), 64 * 1024));
+					inputs.add(in);
+					CompassSortKey k = readKey(in);
+					if (k != null) heads.add(new Head(k, i));
+				}
+				if (memKeys.hasNext()) heads.add(new Head(memKeys.next(), p.runs.size()));
+			} catch (IOException e) {
+				closeInputs();
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (heads.isEmpty()) {
+				closeInputs();
+				return false;
+			}
+			return true;
+		}
+
+		@Override
+		public CompassSortKey next() {
+			Head h = heads.poll();
+			if (h == null) throw new NoSuchElementException();
+			CompassSortKey result = h.key;
+			try {
+				CompassSortKey k = (h.source < inputs.size()) ? readKey(inputs.get(h.source)) : (memKeys.hasNext() ? memKeys.next() : null);
+				if (k != null) {
+					h.key = k;
+					heads.add(h);
+				}
+			} catch (IOException e) {
+				closeInputs();
+				throw new UncheckedIOException(e);
+			}
+			return result;
+		}
+
+		private void closeInputs() {
+			for (DataInputStream in : inputs) {
+				try {
+					in.close();
+				} catch (IOException ignored) {
+				}
+			}
+			inputs.clear();
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+// prepares input files for import while an earlier input file is being analyzed.
+// For each file, a worker detects the encoding and the input format and, for files in sqlcmd format that are not too big,
+// reads the file into memory. The workers only read: the import copy is written when the file is handed over by get(), so
+// no copy is left behind for a file that is not imported because an earlier file aborted the run.
+// Nothing is printed by the workers: messages are kept with the prepared file, and printed when the file is processed, so the
+// output is the same as when the files are prepared one by one. With debugging, the files are prepared one by one.
+// Files needing a format conversion are only detected here: the conversion itself is done when the file is processed.
+public class CompassImportPipeline {
+	static CompassUtilities u = CompassUtilities.getInstance();
+
+	public static class PreparedFile {
+		String inFile;
+		String appName;
+		String inFileCopy;
+		boolean replacing = false;          // an import copy already existed
+		boolean invalidEncoding = false;    // -encoding value is not valid
+		String detectedEncoding = null;     // null when not detected
+		Charset charset;
+		String useImportFormat;
+		List<String> fmtMsgs = new ArrayList<>();
+		String contents = null;             // the input file, when read ahead
+		boolean copyWritten = false;
+		boolean isImportCopy = false;       // input file is itself an import copy from a report
+		Exception error = null;
+	}
+
+	private final String reportName;
+	private final String userEncoding;
+	private final List<String> inputFiles;
+	private final List<String> appNames;
+	private final boolean[] prefetch;
+	private final int lookAhead;
+	static long readAheadMaxSize = 16L * 1024 * 1024;  // bigger files are read when the import copy is written
+	private final ExecutorService pool;
+	private final Map<Integer, Future<PreparedFile>> pending = new HashMap<>();
+	private int nextToSubmit = 0;
+
+	// appNames holds the application name for each input file, or null if it is not valid (no preparation is done then)
+	public CompassImportPipeline(String reportName, String userEncoding, List<String> inputFiles, List<String> appNames) throws IOException {
+		this.reportName = reportName;
+		this.userEncoding = userEncoding;
+		this.inputFiles = inputFiles;
+		this.appNames = appNames;
+
+		// input files with the same import copy overwrite each other's copy, so those must be prepared when they are processed
+		prefetch = new boolean[inputFiles.size()];
+		Map<String, Integer> copyCount = new HashMap<>();
+		List<String> copies = new ArrayList<>();
+		for (int i = 0; i < inputFiles.size(); i++) {
+			String copy = (appNames.get(i) == null) ? null : u.getImportFilePathName(reportName, inputFiles.get(i), appNames.get(i)).toUpperCase();
+			copies.add(copy);
+			if (copy != null) copyCount.merge(copy, 1, Integer::sum);
+		}
+		for (int i = 0; i < inputFiles.size(); i++) {
+			prefetch[i] = (copies.get(i) != null) && (copyCount.get(copies.get(i)) == 1) && !u.debugging;
+		}
+
+		// these are shared by all import copies
+		u.checkDir(u.getReportDirPathname(reportName, u.importDirName), true);
+		u.formatFooterHTML();
+
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+		lookAhead = threads + 1;
+		pool = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "compass-import");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	// returns the prepared input file at this position; files are requested in order
+	public PreparedFile get(int ix) throws Exception {
+		while ((nextToSubmit < inputFiles.size()) && (nextToSubmit <= ix + lookAhead)) {
+			if (prefetch[nextToSubmit]) {
+				final int i = nextToSubmit;
+				pending.put(i, pool.submit(() -> prepare(i)));
+			}
+			nextToSubmit++;
+		}
+		Future<PreparedFile> f = pending.remove(ix);
+		PreparedFile pf = (f != null) ? f.get() : prepare(ix);
+		if (pf.error != null) throw pf.error;
+		if (pf.useImportFormat == null) return pf;
+		if (u.debugging) u.dbgOutput(CompassUtilities.thisProc() + "u.importFormat=["+u.importFormat+"] useImportFormat=["+pf.useImportFormat+"] ", u.debugFmt || u.debugDir);
+
+		if (pf.useImportFormat.equalsIgnoreCase(u.sqlcmdFmt)) {
+			// no conversion needed, so the copy can be made now
+			if (pf.contents != null) {
+				pf.isImportCopy = !u.writeImportCopy(reportName, pf.inFile, pf.appName, new BufferedReader(new StringReader(pf.contents)), pf.charset.toString());
+				pf.contents = null;
+			}
+			else {
+				pf.isImportCopy = !u.writeImportCopy(reportName, pf.inFile, pf.appName, pf.charset, pf.charset.toString());
+			}
+			pf.copyWritten = !pf.isImportCopy;
+		}
+		return pf;
+	}
+
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	private PreparedFile prepare(int ix) {
+		PreparedFile pf = new PreparedFile();
+		pf.inFile = inputFiles.get(ix);
+		pf.appName = appNames.get(ix);
+		if (pf.appName == null) return pf;
+		try {
+			if (!Files.exists(Paths.get(pf.inFile))) return pf;
+			pf.inFileCopy = u.getImportFilePathName(reportName, pf.inFile, pf.appName);
+			pf.replacing = Files.exists(Paths.get(pf.inFileCopy));
+
+			// handle charset conversion
+			// NB: when specifying multiple input files, all input files will be handled with the same encoding
+			if (userEncoding == null) {
+				// if no encoding specified, try to detect cases of UTF16
+				pf.detectedEncoding = u.detectEncoding(pf.inFile);
+				pf.charset = (pf.detectedEncoding != null) ? Charset.forName(pf.detectedEncoding) : Charset.defaultCharset();
+			}
+			else {
+				try {
+					pf.charset = Charset.forName(userEncoding);
+				} catch (Exception e) {
+					pf.invalidEncoding = true;
+					return pf;
+				}
+			}
+
+			String detectedFmt = u.detectImportFileFormat(pf.inFile, u.importFormat, pf.charset, pf.fmtMsgs);
+			pf.useImportFormat = u.sqlcmdFmt;
+			if (u.importFormat.equalsIgnoreCase(u.autoFmt)) {
+				pf.useImportFormat = detectedFmt;
+			}
+			if (u.importFormat.equalsIgnoreCase(detectedFmt)) {
+				pf.useImportFormat = detectedFmt;
+			}
+			if (pf.useImportFormat.isEmpty()) pf.useImportFormat = u.sqlcmdFmt; // catchall
+
+			if (pf.useImportFormat.equalsIgnoreCase(u.sqlcmdFmt) && (Files.size(Paths.get(pf.inFile)) <= readAheadMaxSize)) {
+				pf.contents = new String(Files.readAllBytes(Paths.get(pf.inFile)), pf.charset);
+			}
+		} catch (Exception e) {
+			pf.error = e;
+		}
+		return pf;
+	}
+}
@@ -0,0 +1,212 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// finding the input files in directory trees, for -recursive.
+// Directories are read in parallel; paths that are not included or are excluded are counted, and only the first few are reported
+public class CompassInputDiscovery {
+	static final int maxPathsReported = 10;
+
+	private final Path root;
+	private final int maxDepth;
+	private final PathMatcher includes;
+	private final PathMatcher excludes;
+
+	private final ConcurrentLinkedQueue<String> files = new ConcurrentLinkedQueue<>();
+	private final ConcurrentLinkedQueue<String> notIncluded = new ConcurrentLinkedQueue<>();
+	private final ConcurrentLinkedQueue<String> excluded = new ConcurrentLinkedQueue<>();
+	private final ConcurrentLinkedQueue<String> notAccessible = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger nrNotIncluded = new AtomicInteger();
+	private final AtomicInteger nrExcluded = new AtomicInteger();
+	private final AtomicInteger nrNotAccessible = new AtomicInteger();
+
+	public CompassInputDiscovery(Path root, int maxDepth, PathMatcher includes, PathMatcher excludes) {
+		this.root = root;
+		this.maxDepth = maxDepth;
+		this.includes = includes;
+		this.excludes = excludes;
+	}
+
+	// walks the directory tree, following symbolic links; returns the readable files matching the include/exclude patterns
+	public Set<String> walk() throws IOException {
+		Path rootReal = root.toRealPath();
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			pool.invoke(new DirTask(root, rootReal, null, 0));
+		} finally {
+			pool.shutdown();
+		}
+		return new HashSet<>(files);
+	}
+
+	public int getNrNotIncluded() {
+		return nrNotIncluded.get();
+	}
+
+	public int getNrExcluded() {
+		return nrExcluded.get();
+	}
+
+	public int getNrNotAccessible() {
+		return nrNotAccessible.get();
+	}
+
+	// report the paths that were skipped: the first few by name, the rest as a count
+	public List<String> skippedPathsReport() {
+		List<String> msgs = new ArrayList<>();
+		addReport(msgs, notIncluded, nrNotIncluded.get(), "Ignoring not included path '", "Ignoring %d more not included paths");
+		addReport(msgs, excluded, nrExcluded.get(), "Excluding path '", "Excluding %d more paths");
+		addReport(msgs, notAccessible, nrNotAccessible.get(), "Can't access directory '", "Can't access %d more directories");
+		return msgs;
+	}
+
+	private static void addReport(List<String> msgs, Collection<String> paths, int nrPaths, String msg, String moreMsg) {
+		List<String> sorted = new ArrayList<>(paths);
+		Collections.sort(sorted);
+		for (String p : sorted) {
+			msgs.add(msg + p + "'");
+		}
+		if (nrPaths > sorted.size()) {
+			msgs.add(String.format(moreMsg, nrPaths - sorted.size()));
+		}
+	}
+
+	private static void keepSample(ConcurrentLinkedQueue<String> sample, AtomicInteger count, Path p) {
+		if (count.incrementAndGet() <= maxPathsReported) {
+			sample.add(p.toString());
+		}
+	}
+
+	// real paths of the directories above the current one, to detect loops through symbolic links
+	private static class Ancestor {
+		final Path real;
+		final Ancestor parent;
+
+		Ancestor(Path real, Ancestor parent) {
+			this.real = real;
+			this.parent = parent;
+		}
+
+		boolean contains(Path p) {
+			for (Ancestor a = this; a != null; a = a.parent) {
+				if (a.real.equals(p)) return true;
+			}
+			return false;
+		}
+	}
+
+	private class DirTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Path dir;
+		private final Path dirReal;
+		private final Ancestor ancestors;
+		private final int depth;
+
+		DirTask(Path dir, Path dirReal, Ancestor ancestors, int depth) {
+			this.dir = dir;
+			this.dirReal = dirReal;
+			this.ancestors = ancestors;
+			this.depth = depth;
+		}
+
+		@Override
+		protected void compute() {
+			List<DirTask> subDirs = new ArrayList<>();
+			Ancestor here = new Ancestor(dirReal, ancestors);
+			try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+				for (Path p : entries) {
+					BasicFileAttributes attrs;
+					Path real = null;
+					try {
+						attrs = Files.readAttributes(p, BasicFileAttributes.class);
+						if (attrs.isDirectory()) {
+							real = Files.isSymbolicLink(p) ? p.toRealPath() : dirReal.resolve(p.getFileName());
+						}
+					} catch (IOException e) {
+						// dangling symbolic link
+						continue;
+					}
+					if (attrs.isDirectory()) {
+						if (depth + 1 >= maxDepth) continue;
+						if (here.contains(real)) {
+							// loop through a symbolic link
+							continue;
+						}
+						subDirs.add(new DirTask(p, real, here, depth + 1));
+					}
+					else if (attrs.isRegularFile() && Files.isReadable(p)) {
+						if (includes != null && !includes.matches(p)) {
+							keepSample(notIncluded, nrNotIncluded, p);
+						}
+						else if (excludes != null && excludes.matches(p)) {
+							keepSample(excluded, nrExcluded, p);
+						}
+						else {
+							files.add(p.toString());
+						}
+					}
+				}
+			} catch (IOException | DirectoryIteratorException e) {
+				keepSample(notAccessible, nrNotAccessible, dir);
+			}
+			invokeAll(subDirs);
+		}
+	}
+
+	// maps a path to the first directory, in the order they were added, that it is located in.
+	// Paths are compared case-insensitively with '/' and '\' as equivalent separators
+	public static class PrefixTrie {
+		private static class Node {
+			final Map<Character, Node> next = new HashMap<>();
+			int valueIx = -1;
+		}
+
+		private final Node top = new Node();
+		private final List<String> values = new ArrayList<>();
+
+		static String normalize(String path) {
+			return path.replace('\\', '/').toUpperCase();
+		}
+
+		// adds a directory; files in it map to the value
+		public void add(String dir, String value) {
+			Node n = top;
+			for (char c : (normalize(dir) + "/").toCharArray()) {
+				n = n.next.computeIfAbsent(c, k -> new Node());
+			}
+			if (n.valueIx < 0) {
+				n.valueIx = values.size();
+			}
+			values.add(value);
+		}
+
+		// value of the first directory added that contains the path; null if there is none
+		public String lookup(String path) {
+			String s = normalize(path);
+			Node n = top;
+			int found = -1;
+			for (int i = 0; i < s.length(); i++) {
+				n = n.next.get(s.charAt(i));
+				if (n == null) break;
+				if (n.valueIx >= 0 && (found < 0 || n.valueIx < found)) {
+					found = n.valueIx;
+				}
+			}
+			return found < 0 ? null : values.get(found);
+		}
+	}
+}
@@ -0,0 +1,290 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+// this class provides read access to an imported file (which is always UTF-8) through a memory-mapped view of the file.
+// Lines are decoded straight from the mapped bytes, so no Reader/decoder chain is needed. Since the import copy is read
+// more than once (pass 1 with -analyze, pass 2, its file attributes), the mapping is kept in a cache so that these can use
+// the same mapping; a rewrite of the file keeps a reference to it. The cache is bounded by the total size of the files in it,
+// and a file is released from it after its last read in pass 2.
+// Each open() must be matched by a close(). A file is unmapped as soon as it is neither in the cache nor open, rather than
+// when the buffer is garbage collected: on Windows, a mapped file cannot be changed or deleted
+public class CompassMappedFile {
+	// files smaller than this are just read into the heap, mapping is not worth it for those
+	static final long mapMinSize = 1024 * 1024;
+
+	// a single mapping cannot exceed 2GB, so larger files are mapped as multiple segments
+	static final int segmentShift = 30;
+	static final long segmentSize = 1L << segmentShift;
+	static final long segmentMask = segmentSize - 1;
+
+	// every Nth line start is recorded, for positioning on a line number without keeping an offset for every line
+	static final int lineIndexInterval = 64;
+
+	// when the files in the cache are larger than this together, the least recently used files are dropped
+	static long cacheMaxSize = 64L * 1024 * 1024;
+
+	private static final LinkedHashMap<String, CompassMappedFile> mappedFiles = new LinkedHashMap<>(16, 0.75f, true);
+	private static long cachedSize = 0;
+
+	private final String pathName;
+	private final long size;
+	private final long lastModified;
+	private final ByteBuffer[] segments;
+	private int refs = 0;              // open() calls not closed yet; guarded by the class
+	private boolean cached = false;    // guarded by the class
+	boolean unmapped = false;          // guarded by the class
+	private long[] lineIndex = new long[64];
+	private int lineIndexSize = 0;
+	private int nrLinesIndexed = 0;
+
+	private CompassMappedFile(String pathName) throws IOException {
+		Path path = Paths.get(pathName);
+		this.pathName = pathName;
+		this.size = Files.size(path);
+		this.lastModified = Files.getLastModifiedTime(path).toMillis();
+
+		if (size < mapMinSize) {
+			segments = new ByteBuffer[] { ByteBuffer.wrap(Files.readAllBytes(path)) };
+		}
+		else {
+			int nrSegments = (int) ((size + segmentSize - 1) >>> segmentShift);
+			segments = new ByteBuffer[nrSegments];
+			try (RandomAccessFile raf = new RandomAccessFile(pathName, "r"); FileChannel channel = raf.getChannel()) {
+				for (int i = 0; i < nrSegments; i++) {
+					long start = (long) i << segmentShift;
+					segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, size - start));
+				}
+			}
+		}
+		lineIndex[lineIndexSize++] = 0;
+	}
+
+	// get the mapping for a file, re-using an existing mapping unless the file was modified since it was mapped
+	public static synchronized CompassMappedFile open(String pathName) throws IOException {
+		String key = Paths.get(pathName).toAbsolutePath().toString();
+		CompassMappedFile mf = mappedFiles.get(key);
+		if (mf != null) {
+			Path path = Paths.get(key);
+			if ((Files.size(path) == mf.size) && (Files.getLastModifiedTime(path).toMillis() == mf.lastModified)) {
+				mf.refs++;
+				return mf;
+			}
+		}
+		remove(key);
+		mf = new CompassMappedFile(key);
+		mappedFiles.put(key, mf);
+		mf.cached = true;
+		mf.refs++;
+		cachedSize += mf.size;
+
+		// the file just opened stays, even if it is larger than the cache by itself
+		Iterator<Map.Entry<String, CompassMappedFile>> it = mappedFiles.entrySet().iterator();
+		while ((cachedSize > cacheMaxSize) && (mappedFiles.size() > 1)) {
+			CompassMappedFile eldest = it.next().getValue();
+			it.remove();
+			eldest.uncache();
+		}
+		return mf;
+	}
+
+	// done with a file returned by open() or getIfMapped()
+	public static synchronized void close(CompassMappedFile mf) {
+		mf.refs--;
+		if ((mf.refs == 0) && !mf.cached) mf.unmap();
+	}
+
+	private static void remove(String key) {
+		CompassMappedFile mf = mappedFiles.remove(key);
+		if (mf != null) mf.uncache();
+	}
+
+	private void uncache() {
+		cached = false;
+		cachedSize -= size;
+		if (refs == 0) unmap();
+	}
+
+	// get the mapping only if it already exists; must be closed as when opened
+	public static synchronized CompassMappedFile getIfMapped(String pathName) {
+		CompassMappedFile mf = mappedFiles.get(Paths.get(pathName).toAbsolutePath().toString());
+		if (mf != null) mf.refs++;
+		return mf;
+	}
+
+	// drop the mapping for a file that is about to be modified or deleted; it is unmapped unless it is still open
+	public static synchronized void release(String pathName) {
+		remove(Paths.get(pathName).toAbsolutePath().toString());
+	}
+
+	public static synchronized void releaseAll() {
+		List<CompassMappedFile> all = new ArrayList<>(mappedFiles.values());
+		mappedFiles.clear();
+		for (CompassMappedFile mf : all) mf.uncache();
+	}
+
+	private void unmap() {
+		unmapped = true;
+		for (ByteBuffer seg : segments) unmap(seg);
+	}
+
+	// unmap a mapped buffer now; the buffer must not be used anymore. If this is not possible in this JVM,
+	// the buffer is unmapped when it is garbage collected
+	static void unmap(ByteBuffer buf) {
+		if (!buf.isDirect()) return;
+		try {
+			try {
+				// Java 9 and later
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+				Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+				Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+				theUnsafe.setAccessible(true);
+				invokeCleaner.invoke(theUnsafe.get(null), buf);
+			} catch (NoSuchMethodException e) {
+				// Java 8
+				Method cleaner = buf.getClass().getMethod("cleaner");
+				cleaner.setAccessible(true);
+				Object c = cleaner.invoke(buf);
+				if (c != null) c.getClass().getMethod("clean").invoke(c);
+			}
+		} catch (Exception | LinkageError e) {
+			// left to the garbage collector
+		}
+	}
+
+	public String getPathName() {
+		return pathName;
+	}
+
+	public long size() {
+		return size;
+	}
+
+	private byte byteAt(long pos) {
+		return segments[(int) (pos >>> segmentShift)].get((int) (pos & segmentMask));
+	}
+
+	// find the end of the line starting at 'pos': returns the position of the line terminator, or size at end of file
+	private long findEndOfLine(long pos) {
+		while (pos < size) {
+			ByteBuffer seg = segments[(int) (pos >>> segmentShift)];
+			int ix = (int) (pos & segmentMask);
+			int limit = seg.limit();
+			for (; ix < limit; ix++) {
+				byte b = seg.get(ix);
+				if (b == '\n' || b == '\r') {
+					return (pos & ~segmentMask) + ix;
+				}
+			}
+			pos = (pos & ~segmentMask) + limit;
+		}
+		return size;
+	}
+
+	// position of the next line after a line ending at 'eol'
+	private long skipEndOfLine(long eol) {
+		if (eol >= size) return size;
+		if (byteAt(eol) == '\r' && (eol + 1 < size) && byteAt(eol + 1) == '\n') return eol + 2;
+		return eol + 1;
+	}
+
+	// decode the bytes in [start, end) as UTF-8
+	public String decode(long start, long end) {
+		int len = (int) (end - start);
+		if (len <= 0) return "";
+		byte[] b = new byte[len];
+		int seg = (int) (start >>> segmentShift);
+		if (seg == (int) ((end - 1) >>> segmentShift)) {
+			ByteBuffer dup = segments[seg].duplicate();
+			dup.position((int) (start & segmentMask));
+			dup.get(b, 0, len);
+		}
+		else {
+			for (int i = 0; i < len; i++) {
+				b[i] = byteAt(start + i);
+			}
+		}
+		return new String(b, StandardCharsets.UTF_8);
+	}
+
+	// the line index is shared by all readers of the file, which may be on different threads
+	private synchronized void indexLine(int lineNr, long pos) {
+		// lineNr is 0-based; called for lines in ascending order only
+		if (lineNr < nrLinesIndexed) return;
+		nrLinesIndexed = lineNr + 1;
+		if ((lineNr % lineIndexInterval) == 0 && (lineNr / lineIndexInterval) == lineIndexSize) {
+			if (lineIndexSize == lineIndex.length) lineIndex = Arrays.copyOf(lineIndex, lineIndexSize * 2);
+			lineIndex[lineIndexSize++] = pos;
+		}
+	}
+
+	// get the byte offset at which a line starts (line numbers are 0-based here, the import file header is line 0)
+	// returns -1 if the file has fewer lines
+	public synchronized long lineOffset(int lineNr) {
+		int ix = Math.min(lineNr / lineIndexInterval, lineIndexSize - 1);
+		int l = ix * lineIndexInterval;
+		long pos = lineIndex[ix];
+		while (l < lineNr) {
+			if (pos >= size) return -1;
+			pos = skipEndOfLine(findEndOfLine(pos));
+			l++;
+			if (pos < size) indexLine(l, pos);
+		}
+		return (pos < size) ? pos : -1;
+	}
+
+	// random access to a single line
+	public String readLine(int lineNr) {
+		long pos = lineOffset(lineNr);
+		if (pos < 0) return null;
+		return decode(pos, findEndOfLine(pos));
+	}
+
+	public LineReader newReader() {
+		return new LineReader();
+	}
+
+	// sequential line reader with the same line semantics as BufferedReader.readLine()
+	public class LineReader {
+		private long pos = 0;
+		private int lineNr = 0;
+
+		public String readLine() {
+			if (pos >= size) return null;
+			indexLine(lineNr, pos);
+			long eol = findEndOfLine(pos);
+			String line = decode(pos, eol);
+			pos = skipEndOfLine(eol);
+			lineNr++;
+			return line;
+		}
+
+		// number of lines returned so far
+		public int getLineNr() {
+			return lineNr;
+		}
+
+		public long getPosition() {
+			return pos;
+		}
+
+		public void close() {
+			pos = size;
+		}
+	}
+}
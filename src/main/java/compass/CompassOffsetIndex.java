@@ -0,0 +1,107 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.util.*;
+
+// the characters and lines added by one iteration level of SQL rewrites in a file.
+// Offsets are kept by line# and col#; col# -1 holds the #lines added after that line.
+// Lookups are binary searches in sorted arrays of prefix sums; the arrays are rebuilt on the first lookup after offsets were added
+public class CompassOffsetIndex {
+	public static final int addedLinesCol = -1;
+
+	private final SortedMap<Integer, SortedMap<Integer, Integer>> offsets = new TreeMap<>();
+	private boolean indexed = false;
+
+	// lines with offsets, sorted; for the lines before index k: sum of added lines, and sum of added chars
+	private int[] lines;
+	private int[] addedLinesSum;
+	private int[] addedCharsSum;
+
+	// per line: cols with added chars, sorted; for the cols before index k: sum of added chars
+	private int[][] cols;
+	private int[][] colsSum;
+
+	public void put(int lineNo, int col, int offset) {
+		offsets.computeIfAbsent(lineNo, k -> new TreeMap<>()).put(col, offset);
+		indexed = false;
+	}
+
+	public SortedMap<Integer, SortedMap<Integer, Integer>> getOffsets() {
+		return Collections.unmodifiableSortedMap(offsets);
+	}
+
+	public boolean isEmpty() {
+		return offsets.isEmpty();
+	}
+
+	private void buildIndex() {
+		int n = offsets.size();
+		lines = new int[n];
+		addedLinesSum = new int[n+1];
+		addedCharsSum = new int[n+1];
+		cols = new int[n][];
+		colsSum = new int[n][];
+		int k = 0;
+		for (Map.Entry<Integer, SortedMap<Integer, Integer>> e : offsets.entrySet()) {
+			SortedMap<Integer, Integer> lineCols = e.getValue();
+			int addedLines = lineCols.getOrDefault(addedLinesCol, 0);
+			SortedMap<Integer, Integer> charCols = lineCols.tailMap(addedLinesCol+1);
+			lines[k] = e.getKey();
+			cols[k] = new int[charCols.size()];
+			colsSum[k] = new int[charCols.size()+1];
+			int c = 0;
+			for (Map.Entry<Integer, Integer> ec : charCols.entrySet()) {
+				cols[k][c] = ec.getKey();
+				colsSum[k][c+1] = colsSum[k][c] + ec.getValue();
+				c++;
+			}
+			addedLinesSum[k+1] = addedLinesSum[k] + addedLines;
+			addedCharsSum[k+1] = addedCharsSum[k] + colsSum[k][c];
+			k++;
+		}
+		indexed = true;
+	}
+
+	// #entries in a sorted array that are < value
+	private static int countBelow(int[] a, int value) {
+		int lo = 0;
+		int hi = a.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (a[mid] < value) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	// #lines added at lines up to and including lineNo
+	public int addedLines(int lineNo) {
+		if (!indexed) buildIndex();
+		return addedLinesSum[countBelow(lines, lineNo+1)];
+	}
+
+	// #chars added on a line at cols before col
+	public int addedChars(int lineNo, int col) {
+		if (!indexed) buildIndex();
+		int k = countBelow(lines, lineNo);
+		if ((k == lines.length) || (lines[k] != lineNo)) return 0;
+		return colsSum[k][countBelow(cols[k], col)];
+	}
+
+	// #chars added on a line at cols from fromCol up to and including toCol
+	public int addedChars(int lineNo, int fromCol, int toCol) {
+		if (toCol < fromCol) return 0;
+		return addedChars(lineNo, toCol+1) - addedChars(lineNo, fromCol);
+	}
+
+	// #chars added on the lines after fromLineNo and before toLineNo
+	public int addedCharsBetween(int fromLineNo, int toLineNo) {
+		if (!indexed) buildIndex();
+		if (toLineNo - fromLineNo < 2) return 0;
+		return addedCharsSum[countBelow(lines, toLineNo)] - addedCharsSum[countBelow(lines, fromLineNo+1)];
+	}
+}
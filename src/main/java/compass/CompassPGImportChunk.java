@@ -0,0 +1,79 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+// one of the files written by -pgimport for loading with \COPY: the converted lines of a subset of the capture files.
+// The chunks are written in parallel, and loaded into the table concurrently by the generated psql scripts.
+// Nothing is printed while a chunk is written: messages are kept with the chunk, and printed when all chunks are done.
+public class CompassPGImportChunk {
+	static CompassUtilities u = CompassUtilities.getInstance();
+
+	final String filePathName;
+	final List<Path> files = new ArrayList<>();
+	int capCount = 0;
+	boolean containsDelimiter = false;
+	final List<String> msgs = new ArrayList<>();
+	private long size = 0;
+
+	public CompassPGImportChunk(String filePathName) {
+		this.filePathName = filePathName;
+	}
+
+	// divides the capture files over the chunks, by file size, so that the chunks are of similar size.
+	// Within a chunk, files are kept in the order given
+	public static void assign(List<Path> captureFiles, List<CompassPGImportChunk> chunks) {
+		long[] sizes = new long[captureFiles.size()];
+		Integer[] bySize = new Integer[captureFiles.size()];
+		for (int i = 0; i < captureFiles.size(); i++) {
+			sizes[i] = captureFiles.get(i).toFile().length();
+			bySize[i] = i;
+		}
+		Arrays.sort(bySize, (a, b) -> Long.compare(sizes[b], sizes[a]));
+
+		List<List<Integer>> assigned = new ArrayList<>();
+		for (int c = 0; c < chunks.size(); c++) assigned.add(new ArrayList<>());
+		for (int i : bySize) {
+			int smallest = 0;
+			for (int c = 1; c < chunks.size(); c++) {
+				if (chunks.get(c).size < chunks.get(smallest).size) smallest = c;
+			}
+			chunks.get(smallest).size += sizes[i];
+			assigned.get(smallest).add(i);
+		}
+		for (int c = 0; c < chunks.size(); c++) {
+			Collections.sort(assigned.get(c));
+			for (int i : assigned.get(c)) chunks.get(c).files.add(captureFiles.get(i));
+		}
+	}
+
+	// converts the lines of this chunk's capture files and writes them to the chunk file
+	public CompassPGImportChunk write(String cfVersion, String nowFmt) throws IOException {
+		try (BufferedWriter chunkWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filePathName), StandardCharsets.UTF_8), 256 * 1024)) {
+			for (Path cf : files) {
+				if (u.debugging) u.dbgOutput(CompassUtilities.thisProc() + "chunk=["+filePathName+"] cf=["+cf+"] ", u.debugReport);
+				try (BufferedReader capFile = new BufferedReader(new InputStreamReader(new FileInputStream(cf.toFile()), StandardCharsets.UTF_8))) {
+					int lineNr = 0;
+					String capLine;
+					while ((capLine = capFile.readLine()) != null) {
+						lineNr++;
+						String line = u.importPGLine(capLine, lineNr, cf, cfVersion, nowFmt, msgs);
+						if (line == null) continue;
+						capCount++;
+						chunkWriter.write(line);
+						chunkWriter.write("\n");
+						if (!containsDelimiter) if (line.contains(CompassUtilities.captureFileSeparatorMarker)) containsDelimiter = true;
+					}
+				}
+			}
+		}
+		return this;
+	}
+}
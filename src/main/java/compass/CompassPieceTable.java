@@ -0,0 +1,277 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.util.*;
+
+// the text of a file being rewritten, kept as a list of pieces of the original text and of replacement text.
+// Rewrites are applied in passes: a pass moves a cursor forward through the text, addressed by line and column as the text
+// was before the pass, and replaces ranges of it. Text that is not rewritten is only referenced, not copied, so a pass costs
+// time for the rewrites and the pieces, not for the size of the text.
+public class CompassPieceTable {
+
+	// a string with the positions of its newlines
+	private static class Buffer {
+		final String text;
+		final int[] newlines;
+
+		Buffer(String text) {
+			this.text = text;
+			int n = 0;
+			for (int i = 0; i < text.length(); i++) {
+				if (text.charAt(i) == '\n') n++;
+			}
+			newlines = new int[n];
+			n = 0;
+			for (int i = 0; i < text.length(); i++) {
+				if (text.charAt(i) == '\n') newlines[n++] = i;
+			}
+		}
+
+		// index of the first newline at or after pos
+		int newlineIndex(int pos) {
+			int lo = 0;
+			int hi = newlines.length;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (newlines[mid] < pos) lo = mid + 1;
+				else hi = mid;
+			}
+			return lo;
+		}
+	}
+
+	private static class Piece {
+		final Buffer buf;
+		final int from;
+		final int to;
+
+		Piece(Buffer buf, int from, int to) {
+			this.buf = buf;
+			this.from = from;
+			this.to = to;
+		}
+	}
+
+	private List<Piece> pieces = new ArrayList<>();
+
+	public CompassPieceTable(String text) {
+		append(text);
+	}
+
+	public void append(String s) {
+		if (!s.isEmpty()) pieces.add(new Piece(new Buffer(s), 0, s.length()));
+	}
+
+	public Pass newPass() {
+		return new Pass();
+	}
+
+	public int length() {
+		int n = 0;
+		for (Piece p : pieces) n += p.to - p.from;
+		return n;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder(length());
+		for (Piece p : pieces) s.append(p.buf.text, p.from, p.to);
+		return s.toString();
+	}
+
+	// reads the text line by line, like BufferedReader.readLine(); the line terminator of the last line read is kept
+	public class LineReader {
+		private int pieceIx = 0;
+		private int pos = pieces.isEmpty() ? 0 : pieces.get(0).from;
+		private String terminator = "";
+
+		public String readLine() {
+			StringBuilder line = null;
+			terminator = "";
+			while (pieceIx < pieces.size()) {
+				Piece p = pieces.get(pieceIx);
+				if (pos >= p.to) {
+					nextPiece();
+					continue;
+				}
+				if (line == null) line = new StringBuilder();
+				char c = p.buf.text.charAt(pos++);
+				if (c == '\n') {
+					terminator = "\n";
+					return line.toString();
+				}
+				if (c == '\r') {
+					terminator = "\r";
+					if (peek() == '\n') {
+						terminator = "\r\n";
+						pos++;
+					}
+					return line.toString();
+				}
+				line.append(c);
+			}
+			return (line == null) ? null : line.toString();
+		}
+
+		public String getTerminator() {
+			return terminator;
+		}
+
+		private char peek() {
+			while (pieceIx < pieces.size()) {
+				Piece p = pieces.get(pieceIx);
+				if (pos < p.to) return p.buf.text.charAt(pos);
+				nextPiece();
+			}
+			return 0;
+		}
+
+		private void nextPiece() {
+			pieceIx++;
+			if (pieceIx < pieces.size()) pos = pieces.get(pieceIx).from;
+		}
+	}
+
+	public LineReader lineReader() {
+		return new LineReader();
+	}
+
+	// one pass of rewrites over the text. Lines are numbered from 1, columns from 0, newlines count as one character
+	public class Pass {
+		private final List<Piece> out = new ArrayList<>();
+		private int pieceIx = 0;
+		private int pos = pieces.isEmpty() ? 0 : pieces.get(0).from;
+		private int line = 1;
+		private int col = 0;
+
+		public int getLine() {
+			return line;
+		}
+
+		public int getCol() {
+			return col;
+		}
+
+		// keeps the text up to the position in the current piece
+		private void keep(Piece p, int upTo) {
+			if (upTo > pos) {
+				Piece last = out.isEmpty() ? null : out.get(out.size()-1);
+				if ((last != null) && (last.buf == p.buf) && (last.to == pos)) {
+					out.set(out.size()-1, new Piece(p.buf, last.from, upTo));
+				}
+				else {
+					out.add(new Piece(p.buf, pos, upTo));
+				}
+			}
+			pos = upTo;
+		}
+
+		private Piece current() {
+			while (pieceIx < pieces.size()) {
+				Piece p = pieces.get(pieceIx);
+				if (pos < p.to) return p;
+				pieceIx++;
+				if (pieceIx < pieces.size()) pos = pieces.get(pieceIx).from;
+			}
+			return null;
+		}
+
+		// moves the cursor forward to a line and column, keeping the text passed; the cursor stops at the end of the line
+		// if the line is shorter. Returns false if the text ends before the line
+		public boolean seek(int toLine, int toCol) {
+			assert ((toLine > line) || ((toLine == line) && (toCol >= col))) : "cannot seek backward";
+			while (line < toLine) {
+				Piece p = current();
+				if (p == null) return false;
+				int first = p.buf.newlineIndex(pos);
+				int n = p.buf.newlineIndex(p.to) - first;
+				if (line + n < toLine) {
+					if (n > 0) col = p.to - (p.buf.newlines[first + n - 1] + 1);
+					else col += p.to - pos;
+					line += n;
+					keep(p, p.to);
+				}
+				else {
+					keep(p, p.buf.newlines[first + (toLine - line) - 1] + 1);
+					line = toLine;
+					col = 0;
+				}
+			}
+			while (col < toCol) {
+				Piece p = current();
+				if (p == null) break;
+				int end = Math.min(p.to, pos + (toCol - col));
+				int first = p.buf.newlineIndex(pos);
+				if ((first < p.buf.newlines.length) && (p.buf.newlines[first] < end)) {
+					col += p.buf.newlines[first] - pos;
+					keep(p, p.buf.newlines[first]);
+					break;
+				}
+				col += end - pos;
+				keep(p, end);
+			}
+			return true;
+		}
+
+		// the rest of the current line, without moving the cursor
+		public String peekLine() {
+			StringBuilder s = new StringBuilder();
+			for (int i = pieceIx; i < pieces.size(); i++) {
+				Piece p = pieces.get(i);
+				int from = (i == pieceIx) ? pos : p.from;
+				int first = p.buf.newlineIndex(from);
+				if ((first < p.buf.newlines.length) && (p.buf.newlines[first] < p.to)) {
+					s.append(p.buf.text, from, p.buf.newlines[first]);
+					break;
+				}
+				s.append(p.buf.text, from, p.to);
+			}
+			return s.toString();
+		}
+
+		// removes the next len characters and returns them; returns null if the text ends first (nothing is removed then)
+		public String take(int len) {
+			StringBuilder s = new StringBuilder(len);
+			int savePieceIx = pieceIx;
+			int savePos = pos;
+			int saveLine = line;
+			int saveCol = col;
+			while (s.length() < len) {
+				Piece p = current();
+				if (p == null) {
+					pieceIx = savePieceIx;
+					pos = savePos;
+					line = saveLine;
+					col = saveCol;
+					return null;
+				}
+				int end = Math.min(p.to, pos + (len - s.length()));
+				int first = p.buf.newlineIndex(pos);
+				int n = p.buf.newlineIndex(end) - first;
+				if (n > 0) col = end - (p.buf.newlines[first + n - 1] + 1);
+				else col += end - pos;
+				line += n;
+				s.append(p.buf.text, pos, end);
+				pos = end;
+			}
+			return s.toString();
+		}
+
+		public void insert(String s) {
+			if (!s.isEmpty()) out.add(new Piece(new Buffer(s), 0, s.length()));
+		}
+
+		// keeps the rest of the text, and makes the result of the pass the text
+		public void finish() {
+			Piece p;
+			while ((p = current()) != null) {
+				keep(p, p.to);
+			}
+			pieces = out;
+		}
+	}
+}
@@ -0,0 +1,50 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.util.*;
+
+// the SQL rewrites for one input file: the rewrites found when analyzing the file, and the results of applying them.
+// A file is rewritten using only its own context, so files can be rewritten in parallel, also while the next file is analyzed.
+// Nothing is printed while a file is rewritten: messages are kept here, and printed when the results are merged into the totals
+public class CompassRewriteContext {
+	final String reportName;
+	final String appName;
+	final String inFileCopy;
+	// the import copy as read in pass 2, so the worker reads it from there rather than from disk
+	CompassMappedFile mappedInput;
+
+	// rewrites found by the analysis, see CompassUtilities.rewriteTextListKeys etc.
+	final List<String> rewriteTextListKeys;
+	final Map<String,String> rewriteTextList;
+	final Map<String,String> rewriteTextListOrigText;
+	final Map<Integer, Map<String, List<Integer>>> rewriteIDDetails;
+
+	// added lines/columns: list index=iteration#; offsets by line# and col# on line: #chars added at (line,col)
+	final List<CompassOffsetIndex> offsetCols = new ArrayList<>();
+	// added lines for the rewritten file, for the hyperlinks
+	final Map<String, CompassOffsetIndex> offsetLines = new HashMap<>();
+
+	// SQL rewrites performed
+	final List<String> rewritesDone = new ArrayList<>();
+	final Map<String,Integer> rewrittenOppties = new HashMap<>();
+	int nrRewritesDone = 0;
+	int nrMergeRewrites = 0;
+
+	final List<String> msgs = new ArrayList<>();
+	boolean aborted = false;
+	long millis = 0;
+
+	public CompassRewriteContext(String reportName, String appName, String inFileCopy, List<String> rewriteTextListKeys, Map<String,String> rewriteTextList, Map<String,String> rewriteTextListOrigText, Map<Integer, Map<String, List<Integer>>> rewriteIDDetails) {
+		this.reportName = reportName;
+		this.appName = appName;
+		this.inFileCopy = inFileCopy;
+		this.rewriteTextListKeys = rewriteTextListKeys;
+		this.rewriteTextList = rewriteTextList;
+		this.rewriteTextListOrigText = rewriteTextListOrigText;
+		this.rewriteIDDetails = rewriteIDDetails;
+	}
+}
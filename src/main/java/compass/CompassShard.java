@@ -0,0 +1,59 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// one of a number of disjoint parts of the files of a report, as specified with '-shard i/n', so that several
+// Compass processes (on one host, or on hosts sharing the report directory) can import and analyze a report together.
+// A file is in a shard based on a hash of its name, so each process finds the same partition by itself,
+// regardless of the order in which the files are found.
+public class CompassShard {
+	private static final Pattern shardPatt = Pattern.compile("^(\\d+)/(\\d+)$");
+
+	final int shardNr;
+	final int nrShards;
+
+	CompassShard(int shardNr, int nrShards) {
+		this.shardNr = shardNr;
+		this.nrShards = nrShards;
+	}
+
+	// parses 'i/n', with 1 <= i <= n; returns null if not valid
+	public static CompassShard parse(String s) {
+		Matcher m = shardPatt.matcher(s.trim());
+		if (!m.find()) return null;
+		int i, n;
+		try {
+			i = Integer.parseInt(m.group(1));
+			n = Integer.parseInt(m.group(2));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		if ((n < 1) || (i < 1) || (i > n)) return null;
+		return new CompassShard(i, n);
+	}
+
+	// is the file in this shard? Path separators and case do not matter
+	public boolean contains(String fileName) {
+		CRC32 crc = new CRC32();
+		crc.update(fileName.replace('\\', '/').toLowerCase().getBytes(StandardCharsets.UTF_8));
+		return (crc.getValue() % nrShards) == (shardNr - 1);
+	}
+
+	// used in the names of files that each shard writes for itself
+	public String fileNameTag() {
+		return "shard" + shardNr + "of" + nrShards;
+	}
+
+	@Override
+	public String toString() {
+		return shardNr + "/" + nrShards;
+	}
+}
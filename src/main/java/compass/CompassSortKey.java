@@ -0,0 +1,86 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// a report sort key, kept as its fields instead of one string.
+// Keys sort exactly as the string with the fields joined by the sort key separator (see CompassUtilities.createSortKey)
+// would sort with String.CASE_INSENSITIVE_ORDER. Fields that repeat across keys (status, item, application, context, ...)
+// should be taken from a Dictionary, so each distinct string is held in memory only once.
+public final class CompassSortKey {
+	static final String separator = "  ~~~";
+
+	private final String[] fields;
+
+	public static final Comparator<CompassSortKey> ORDER = CompassSortKey::compare;
+
+	// the array is not copied
+	public CompassSortKey(String... fields) {
+		this.fields = fields;
+	}
+
+	public String get(int i) {
+		return fields[i];
+	}
+
+	public int size() {
+		return fields.length;
+	}
+
+	public List<String> getFields() {
+		return Collections.unmodifiableList(Arrays.asList(fields));
+	}
+
+	// whether the first field starts with this string
+	public boolean startsWith(String s) {
+		return (fields.length > 0) && fields[0].startsWith(s);
+	}
+
+	// the fields joined by the sort key separator
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < fields.length; i++) {
+			if (i > 0) s.append(separator);
+			s.append(fields[i]);
+		}
+		return s.toString();
+	}
+
+	static int compare(CompassSortKey a, CompassSortKey b) {
+		int n = Math.min(a.fields.length, b.fields.length);
+		for (int i = 0; i < n; i++) {
+			String fa = a.fields[i];
+			String fb = b.fields[i];
+			if (fa == fb) continue;
+			int len = Math.min(fa.length(), fb.length());
+			if (fa.regionMatches(true, 0, fb, 0, len)) {
+				if (fa.length() == fb.length()) continue;
+				// one field is a prefix of the other: the result depends on the characters following it, as in the joined string
+				return String.CASE_INSENSITIVE_ORDER.compare(a.toString(), b.toString());
+			}
+			return String.CASE_INSENSITIVE_ORDER.compare(fa, fb);
+		}
+		if (a.fields.length == b.fields.length) return 0;
+		return String.CASE_INSENSITIVE_ORDER.compare(a.toString(), b.toString());
+	}
+
+	// a string pool for the fields of sort keys; may be used by multiple threads
+	public static class Dictionary {
+		private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+
+		public String get(String s) {
+			String prev = strings.putIfAbsent(s, s);
+			return (prev != null) ? prev : s;
+		}
+
+		public int size() {
+			return strings.size();
+		}
+	}
+}
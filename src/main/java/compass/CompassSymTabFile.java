@@ -0,0 +1,355 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// binary symbol table file, written at the end of pass 1 and memory-mapped in pass 2.
+// Layout:
+//   header : magic, version, nr of kinds, and per kind: nr of entries + offset of its index
+//   records: per entry: key length, key (UTF-8), value length, value (UTF-8)
+//   index  : per kind, (hash, record offset) pairs sorted by hash
+// Lookups do a binary search on the hash index of the kind and only decode the value of the matching record,
+// so the symbol table does not need to be loaded into the heap.
+public class CompassSymTabFile {
+	static final byte[] magic = "BBFSYMTB".getBytes(StandardCharsets.US_ASCII);
+	static final int version = 1;
+
+	// entry kinds; the tags are those used in the text format of the symtab
+	static final int kindObjType = 0;
+	static final int kindSUDF = 1;
+	static final int kindTUDF = 2;
+	static final int kindUDD = 3;
+	static final int kindProc = 4;
+	static final int kindTrig = 5;
+	static final int kindCol = 6;
+	static final int kindPar = 7;
+	static final int kindSUDFLikeXML = 8;
+	static final int kindTUDFLikeXML = 9;
+	static final int kindSUDFLikeHIERARCHYID = 10;
+	static final String[] kindTags = { "objtype", "sudf", "tudf", "udd", "proc", "trig", "col", "par", "sudfxml", "tudfxml", "sudfhierarchyid" };
+	static final int nrKinds = kindTags.length;
+
+	static final int headerSize = magic.length + 4 + 4 + (nrKinds * 8);
+
+	// offsets in the file are ints
+	static long maxFileSize = Integer.MAX_VALUE;
+
+	private final String pathName;
+	private final ByteBuffer buf;
+	private final int[] kindCount = new int[nrKinds];
+	private final int[] kindIndexOffset = new int[nrKinds];
+
+	private CompassSymTabFile(String pathName, ByteBuffer buf) {
+		this.pathName = pathName;
+		this.buf = buf;
+		int pos = magic.length + 8;
+		for (int k = 0; k < nrKinds; k++) {
+			kindCount[k] = buf.getInt(pos);
+			kindIndexOffset[k] = buf.getInt(pos + 4);
+			pos += 8;
+		}
+	}
+
+	// is this a binary symtab file? (symtab files written by earlier versions are text)
+	public static boolean isBinary(String pathName) throws IOException {
+		byte[] b = new byte[magic.length];
+		try (InputStream is = new FileInputStream(pathName)) {
+			int n = is.read(b);
+			return (n == magic.length) && Arrays.equals(b, magic);
+		}
+	}
+
+	// map a symtab file; returns null if it is not a binary symtab file
+	public static CompassSymTabFile open(String pathName) throws IOException {
+		ByteBuffer buf;
+		try (RandomAccessFile raf = new RandomAccessFile(pathName, "r"); FileChannel channel = raf.getChannel()) {
+			long size = channel.size();
+			if (size < headerSize) return null;
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Symbol table file too large: " + pathName);
+			}
+			buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+		byte[] b = new byte[magic.length];
+		buf.duplicate().get(b);
+		if (!Arrays.equals(b, magic)) {
+			CompassMappedFile.unmap(buf);
+			return null;
+		}
+		int v = buf.getInt(magic.length);
+		int n = buf.getInt(magic.length + 4);
+		if (v != version || n != nrKinds) {
+			CompassMappedFile.unmap(buf);
+			throw new IOException("Unsupported symbol table file version " + v + ": " + pathName);
+		}
+		return new CompassSymTabFile(pathName, buf);
+	}
+
+	// unmap the file, so that it can be rewritten or deleted (on Windows, a mapped file cannot be); no lookups after this
+	public void close() {
+		CompassMappedFile.unmap(buf);
+	}
+
+	public String getPathName() {
+		return pathName;
+	}
+
+	public int size(int kind) {
+		return kindCount[kind];
+	}
+
+	private String decodeAt(int pos, int len) {
+		byte[] b = new byte[len];
+		ByteBuffer dup = buf.duplicate();
+		dup.position(pos);
+		dup.get(b);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+
+	private boolean keyEquals(int recPos, byte[] key) {
+		int len = buf.getInt(recPos);
+		if (len != key.length) return false;
+		recPos += 4;
+		for (int i = 0; i < len; i++) {
+			if (buf.get(recPos + i) != key[i]) return false;
+		}
+		return true;
+	}
+
+	private String valueAt(int recPos) {
+		int valPos = recPos + 4 + buf.getInt(recPos);
+		return decodeAt(valPos + 4, buf.getInt(valPos));
+	}
+
+	// point lookup; returns null if the key is not in this file
+	public String lookup(int kind, String key) {
+		int count = kindCount[kind];
+		if (count == 0) return null;
+		int indexPos = kindIndexOffset[kind];
+		int hash = key.hashCode();
+
+		// find the first index entry with this hash
+		int lo = 0;
+		int hi = count;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (buf.getInt(indexPos + (mid * 8)) < hash) lo = mid + 1;
+			else hi = mid;
+		}
+		byte[] keyBytes = null;
+		for (int i = lo; i < count; i++) {
+			int entryPos = indexPos + (i * 8);
+			if (buf.getInt(entryPos) != hash) break;
+			if (keyBytes == null) keyBytes = key.getBytes(StandardCharsets.UTF_8);
+			int recPos = buf.getInt(entryPos + 4);
+			if (keyEquals(recPos, keyBytes)) {
+				return valueAt(recPos);
+			}
+		}
+		return null;
+	}
+
+	// all entries of a kind, for the few cases where the symtab is scanned rather than looked up
+	public Map<String, String> entries(int kind) {
+		Map<String, String> result = new LinkedHashMap<>();
+		int indexPos = kindIndexOffset[kind];
+		for (int i = 0; i < kindCount[kind]; i++) {
+			int recPos = buf.getInt(indexPos + (i * 8) + 4);
+			result.put(decodeAt(recPos + 4, buf.getInt(recPos)), valueAt(recPos));
+		}
+		return result;
+	}
+
+	// merge symtab files into one symtab file. For a key in more than one file, the value from the last file is kept,
+	// as with lookups in the files one by one. Returns false, without writing anything, if a file is not a binary symtab file.
+	// The files are merged by walking the hash indexes of each kind in step, and records are copied as they are, so the
+	// entries are not decoded except for comparing keys with the same hash
+	public static boolean merge(List<String> pathNames, String pathName) throws IOException {
+		List<CompassSymTabFile> files = new ArrayList<>();
+		try {
+			for (String p : pathNames) {
+				CompassSymTabFile stf = open(p);
+				if (stf == null) return false;
+				files.add(stf);
+			}
+			try (SymTabWriter w = new SymTabWriter(pathName)) {
+				int[] next = new int[files.size()];
+				for (int k = 0; k < nrKinds; k++) {
+					final int kind = k;
+					// the files by the hash of their next entry of this kind
+					PriorityQueue<Integer> queue = new PriorityQueue<>(Math.max(1, files.size()), (f1, f2) -> Integer.compare(files.get(f1).hashAt(kind, next[f1]), files.get(f2).hashAt(kind, next[f2])));
+					for (int f = 0; f < files.size(); f++) {
+						next[f] = 0;
+						if (files.get(f).kindCount[k] > 0) queue.add(f);
+					}
+					List<Integer> sameHash = new ArrayList<>();
+					Set<String> keys = new HashSet<>();
+					while (!queue.isEmpty()) {
+						// the files with records with the lowest hash not merged yet
+						int hash = files.get(queue.peek()).hashAt(k, next[queue.peek()]);
+						sameHash.clear();
+						while (!queue.isEmpty() && (files.get(queue.peek()).hashAt(k, next[queue.peek()]) == hash)) {
+							sameHash.add(queue.poll());
+						}
+
+						// starting with the last file, a key is written only once
+						Collections.sort(sameHash, Collections.reverseOrder());
+						keys.clear();
+						for (int f : sameHash) {
+							CompassSymTabFile stf = files.get(f);
+							for (; (next[f] < stf.kindCount[k]) && (stf.hashAt(k, next[f]) == hash); next[f]++) {
+								int recPos = stf.recordAt(k, next[f]);
+								if (!keys.add(stf.decodeAt(recPos + 4, stf.buf.getInt(recPos)))) continue;
+								w.addRecord(hash, stf.recordBytes(recPos));
+							}
+							if (next[f] < stf.kindCount[k]) queue.add(f);
+						}
+					}
+					w.endKind();
+				}
+			}
+			return true;
+		} finally {
+			for (CompassSymTabFile stf : files) stf.close();
+		}
+	}
+
+	private int hashAt(int kind, int i) {
+		return buf.getInt(kindIndexOffset[kind] + (i * 8));
+	}
+
+	private int recordAt(int kind, int i) {
+		return buf.getInt(kindIndexOffset[kind] + (i * 8) + 4);
+	}
+
+	// the bytes of the record at recPos: key length, key, value length, value
+	private ByteBuffer recordBytes(int recPos) {
+		int valPos = recPos + 4 + buf.getInt(recPos);
+		ByteBuffer dup = buf.duplicate();
+		dup.position(recPos);
+		dup.limit(valPos + 4 + buf.getInt(valPos));
+		return dup;
+	}
+
+	// write a symtab file; symTabs holds one map per kind
+	public static int write(String pathName, List<Map<String, String>> symTabs) throws IOException {
+		assert symTabs.size() == nrKinds : "expected " + nrKinds + " symtab kinds, found " + symTabs.size();
+		int nrEntries = 0;
+		try (SymTabWriter w = new SymTabWriter(pathName)) {
+			for (int k = 0; k < nrKinds; k++) {
+				for (Map.Entry<String, String> e : symTabs.get(k).entrySet()) {
+					byte[] key = e.getKey().getBytes(StandardCharsets.UTF_8);
+					byte[] value = e.getValue().getBytes(StandardCharsets.UTF_8);
+					ByteBuffer rec = ByteBuffer.allocate(8 + key.length + value.length);
+					rec.putInt(key.length).put(key).putInt(value.length).put(value);
+					rec.flip();
+					w.addRecord(e.getKey().hashCode(), rec);
+				}
+				nrEntries += w.endKind();
+			}
+		}
+		return nrEntries;
+	}
+
+	// writes the records of a symtab file as they are added, kind by kind; the index of each kind is kept until the end,
+	// where it is written after the records, followed by the header at the start of the file
+	private static class SymTabWriter implements Closeable {
+		private final String pathName;
+		private final FileChannel channel;
+		private final ByteBuffer outBuf = ByteBuffer.allocate(64 * 1024);
+		private long pos = headerSize;
+		private long[] index = new long[1024];
+		private int indexSize = 0;
+		private final List<long[]> indexes = new ArrayList<>();
+
+		SymTabWriter(String pathName) throws IOException {
+			this.pathName = pathName;
+			channel = FileChannel.open(Paths.get(pathName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			channel.position(headerSize);
+		}
+
+		private void checkSize(long size) throws IOException {
+			if (size > maxFileSize) {
+				throw new IOException("Symbol table file would be larger than " + maxFileSize + " bytes, which is not supported: " + pathName);
+			}
+		}
+
+		private void put(ByteBuffer b) throws IOException {
+			while (b.hasRemaining()) {
+				if (!outBuf.hasRemaining()) flushBuf();
+				int n = Math.min(b.remaining(), outBuf.remaining());
+				ByteBuffer part = b.duplicate();
+				part.limit(part.position() + n);
+				outBuf.put(part);
+				b.position(b.position() + n);
+			}
+		}
+
+		private void flushBuf() throws IOException {
+			outBuf.flip();
+			while (outBuf.hasRemaining()) channel.write(outBuf);
+			outBuf.clear();
+		}
+
+		// add a record for the current kind
+		void addRecord(int hash, ByteBuffer record) throws IOException {
+			checkSize(pos + record.remaining());
+			if (indexSize == index.length) index = Arrays.copyOf(index, indexSize * 2);
+			// sort on the hash (signed, as used in lookup()), keeping the record offset in the low half
+			index[indexSize++] = ((long) hash << 32) | (pos & 0xFFFFFFFFL);
+			pos += record.remaining();
+			put(record);
+		}
+
+		// the records of the current kind are complete; returns the number of records
+		int endKind() {
+			long[] kindIndex = Arrays.copyOf(index, indexSize);
+			Arrays.sort(kindIndex);
+			indexes.add(kindIndex);
+			indexSize = 0;
+			return kindIndex.length;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				ByteBuffer b = ByteBuffer.allocate(8);
+				long indexPos = pos;
+				for (long[] kindIndex : indexes) {
+					checkSize(indexPos + (kindIndex.length * 8L));
+					for (long entry : kindIndex) {
+						b.clear();
+						b.putInt((int) (entry >> 32)).putInt((int) entry);
+						b.flip();
+						put(b);
+					}
+					indexPos += kindIndex.length * 8L;
+				}
+				flushBuf();
+
+				ByteBuffer header = ByteBuffer.allocate(headerSize);
+				header.put(magic).putInt(version).putInt(nrKinds);
+				indexPos = pos;
+				for (long[] kindIndex : indexes) {
+					header.putInt(kindIndex.length).putInt((int) indexPos);
+					indexPos += kindIndex.length * 8L;
+				}
+				header.flip();
+				channel.position(0);
+				while (header.hasRemaining()) channel.write(header);
+			} finally {
+				channel.close();
+			}
+		}
+	}
+}
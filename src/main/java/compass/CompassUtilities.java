@@ -7,15 +7,19 @@ package compass;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.FileInputStream;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.FileOutputStream;
 import java.io.RandomAccessFile;
+import java.io.StringReader;
 import java.nio.file.*;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
 import static java.nio.file.StandardCopyOption.*;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -27,6 +31,9 @@ import java.util.*;
 import java.util.stream.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import javax.xml.stream.XMLStreamException;
 import java.text.SimpleDateFormat;
 import java.net.*;
 
@@ -141,6 +148,8 @@ public class CompassUtilities {
 	public static List<String> supportOptionsCfgFile = Arrays.asList("Supported", "NotSupported",  "ReviewSemantics",  "ReviewPerformance",  "ReviewManually",  "Ignored", ObjCountOnly, RewriteOppty, Rewritten, XRefOnly, ObjectReference);
 	public static List<String> validSupportOptionsCfgFileOrig = Arrays.asList("NotSupported",  "ReviewSemantics",  "ReviewPerformance",  "ReviewManually", "Ignored");
 	public static List<String> validSupportOptionsCfgFile = new ArrayList<>();
+	// statuses found in the .cfg file, which may differ between Babelfish versions:
+	public static List<String> cfgStatusOptions      = Arrays.asList(Supported,    NotSupported,    ReviewSemantics,    ReviewPerformance,    ReviewManually,    Ignored);
 	// keys for default_classification in .cfg file, e.g. '-ReviewSemantics':
 	public static List<String> defaultClassificationsKeysOrig = Arrays.asList("default_classification-ReviewSemantics", "default_classification-ReviewPerformance",
 			"default_classification-ReviewManually", "default_classification-Ignored", "default_classification");
@@ -192,7 +201,9 @@ public class CompassUtilities {
 	public final static String captureFileName = "captured";
 	public final static String captureFileTag = "bbf~captured";
 	public final static String captureFileSuffix = "dat";
+	public final static String captureAggSuffix = "agg";
 	public final static String symTabDirName = "sym";
+	public final static String symTabMergedDirName = "merged";
 	public final static String symTabFileTag = "bbf~symtab";
 	public final static String symTabFileSuffix = "dat";
 	public final static String importDirName = "imported";
@@ -203,11 +214,11 @@ public class CompassUtilities {
 	public final static String rewrittenFileSuffix = "rewritten";
 	public final static String rewrittenHTMLDirName = "html";
 	public final static String rewrittenFileTag = "bbf~rewritten";
-	public final static String rewrittenTmpFile = "bbf~rewritten.tmp";
 	public final static String textSuffix = "txt";
 	public final static String HTMLSuffix = "html";
 	public final static String CSVSuffix = "csv";
 	public final static String logDirName = "log";
+	public final static String xrefDirName = "xref";
 	public final static String PGImportFileName = "pg_import";
 	public final static String extractedDirName = "extractedSQL";
 	public final static String extractedFileSuffix = "extracted.sql";
@@ -221,28 +232,25 @@ public class CompassUtilities {
 	public String reportFileHTMLPathName = uninitialized;
 	public String CSVFilePathName = uninitialized;
 	public String reportFilePathName = uninitialized;
+	public String versionMatrixFilePathName = uninitialized;
 	public BufferedWriter reportFileWriter;
 	public BufferedWriter reportFileWriterHTML;
+	static final int reportFileBufferSize = 256 * 1024;
 	public BufferedWriter CSVFileWriter;
 	public String batchFilePathName;
 	public BufferedWriter batchFileWriter;
 	public String errBatchFilePathName;
 	public String symTabFilePathName;
-	public BufferedWriter symTabFileWriter;
-	public int symTabFileLineCount=0;
 	public BufferedWriter errBatchFileWriter = null;
 	public String importFilePathName;
-	public BufferedWriter importFileWriter;
 	public String importFileHTMLPathName;
-	public BufferedWriter importFileHTMLWriter;
-	public int importFileWriteLineNr = 0;
 	public String sessionLogPathName;
 	public BufferedWriter sessionLogWriter;
 	public BufferedWriter userCfgFileWriter;
+	private Path userCfgFileNewPath = null;
+	private String userCfgFileNewTarget = null;
 	public String extractedFilePathName;
 	public BufferedWriter extractedFileWriter;
-	public BufferedReader rewrittenInFileReader;
-	public BufferedWriter rewrittenFileWriter;
 	public BufferedWriter execTestWriter;
 	public Map<String, Integer> complexityScoreCount = new HashMap<>();
 	public Map<String, Integer> complexityScoreCountUnique = new HashMap<>();
@@ -259,6 +267,8 @@ public class CompassUtilities {
 	public static boolean customItemIDPathNameUser = false;
 	private static List<String> customItemIDList = new ArrayList<>();
 	private static Map<String, String> customItemIDMap = new HashMap<>();
+	private static CompassCSVItemMatcher customItemIDMatcher = null;            // compiled from customItemIDList when first used
+	private static Map<String, String> customItemIDMatches = new HashMap<>();  // matching entry per item
 	private static Map<String, String> customItemHintMap = new HashMap<>();	
 	private static final String customItemIdNULL = "-1";
 
@@ -286,10 +296,8 @@ public class CompassUtilities {
 	public static String dedupScope = "";
 	public static final List<String> dedupScopeOption = Arrays.asList("S", "N", "H");
 	public static final List<String> dedupScopeOptionDisplay = Arrays.asList("string", "number", "hex");
-	private Map<String, String> deDupQueries = new HashMap<>();
-	private Map<String, String> deDupQueriesOrder = new HashMap<>();
-	private Map<String, String> deDupQueriesAll = new HashMap<>();
-	private Map<String, Integer> dupQueryCount = new HashMap<>();
+	public static boolean deDupSpill = false; // keep de-duplicated queries on disk instead of in memory
+	private CompassDeDupStore deDupStore = new CompassDeDupStore();
 
 	// HTML header/footer
 	public String docLinkIcon              = "<div class=\"tooltip\"><span class=\"tooltip_icon\">&#x1F56E;</span> ";
@@ -981,7 +989,6 @@ tooltipsHTMLPlaceholder +
   	//String hintIcon = "&#10145;";   // right arrow
   	//String hintIcon = "&#9651;";    // white triangle
 
-	public static List<String> capFields = new ArrayList<>();
 	
 	public static final int capPosItem = 0;
 	public static final int capPosItemDetail = 1;
@@ -1065,6 +1072,9 @@ tooltipsHTMLPlaceholder +
 	public static final char metricsLineChar1 = '*';
 	public static final char metricsLineChar2 = '=';
 	public static final String metricsLineTag = "metrics";
+	// precedes a captured item whose status comes from the .cfg file, with the lookup for that status (see CompassConfig.resolveStatusKey());
+	// starts with '#' so that it is skipped as a comment where not used
+	public static final String statusKeyLineTag = "#status=";
 	public static final String captureFileSeparator = ";";
 
 	// first line in capture file:
@@ -1085,12 +1095,16 @@ tooltipsHTMLPlaceholder +
 	public static boolean reportAppsCount = true;
 	public static String reportShowBatchNr = "";
 	public static String reportOptionXref = "";
+	public static List<String> reportVersionMatrix = new ArrayList<>();
 	public static String reportOptionStatus = "";
 	public static String reportOptionApps = "";
 	public static String reportOptionDetail = "";
 	public static String reportOptionFilter = "";
 	public static boolean reportOptionNotabs = false;
 	public static boolean reportOptionLineNrs = false;
+	public static int reportOptionXrefMem = 0;  // MB; 0 = 1/8 of the max. heap size
+	public static int reportOptionXrefPages = 0;  // max. #lines per X-ref page; 0 = X-ref is in the report file
+	public static final int reportOptionXrefPagesDefault = 5000;
 	public static int linesSQLInReport = 0;
 	public static String reportHdrLines = "";
 	public static int maxLineNrsInListDefault = 10;
@@ -1111,6 +1125,9 @@ tooltipsHTMLPlaceholder +
 	// for 'with issues' section
 	private Map<String, String> contextLinkMap = new HashMap<>();
 	private Map<String, String> objectAnchorsMap = new HashMap<>();
+	private Map<String, String> objectAnchorPages = new HashMap<>();   // X-ref page with the object anchor, with X-ref pages
+	private Map<String, String> xrefPagesIndex = new ConcurrentHashMap<>();
+	private String xrefPagesDirPath = "";
 
 	// caching
 	Map<String, String> stripDelimiterCache = new HashMap<>();
@@ -1153,15 +1170,12 @@ tooltipsHTMLPlaceholder +
 	public static boolean anonymizedData = false;	
 	public static int captureFilesAnon = 0;
 	public static int captureFilesNotAnon = 0;	
-	public static Map<String,String> anonFileNames = new HashMap<>();
-	public static Map<String,String> anonAppNames = new HashMap<>();
-	public static Map<String,String> anonObjNames = new HashMap<>();
-	public static Map<String,String> anonDbNames = new HashMap<>();
-	public static Map<String,String> anonUddNames = new HashMap<>();
 	
 	// rudimentary symbol table, only for some very basic things needed
 	// there's a lot of room for improvement here
 	public static String symTabAppRead = "";
+	public static List<CompassSymTabFile> symTabMapped = new ArrayList<>();  // symtab files mapped in pass 2
+	public static Map<String, List<String>> insteadOfTrigMapped = new HashMap<>();  // INSTEAD OF triggers in symTabMapped, by view
 	public static Map<String, String> tableViewSymTab = new HashMap<>();
 	public static Map<String, String> UDDSymTab = new HashMap<>();
 	public static Map<String, String> SUDFSymTab = new HashMap<>();
@@ -1184,6 +1198,7 @@ tooltipsHTMLPlaceholder +
 
 	// masking chars in identifiers
 	public static final String BBFMark            = "BBF_";
+	public static final String XESpecialSplitMarker = "~~~~~"+BBFMark+"~~~~~";  // separates an XE statement from the sql_text following it
 	public static final String BBFSeparatorMask   = BBFMark + "SEPARATOR~MASK~BBF";
 	public static final String BBFSeparatorMaskLastResort = BBFMark + "SEPARATOR~MASK~LAST~RESORT~BBF";
 	public static final String BBFEncodedMark     = BBFMark + "ENCODED_";
@@ -1255,7 +1270,7 @@ tooltipsHTMLPlaceholder +
 	public static final String rwrTag = " /*REWRITTEN*/ ";
 	public static String rwrTabRegex = "";
 	public static Integer nrRewritesDone = 0;
-	public static Integer nrMergeRewrites = 0;
+	public static long rewriteMillis = 0;
 	public static String rewriteTypeExpr1 = "expr(1)";
 	public static String rewriteTypeExpr2 = "expr(2)";
 	public static String rewriteTypeReplace = "replace";
@@ -1264,13 +1279,13 @@ tooltipsHTMLPlaceholder +
 	public static String rewriteTypeBlockReplace = "BlockReplace";
 	public static String rewriteTypeCommentAndAppend = "CommentAndAppend";
 
-	// added lines/columns: list index=iteration#; map key = line#; subkey = col# on line; value = #chars added at (line,col)
-	public static List<Map<Integer, Map<Integer, Integer>>> offsetCols = new ArrayList<>();
-	public static Map<String, Map<Integer, Integer>> offsetLines = new HashMap<>();
+	// added lines per rewritten file, for the hyperlinks
+	public static Map<String, CompassOffsetIndex> offsetLines = new HashMap<>();
 	public static final Integer calcOffsetIterationMax = 999999;
 
-	// SQL rewrites performed
-	public static List<String> rewritesDone = new ArrayList<>();
+	// files being rewritten, in file order
+	private static ExecutorService rewritePool = null;
+	private static final Deque<Future<CompassRewriteContext>> rewritesPending = new ArrayDeque<>();
 
 	// avoiding duplicate XRefOnly records
 	public static Map<String,Integer> xrefLineFilter = new HashMap<>();
@@ -1286,6 +1301,10 @@ tooltipsHTMLPlaceholder +
 	public static boolean updateCheck = true;
 	public static boolean symTabAll = false;
 	public static boolean caching = false;
+	public static boolean daemonRequest = false;  // running a request in the Compass daemon, see CompassDaemon
+	public static Map<String, String> environment = System.getenv();  // of the client, when running a request in the Compass daemon
+	public static volatile boolean requestCancelled = false;  // set by the Compass daemon when the client has gone away
+	private static final Set<File> tempFiles = Collections.synchronizedSet(new LinkedHashSet<>());  // see createTempFile()
 	public static boolean QuotedIdentifierFlag = false;
 	public static boolean listHints = false;
 	public static boolean reportSyntaxIssues = true;  // always true now
@@ -1378,16 +1397,16 @@ tooltipsHTMLPlaceholder +
 	// On Windows envvars are case-sensitive in Java, but not in Windows itself
 	private String getEnvVar(String name) {
 		String v = null;
-		for (String e : System.getenv().keySet()) {
+		for (String e : environment.keySet()) {
 			if (e.equals(name)) {
-				v = System.getenv().get(e);
+				v = environment.get(e);
 				break;
 			}	
 		}	
 		if (v == null) {
-			for (String e : System.getenv().keySet()) {
+			for (String e : environment.keySet()) {
 				if (e.equalsIgnoreCase(name)) {
-					v = System.getenv().get(e);
+					v = environment.get(e);
 					break;
 				}	
 			}			
@@ -1485,6 +1504,10 @@ tooltipsHTMLPlaceholder +
 	    	// Mac, Linux
 	        builder = new ProcessBuilder("bash", "-c", cmd );
 	    }
+        if (daemonRequest) {
+        	builder.environment().clear();
+        	builder.environment().putAll(environment);
+        }
         builder.redirectErrorStream(true);
         Process p = builder.start();
         BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8));
@@ -1619,6 +1642,17 @@ tooltipsHTMLPlaceholder +
 		}
 		return str.toString();
 	}
+	// same as String.format("%0<width>d", n), without the cost of formatting
+	public static String zeroPad(int n, int width) {
+		if (n < 0) return String.format("%0" + width + "d", n);
+		String s = Integer.toString(n);
+		if (s.length() >= width) return s;
+		StringBuilder str = new StringBuilder(width);
+		for (int j = s.length(); j < width; ++j) {
+			str.append('0');
+		}
+		return str.append(s).toString();
+	}
 	public static String removeLastChar(String s) {
 	    return removeLastChars(s, 1);
 	}
@@ -2060,6 +2094,7 @@ tooltipsHTMLPlaceholder +
 		appOutput(s, inReport, false);
 	}
 	public void appOutput(String s, boolean inReport, boolean noNewline) {
+		checkRequestCancelled();
 		if (noNewline) {
 			System.out.print(s);
 		}
@@ -2185,9 +2220,64 @@ tooltipsHTMLPlaceholder +
 	}
 	public void errorExit(int errNo, boolean stackTrace) {
 		if (stackTrace) printStackTrace();
+		// keep what was written to the report so far
+		try {
+			if (reportFileWriter != null) reportFileWriter.flush();
+			if (reportFileWriterHTML != null) reportFileWriterHTML.flush();
+		} catch (IOException e) {
+			// ignore
+		}
+		if (daemonRequest) {
+			// only end this request, not the daemon
+			throw new ExitRequest(errNo);
+		}
 		System.exit(errNo);
 	}
 
+	// a temporary file that is removed when it is no longer needed; should that not happen (e.g. on an error), it is removed
+	// when the JVM exits, or for a daemon request when the request ends: deleteOnExit() would keep it listed for the daemon's lifetime
+	public static File createTempFile(String prefix, File dir) throws IOException {
+		File f = File.createTempFile(prefix, ".tmp", dir);
+		if (daemonRequest) {
+			tempFiles.add(f);
+		}
+		else {
+			f.deleteOnExit();
+		}
+		return f;
+	}
+
+	public static void deleteTempFile(File f) {
+		f.delete();
+		tempFiles.remove(f);
+	}
+
+	// removes the temporary files left by a daemon request
+	public static void deleteTempFiles() {
+		synchronized (tempFiles) {
+			for (File f : tempFiles) {
+				f.delete();
+			}
+			tempFiles.clear();
+		}
+	}
+
+	// ends a daemon request whose client has gone away; called wherever Compass reports progress
+	public static void checkRequestCancelled() {
+		if (requestCancelled) throw new ExitRequest(1);
+	}
+
+	// thrown by errorExit() when running a request in the Compass daemon; this is an Error so that it is not caught as an Exception on the way
+	public static class ExitRequest extends Error {
+		private static final long serialVersionUID = 1L;
+		final int exitCode;
+
+		ExitRequest(int exitCode) {
+			super("exit " + exitCode, null, false, false);
+			this.exitCode = exitCode;
+		}
+	}
+
     public String collapseWhitespace(String s) {
         return s.replaceAll("\\s+", " ").trim();
     }
@@ -2307,16 +2397,25 @@ tooltipsHTMLPlaceholder +
 		return capFileName;
 	}
 
-	// PG import file pathname
-    public String getPGImportFilePathname(String reportName) {
-		String f = PGImportFileName + "." + captureFileSuffix;
+	// PG import file pathname, for a chunk numbered from 1
+    public String getPGImportFilePathname(String reportName, int chunk) {
+		String f = PGImportFileName + "." + chunk + "." + captureFileSuffix;
 		String filePath = getFilePathname(getReportDirPathname(reportName, capDirName), f);
 		return filePath;
 	}
 
-	// anon items file pathname
-    public String getAnonymizedFilename(String reportName) {
-		String f = getAnonymizedFilename;
+	// removes the files of an earlier import, which may have had more chunks
+	private void deletePGImportChunkFiles(String reportName) throws IOException {
+		String dirPath = getReportDirPathname(reportName, capDirName);
+		String rgx = "(" + PGImportFileName + "|" + psqlImportFileName + ")\\.(\\d+\\.)?(" + captureFileSuffix + "|" + psqlFileSuffix + ")";
+		for (Path p : getFilesPattern(dirPath, rgx)) {
+			Files.deleteIfExists(p);
+		}
+	}
+
+	// anon items file pathname, for the n-th capture file
+    public String getAnonymizedFilename(String reportName, int n) {
+		String f = changeFilenameSuffix(getAnonymizedFilename, "tmp", n + ".tmp");
 		String filePath = getFilePathname(getReportDirPathname(reportName, capDirName), f);
 		return filePath;
 	}
@@ -2328,6 +2427,10 @@ tooltipsHTMLPlaceholder +
     	if (Compass.forceReportName) {
     		reportNamePart = Compass.reportFileName;
     	}
+    	if (Compass.shard != null) {
+    		// shards can start at the same time
+    		reportNamePart += "-" + Compass.shard.fileNameTag();
+    	}
     	String sessionLogName = "session-log-" + reportNamePart +  "-" + "bbf." + targetBabelfishVersion + "-" + fixNameChars("report", now_fname) + "." + HTMLSuffix;
     	if (stdReport) { // development only
     		sessionLogName = "session-log" + "." + HTMLSuffix;
@@ -2412,7 +2515,8 @@ tooltipsHTMLPlaceholder +
     	Path dirPath = Paths.get(dir);
     	Stream<Path> files = Files.find(dirPath, 1,
              (path, basicFileAttributes) -> path.toFile().getName().matches(filePattern));
- 		List<Path> fileList = files.collect(Collectors.toList());
+ 		// sorted, so that files are processed in the same order on every platform, and by every shard
+ 		List<Path> fileList = files.sorted().collect(Collectors.toList());
  		fileList.remove(dirPath);
 		return fileList;
     }
@@ -2453,6 +2557,9 @@ tooltipsHTMLPlaceholder +
 	}
 
 	public String openErrBatchFile(String reportName, String inputFileName, String runStartTime) throws IOException {
+		return openErrBatchFile(reportName, inputFileName, runStartTime, false);
+	}
+	public String openErrBatchFile(String reportName, String inputFileName, String runStartTime, boolean append) throws IOException {
 		if (inputFileName.contains(importFileTag)) {
 			inputFileName = inputFileName.substring(0,inputFileName.indexOf(importFileTag)-1);
 		}
@@ -2460,6 +2567,11 @@ tooltipsHTMLPlaceholder +
 		errBatchFilePathName = getErrBatchFilePathName(reportName, inputFileName, fixNameChars("report", runStartTime));
 
 		checkDir(getReportDirPathname(reportName, errBatchDirName), false);
+		if (append && Files.exists(Paths.get(errBatchFilePathName))) {
+			// add to the file written in pass 1
+			errBatchFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(errBatchFilePathName, true), StandardCharsets.UTF_8)));
+			return errBatchFilePathName;
+		}
 		errBatchFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(errBatchFilePathName), StandardCharsets.UTF_8)));
 
 		String now = new SimpleDateFormat("dd-MMM-yyyy HH:mm:ss").format(new Date());
@@ -2523,26 +2635,6 @@ tooltipsHTMLPlaceholder +
 		return symtabFileName;
 	}
 
-	public void writeSymTabFile(String line) throws IOException {
-		//if (debugging) dbgOutput("writing symtab: line=[" + line + "] ", debugSymtab);
-		if (line.contains("\n") || line.contains("\r")) {
-			// can result from delimited identifiers containing newlines (very rare, but possible)
-			// treat these \r, \n chars the same as in captureItem()
-			if (debugging) dbgOutput("Newline or CR found in symtab item (removed): ["+line+"] ", debugSymtab||debugPtree);
-			line = line.replaceAll("\\n", " ");
-			line = line.replaceAll("\\r", " ");
-		}
-		symTabFileLineCount++;
-		symTabFileWriter.write(line + "\n");
-		symTabFileWriter.flush();
-	}
-
-    public void closeSymTabFile() throws IOException {
-		writeSymTabFile("# end of file; " +symTabFileLineCount+" records written");
-	    symTabFileWriter.close();
-	    symTabFileWriter = null;
-	}
-
 	public String adjustFileName(String fileName, String appName, String fileTag, String fileSuffix) {
 		Integer maxFilenameLength = 260;
 		if (!onWindows) maxFilenameLength = 255;
@@ -2604,26 +2696,51 @@ tooltipsHTMLPlaceholder +
 		return f;
 	}
 
-	public void openImportFile(String reportName, String inputFileName, String appName, String encoding) throws IOException {
-		Path fullPath = Paths.get(inputFileName).toAbsolutePath();
-		importFilePathName = getImportFilePathName(reportName, inputFileName, appName);
-		importFileHTMLPathName = getImportFileHTMLPathName(reportName, inputFileName, appName);
-		checkDir(getReportDirPathname(reportName, importDirName), true);
-		if (debugging) dbgOutput("opening importFilePathName=["+importFilePathName+"] ", debugDir);
-		importFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(importFilePathName), StandardCharsets.UTF_8)));
-		String now = new SimpleDateFormat("dd-MMM-yyyy HH:mm:ss").format(new Date());
-		String initLine = importFileLinePart1 +"["+fullPath.toString()+"]"+importFileLinePart2+"["+appName+"]" + importFileLinePart3 +"["+encoding+"]" + importFileLinePart4 +"["+importFileNrBatchesPlaceholder+"/"+importFileNrLinesPlaceholder+"]" + importFileLinePart5 + now;
-		writeImportFile(initLine, false);
-
-		importFileWriteLineNr = 0;
-		importFileHTMLWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(importFileHTMLPathName), StandardCharsets.UTF_8)));
-		String hdr = headerHTML + headerHTMLSQL;
-		hdr = formatHeaderHTML(hdr, now, reportName, inputFileName, appName, "Imported file");
-		formatFooterHTML();
-		importFileHTMLWriter.write(hdr);
-		importFileHTMLWriter.flush();
+	// writes the UTF-8 import copy of an input file, and its HTML version.
+	// Returns false, without writing anything, when the input file is itself an import copy from a report.
+	public boolean writeImportCopy(String reportName, String inputFileName, String appName, Charset charset, String encoding) throws IOException {
+		return writeImportCopy(reportName, inputFileName, appName, new BufferedReader(new InputStreamReader(new FileInputStream(inputFileName), charset), 64 * 1024), encoding);
+	}
 
-		return;
+	// same, with the contents of the input file read from 'reader', which is closed
+	public boolean writeImportCopy(String reportName, String inputFileName, String appName, BufferedReader reader, String encoding) throws IOException {
+		Path fullPath = Paths.get(inputFileName).toAbsolutePath();
+		String copyPathName = getImportFilePathName(reportName, inputFileName, appName);
+		String copyHTMLPathName = getImportFileHTMLPathName(reportName, inputFileName, appName);
+		try (BufferedReader inFileReader = reader) {
+			String line = inFileReader.readLine();
+			if ((line != null) && !importFileAttribute(line, 1).isEmpty() && !importFileAttribute(line, 2).isEmpty()) {
+				return false;
+			}
+
+			if (debugging) dbgOutput("writing import copy=["+copyPathName+"] ", debugDir);
+			CompassMappedFile.release(copyPathName);
+			try (BufferedWriter copyWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(copyPathName), StandardCharsets.UTF_8), 64 * 1024);
+			     BufferedWriter copyHTMLWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(copyHTMLPathName), StandardCharsets.UTF_8), 64 * 1024)) {
+				String now = new SimpleDateFormat("dd-MMM-yyyy HH:mm:ss").format(new Date());
+				String initLine = importFileLinePart1 +"["+fullPath.toString()+"]"+importFileLinePart2+"["+appName+"]" + importFileLinePart3 +"["+encoding+"]" + importFileLinePart4 +"["+importFileNrBatchesPlaceholder+"/"+importFileNrLinesPlaceholder+"]" + importFileLinePart5 + now;
+				copyWriter.write(initLine + "\n");
+
+				String hdr = headerHTML + headerHTMLSQL;
+				hdr = formatHeaderHTML(hdr, now, reportName, inputFileName, appName, "Imported file");
+				copyHTMLWriter.write(hdr);
+
+				int lineNr = 0;
+				while (line != null) {
+					// remove UTF-8 BOM if present: Java doesn't handle this. The BOM bytes for UTF8 are 0xEF 0xBB 0xBF, but the show up here as 0xFEFF
+					if ((lineNr == 0) && line.startsWith("\uFEFF")) {
+						if (debugging) dbgOutput("UTF-8 BOM found, removed", debugBatch);
+						line = line.substring(1);
+					}
+					lineNr++;
+					copyWriter.write(line + "\n");
+					copyHTMLWriter.write("<tr><td class=\"linenr\"><a name=\""+lineNr+"\"></a>" +lineNr+ "</td><td class=\"sql\">" + escapeHTMLChars(line) + "</td></tr>\n");
+					line = inFileReader.readLine();
+				}
+				copyHTMLWriter.write(footerHTML);
+			}
+		}
+		return true;
 	}
 
 	public String formatToolTips(String hdr) {
@@ -2679,45 +2796,10 @@ tooltipsHTMLPlaceholder +
 		footerHTML = footerHTML.replaceFirst(footerHTMLPlaceholder, ftr);
 	}
 
-	public void writeImportFile(String line) throws IOException {
-		writeImportFile(line, true);
-	}
-	public void writeImportFile(String line, boolean writeHTML) throws IOException {
-		importFileWriter.write(line + "\n");
-		importFileWriter.flush();
-		if (writeHTML) {
-			importFileWriteLineNr++;
-			String lineEscaped = escapeHTMLChars(line);
-			String lineHTML = "<tr><td class=\"linenr\"><a name=\""+importFileWriteLineNr+"\"></a>" +importFileWriteLineNr+ "</td><td class=\"sql\">" + lineEscaped + "</td></tr>";
-			importFileHTMLWriter.write(lineHTML + "\n");
-			importFileHTMLWriter.flush();
-		}
-	}
-
-	public void openRewrittenFile(String reportName, String appName, String tmpFile, String rewrittenFile) throws IOException {
-		FileInputStream fis = new FileInputStream(tmpFile);
-		InputStreamReader isr = new InputStreamReader(fis, StandardCharsets.UTF_8);
-		rewrittenInFileReader = new BufferedReader(isr);
-		rewrittenFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(rewrittenFile), StandardCharsets.UTF_8)));
-		return;
-	}
-
-	public void writeRewrittenFile(String line) throws IOException {
-		if (rewrittenFileWriter == null) {
-			appOutput(line);
-			return;
-		}
-		rewrittenFileWriter.write(line);
-		rewrittenFileWriter.flush();
-	}
-
-
-	public void writeRewrittenHTMLFile(String reportName, String appName, String rewrittenFile, String rewrittenHTMLFile) throws IOException {
-		FileInputStream fis = new FileInputStream(rewrittenFile);
-		InputStreamReader isr = new InputStreamReader(fis, StandardCharsets.UTF_8);
-		BufferedReader rewrittenInFileReader = new BufferedReader(isr);
-
-		BufferedWriter rewrittenHTMLFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(rewrittenHTMLFile), StandardCharsets.UTF_8)));
+	// writes the rewritten file, and the same as HTML, in one pass over the text
+	public void writeRewrittenFiles(String reportName, String appName, CompassPieceTable text, String rewrittenFile, String rewrittenHTMLFile) throws IOException {
+		BufferedWriter rewrittenFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(renameRewrittenFile(appName, rewrittenFile)), StandardCharsets.UTF_8)), 64 * 1024);
+		BufferedWriter rewrittenHTMLFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(rewrittenHTMLFile), StandardCharsets.UTF_8)), 64 * 1024);
 		String hdr = headerHTML + headerHTMLSQL;
 		String f = Paths.get(rewrittenFile).getFileName().toString();
 		String now = new SimpleDateFormat("dd-MMM-yyyy HH:mm:ss").format(new Date());
@@ -2725,13 +2807,15 @@ tooltipsHTMLPlaceholder +
 		hdr = formatHeaderHTML(hdr, now, reportName, f, appName, "Rewritten file");
 		formatFooterHTML();
 		rewrittenHTMLFileWriter.write(hdr);
-		rewrittenHTMLFileWriter.flush();
 
+		CompassPieceTable.LineReader lines = text.lineReader();
 		int rewrittenFileWriteLineNr = 0;
 		boolean tocFound = false;
 		while (true) {
-			String line = rewrittenInFileReader.readLine();
+			String line = lines.readLine();
 			if (line == null) break;
+			rewrittenFileWriter.write(line);
+			rewrittenFileWriter.write(lines.getTerminator());
 
 			rewrittenFileWriteLineNr++;
 			line = escapeHTMLChars(line);
@@ -2748,14 +2832,8 @@ tooltipsHTMLPlaceholder +
 		}
 
 		rewrittenHTMLFileWriter.write(footerHTML);
-		rewrittenHTMLFileWriter.flush();
    		rewrittenHTMLFileWriter.close();
-   		rewrittenInFileReader.close();
-	}
-
-	public void closeRewrittenFile() throws IOException {
-		rewrittenInFileReader.close();
-		rewrittenFileWriter.close();
+   		rewrittenFileWriter.close();
 	}
 
 	public String renameRewrittenFile(String appName, String rewrittenFile) {
@@ -2921,6 +2999,8 @@ tooltipsHTMLPlaceholder +
 			customItemHintMap.put(item, itemHint);
 		}			
 		CustomItemIDFileReader.close();				
+		customItemIDMatcher = null;
+		customItemIDMatches.clear();
 		return;
 	}
 					
@@ -2932,40 +3012,15 @@ tooltipsHTMLPlaceholder +
 	}
 	
 	public String matchCSVItem(String item) {
-		item = makeCSVItemLookupKey(item);
-		String found = "";
-		if (debugging) dbgOutput(thisProc()+"item=["+item+"] customItemIDList=["+customItemIDList+"] ", debugReport);		
-		for (String s : customItemIDList) {
-			if (debugging) dbgOutput(thisProc()+"s=["+s+"] ", debugReport);		
-			if ((s.indexOf(("\\d+").toUpperCase()) > -1) || (s.indexOf(("\\w+").toUpperCase()) > -1)) {
-				String rgx = escapeRegexChars(s);
-				rgx = rgx.replaceAll("\\\\\\\\D\\\\\\+", "\\\\d"+"+");
-				rgx = rgx.replaceAll("\\\\\\\\W\\\\\\+", "\\\\w"+"+");
-				if (debugging) dbgOutput(thisProc()+"rgx=["+rgx+"] ", debugReport);	
-				if (!getPatternGroup(item, "^(" + rgx + ")", 1).isEmpty()) {
-					if (debugging) dbgOutput(thisProc()+"match on regex", debugReport);	
-					found = s;
-					break;					
-				}
-			}
-			if (item.equals(s)) {
-				if (debugging) dbgOutput(thisProc()+"match on equal", debugReport);	
-				found = s;				
-				break;
-			}
-			if (item.startsWith(s)) {
-				if (debugging) dbgOutput(thisProc()+"match on start", debugReport);	
-				found = s;				
-				break;
-			}
-			// not found
-		}
-		if (found.isEmpty()) {
-			if (debugging) dbgOutput(thisProc()+"no match found", debugReport);				
-			return "";	
+		String found = customItemIDMatches.get(item);
+		if (found != null) return found;
+
+		if (customItemIDMatcher == null) {
+			customItemIDMatcher = new CompassCSVItemMatcher(customItemIDList);
 		}
-				
-		if (debugging) dbgOutput(thisProc()+"final item found=["+found+"]", debugReport);
+		found = customItemIDMatcher.match(makeCSVItemLookupKey(item));
+		if (debugging) dbgOutput(thisProc()+"item=["+item+"] found=["+found+"]", debugReport);
+		customItemIDMatches.put(item, found);
 		return found;
 	}
 				
@@ -2985,35 +3040,83 @@ tooltipsHTMLPlaceholder +
 		return hint;	
 	}
 				
-	public String writePsqlFile(boolean append, String reportName, String cmd, boolean containsDelimiter) throws IOException {
-		String psqlImportFilePathNameRoot = getFilePathname(getReportDirPathname(reportName, capDirName), psqlImportFileName)+".";
-		String psqlImportFilePathName = psqlImportFilePathNameRoot + psqlFileSuffix;
-		BufferedWriter psqlImportFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(psqlImportFilePathName), StandardCharsets.UTF_8)));
-		String f = PGImportFileName+"."+captureFileSuffix;
-		String psqlText = "";
+	// the psql scripts for -pgimport, by file name, in the order in which they are run:
+	// creating the table (unless appending), loading each chunk file, and restoring delimiters and counting the rows.
+	// The scripts loading the chunks are run concurrently
+	public Map<String, String> psqlImportScripts(boolean append, List<String> chunkFiles, boolean containsDelimiter) {
+		Map<String, String> scripts = new LinkedHashMap<>();
 		if (!append) {
-			psqlText += psqlImportSQLCrTb;
+			scripts.put(psqlImportFileName + "." + psqlFileSuffix, psqlImportSQLCrTb);
 		}
-		psqlText += psqlImportCOPY;
+		for (int c = 0; c < chunkFiles.size(); c++) {
+			String psqlText = applyPatternAll(psqlImportCOPY, psqlImportFilePlaceholder, chunkFiles.get(c));
+			scripts.put(psqlImportFileName + "." + (c+1) + "." + psqlFileSuffix, psqlText);
+		}
+		String psqlText = "";
 		if (containsDelimiter) {
 			psqlText += psqlImportSQLUpdate;
 		}
 		psqlText += psqlImportRowCount;
-		psqlText = applyPatternAll(psqlText, psqlImportFilePlaceholder, f);
-		psqlText = applyPatternAll(psqlText, psqlImportTablePlaceholder, psqlImportTableName);
-		psqlImportFileWriter.write(psqlText);
-		psqlImportFileWriter.flush();
-		psqlImportFileWriter.close();
+		scripts.put(psqlImportFileName + ".post." + psqlFileSuffix, psqlText);
+		for (Map.Entry<String, String> e : scripts.entrySet()) {
+			e.setValue(applyPatternAll(e.getValue(), psqlImportTablePlaceholder, psqlImportTableName));
+		}
+		return scripts;
+	}
+
+	// the commands running the psql scripts; cmd is the psql command with a placeholder '~file~' for the script.
+	// With concurrent, the chunks are loaded by psql sessions running in the background (Mac/Linux only);
+	// the script waits for each of them and stops with a non-zero exit status if any of them failed
+	public List<String> psqlImportCmdLines(Collection<String> scripts, String cmd, boolean concurrent) {
+		List<String> lines = new ArrayList<>();
+		List<String> chunkScripts = new ArrayList<>();
+		for (String f : scripts) {
+			if (getPatternGroup(f, "\\.(\\d+)\\."+psqlFileSuffix+"$", 1).isEmpty()) continue;
+			chunkScripts.add(f);
+		}
+		boolean background = concurrent && (chunkScripts.size() > 1);
+		for (String f : scripts) {
+			String line = applyPatternFirst(cmd, "~file~", f);
+			if (background && f.equals(chunkScripts.get(0))) {
+				lines.add("pids=\"\"");
+			}
+			if (background && chunkScripts.contains(f)) {
+				lines.add(line + " &");
+				lines.add("pids=\"$pids $!\"");
+			}
+			else {
+				lines.add(line);
+			}
+			if (background && f.equals(chunkScripts.get(chunkScripts.size()-1))) {
+				lines.add("failed=0");
+				lines.add("for pid in $pids; do wait $pid || failed=1; done");
+				lines.add("if [ $failed -ne 0 ]; then echo \"Loading into PostgreSQL table '"+psqlImportTableName+"' failed\"; exit 1; fi");
+			}
+		}
+		return lines;
+	}
+
+	public String writePsqlFile(boolean append, String reportName, String cmd, List<String> chunkFiles, boolean containsDelimiter) throws IOException {
+		String psqlImportDirPath = getReportDirPathname(reportName, capDirName);
+		Map<String, String> scripts = psqlImportScripts(append, chunkFiles, containsDelimiter);
+		for (Map.Entry<String, String> e : scripts.entrySet()) {
+			BufferedWriter psqlImportFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(getFilePathname(psqlImportDirPath, e.getKey())), StandardCharsets.UTF_8)));
+			psqlImportFileWriter.write(e.getValue());
+			psqlImportFileWriter.flush();
+			psqlImportFileWriter.close();
+		}
 
 		String psqlCmdFileSuffix = "bat";
 		if (onMac || onLinux) psqlCmdFileSuffix = "sh";
-		String psqlImportCmdFilePathName = psqlImportFilePathNameRoot + psqlCmdFileSuffix;
+		String psqlImportCmdFilePathName = getFilePathname(psqlImportDirPath, psqlImportFileName)+"." + psqlCmdFileSuffix;
 		BufferedWriter psqlImportCmdFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(psqlImportCmdFilePathName), StandardCharsets.UTF_8)));
 		String commentLine = "rem Importing captured items into PostgreSQL table '" + psqlImportTableName+ "'...\n@echo off\n";
 		if (onMac || onLinux) commentLine = "#!/bin/bash\n# Importing captured items into PostgreSQL table '" + psqlImportTableName+ "'...\n";
 		psqlImportCmdFileWriter.write(commentLine);
-		psqlImportCmdFileWriter.write("cd " + getReportDirPathname(reportName, capDirName) + "\n");
-		psqlImportCmdFileWriter.write(cmd + "\n");
+		psqlImportCmdFileWriter.write("cd " + psqlImportDirPath + "\n");
+		for (String line : psqlImportCmdLines(scripts.keySet(), cmd, (onMac || onLinux))) {
+			psqlImportCmdFileWriter.write(line + "\n");
+		}
 		psqlImportCmdFileWriter.flush();
 		psqlImportCmdFileWriter.close();
 
@@ -3030,34 +3133,26 @@ tooltipsHTMLPlaceholder +
 		return line;
 	}
 
+	// the replacements are done one after another, as an entity may only be formed by an earlier replacement
 	public String unEscapeHTMLChars(String line) {
-		if (line.contains("&")) {
-			line = applyPatternAll(line, "&amp;", "&");
-			line = applyPatternAll(line, "&amp"+captureFileSeparatorMarker, "&");
-			line = applyPatternAll(line, "&lt;", "<");
-			line = applyPatternAll(line, "&lt"+captureFileSeparatorMarker, "<");
-			line = applyPatternAll(line, "&gt;", ">");
-			line = applyPatternAll(line, "&gt"+captureFileSeparatorMarker, ">");
-			line = applyPatternAll(line, "&quot;", "\"");
-			line = applyPatternAll(line, "&quot"+captureFileSeparatorMarker, "\"");
-			line = applyPatternAll(line, "&apos;", "\"");
-			line = applyPatternAll(line, "&apos"+captureFileSeparatorMarker, "\"");
-			line = applyPatternAll(line, "&nbsp;", " ");
-			line = applyPatternAll(line, "&nbsp"+captureFileSeparatorMarker, " ");
+		if (line.indexOf('&') >= 0) {
+			line = replaceAllIgnoreCase(line, "&amp;", "&");
+			line = replaceAllIgnoreCase(line, "&amp"+captureFileSeparatorMarker, "&");
+			if (line.indexOf('&') < 0) return line;
+			line = replaceAllIgnoreCase(line, "&lt;", "<");
+			line = replaceAllIgnoreCase(line, "&lt"+captureFileSeparatorMarker, "<");
+			line = replaceAllIgnoreCase(line, "&gt;", ">");
+			line = replaceAllIgnoreCase(line, "&gt"+captureFileSeparatorMarker, ">");
+			line = replaceAllIgnoreCase(line, "&quot;", "\"");
+			line = replaceAllIgnoreCase(line, "&quot"+captureFileSeparatorMarker, "\"");
+			line = replaceAllIgnoreCase(line, "&apos;", "\"");
+			line = replaceAllIgnoreCase(line, "&apos"+captureFileSeparatorMarker, "\"");
+			line = replaceAllIgnoreCase(line, "&nbsp;", " ");
+			line = replaceAllIgnoreCase(line, "&nbsp"+captureFileSeparatorMarker, " ");
 		}
 		return line;
 	}
 
-    public void closeImportFile() throws IOException {
-	    importFileWriter.close();
-		if (importFileHTMLWriter != null) {
-			importFileHTMLWriter.write(footerHTML);
-			importFileHTMLWriter.flush();
-	   		importFileHTMLWriter.close();
-	   		importFileHTMLWriter = null;
-	   	}
-	}
-
 	// get attribute from imported file's first line
     public String importFileAttribute(String line, int part) throws IOException {
     	assert (part >= 1 && part <= 5): "invalid part value ["+part+"] ";
@@ -3067,6 +3162,7 @@ tooltipsHTMLPlaceholder +
 
 	// update the imported file's first line
     public void importFileUpdateBatchLines(String fileName, Integer nrBatches, Integer nrLines) throws IOException {
+    	CompassMappedFile.release(fileName);
 		RandomAccessFile f = new RandomAccessFile(fileName, "rw");
         long position = f.getFilePointer();
         String line = f.readLine();
@@ -3084,6 +3180,11 @@ tooltipsHTMLPlaceholder +
 
 	// read imported file's first line
     public String importFileFirstLine(String fileName) throws IOException {
+    	CompassMappedFile mf = CompassMappedFile.getIfMapped(fileName);
+    	if (mf != null) {
+    		try { return mf.readLine(0); }
+    		finally { CompassMappedFile.close(mf); }
+    	}
 		FileInputStream fis = new FileInputStream(fileName);
 		InputStreamReader isr = new InputStreamReader(fis, StandardCharsets.UTF_8);
 		BufferedReader inFileReader = new BufferedReader(isr);
@@ -3186,7 +3287,13 @@ tooltipsHTMLPlaceholder +
 		// report generation only is OK
 		if (Compass.reportOnly || (Compass.inputFiles.size() == 0 && Compass.generateReport)) {
 			if (result.isEmpty()) {
-				if (!targetVersionTest.equals(targetBabelfishVersion)) {
+				if (Compass.userSpecifiedBabelfishVersion) {
+					// report for the version specified: statuses are resolved again while reading the capture files
+					if (!identicalTargetVersion || !targetVersionTest.equals(targetBabelfishVersion)) {
+						reportHdrLines = applyPatternFirst(reportHdrLines, targetBabelfishVersionReportLine + "(.+?)\n", targetBabelfishVersionReportLine + "$1 (resolved from earlier analysis for v."+targetVersionTest+")\n");
+					}
+				}
+				else if (!targetVersionTest.equals(targetBabelfishVersion)) {
 					// turns out the original analysis for which we're going to generate a report now,
 					// is not the same as the latest Babelfish version, but we have already written that version
 					// in the report header. So update the report header right now
@@ -3518,7 +3625,8 @@ tooltipsHTMLPlaceholder +
 
 	// validate an input file: check format, figure out if this was created
 	// by an unsupported reveng tool -- etc.
-	public String detectImportFileFormat(String inputFileName, String importFormat, Charset charset) throws IOException {
+	// with a message list, messages about the format are added to the list instead of being printed
+	public String detectImportFileFormat(String inputFileName, String importFormat, Charset charset, List<String> msgs) throws IOException {
 		String fullPath = Paths.get(inputFileName).toAbsolutePath().toString();
 		if (debugging) dbgOutput(thisProc()+"inputFileName=["+inputFileName+"] fullPath=["+fullPath+"] importFormat=["+importFormat+"] ", debugFmt);
 		FileInputStream fis = new FileInputStream(fullPath);
@@ -3631,36 +3739,36 @@ tooltipsHTMLPlaceholder +
 		if (importFormat.equalsIgnoreCase(SQLServerProfilerXMLFmt)) {
 			//appOutput(thisProc()+"SQLServerProfilerXMLFound=["+SQLServerProfilerXMLFound+"] ");
 			if (SQLServerProfilerXMLFound <= 2) {
-				importFormatSeemsInvalidMsg(inputFileName, SQLServerProfilerXMLFmt, detectedFormat, "<TraceProvider name=\"Microsoft SQL Server\"");
+				importFormatSeemsInvalidMsg(msgs, inputFileName, SQLServerProfilerXMLFmt, detectedFormat, "<TraceProvider name=\"Microsoft SQL Server\"");
 			}
 		}
 
 		if (importFormat.equalsIgnoreCase(jsonQueryFmt)) {
 			//appOutput(thisProc()+"jsonQueryFmt Found=["+jsonQueryFmtFound+"] ");
 			if (jsonQueryFmtFound == 0) {
-				importFormatSeemsInvalidMsg(inputFileName, jsonQueryFmt, detectedFormat, "prefix: \"query_999\"");
+				importFormatSeemsInvalidMsg(msgs, inputFileName, jsonQueryFmt, detectedFormat, "prefix: \"query_999\"");
 			}
 		}
 
 		if (importFormat.equalsIgnoreCase(extendedEventsXMLFmt)) {
 			//appOutput(thisProc()+"jsonQueryFmt, jsonQueryFmtFound=["+jsonQueryFmtFound+"] ");
 			if (extendedEventsXMLFound == 0) {
-				importFormatSeemsInvalidMsg(inputFileName, extendedEventsXMLFmt, detectedFormat, "tag: <event name=\"sql_statement_completed\" package=\"sqlserver\"");
+				importFormatSeemsInvalidMsg(msgs, inputFileName, extendedEventsXMLFmt, detectedFormat, "tag: <event name=\"sql_statement_completed\" package=\"sqlserver\"");
 			}
 		}
 
 		else if (importFormat.equalsIgnoreCase(sqlcmdFmt)) {
 			if (SQLServerProfilerXMLFound> 0) {
-				importFormatSeemsInvalidMsg(inputFileName, sqlcmdFmt, detectedFormat, "batch delimiters: 'go'");
+				importFormatSeemsInvalidMsg(msgs, inputFileName, sqlcmdFmt, detectedFormat, "batch delimiters: 'go'");
 			}
 			else if ((jsonQueryFmtFound + extendedEventsXMLFound + genericSQLXMLFound)> 0) {
-				importFormatSeemsInvalidMsg(inputFileName, sqlcmdFmt, unknownFormat, "batch delimiters: 'go'");
+				importFormatSeemsInvalidMsg(msgs, inputFileName, sqlcmdFmt, unknownFormat, "batch delimiters: 'go'");
 			}
 			else {
 				// was reverse-engineered by wrong tool? (i.e. batch delimiters missing)
 				if (createFound + alterFound > 5) { // arbitrary number
 					if (goFound == 0) {
-						appOutput("Input file '"+inputFileName+"' formatting:\nNo batch delimiters 'go' were found. Input scripts need to be in 'sqlcmd' format,\nusing 'go' as batch delimiters.\nTo reverse engineer you SQL server database(s), best use SQL Server Management Studio.\nProceeding, but errors may occur.\n");
+						formatMsg(msgs, "Input file '"+inputFileName+"' formatting:\nNo batch delimiters 'go' were found. Input scripts need to be in 'sqlcmd' format,\nusing 'go' as batch delimiters.\nTo reverse engineer you SQL server database(s), best use SQL Server Management Studio.\nProceeding, but errors may occur.\n");
 					}
 				}
 			}
@@ -3669,7 +3777,12 @@ tooltipsHTMLPlaceholder +
 		return detectedFormat;
 	}
 
-	private void importFormatSeemsInvalidMsg(String inputFileName, String importFmtSpecified, String detectedFormat, String fmtExample) {
+	private void formatMsg(List<String> msgs, String s) {
+		if (msgs == null) appOutput(s);
+		else msgs.add(s);
+	}
+
+	private void importFormatSeemsInvalidMsg(List<String> msgs, String inputFileName, String importFmtSpecified, String detectedFormat, String fmtExample) {
 		//appOutput(thisProc()+"inputFileName=["+inputFileName+"] detectedFormat=["+detectedFormat+"] importFmtSpecified=["+importFmtSpecified+"] ");
 		if (importFmtSpecified.equals(sqlcmdFmt) && detectedFormat.equals(unknownFormat)) return; // don't report this case
 		String s = "\nInput format '"+importFmtSpecified+"' was specified, but input file does not seem to be in this format";
@@ -3683,7 +3796,7 @@ tooltipsHTMLPlaceholder +
 			s += ".\nInstead, it seems to be in '"+importFormatOptionDisplay.get(importFormatOption.indexOf(detectedFormat.toLowerCase()))+"' format.\nTo process this file accordingly, do not specify the '-importfmt' option.";
 		}
 		s += "\nProceeding, but errors may occur.\n";
-		appOutput(s);
+		formatMsg(msgs, s);
 	}
 
 	// convert a special-format file to sqlcmd format
@@ -3694,17 +3807,6 @@ tooltipsHTMLPlaceholder +
 		InputStreamReader isr = new InputStreamReader(fis, charset);
 		BufferedReader inFileReader = new BufferedReader(isr);
 
-		String SQLServerProfilerXMLStart = "<Column id=\"1\" name=\"TextData\">";
-		String SQLServerProfilerXMLEnd   = "</Column>";
-
-		String ExtendedEventStart             = "<event name=\"";
-		String ExtendedEventEnd               = "</event>";
-
-		String ExtendedEventXMLStatementStart = "<data name=\"statement\"><value>";
-		String ExtendedEventXMLBatchStart     = "<data name=\"batch_text\"><value>";
-		String ExtendedEventXMLEnd            = "</value>";
-		String XESpecialSplitMarker           = "~~~~~"+BBFMark+"~~~~~";
-
 
 		// open file for extracted queries
 		String extractedFilePathName = openExtractedFile(reportName, inputFileName, fullPath, appName, charset.toString());
@@ -3712,8 +3814,7 @@ tooltipsHTMLPlaceholder +
 		appOutput("Using input file format '"+importFormat+"'");
 		appOutput("Writing extracted SQL queries to '"+extractedFilePathName+"'");
 
-		deDupQueries.clear();
-		deDupQueriesOrder.clear();
+		deDupStore.startFile(deDupSpill ? Paths.get(extractedFilePathName).getParent().toString() : null);
 		deDupSkipped = 0;
 
 		if (!deDupExtracted) {
@@ -3731,224 +3832,73 @@ tooltipsHTMLPlaceholder +
 		int queriesExtracted = 0;
 		int queriesWritten = 0;
 		String stmt = "";
-		boolean startFound = false;
-		boolean endFound = false;
-		boolean fullLine = false;
-		String XELine = "";
 
-		while (true) {
-			lineNr++;
-			String line = inFileReader.readLine();
-			if (line == null) {
-				break;
-			}
-			String lineCopy = line;
-			line = line.trim();
-			//appOutput(thisProc()+"line=["+line+"] ");
-			if (lineNr%10000 == 0) {
-				printProgress();
-			}
-			if (debugging) dbgOutput(thisProc()+"lineNr=["+lineNr+"] startFound=["+startFound+"] endFound=["+endFound+"]   line=["+line+"] ", debugFmtDetail);
-
-			// process depending on file format
-			if (importFormat.equalsIgnoreCase(SQLServerProfilerXMLFmt)) {
-				// captured SQL starts at '<Column id="1" name="TextData">'
-				// ToDo: skip all cases of <Event id="..." name="RPC Output Parameter">
-				if (!startFound) {
-					if (!line.startsWith(SQLServerProfilerXMLStart)) continue;
-					startFound = true;
-					line = line.substring(SQLServerProfilerXMLStart.length());
-				}
-
-				if (startFound) {
-					if (line.endsWith(SQLServerProfilerXMLEnd))  {
-						line = line.substring(0,line.indexOf(SQLServerProfilerXMLEnd));
-						startFound = false;
-					}
-					else {
-						stmt += "\n" + line;
-						continue;
-					}
-				}
-				stmt += "\n" + line;
-			}
-			else if (importFormat.equalsIgnoreCase(jsonQueryFmt)) {
-				// each line has one query: "query_1234":  "(@v int[...]) query ",
-				if (!line.startsWith("\"query")) continue;
-				line = applyPatternFirst(line,"^\"query_\\d+\":\\s*", "");
-				if (!line.startsWith("\"")) {
-					if (line.startsWith("null")) continue;
-					else {
-						appOutput("Unexpected formatting on line "+lineNr+", skipping line: ["+lineCopy+"] ");
-						continue;
-					}
-				}
-				line = line.substring(1);
-				if (!line.startsWith("(")) {
-					// no parameters
+		if (importFormat.equalsIgnoreCase(SQLServerProfilerXMLFmt) || importFormat.equalsIgnoreCase(extendedEventsXMLFmt)) {
+			queriesExtracted = extractXMLCapture(inFileReader, inputFileName, importFormat);
+			if (!deDupExtracted) queriesWritten = queriesExtracted;
+		}
+		else {
+			while (true) {
+				lineNr++;
+				String line = inFileReader.readLine();
+				if (line == null) {
+					break;
 				}
-				else {
-					// strip parameters
-					String params = findClosingBracket(line);
-					line = line.substring(params.length());
-					params = removeLastChar(params.substring(1));
-					line = "declare " + params + "\n" + line;
-					//appOutput(thisProc()+"params=["+params+"] ");
+				String lineCopy = line;
+				line = line.trim();
+				if (lineNr%10000 == 0) {
+					printProgress();
 				}
-				//appOutput(thisProc()+"line C=["+line+"]");
+				if (debugging) dbgOutput(thisProc()+"lineNr=["+lineNr+"]  line=["+line+"] ", debugFmtDetail);
 
-				if (line.endsWith("\",")) line = removeLastChars(line,2);
-				else if (line.endsWith("\"")) line = removeLastChar(line);
-				else {
-					// should not happen, not sure what to do. just hope it's all OK
-				}
-				stmt = line;
-			}
-			else if (importFormat.equalsIgnoreCase(extendedEventsXMLFmt)) {
-				if (!startFound) {
-					if (line.startsWith(ExtendedEventStart)) {
-						startFound = true;
-						endFound = false;
-					}
-					if (line.endsWith(ExtendedEventEnd)) {
-						startFound = false;
-						endFound = true;
-						fullLine = true;
-						XELine = line;
+				if (importFormat.equalsIgnoreCase(jsonQueryFmt)) {
+					// each line has one query: "query_1234":  "(@v int[...]) query ",
+					if (!line.startsWith("\"query")) continue;
+					line = applyPatternFirst(line,"^\"query_\\d+\":\\s*", "");
+					if (!line.startsWith("\"")) {
+						if (line.startsWith("null")) continue;
+						else {
+							appOutput("Unexpected formatting on line "+lineNr+", skipping line: ["+lineCopy+"] ");
+							continue;
+						}
 					}
-				}
-				if (startFound && !endFound) {
-					if (!fullLine) XELine += "\n" + line;
-					if (line.endsWith(ExtendedEventEnd)) {
-						startFound = false;
-						endFound = true;
+					line = line.substring(1);
+					if (!line.startsWith("(")) {
+						// no parameters
 					}
-				}
-				if (!startFound && endFound) {
-					// when we get here, we have the entire <event ...> ... </event> tag
-				}
-				else {
-					continue; // continue reading
-				}
-
-				// extract the relevant parts from the XML tag
-				XELine = applyPatternAll(XELine, "\\>\\s+\\<", "><", "multiline");
-
-				// captured SQL starts at <data name="statement" or <data name="batch_text"
-				if (debugging) dbgOutput(thisProc()+"XEline=["+XELine+"] ", debugFmtDetail);
-
-				XELine = XELine.replaceFirst("</value></data><data name=\"parameterized_plan_handle\"><value /></data><action name=\"sql_text\" package=\"sqlserver\"><value>", XESpecialSplitMarker);
-				XELine = XELine.replaceFirst("</value></data><action name=\"sql_text\" package=\"sqlserver\"><value>", XESpecialSplitMarker);
-
-				int ixStart = XELine.indexOf(ExtendedEventXMLStatementStart);
-				//if (debugging) dbgOutput(thisProc()+"ixStart stmt=["+ixStart+"]  ", debugFmtDetail);
-				if (ixStart > -1) ixStart += ExtendedEventXMLStatementStart.length();
-				else {
-					ixStart = XELine.indexOf(ExtendedEventXMLBatchStart);
-					if (ixStart > -1) ixStart += ExtendedEventXMLBatchStart.length();
-					//if (debugging) dbgOutput(thisProc()+"ixStart B=["+ixStart+"]  ", debugFmtDetail);
-				}
-				if (ixStart > -1) {
-					XELine = XELine.substring(ixStart);
-				}
-				else {
-					// something's wrong, discard this one
-					if (debugging) dbgOutput(thisProc()+"discarding ixStart: XEline=["+XELine+"] ", debugFmt);
-					continue;
-				}
-
-				int ixEnd = XELine.indexOf(ExtendedEventXMLEnd);
-				if (debugging) dbgOutput(thisProc()+"ixEnd=["+ixEnd+"]  ", debugFmtDetail);
-				if (ixEnd > -1) {
-					 XELine = XELine.substring(0,ixEnd);
-				}
-				else {
-					// something's wrong, discard this one
-					if (debugging) dbgOutput(thisProc()+"discarding ixEnd: XEline=["+XELine+"] ", debugFmt);
-					continue;
-				}
-
-
-				stmt += "\n" + XELine;
-				if (debugging) dbgOutput(thisProc()+"stmt=["+stmt+"]  ", debugFmtDetail);
-			}
-
-			stmt = stmt.trim();
-			if (debugging) dbgOutput(thisProc()+"stmt final=["+stmt+"]  ", debugFmtDetail);
-
-			if (importFormat.equalsIgnoreCase(SQLServerProfilerXMLFmt)) {
-				if (!startFound) {
-					if (!getPatternGroup(stmt, "^(([\\+\\-])?\\d+(\\.\\d*)?(e([\\+\\-])?\\d+)?)$", 1).isEmpty()) {
-						// it's likely just a number as a parameter value
-						stmt = "";
-						continue;
+					else {
+						// strip parameters
+						String params = findClosingBracket(line);
+						line = line.substring(params.length());
+						params = removeLastChar(params.substring(1));
+						line = "declare " + params + "\n" + line;
+						//appOutput(thisProc()+"params=["+params+"] ");
 					}
-				}
-			}
-
-			if (stmt.indexOf(XESpecialSplitMarker) > -1) {
-				List<String> tmp = new ArrayList<>(Arrays.asList(stmt.split(XESpecialSplitMarker)));
+					//appOutput(thisProc()+"line C=["+line+"]");
 
-				// remove parameters
-				for (int i=0; i < tmp.size(); i++) {
-					String tmpLine = tmp.get(i);
-					if(tmpLine.startsWith("(@"))  {
-						String params = findClosingBracket(tmpLine);
-						tmp.set(i, tmpLine.substring(params.length()));
-					}
-					else if (tmpLine.startsWith("*password---------------")) {
-						tmp.remove(i);
+					if (line.endsWith("\",")) line = removeLastChars(line,2);
+					else if (line.endsWith("\"")) line = removeLastChar(line);
+					else {
+						// should not happen, not sure what to do. just hope it's all OK
 					}
+					stmt = line;
 				}
 
-				// remove some seemingly duplicates
-				if (tmp.size() == 2) {
-					if (tmp.get(0).equals(tmp.get(1))) {
-						tmp.remove(1);
-					}
-					else if (tmp.get(0).startsWith(tmp.get(1))) {
-						tmp.remove(1);
-					}
-					else if (tmp.get(1).startsWith(tmp.get(0))) {
-						tmp.remove(0);
-					}
-					else if (tmp.get(0).endsWith(tmp.get(1))) {
-						tmp.remove(1);
-					}
-					else if (tmp.get(1).endsWith(tmp.get(0))) {
-						tmp.remove(0);
-					}
+				if (!processExtractedStatement(stmt, importFormat)) {
+					stmt = "";
+					continue;
 				}
-				stmt = String.join("\n", tmp);
+				queriesExtracted++;
+				if (!deDupExtracted) queriesWritten++;
+				stmt = "";
 			}
-
-			stmt = patchupSpecialCharsExtractedSQL(stmt);
-			stmt = patchupQuotes(stmt);
-
-			if (deDupExtracted) {
-				deDuplicateExtractedQueries(stmt);
-			}
-			else {
-				// do not unduplicate, but write directly
-				writeExtractedFile(stmt);
-				writeExtractedFile("go\n");
-				queriesWritten++;
-			}
-
-			queriesExtracted++;
-			queriesExtractedAll++;
-			stmt = "";
-			startFound = false;
-			endFound = false;
-			fullLine = false;
-			XELine = "";
 		}
 		inFileReader.close();
 
 		if (deDupExtracted) {
 			appOutput("");
 			appOutput("Duplicate batches removed: "+deDupSkipped);
-			appOutput("De-duplicated batches remaining: "+deDupQueries.size());
+			appOutput("De-duplicated batches remaining: "+deDupStore.size());
 
 			String scope = "";
 			for (int i=0; i < dedupScopeOption.size(); i++) {
@@ -3961,20 +3911,25 @@ tooltipsHTMLPlaceholder +
 			writeExtractedFile("-- Batches extracted from input file: "+queriesExtracted);
 			writeExtractedFile("-- Total duplicates removed: "+deDupSkipped);
 			writeExtractedFile("-- De-duplication with masking of:"+scope);
-			writeExtractedFile("-- De-duplicated batches remaining: "+deDupQueries.size());
+			writeExtractedFile("-- De-duplicated batches remaining: "+deDupStore.size());
 			writeExtractedFile(composeOutputLine("", "-"));
 			writeExtractedFile("\n");
 
-			for (String k : deDupQueriesOrder.keySet().stream().sorted().collect(Collectors.toList())) {
-				String qry = deDupQueriesOrder.get(k);
-				int dupCnt = dupQueryCount.getOrDefault(qry, 0);
+			CompassDeDupStore.QueryReader deDupReader = deDupStore.openReader();
+			while (true) {
+				String qry = deDupReader.next();
+				if (qry == null) {
+					break;
+				}
+				int dupCnt = deDupReader.getDupCount();
 				if (dupCnt > 0) {
 					writeExtractedFile("/* Duplicates removed: "+dupCnt + " */");
 				}
-				writeExtractedFile(deDupQueries.get(qry));
+				writeExtractedFile(qry);
 				writeExtractedFile("go\n");
 				queriesWritten++;
 			}
+			deDupStore.close();
 		}
 		else {
 			writeExtractedFile("-- Batches extracted from input file: "+queriesExtracted);
@@ -3987,13 +3942,189 @@ tooltipsHTMLPlaceholder +
 		return extractedFilePathName;
 	}
 
+	// post-process an extracted batch and write it, or keep it for de-duplication; returns false if the batch is skipped
+	private boolean processExtractedStatement(String stmt, String importFormat) throws IOException {
+		stmt = prepareExtractedStatement(stmt, importFormat);
+		if (stmt == null) {
+			return false;
+		}
+		if (deDupExtracted) {
+			deDuplicateExtractedQueries(stmt);
+		}
+		else {
+			// do not unduplicate, but write directly
+			writeExtractedFile(stmt);
+			writeExtractedFile("go\n");
+		}
+		queriesExtractedAll++;
+		return true;
+	}
+
+	// post-process an extracted batch; returns null if the batch is to be skipped.
+	// This does not touch any shared state, so it can run in parallel
+	private String prepareExtractedStatement(String stmt, String importFormat) {
+		stmt = stmt.trim();
+		if (debugging) dbgOutput(thisProc()+"stmt final=["+stmt+"]  ", debugFmtDetail);
+
+		if (importFormat.equalsIgnoreCase(SQLServerProfilerXMLFmt)) {
+			if (!getPatternGroup(stmt, "^(([\\+\\-])?\\d+(\\.\\d*)?(e([\\+\\-])?\\d+)?)$", 1).isEmpty()) {
+				// it's likely just a number as a parameter value
+				return null;
+			}
+		}
+
+		if (stmt.indexOf(XESpecialSplitMarker) > -1) {
+			List<String> tmp = new ArrayList<>(Arrays.asList(stmt.split(XESpecialSplitMarker)));
+
+			// remove parameters
+			for (int i=0; i < tmp.size(); i++) {
+				String tmpLine = tmp.get(i);
+				if(tmpLine.startsWith("(@"))  {
+					String params = findClosingBracket(tmpLine);
+					tmp.set(i, tmpLine.substring(params.length()));
+				}
+				else if (tmpLine.startsWith("*password---------------")) {
+					tmp.remove(i);
+				}
+			}
+
+			// remove some seemingly duplicates
+			if (tmp.size() == 2) {
+				if (tmp.get(0).equals(tmp.get(1))) {
+					tmp.remove(1);
+				}
+				else if (tmp.get(0).startsWith(tmp.get(1))) {
+					tmp.remove(1);
+				}
+				else if (tmp.get(1).startsWith(tmp.get(0))) {
+					tmp.remove(0);
+				}
+				else if (tmp.get(0).endsWith(tmp.get(1))) {
+					tmp.remove(1);
+				}
+				else if (tmp.get(1).endsWith(tmp.get(0))) {
+					tmp.remove(0);
+				}
+			}
+			stmt = String.join("\n", tmp);
+		}
+
+		stmt = patchupSpecialCharsExtractedSQL(stmt);
+		stmt = patchupQuotes(stmt);
+		return stmt;
+	}
+
+	// batches extracted from one chunk of an XML capture
+	private static class ExtractedChunk {
+		List<String> stmts = new ArrayList<>();
+		List<long[]> deDupFingerprints = new ArrayList<>();
+		long nrEvents = 0;
+		String error = null;
+	}
+
+	private ExtractedChunk extractXMLChunk(String chunk, String importFormat) {
+		ExtractedChunk result = new ExtractedChunk();
+		CompassXMLCaptureReader xmlReader = null;
+		try {
+			xmlReader = new CompassXMLCaptureReader(new StringReader(chunk), importFormat);
+			while (true) {
+				String stmt = xmlReader.nextStatement();
+				if (stmt == null) {
+					break;
+				}
+				stmt = prepareExtractedStatement(stmt, importFormat);
+				if (stmt == null) {
+					continue;
+				}
+				result.stmts.add(stmt);
+				if (deDupExtracted) result.deDupFingerprints.add(CompassDeDupStore.fingerprint(deDupKey(stmt)));
+			}
+		} catch (IOException | XMLStreamException e) {
+			result.error = e.getMessage();
+		}
+		if (xmlReader != null) result.nrEvents = xmlReader.getEventCount();
+		return result;
+	}
+
+	// extract the captured SQL from an XML capture: the file is split into chunks at event boundaries, which are
+	// extracted in parallel. The chunks are merged in their original order, so the result is the same as when extracting sequentially
+	private int extractXMLCapture(BufferedReader inFileReader, String inputFileName, String importFormat) throws IOException {
+		long startTime = System.currentTimeMillis();
+		int nrThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
+		int maxChunksPending = nrThreads * 2;   // limits the memory used for chunks that are read but not yet merged
+		initDeDupScope();
+
+		CompassXMLCaptureReader.ChunkSplitter splitter = new CompassXMLCaptureReader.ChunkSplitter(inFileReader, importFormat);
+		ExecutorService pool = Executors.newFixedThreadPool(nrThreads);
+		Deque<Future<ExtractedChunk>> pending = new ArrayDeque<>();
+		int queriesExtracted = 0;
+		long nrEvents = 0;
+		int chunkNr = 0;
+		try {
+			while (true) {
+				String chunk = splitter.next();
+				if (chunk != null) {
+					pending.add(pool.submit(() -> extractXMLChunk(chunk, importFormat)));
+				}
+				while (!pending.isEmpty() && (chunk == null || pending.size() >= maxChunksPending)) {
+					ExtractedChunk result = pending.poll().get();
+					chunkNr++;
+					if (result.error != null) {
+						appOutput("");
+						appOutput("Error parsing XML in "+inputFileName+" (chunk "+chunkNr+"), no further batches extracted from this chunk: "+result.error);
+					}
+					for (int i = 0; i < result.stmts.size(); i++) {
+						String stmt = result.stmts.get(i);
+						if (deDupExtracted) {
+							deDupRegister(result.deDupFingerprints.get(i), deDupOriginal(stmt));
+						}
+						else {
+							writeExtractedFile(stmt);
+							writeExtractedFile("go\n");
+						}
+						queriesExtractedAll++;
+						queriesExtracted++;
+						if (queriesExtracted%1000 == 0) {
+							printProgress();
+						}
+					}
+					nrEvents += result.nrEvents;
+				}
+				if (chunk == null) {
+					break;
+				}
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new IOException("Error extracting SQL from "+inputFileName, e);
+		} finally {
+			pool.shutdownNow();
+		}
+
+		if (queriesExtracted >= 1000) appOutput("");
+		long ms = Math.max(1, System.currentTimeMillis() - startTime);
+		appOutput("XML events read: "+nrEvents+" in "+(ms/1000)+" seconds ("+((nrEvents*1000)/ms)+" events/sec, "+nrThreads+" threads)");
+		return queriesExtracted;
+	}
+
 	// deDuplicate extracted/capture queries
-	public void deDuplicateExtractedQueries (String qry) {
+	public void deDuplicateExtractedQueries (String qry) throws IOException {
+		initDeDupScope();
+		deDupRegister(CompassDeDupStore.fingerprint(deDupKey(qry)), deDupOriginal(qry));
+	}
+
+	private void initDeDupScope() {
 		if (dedupScope.isEmpty()) {
 			dedupScope = String.join("", dedupScopeOption);
 		}
-		String qryOrig = applyPatternAll(qry, "[ \\t]+", " "); // don't remove newlines since this inteferes with simple comments
+	}
+
+	// the query as it is written to the extracted file
+	private String deDupOriginal(String qry) {
+		return applyPatternAll(qry, "[ \\t]+", " "); // don't remove newlines since this inteferes with simple comments
+	}
 
+	// the query with constants masked, for finding duplicates; does not touch shared state
+	private String deDupKey(String qry) {
 		if (dedupScope.contains("S")) {
 			//mask all char strings:
 			qry = maskStringConstants(qry, "string");
@@ -4023,21 +4154,18 @@ tooltipsHTMLPlaceholder +
 		}
 
 		qry = qry.trim();
+		return qry;
+	}
 
-		if (deDupQueriesAll.containsKey(qry)) {
+	private void deDupRegister(long[] fingerprint, String qryOrig) throws IOException {
+		if (!deDupStore.add(fingerprint, qryOrig)) {
 			// duplicate query found, skipped
 			deDupSkipped++;
 			deDupSkippedAll++;
-			dupQueryCount.put(qry, dupQueryCount.getOrDefault(qry, 0)+1);
-		}
-		else {
-			// new query found
-			deDupQueries.put(qry, qryOrig);
-			deDupQueriesOrder.put(String.format("%08d",deDupQueriesOrder.size()), qry);
-			deDupQueriesAll.put(qry, "");
 		}
 	}
 
+
 	public String patchupSpecialCharsExtractedSQL (String s) {
 		if (s.contains("\\n")) s = s.replaceAll("\\\\n", "\n");
 		if (s.contains("\\r")) s = s.replaceAll("\\\\r", "\r");
@@ -4090,6 +4218,8 @@ tooltipsHTMLPlaceholder +
     public void openCaptureFile(String reportName, String fileName, String appName) throws IOException {
     	captureFilePathName = getCaptureFilePathname(reportName, fileName, appName);
     	checkDir(getReportDirPathname(reportName, capDirName), true);
+		// the sidecar of an earlier capture file is outdated
+		Files.deleteIfExists(Paths.get(captureFilePathName + "." + captureAggSuffix));
 		captureFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(captureFilePathName), StandardCharsets.UTF_8)));
 		String now = new SimpleDateFormat("dd-MMM-yyyy HH:mm:ss").format(new Date());
 		String initLine = captureFileLinePart1+"["+reportName+"]" + captureFileLinePart2 +"["+targetBabelfishVersion+"]" + captureFileLinePart3 + now + captureFileLinePart4 +"["+captureFileFormatVersion+"]"+captureFileLinePart5+"["+userCfgFileName+"]";
@@ -4536,49 +4666,140 @@ tooltipsHTMLPlaceholder +
 		checkDir(getReportDirPathname(reportName, importDirName, symTabDirName), true);
 		symTabFilePathName = getSymTabFilePathName(reportName, inputFileName, appName);
 		if (debugging) dbgOutput("symTabFilePathName=[" + symTabFilePathName + "] ", debugSymtab||debugDir);
-		symTabFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(symTabFilePathName), StandardCharsets.UTF_8)));
-		symTabFileLineCount = 0;
-		String now = new SimpleDateFormat("dd-MMM-yyyy HH:mm:ss").format(new Date());
-		writeSymTabFile("# This file: " + symTabFilePathName + "; generated at " + now);
-		symTabFileLineCount--;
-		writeSymTabFile("# *** DO NOT EDIT THIS FILE ***");
-		symTabFileLineCount--;
 
-		String line = "";
+		// the entries are first composed as in the original text format and parsed back, so that the binary
+		// symtab contains exactly what pass 2 used to read from the text file
+		List<String> lines = new ArrayList<>();
 		for (String obj : tableViewSymTab.keySet()) {
-			line = "objtype" + symTabSeparator + maskChar(obj, symTabSeparator) + symTabSeparator + maskChar(tableViewSymTab.get(obj), symTabSeparator);
-			writeSymTabFile(decodeIdentifier(line));
+			lines.add("objtype" + symTabSeparator + maskChar(obj, symTabSeparator) + symTabSeparator + maskChar(tableViewSymTab.get(obj), symTabSeparator));
 		}
 		for (String sudf : SUDFSymTab.keySet()) {
-			line = "sudf" + symTabSeparator + maskChar(sudf, symTabSeparator) + symTabSeparator + maskChar(SUDFSymTab.get(sudf), symTabSeparator);
-			writeSymTabFile(decodeIdentifier(line));
+			lines.add("sudf" + symTabSeparator + maskChar(sudf, symTabSeparator) + symTabSeparator + maskChar(SUDFSymTab.get(sudf), symTabSeparator));
 		}
 		for (String tudf : TUDFSymTab.keySet()) {
-			line = "tudf" + symTabSeparator + maskChar(tudf, symTabSeparator) + symTabSeparator + maskChar(TUDFSymTab.get(tudf), symTabSeparator);
-			writeSymTabFile(decodeIdentifier(line));
+			lines.add("tudf" + symTabSeparator + maskChar(tudf, symTabSeparator) + symTabSeparator + maskChar(TUDFSymTab.get(tudf), symTabSeparator));
 		}
 		for (String udd : UDDSymTab.keySet()) {
-			line = "udd" + symTabSeparator + maskChar(udd, symTabSeparator) + symTabSeparator + maskChar(UDDSymTab.get(udd), symTabSeparator);
-			writeSymTabFile(decodeIdentifier(line));
+			lines.add("udd" + symTabSeparator + maskChar(udd, symTabSeparator) + symTabSeparator + maskChar(UDDSymTab.get(udd), symTabSeparator));
 		}
 		for (String proc : procSymTab.keySet()) {
-			line = "proc" + symTabSeparator + maskChar(proc, symTabSeparator) + symTabSeparator + maskChar(procSymTab.get(proc), symTabSeparator);
-			writeSymTabFile(decodeIdentifier(line));
+			lines.add("proc" + symTabSeparator + maskChar(proc, symTabSeparator) + symTabSeparator + maskChar(procSymTab.get(proc), symTabSeparator));
 		}
 		for (String trig : trigSymTab.keySet()) {
-			line = "trig" + symTabSeparator + maskChar(trig, symTabSeparator) + symTabSeparator + maskChar(trigSymTab.get(trig), symTabSeparator);
-			writeSymTabFile(decodeIdentifier(line));
-		}		
+			lines.add("trig" + symTabSeparator + maskChar(trig, symTabSeparator) + symTabSeparator + maskChar(trigSymTab.get(trig), symTabSeparator));
+		}
 		for (String col : colSymTab.keySet()) {
-			line = "col" + symTabSeparator + col + symTabSeparator + maskChar(colSymTab.get(col), symTabSeparator);
-			writeSymTabFile(decodeIdentifier(line));
+			lines.add("col" + symTabSeparator + col + symTabSeparator + maskChar(colSymTab.get(col), symTabSeparator));
 		}
 		for (String par : parSymTab.keySet()) {
-			line = "par" + symTabSeparator + par + symTabSeparator + maskChar(parSymTab.get(par), symTabSeparator);
-			writeSymTabFile(decodeIdentifier(line));
+			lines.add("par" + symTabSeparator + par + symTabSeparator + maskChar(parSymTab.get(par), symTabSeparator));
+		}
+
+		clearSymTab();
+		for (String line : lines) {
+			line = decodeIdentifier(line);
+			if (line.contains("\n") || line.contains("\r")) {
+				// can result from delimited identifiers containing newlines (very rare, but possible)
+				// treat these \r, \n chars the same as in captureItem()
+				if (debugging) dbgOutput("Newline or CR found in symtab item (removed): ["+line+"] ", debugSymtab||debugPtree);
+				line = line.replaceAll("\\n", " ");
+				line = line.replaceAll("\\r", " ");
+			}
+			line = line.trim();
+			if (line.isEmpty()) {
+				continue;
+			}
+			processSymTabLineRead(line);
+		}
+
+		int nrEntries = CompassSymTabFile.write(symTabFilePathName, symTabMaps());
+		if (debugging) dbgOutput("symtab entries written=["+nrEntries+"] ", debugSymtab);
+		clearSymTab();
+	}
+
+	// the symtab maps, in the order of the entry kinds in CompassSymTabFile
+	private static List<Map<String, String>> symTabMaps() {
+		return Arrays.asList(tableViewSymTab, SUDFSymTab, TUDFSymTab, UDDSymTab, procSymTab, trigSymTab, colSymTab, parSymTab,
+		                     SUDFNamesLikeXML, TUDFNamesLikeXML, SUDFNamesLikeHIERARCHYID);
+	}
+
+	// look up a symtab entry: entries in the heap (added in pass 2, or read from a text symtab) take precedence over
+	// the mapped symtab files. When multiple files are mapped, the last one read wins, as it did when all files were read into the same map
+	public static String lookupSymTab(int kind, String key) {
+		String value = symTabMaps().get(kind).get(key);
+		if (value != null) return value;
+		for (int i = symTabMapped.size()-1; i >= 0; i--) {
+			value = symTabMapped.get(i).lookup(kind, key);
+			if (value != null) return value;
+		}
+		return null;
+	}
+
+	// an INSTEAD OF trigger on a view (fully qualified name), or null: first in the mapped symtab files, then in the heap.
+	// A trigger in the index may have been redefined since, so its current definition is checked
+	public static String lookupInsteadOfTrig(String viewName) {
+		for (String trig : insteadOfTrigMapped.getOrDefault(viewName, Collections.emptyList())) {
+			if (isInsteadOfTrig(lookupSymTab(CompassSymTabFile.kindTrig, trig), viewName)) return trig;
+		}
+		for (Map.Entry<String, String> e : trigSymTab.entrySet()) {
+			if (isInsteadOfTrig(e.getValue(), viewName)) return e.getKey();
+		}
+		return null;
+	}
+
+	private static boolean isInsteadOfTrig(String trigAttributes, String viewName) {
+		if (trigAttributes == null) return false;
+		String[] attr = trigAttributes.split(symTabSeparator2);
+		return attr[0].equals("INSTEAD OF") && attr[1].equals(viewName);
+	}
+
+	// the symtab files of an app (or of all apps, with -symtab_all), merged into one file which is named after the files
+	// it was merged from. So it is built only once for the same symtab files; shards starting pass 2 at the same time
+	// wait for the one that builds it.
+	// Returns null if there is nothing to merge, or when a symtab file is in text format
+	private Path mergeSymTab(String reportName, List<Path> symTabFiles, String appName) throws IOException {
+		if (symTabFiles.size() < 2) return null;
+		CRC32 crc = new CRC32();
+		List<String> pathNames = new ArrayList<>();
+		for (Path p : symTabFiles) {
+			File f = p.toFile();
+			crc.update((f.getName() + ";" + f.length() + ";" + f.lastModified() + "\n").getBytes(StandardCharsets.UTF_8));
+			pathNames.add(p.toString());
 		}
+		String dirPath = getFilePathname(getReportDirPathname(reportName, importDirName, symTabDirName), symTabMergedDirName);
+		String prefix = symTabFileTag + "." + (appName.isEmpty() ? "" : appName + ".");
+		Path merged = Paths.get(getFilePathname(dirPath, prefix + String.format("%08x", crc.getValue()) + "." + symTabFileSuffix));
+		if (Files.exists(merged)) return merged;
+
+		checkDir(dirPath, false);
+		try (FileChannel lockChannel = FileChannel.open(Paths.get(getFilePathname(dirPath, symTabFileTag + ".lock")), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			FileLock lock = lockChannel.lock();
+			try {
+				if (Files.exists(merged)) return merged;
+				Path tmp = Files.createTempFile(Paths.get(dirPath), merged.getFileName().toString(), ".tmp");
+				try {
+					if (!CompassSymTabFile.merge(pathNames, tmp.toString())) return null;
+					try {
+						Files.move(tmp, merged, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+					} catch (AtomicMoveNotSupportedException e) {
+						Files.move(tmp, merged, StandardCopyOption.REPLACE_EXISTING);
+					}
+				} finally {
+					Files.deleteIfExists(tmp);
+				}
 
-		closeSymTabFile();
+				// remove merged files of earlier symtab files, while holding the lock so that no other process is building one;
+				// these may still be in use by another process
+				for (Path p : getFilesPattern(dirPath, escapeRegexChars(prefix) + "[0-9a-f]{8}\\." + symTabFileSuffix)) {
+					if (p.equals(merged)) continue;
+					try { Files.delete(p); } catch (IOException ignored) { }
+				}
+			} finally {
+				lock.release();
+			}
+		}
+		if (debugging) dbgOutput("merged "+symTabFiles.size()+" symtab files into "+merged, debugSymtab);
+		return merged;
 	}
 
 	// read symbol table
@@ -4601,6 +4822,7 @@ tooltipsHTMLPlaceholder +
 		File reportDir = new File(dirPath);
 
 		List<Path> symTabFiles = getFilesPattern(dirPath, ".+\\."+symTabFileTag+"\\..+"+ symTabFileSuffix);
+		List<Path> appSymTabFiles = new ArrayList<>();
 		for (Path sf: symTabFiles) {
 			// extract appname from symtab file
 			String symtabAppName = removeLastChar(getPatternGroup(sf.toString(), "^.+"+symTabFileTag+"\\.(.+)"+ symTabFileSuffix, 1));
@@ -4620,8 +4842,27 @@ tooltipsHTMLPlaceholder +
 					assert false : thisProc()+"unexpected branch";
 				}
 			}
+			appSymTabFiles.add(sf);
+		}
+
+		// look up in one merged symtab file rather than in the symtab file of each input file
+		Path mergedSymTabFile = mergeSymTab(reportName, appSymTabFiles, symTabAll ? "" : appName);
+		if (mergedSymTabFile != null) appSymTabFiles = Collections.singletonList(mergedSymTabFile);
+
+		for (Path sf: appSymTabFiles) {
 			symTabAppRead = appName;
 
+			CompassSymTabFile stf = CompassSymTabFile.open(sf.toString());
+			if (stf != null) {
+				// only the few names that are tested for as a group are kept in the heap, the rest is looked up in the mapped file
+				symTabMapped.add(stf);
+				SUDFNamesLikeXML.putAll(stf.entries(CompassSymTabFile.kindSUDFLikeXML));
+				TUDFNamesLikeXML.putAll(stf.entries(CompassSymTabFile.kindTUDFLikeXML));
+				SUDFNamesLikeHIERARCHYID.putAll(stf.entries(CompassSymTabFile.kindSUDFLikeHIERARCHYID));
+				continue;
+			}
+
+			// symtab file in text format, as written by earlier versions
 			FileInputStream fis = new FileInputStream(sf.toString());
 			InputStreamReader isr = new InputStreamReader(fis, StandardCharsets.UTF_8);
 			BufferedReader inFileReader = new BufferedReader(isr);
@@ -4647,7 +4888,21 @@ tooltipsHTMLPlaceholder +
 			}
 			inFileReader.close();
 		}
+		// built once here, as decoding all trigger entries of the mapped files for each lookup is expensive
+		Map<String, String> trigMapped = new LinkedHashMap<>();
+		for (CompassSymTabFile stf : symTabMapped) {
+			trigMapped.putAll(stf.entries(CompassSymTabFile.kindTrig));
+		}
+		for (Map.Entry<String, String> e : trigMapped.entrySet()) {
+			String[] trigAttributes = e.getValue().split(symTabSeparator2);
+			if (!trigAttributes[0].equals("INSTEAD OF")) continue;
+			insteadOfTrigMapped.computeIfAbsent(trigAttributes[1], v -> new ArrayList<>()).add(e.getKey());
+		}
+
 		int nrSymtab = (tableViewSymTab.size()+SUDFSymTab.size()+TUDFSymTab.size()+UDDSymTab.size()+colSymTab.size()+parSymTab.size()+procSymTab.size()+trigSymTab.size());
+		for (CompassSymTabFile stf : symTabMapped) {
+			for (int k = 0; k <= CompassSymTabFile.kindPar; k++) nrSymtab += stf.size(k);
+		}
 		if (debugging) dbgOutput("symtab entries=["+nrSymtab+"] ", debugSymtab);
 		if (debugSymtab) {
 			//dumpSymTab("after reading from disk");
@@ -4738,6 +4993,9 @@ tooltipsHTMLPlaceholder +
 		SUDFNamesLikeXML.clear();
 		TUDFNamesLikeXML.clear();
 		SUDFNamesLikeHIERARCHYID.clear();
+		for (CompassSymTabFile stf : symTabMapped) stf.close();
+		symTabMapped.clear();
+		insteadOfTrigMapped.clear();
 
 		symTabAppRead = "";
 	}
@@ -4856,9 +5114,9 @@ tooltipsHTMLPlaceholder +
 				appOutput("Report file "+reportFileHTMLPathName+" already exists. Overwriting...");
 			}
     	}
-		reportFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(reportFileTextPathName), StandardCharsets.UTF_8)));
+		reportFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(reportFileTextPathName), StandardCharsets.UTF_8)), reportFileBufferSize);
 		String now = new SimpleDateFormat("dd-MMM-yyyy HH:mm:ss").format(new Date());
-		reportFileWriterHTML = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(reportFileHTMLPathName), StandardCharsets.UTF_8)));
+		reportFileWriterHTML = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(reportFileHTMLPathName), StandardCharsets.UTF_8)), reportFileBufferSize);
 		String hdr = headerHTML + headerHTMLReport;
 		hdr = formatHeaderHTML(hdr, now, reportName, reportName, "", "");
 		hdr = formatToolTips(hdr);
@@ -4868,21 +5126,26 @@ tooltipsHTMLPlaceholder +
 
 	public void writeReportFile() throws IOException {
 		reportFileWriter.write("\n");
-		reportFileWriter.flush();
 		reportFileWriterHTML.write("\n");
-		reportFileWriterHTML.flush();
 	}
 
 	public void writeReportFile(StringBuilder line) throws IOException {
 		writeReportFile(line.toString());
 	}
 
+	public void writeReportFile(List<String> lines) throws IOException {
+		for (String line : lines) {
+			writeReportFile(line);
+		}
+	}
+
+	// the report files are flushed only when closed
 	public void writeReportFile(String line) throws IOException {
-		reportFileWriterHTML.write(line + "\n");
-		reportFileWriterHTML.flush();
+		reportFileWriterHTML.write(line);
+		reportFileWriterHTML.write('\n');
 		line = removeHTMLTags(line);
-		reportFileWriter.write(unEscapeHTMLChars(line) + "\n");
-		reportFileWriter.flush();
+		reportFileWriter.write(unEscapeHTMLChars(line));
+		reportFileWriter.write('\n');
 	}
 
 	public void closeReportFile() throws IOException {
@@ -4930,26 +5193,95 @@ tooltipsHTMLPlaceholder +
 
 	public String removeHTMLTags (String line) {
 		// for the .txt version, remove HTML tags
+		if (line.indexOf('<') < 0) return line;
 		if (line.contains("<a ")) {
-			line = applyPatternFirst(line,docLinkURL, docLinkURLText);
-			line = applyPatternAll(line,"<a class=.*?>", "");
-			line = applyPatternAll(line,"<a href=.*?>", "");
-			line = applyPatternAll(line,"<a name=.*?>", "");
-			line = applyPatternAll(line,"</a>", "");
-			line = applyPatternAll(line,backToToCText, "");
+			line = replaceFirstIgnoreCase(line,docLinkURL, docLinkURLText);
+			line = removeDelimited(line,"<a class=", ">");
+			line = removeDelimited(line,"<a href=", ">");
+			line = removeDelimited(line,"<a name=", ">");
+			line = replaceAllIgnoreCase(line,"</a>", "");
+			line = replaceAllIgnoreCase(line,backToToCText, "");
 		}
 		if (line.contains("<div ")) {
-			line = applyPatternAll(line,"<div class=.*?>", "");
-			line = applyPatternAll(line,"</div>", "");
-			line = applyPatternAll(line,hintIcon, " ");
+			line = removeDelimited(line,"<div class=", ">");
+			line = replaceAllIgnoreCase(line,"</div>", "");
+			line = replaceAllIgnoreCase(line,hintIcon, " ");
 		}
 
 		if (line.contains("<span ")) {
-			line = applyPatternAll(line,"<span class.*?</span>", "");
+			line = removeDelimited(line,"<span class", "</span>");
 		}
 		return line;
 	}
 
+	// text searches for the HTML-to-text conversion of report lines, without regexes.
+	// These match like a regex with Pattern.CASE_INSENSITIVE does: only ASCII letters are compared ignoring case
+	static boolean regionMatchesIgnoreCase(String s, int i, String lit) {
+		if (i + lit.length() > s.length()) return false;
+		for (int j = 0; j < lit.length(); j++) {
+			char c1 = s.charAt(i + j);
+			char c2 = lit.charAt(j);
+			if (c1 == c2) continue;
+			if (c1 >= 'A' && c1 <= 'Z') c1 += 'a' - 'A';
+			if (c2 >= 'A' && c2 <= 'Z') c2 += 'a' - 'A';
+			if (c1 != c2) return false;
+		}
+		return true;
+	}
+
+	static int indexOfIgnoreCase(String s, String lit, int from) {
+		for (int i = from; i + lit.length() <= s.length(); i++) {
+			if (regionMatchesIgnoreCase(s, i, lit)) return i;
+		}
+		return -1;
+	}
+
+	static String replaceAllIgnoreCase(String s, String lit, String replace) {
+		int i = indexOfIgnoreCase(s, lit, 0);
+		if (i < 0) return s;
+		StringBuilder result = new StringBuilder(s.length());
+		int from = 0;
+		while (i >= 0) {
+			result.append(s, from, i).append(replace);
+			from = i + lit.length();
+			i = indexOfIgnoreCase(s, lit, from);
+		}
+		return result.append(s, from, s.length()).toString();
+	}
+
+	static String replaceFirstIgnoreCase(String s, String lit, String replace) {
+		int i = indexOfIgnoreCase(s, lit, 0);
+		if (i < 0) return s;
+		return s.substring(0, i) + replace + s.substring(i + lit.length());
+	}
+
+	// removes text from start up to the first end on the same line, as replacing the regex 'start.*?end' by an empty string
+	static String removeDelimited(String s, String start, String end) {
+		StringBuilder result = null;
+		int from = 0;
+		int i = indexOfIgnoreCase(s, start, 0);
+		while (i >= 0) {
+			int j = i + start.length();
+			while (j < s.length() && !regionMatchesIgnoreCase(s, j, end) && !isLineTerminator(s.charAt(j))) j++;
+			if (j < s.length() && regionMatchesIgnoreCase(s, j, end)) {
+				if (result == null) result = new StringBuilder(s.length());
+				result.append(s, from, i);
+				from = j + end.length();
+				i = indexOfIgnoreCase(s, start, from);
+			}
+			else {
+				i = indexOfIgnoreCase(s, start, i + 1);
+			}
+		}
+		if (result == null) return s;
+		return result.append(s, from, s.length()).toString();
+	}
+
+	// the characters not matched by '.' in a regex
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
 	public String progressCnt(int currentCount, int totalCount) {
 		assert currentCount >= 1 : "currentCount must be >= 1";
 		assert totalCount >= 1 : "totalCount must be >= 1";
@@ -5303,15 +5635,39 @@ tooltipsHTMLPlaceholder +
 		return result;
 	}
 
-	public void reportXrefByFeature(String status, List<String> sortedList) throws IOException {
+	// iterate over one list after the other
+	private static <T> Iterable<T> concatIterable(Iterable<T> first, Iterable<T> second) {
+		return () -> new Iterator<T>() {
+			private final Iterator<T> it1 = first.iterator();
+			private final Iterator<T> it2 = second.iterator();
+
+			@Override
+			public boolean hasNext() {
+				return it1.hasNext() || it2.hasNext();
+			}
+
+			@Override
+			public T next() {
+				return it1.hasNext() ? it1.next() : it2.next();
+			}
+		};
+	}
+
+	// returns the lines for the report file
+	public List<String> reportXrefByFeature(String status, Iterable<CompassSortKey> sortedList) throws IOException {
 		StringBuilder lines = new StringBuilder(doXrefMsg(status, "feature"));
 		Integer skippedFilter = 0;
 		Integer countFilter = 0;
+		String title = "X-ref: '"+supportOptionsDisplay.get(supportOptions.indexOf(status))+"' by SQL feature";
+		CompassXrefPages pages = null;
+		// the xref sections may run in parallel, so each uses its own copy of the notes
+		String sectionRewriteNotes = rewriteNotes;
 
 		//progress indicator
 		printProgress();
 
 		if (doXref(status, "feature")) {
+			if (reportOptionXrefPages > 0) pages = newXrefPages(tagByFeature+status, title);
 			lines = new StringBuilder();
 			StringBuilder linesTmp = new StringBuilder();
 			StringBuilder hdr = new StringBuilder();
@@ -5339,17 +5695,19 @@ tooltipsHTMLPlaceholder +
 			StringBuilder prevSrcFile = new StringBuilder();
 			StringBuilder appName = new StringBuilder();
 			StringBuilder prevAppName = new StringBuilder();
+			// the file linked to for lines without a file name; with -reportonly, from the items, as the sections are generated in parallel
+			String inputFile = importFilePathName;
 
 			List<String> lineNrs = new ArrayList<String>();
 			List<String> lineNrsBatch = new ArrayList<String>();
 			Integer itemCount = 0;
 			boolean initLineNr = false;
 
-			for (String s: sortedList) {
+			for (CompassSortKey s: sortedList) {
 				if ((!s.startsWith(status)) && (!s.startsWith(lastItem))) continue;
 				//if (debugging) dbgOutput(thisProc()+"s=["+s+"] ", debugReport);
 
-				List<String> sortedFields = new ArrayList<String>(Arrays.asList(s.split(sortKeySeparator)));
+				List<String> sortedFields = s.getFields();
 				group = new StringBuilder(sortedFields.get(1).substring(groupSortLength));
 				item = new StringBuilder(sortedFields.get(2));
 				appName = new StringBuilder(sortedFields.get(3));
@@ -5365,7 +5723,7 @@ tooltipsHTMLPlaceholder +
 
 				if (Compass.reportOnly) {
 					if (!s.startsWith(lastItem)) {
-						importFilePathName = srcFile.toString();
+						inputFile = srcFile.toString();
 					}
 				}
 
@@ -5400,7 +5758,7 @@ tooltipsHTMLPlaceholder +
 						lines.append(hdr).append(itemCount.toString()).append(") "+itemComplexity+"\n");
 
 						// complete current line
-						linesTmp.append(completeLineByFeature(status, linesTmp, lineNrs, lineNrsBatch, prevContext, prevBatchNr, prevLineNrInFile, prevSrcFile, prevAppName));
+						linesTmp.append(completeLineByFeature(status, linesTmp, lineNrs, lineNrsBatch, prevContext, prevBatchNr, prevLineNrInFile, prevSrcFile, prevAppName, inputFile));
 						lineNrs.clear();
 						lineNrsBatch.clear();
 						if (debugging) dbgOutput(thisProc()+"item change, completing current line, linesTmp=["+linesTmp+"] context=["+context+"] prevContext=["+prevContext+"] ", debugReport);
@@ -5409,6 +5767,10 @@ tooltipsHTMLPlaceholder +
 						lines.append("\n");
 						hdr.setLength(0);
 						itemCount = 0;
+						if (pages != null) {
+							pages.add(lines, prevItem.toString());
+							lines.setLength(0);
+						}
 
 						// new line
 						linesTmp.setLength(0);
@@ -5445,7 +5807,7 @@ tooltipsHTMLPlaceholder +
 				else {
 					if (linesTmp.length() > 0) {
 						// complete previous line
-						linesTmp.append(completeLineByFeature(status, linesTmp, lineNrs, lineNrsBatch, prevContext, prevBatchNr, prevLineNrInFile, prevSrcFile, prevAppName));
+						linesTmp.append(completeLineByFeature(status, linesTmp, lineNrs, lineNrsBatch, prevContext, prevBatchNr, prevLineNrInFile, prevSrcFile, prevAppName, inputFile));
 						if (debugging) dbgOutput(thisProc()+"new line, changed context, completing current line completed linesTmp=["+linesTmp+"] ", debugReport);
 					}
 
@@ -5470,7 +5832,7 @@ tooltipsHTMLPlaceholder +
 			}
 		}
 		else {
-			if (status.equals(Rewritten)) rewriteNotes = "";
+			if (status.equals(Rewritten)) sectionRewriteNotes = "";
 		}
 
 		String filterMsg = "";
@@ -5478,43 +5840,57 @@ tooltipsHTMLPlaceholder +
 			filterMsg = "Filter applied: "+skippedFilter.toString()+" of " + countFilter.toString()+" items skipped by filter '"+reportOptionFilter+"'\n\n";
 		}
 
+		if (pages != null) {
+			lines = new StringBuilder(closeXrefPages(pages, tagByFeature+status, title));
+		}
+
 		if (lines.toString().trim().length() == 0) {
 			lines = new StringBuilder("-no items to report-\n");
 		}
-		writeReportFile();
-		writeReportFile(composeSeparatorBar("X-ref: '"+supportOptionsDisplay.get(supportOptions.indexOf(status))+"' by SQL feature", tagByFeature+status));
-		writeReportFile(filterMsg);
-		if (status.equals(Rewritten) && !rewriteNotes.isEmpty()) {
-			writeReportFile(rewriteNotes);
+		List<String> result = new ArrayList<>();
+		result.add("");
+		result.add(composeSeparatorBar(title, tagByFeature+status));
+		result.add(filterMsg);
+		if (status.equals(Rewritten) && !sectionRewriteNotes.isEmpty()) {
+			result.add(sectionRewriteNotes);
 		}
-		writeReportFile(lines);
+		result.add(lines.toString());
+		return result;
 	}
 
-	private String completeLineByFeature(String status, StringBuilder linesTmp, List<String> lineNrs, List<String> lineNrsBatch, StringBuilder prevContext, StringBuilder prevBatchNr, StringBuilder prevLineNrInFile, StringBuilder srcFile, StringBuilder appName) {
+	private String completeLineByFeature(String status, StringBuilder linesTmp, List<String> lineNrs, List<String> lineNrsBatch, StringBuilder prevContext, StringBuilder prevBatchNr, StringBuilder prevLineNrInFile, StringBuilder srcFile, StringBuilder appName, String inputFile) {
 		String inFile = reportInputFileFmt;
 		if (reportShowSrcFile) inFile = srcFile.toString();
-		String ln = makeLineNrList(status, lineNrs, lineNrsBatch, inFile, appName.toString());
+		String ln = makeLineNrList(status, lineNrs, lineNrsBatch, inFile, inputFile, appName.toString());
 
 		if (!reportShowBatchNr.isEmpty()) {
-			ln += " in batch "+ prevBatchNr.toString() + " (at line " + hLink(status, Integer.parseInt(prevLineNrInFile.toString()),inFile, appName.toString())+")";
+			int lineNrInFile = Integer.parseInt(prevLineNrInFile.toString());
+			ln += " in batch "+ prevBatchNr.toString() + " (at line " + hLink(status, lineNrInFile, inFile, inputFile, appName.toString(), lineNrInFile)+")";
 		}
 
 		if (reportShowSrcFile && !inFile.equals(reportInputFileFmt)) {
-			ln += " in " + hLink(status, inFile, appName.toString());
+			ln += " in " + hLink(status, inFile, inputFile, appName.toString());
 		}
 		if (reportShowAppName) ln += ", app "+ appName;
 		return ln + "\n";
 	}
 
-	public void reportXrefByObject(String status, List<String> sortedList) throws IOException {
+	// returns the lines for the report file
+	public List<String> reportXrefByObject(String status, Iterable<CompassSortKey> sortedList) throws IOException {
 		StringBuilder lines = new StringBuilder(doXrefMsg(status, "object")+"\n");
 		Integer skippedFilter = 0;
 		Integer countFilter = 0;
+		String title = "X-ref: '"+supportOptionsDisplay.get(supportOptions.indexOf(status))+"' by object";
+		CompassXrefPages pages = null;
+		String sectionRewriteNotes = rewriteNotes;
+		String blockLabel = "";
+		String blockAnchor = null;
 
 		//progress indicator
 		printProgress();
 
 		if (doXref(status, "object")) {
+			if (reportOptionXrefPages > 0) pages = newXrefPages(tagByObject+status, title);
 			lines = new StringBuilder();
 			StringBuilder hdr = new StringBuilder();
 			StringBuilder contextSort = new StringBuilder();
@@ -5539,11 +5915,11 @@ tooltipsHTMLPlaceholder +
 			List<String> lineNrs = new ArrayList<String>();
 			List<String> lineNrsBatch = new ArrayList<String>();
 
-			for (String s: sortedList) {
+			for (CompassSortKey s: sortedList) {
 				if ((!s.startsWith(status)) && (!s.startsWith(lastItem))) continue;
 				//if (debugging) dbgOutput(thisProc()+"s=["+s+"] ", debugReport);
 
-				List<String> sortedFields = new ArrayList<String>(Arrays.asList(s.split(sortKeySeparator)));
+				List<String> sortedFields = s.getFields();
 				context = new StringBuilder(sortedFields.get(1));
 				appName = new StringBuilder(sortedFields.get(2));
 				srcFile = new StringBuilder(getSrcFileNameMap(sortedFields.get(3)));
@@ -5605,7 +5981,13 @@ tooltipsHTMLPlaceholder +
 					if (!init) init = true;
 					else lines.append("\n");
 
+					if ((pages != null) && (lines.length() > 0)) {
+						addXrefObjectBlock(pages, lines, blockLabel, blockAnchor);
+					}
+
 					String anchor = makeObjectAnchor(context.toString(), appName.toString());
+					blockLabel = context.toString();
+					blockAnchor = objectAnchorsMap.get(getObjectAnchorKey(context.toString(), appName.toString()));
 
 					lines.append(anchor + context);
 					lines.append(", batch ");
@@ -5659,9 +6041,12 @@ tooltipsHTMLPlaceholder +
 				prevSrcFile = new StringBuilder(srcFile);
 				prevAppName = new StringBuilder(appName);
 			}
+			if ((pages != null) && (lines.length() > 0)) {
+				addXrefObjectBlock(pages, lines, blockLabel, blockAnchor);
+			}
 		}
 		else {
-			if (status.equals(Rewritten)) rewriteNotes = "";
+			if (status.equals(Rewritten)) sectionRewriteNotes = "";
 		}
 
 		String filterMsg = "";
@@ -5669,23 +6054,56 @@ tooltipsHTMLPlaceholder +
 			filterMsg = "Filter applied: "+skippedFilter.toString()+" of " + countFilter.toString()+" items skipped by filter '"+reportOptionFilter+"'\n\n";
 		}
 
+		if (pages != null) {
+			lines = new StringBuilder(closeXrefPages(pages, tagByObject+status, title));
+		}
+
 		if (lines.toString().trim().length() == 0) {
 			lines = new StringBuilder("-no items to report-\n");
 		}
-		writeReportFile();
-		writeReportFile(composeSeparatorBar("X-ref: '"+supportOptionsDisplay.get(supportOptions.indexOf(status))+"' by object", tagByObject+status));
-		writeReportFile(filterMsg);
-		if (status.equals(Rewritten) && !rewriteNotes.isEmpty()) {
-			writeReportFile(rewriteNotes);
+		List<String> result = new ArrayList<>();
+		result.add("");
+		result.add(composeSeparatorBar(title, tagByObject+status));
+		result.add(filterMsg);
+		if (status.equals(Rewritten) && !sectionRewriteNotes.isEmpty()) {
+			result.add(sectionRewriteNotes);
 		}
-		writeReportFile(lines);
+		result.add(lines.toString());
+		return result;
+	}
+
+	// X-ref pages for a section of the report
+	private CompassXrefPages newXrefPages(String tag, String title) {
+		return new CompassXrefPages(xrefPagesDirPath, xrefDirName, tag.toLowerCase(), xrefPageHeader(title), title, reportOptionXrefPages);
+	}
+
+	// HTML header for X-ref pages, which are in a subdirectory of the report directory: links are relative to the report directory
+	private String xrefPageHeader(String title) {
+		String now = new SimpleDateFormat("dd-MMM-yyyy HH:mm:ss").format(new Date());
+		String hdr = headerHTML + "<base href=\"../\" />\n" + headerHTMLReport.replaceFirst(tooltipsHTMLPlaceholder, "");
+		return formatHeaderHTML(hdr, now, reportName, reportName + ": " + title, "", "");
+	}
+
+	// completes the pages of a section; returns the list of pages for the report file
+	private String closeXrefPages(CompassXrefPages pages, String tag, String title) throws IOException {
+		pages.close();
+		if (pages.getNrPages() == 0) return "";
+		String pageList = pages.pageList(lineIndent);
+		xrefPagesIndex.put(tag, title + "\n" + pageList);
+		return "X-ref written to " + pages.getNrPages() + " page(s) in " + xrefPagesDirPath + ":\n" + pageList;
+	}
+
+	private void addXrefObjectBlock(CompassXrefPages pages, StringBuilder lines, String label, String anchor) throws IOException {
+		String page = pages.add(lines, label);
+		if (anchor != null) objectAnchorPages.putIfAbsent(anchor, page);
+		lines.setLength(0);
 	}
 
 	private String completeLineByObject(String status, List<String> lineNrs, List<String> lineNrsBatch, StringBuilder srcFile, StringBuilder appName) {
 		String inFile = reportInputFileFmt;
 		if (reportShowSrcFile) inFile = srcFile.toString();
 
-		String ln = makeLineNrList(status, lineNrs, lineNrsBatch, inFile, appName.toString());
+		String ln = makeLineNrList(status, lineNrs, lineNrsBatch, inFile, importFilePathName, appName.toString());
 //		if (reportShowSrcFile && !inFile.equals(reportInputFileFmt)) {
 //			ln += " in " + hLink(inFile, appName.toString());
 //		}
@@ -5725,7 +6143,7 @@ tooltipsHTMLPlaceholder +
 		return s;
 	}
 
-	private String makeLineNrList(String status, List<String> lineNrs, List<String> lineNrsBatch, String fileName, String appName) {
+	private String makeLineNrList(String status, List<String> lineNrs, List<String> lineNrsBatch, String fileName, String inputFile, String appName) {
 		int nrLineNrs = lineNrs.size();
 		String xtra = "";
 		if (maxLineNrsInList < nrLineNrs) {
@@ -5741,7 +6159,7 @@ tooltipsHTMLPlaceholder +
 				int batchLineNr = Integer.parseInt(lineNrsBatch.get(i));
 				adjLineNr = batchLineNr + lineNr - 1;
 			}
-			joined += hLink(status, lineNr, fileName, appName, adjLineNr);
+			joined += hLink(status, lineNr, fileName, inputFile, appName, adjLineNr);
 		}
 		return joined.trim() + xtra;
 	}
@@ -5903,6 +6321,10 @@ tooltipsHTMLPlaceholder +
 	}
 
 	private String hLink (String status, String file, String appName) {
+		return hLink(status, file, importFilePathName, appName);
+	}
+	// 'inputFile' is linked to when 'file' is reportInputFileFmt
+	private String hLink (String status, String file, String inputFile, String appName) {
 		String line = "";
 		String thisFile = reportInputFileFmt;
 		if (status.equals(Rewritten)) {
@@ -5912,7 +6334,7 @@ tooltipsHTMLPlaceholder +
 		}
 
 		if (file.equals(reportInputFileFmt)) {
-			line = "<a href=\""+ hLinkFileName(status, importFilePathName, appName) +"\""+tgtBlank+">"+thisFile+"</a>";
+			line = "<a href=\""+ hLinkFileName(status, inputFile, appName) +"\""+tgtBlank+">"+thisFile+"</a>";
 		}
 		else {
 			String hLinkFile = hLinkFileName(status, file, appName);
@@ -5928,9 +6350,9 @@ tooltipsHTMLPlaceholder +
 	}
 
 	private String hLink (String status, Integer lineNr, String file, String appName) {
-		return hLink(status, lineNr, file, appName, lineNr);
+		return hLink(status, lineNr, file, importFilePathName, appName, lineNr);
 	}
-	private String hLink (String status, Integer lineNr, String file, String appName, Integer lineNrDisplay) {
+	private String hLink (String status, Integer lineNr, String file, String inputFile, String appName, Integer lineNrDisplay) {
 		if (status.equals(Rewritten)) {
 			// adjust line numbers in case of rewrite
 			if (offsetLines.size() > 0) {
@@ -5950,7 +6372,7 @@ tooltipsHTMLPlaceholder +
 
 		String line = "";
 		if (file.equals(reportInputFileFmt)) {
-			line = "<a href=\""+ hLinkFileName(status, importFilePathName, appName) +"#"+lineNrDisplay.toString()+"\""+tgtBlank+">"+lineNr.toString()+"</a>";
+			line = "<a href=\""+ hLinkFileName(status, inputFile, appName) +"#"+lineNrDisplay.toString()+"\""+tgtBlank+">"+lineNr.toString()+"</a>";
 		}
 		else {
 			line = "<a href=\""+ hLinkFileName(status, file, appName) +"#"+lineNrDisplay.toString()+"\""+tgtBlank+">"+lineNr.toString()+"</a>";
@@ -5982,7 +6404,8 @@ tooltipsHTMLPlaceholder +
 		String anchorKey = getObjectAnchorKey(context, appName);
 		String anchor = objectAnchorsMap.get(anchorKey);
 		if (anchor != null) {
-			anchor = "<a href=\"#" + "obj" + anchor + "\">";
+			String page = objectAnchorPages.getOrDefault(anchor, "");
+			anchor = "<a href=\"" + page + "#" + "obj" + anchor + "\">";
 		}
 		else {
 			anchor = "";
@@ -6028,7 +6451,7 @@ tooltipsHTMLPlaceholder +
 	private String getGroupSortKey(String group) {
 		int sortGroup = 0;
 		if (reportGroupSortAdjustment.containsKey(group.toUpperCase())) sortGroup = reportGroupSortAdjustment.get(group.toUpperCase());
-		String sortKey = String.format("%0"+groupSortLength.toString()+"d", sortGroup) + group;
+		String sortKey = zeroPad(sortGroup, groupSortLength) + group;
 		return sortKey;
 	}
 
@@ -6111,6 +6534,456 @@ tooltipsHTMLPlaceholder +
 		return s;
 	}
 
+	// adds the results read from a capture file to the report; called for the capture files in their order
+	private void addCaptureAggregate(CompassCaptureAggregate total, CompassCaptureAggregate part, CompassExternalSort xRefByFeature, CompassExternalSort xRefByObject) throws IOException {
+		for (String m : part.msgs) {
+			appOutput(m);
+		}
+		total.add(part);
+
+		// rewrite opportunities found after a rewritten item are discarded
+		if (!rewrite) {
+			for (Map.Entry<String, Integer> e : part.rewriteOpptyItems.entrySet()) {
+				if (!rewriteOppties.containsKey(e.getKey())) {
+					rewriteOppties.put(rewriteOpptiesUnique, rewriteOppties.getOrDefault(rewriteOpptiesUnique, 0)+1);
+				}
+				rewriteOppties.put(e.getKey(), rewriteOppties.getOrDefault(e.getKey(), 0)+e.getValue());
+				rewriteOppties.put(rewriteOpptiesTotal, rewriteOppties.getOrDefault(rewriteOpptiesTotal, 0)+e.getValue());
+			}
+		}
+		if (part.rewritten > 0) {
+			// in case we run only a report, don't miss out any rewritten cases
+			rewrite = true;
+			if (rewriteReportOnly) nrRewritesDone += part.rewritten;
+		}
+
+		for (String[] x : part.xrefOnlyItems) {
+			getXrefOnlyMappings(x[0], x[1], x[2], x[3]);
+		}
+
+		// source files are numbered in the order they are first found
+		String[] srcFileIx = new String[part.srcFiles.size()];
+		for (Map.Entry<String, Integer> e : part.srcFiles.entrySet()) {
+			srcFileIx[e.getValue()] = addSrcFileNameMap(e.getKey());
+		}
+		for (CompassCaptureAggregate.SrcFileKey k : part.contextLinks) {
+			contextLinkMap.put(k.partition, k.key(srcFileIx[k.srcFile]).toString());
+		}
+		for (CompassCaptureAggregate.SrcFileKey k : part.xrefByFeature) {
+			xRefByFeature.add(k.partition, k.key(srcFileIx[k.srcFile]));
+		}
+		for (CompassCaptureAggregate.SrcFileKey k : part.xrefByObject) {
+			xRefByObject.add(k.partition, k.key(srcFileIx[k.srcFile]));
+		}
+	}
+
+	// reads a capture file for the report; this may run in parallel with reading other capture files, so the results are
+	// only collected in the returned aggregate.
+	// Without X-ref, the aggregate is taken from the capture file's sidecar file when that was written for the same
+	// capture file contents. Otherwise the capture file is read, and the sidecar file is written for later reports.
+	// Statuses are resolved again when the capture file was written for another Babelfish version than the report is for.
+	private CompassCaptureAggregate readCaptureFile(Path cf, boolean showObjectIssuesList, CompassSortKey.Dictionary dict) throws IOException {
+		String cfVersion = captureFileAttribute(captureFileFirstLine(cf.toString()), 2);
+		String resolveVersion = cfVersion.equals(targetBabelfishVersion) ? null : targetBabelfishVersion;
+		String sidecar = cf.toString() + "." + captureAggSuffix;
+		String sidecarVersion = thisProgVersion + " " + thisProgVersionDate;
+		// resolved statuses also depend on the .cfg files, so these are not kept in the sidecar
+		boolean useSidecar = (resolveVersion == null);
+		if (useSidecar && reportOptionXref.isEmpty() && new File(sidecar).exists()) {
+			CompassCaptureAggregate agg = CompassCaptureAggregate.readSidecar(sidecar, sidecarVersion, fileHash(cf));
+			if (agg != null) {
+				if (debugging) dbgOutput(thisProc() + "using sidecar=[" + sidecar + "]", debugReport);
+				return agg;
+			}
+		}
+
+		MessageDigest md;
+		try {
+			md = MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		CompassCaptureAggregate agg;
+		try (DigestInputStream cfis = new DigestInputStream(new FileInputStream(new File(cf.toString())), md)) {
+			agg = readCaptureFile(cf, cfis, showObjectIssuesList, dict, cfVersion, resolveVersion);
+		}
+		if (!useSidecar) return agg;
+		try {
+			agg.writeSidecar(sidecar, sidecarVersion, md.digest());
+		} catch (IOException e) {
+			// the sidecar is only an optimization
+			if (debugging) dbgOutput(thisProc() + "cannot write sidecar=[" + sidecar + "]: " + e.getMessage(), debugReport);
+		}
+		return agg;
+	}
+
+	// MD5 hash of a file's contents
+	private static byte[] fileHash(Path f) throws IOException {
+		try {
+			MessageDigest md = MessageDigest.getInstance("MD5");
+			try (InputStream in = new FileInputStream(f.toFile())) {
+				byte[] buf = new byte[256 * 1024];
+				int n;
+				while ((n = in.read(buf)) > 0) {
+					md.update(buf, 0, n);
+				}
+			}
+			return md.digest();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private CompassCaptureAggregate readCaptureFile(Path cf, InputStream cfis, boolean showObjectIssuesList, CompassSortKey.Dictionary dict, String cfVersion, String resolveVersion) throws IOException {
+		CompassCaptureAggregate agg = new CompassCaptureAggregate(false);
+		String statusKey = null;
+		int statusKeyCount = 0;
+		Map<String, String> resolvedStatus = new HashMap<>();
+		InputStreamReader cfisr = new InputStreamReader(cfis, StandardCharsets.UTF_8);
+		BufferedReader capFile = new BufferedReader(cfisr);
+		if (debugging) dbgOutput(thisProc() + "reading captureFile=[" + cf + "]", debugReport);
+
+		String capLine = "";
+		// rewrite opportunities after the first rewritten item are discarded
+		boolean rewriteFound = false;
+
+		while (true) {
+			capLine = capFile.readLine();
+			if (capLine == null) {
+				//EOF
+				break;
+			}
+			capLine = capLine.trim();
+			if (capLine.isEmpty()) continue;
+			if (capLine.charAt(0) == '#') {
+				if (capLine.startsWith(statusKeyLineTag)) {
+					statusKey = capLine.substring(statusKeyLineTag.length());
+					statusKeyCount++;
+					continue;
+				}
+				if (agg.capCount == 0) {
+					if (debugging) dbgOutput("first line of cf=[" + cf.toString() + "] : [" + capLine + "] ", debugReport);
+				}
+				continue;
+			}
+			// a status key applies to the next line only
+			String itemStatusKey = statusKey;
+			statusKey = null;
+			agg.capCount++;
+			if (debugging) if (agg.capCount%100000 == 0) dbgOutput("read "+agg.capCount, debugReport);
+
+			// check for metrics lines
+			if (capLine.charAt(0) == metricsLineChar1) {
+				String metricsLine = getPatternGroup(capLine, "^." + metricsLineTag + metricsLineChar2 + "(.*)$", 1);
+
+				assert !metricsLine.isEmpty() : "metricsLine cannot be blank";
+
+				List<String> tmpList = new ArrayList<String>(Arrays.asList(metricsLine.split(captureFileSeparator)));
+				String srcFileTmp = tmpList.get(0);
+				String appNameTmp = tmpList.get(1);
+				agg.totalBatches += Integer.parseInt(tmpList.get(2));
+				agg.totalErrorBatches += Integer.parseInt(tmpList.get(3));
+				int loc = Integer.parseInt(tmpList.get(4));
+				agg.totalLinesDDL += loc;
+				agg.appCount.put(appNameTmp, agg.appCount.getOrDefault(appNameTmp, 0) + loc);
+				agg.srcFileCount.put(srcFileTmp, agg.srcFileCount.getOrDefault(srcFileTmp, 0) + 1);
+
+				continue;
+			}
+			//un-escape backslashes
+			if (capLine.contains("\\\\")) {
+				capLine = applyPatternAll(capLine, "\\\\\\\\", "\\\\");
+			}
+
+			List<String> itemList = new ArrayList<String>(Arrays.asList(capLine.split(captureFileSeparator)));
+			// sanity checks on #fields on the line read
+			if (itemList.size() < capPosLastField) {
+				agg.msgs.add("\nError at line "+agg.capCount+" of "+cf.toString()+":");
+				agg.msgs.add("Invalid capture item read: expected "+(capPosLastField)+" fields, found "+itemList.size()+". Skipping this item:");
+				agg.msgs.add("["+capLine+"]");
+				continue;
+			}
+			
+			
+
+			String objType = getPatternGroup(itemList.get(capPosItem), "^CREATE (OR ALTER )?(.*)$", 2);
+			if (objType.isEmpty()) {
+				objType = getPatternGroup(itemList.get(capPosItem), "^Constraint (.*?)(\\(.*)?$", 1);
+				String objTypeTmp = getPatternGroup(objType, "^(.*?),.*$", 1);
+				objType = objTypeTmp.isEmpty() ? objType : objTypeTmp;
+				if (!objType.isEmpty()) {
+					objType = "constraint " + objType;
+				}
+			}
+			else {
+				if (objType.startsWith("TYPE")) {
+					objType = objType.replaceFirst("TYPE", "user-defined datatype (UDD)");
+				}
+				else if (objType.startsWith("INDEX")) {
+					objType = objType.replaceFirst("INDEX", "index");
+				}
+				else if (objType.startsWith("DATABASE")) {
+					objType = objType.substring(0, "DATABASE".length());
+				}
+				else if (objType.startsWith("PROCEDURE")) {
+					objType = "PROCEDURE";
+				}
+			}
+			String item = itemList.get(capPosItem).replaceAll(captureFileSeparatorMarker, captureFileSeparator);
+			String itemDetail = itemList.get(capPosItemDetail).replaceAll(captureFileSeparatorMarker, captureFileSeparator);
+			String itemGroup = itemList.get(capPosItemGroup).replaceAll(captureFileSeparatorMarker, captureFileSeparator);
+			String status = itemList.get(capPosStatus);
+			if ((itemStatusKey != null) && (resolveVersion != null)) {
+				String resolved = resolvedStatus.computeIfAbsent(itemStatusKey, k -> CompassConfig.resolveStatusKey(resolveVersion, k));
+				if (resolved != null) {
+					if (status.equals(Supported) && !resolved.equals(Supported)) {
+						// the analysis did not link this item to its .cfg section for complexity and effort, as it was supported
+						String[] cfgCheck = CompassConfig.statusKeyCfgCheck(itemStatusKey);
+						agg.xrefOnlyItems.add(new String[] {itemList.get(capPosItem).replaceAll(captureFileSeparatorMarker, captureFileSeparator), itemList.get(capPosItemGroup).replaceAll(captureFileSeparatorMarker, captureFileSeparator).trim(), cfgCheck[0], cfgCheck[1]});
+					}
+					status = resolved;
+				}
+			}
+			String lineNr = itemList.get(capPosLineNr);
+			String context = itemList.get(capPosContext).replaceAll(captureFileSeparatorMarker, captureFileSeparator);
+			String subContext = itemList.get(capPosSubContext).replaceAll(captureFileSeparatorMarker, captureFileSeparator);
+			String appName = itemList.get(capPosAppName);
+			String batchNr = itemList.get(capPosBatchNr);
+			String lineNrInFile = itemList.get(capPosLineNrInFile);
+			String srcFile = itemList.get(capPosSrcFile);
+			String misc = itemList.get(capPosMisc);
+
+			if (debugging) dbgOutput(thisProc() + "capLine=[" + capLine + "] objType=[" + objType + "] item=[" + item + "] itemDetail=[" + itemDetail + "] itemGroup=[" + itemGroup + "] status=[" + status + "] lineNr=[" + lineNr + "] misc=[" + misc + "] ", debugReport);
+			assert supportOptions.contains(status) : "Invalid status value[" + status + "] in line=[" + capLine + "] ";
+
+			// skip dependency records
+			if (status.equals(ObjectReference)) {
+				continue;
+			}
+			
+			// filter out the rewriteoppty cases before going any further
+			if (status.equals(RewriteOppty)) {
+				if (!rewriteFound) {
+					// report the oppties
+					agg.rewriteOpptyItems.put(item, agg.rewriteOpptyItems.getOrDefault(item, 0)+1);
+				}
+				else {
+					// report the actual rewritten case, discard the oppties
+				}
+				continue;
+			}
+
+			if (!objType.isEmpty()) {
+				if (!status.equals(Ignored) && (!status.equals(XRefOnly))) {
+					// massage the object type strings to the format we need for the object count output section
+					if ((!objType.equals("constraint column DEFAULT")) && (!objType.equals("constraint PRIMARY KEY/UNIQUE"))) {
+						objType = applyPatternFirst(objType, "^(.*?,.*?),.*$", "$1");
+						if (objType.startsWith("PARTITION FUNCTION,")) objType = "PARTITION FUNCTION";
+						if (objType.startsWith("TRIGGER,")) objType = "TRIGGER";
+						if (objType.startsWith("SYNONYM")) objType = "SYNONYM";
+						if (objType.startsWith("TRIGGER (DDL")) {
+							objType = "TRIGGER (DDL)";
+							if (misc.equals("0")) {
+								// this comes from a multi-action DDL trigger, count avoid counting double
+								agg.objTypeCount.put(objType, agg.objTypeCount.getOrDefault(objType, 0) - 1);
+							}
+						}
+						objType = objType.replaceFirst(", external", "");
+						objType = objType.replaceFirst(", CLUSTERED", "");
+						if (objType.contains("<"))  // for cases like CREATE xxx <somename>
+							objType = objType.substring(0,objType.indexOf("<"));
+						if (objType.contains("&"))  // for cases like CREATE xxx &gt;somename&lt;
+							objType = objType.substring(0,objType.indexOf("&"));
+						if (objType.contains(captureFileSeparatorMarker))
+							objType = getPatternGroup(objType, "^(.*?)\\s*\\b\\w*" + captureFileSeparatorMarker + ".*$", 1);       // for proc versioning
+						objType = objType.trim();
+						agg.objTypeCount.put(objType, agg.objTypeCount.getOrDefault(objType, 0) + 1);
+						if (debugging) dbgOutput(thisProc() + "counting objType=[" + objType + "]=["+agg.objTypeCount.get(objType)+"] ", debugReport);
+						int loc = 0;
+						if (!misc.isEmpty()) loc = Integer.parseInt(misc);
+						agg.objTypeLineCount.put(objType, agg.objTypeLineCount.getOrDefault(objType, 0) + loc);  // misc contains #lines for procedural CREATE object stmts
+						agg.linesSQLInObjects += loc;
+
+						if (item.startsWith("CREATE ")) {
+							if (objType.startsWith("PROCEDURE") || objType.startsWith("FUNCTION") || objType.startsWith("TRIGGER") || objType.startsWith("TABLE") || objType.startsWith("VIEW")) {
+								if (!objType.startsWith("TABLE ")) {  // skip table type -- note the space!
+									String key = (itemDetail + sortKeySeparator + appName).toUpperCase();
+									if (!agg.objTypeMap.containsKey(key)) {
+										if (showObjectIssuesList) {
+											agg.objTypeMapCase.put(itemDetail + sortKeySeparator + appName, objType);
+										}
+									}
+									agg.objTypeMap.put(key, objType);
+									agg.objTypeMapCount.put(itemDetail.toUpperCase(), agg.objTypeMapCount.getOrDefault(itemDetail.toUpperCase(), 0)+1);
+									if (debugging) dbgOutput(thisProc() + "objType=[" + objType + "] for key=["+key+"] ", debugReport);
+								}
+							}
+						}
+
+					}
+				}
+			}
+
+			// count columns for tables; put this in agg.objTypeLineCount as well
+			if ((item.endsWith(" column")) || (item.startsWith("Computed column"))) {
+				String tabType = "";
+				if (context.startsWith("TABLE ")) {
+					tabType = context.substring(6);
+				}
+				else if (subContext.startsWith("TABLE ")) {
+					tabType = subContext.substring(6);
+				}
+				if (!tabType.isEmpty()) {
+					String tabTypeReport = "TABLE " + CompassAnalyze.getTmpTableType(tabType);
+					tabTypeReport = tabTypeReport.trim();
+					agg.objTypeLineCount.put(tabTypeReport, agg.objTypeLineCount.getOrDefault(tabTypeReport, 0) + 1);
+				}
+			}
+
+			// for items logged only to drive the object count, stop here
+			if (status.equals(ObjCountOnly)) {
+				continue;
+			}
+			// for items logged only to xref the report to the original cfg sections, put 'm in a buffer and discard
+			if (status.equals(XRefOnly)) {
+				//appOutput(thisProc()+"XRefOnly line=["+capLine+"] ");
+				agg.xrefOnlyItems.add(new String[] {item, itemGroup, lineNr, appName});
+				continue;
+			}
+
+			String statusUnique = status+uniqueCntTag;
+			String itemUnique = status+miscDelimiter+item;
+			agg.addStatusItem(status, itemUnique, statusUnique);
+
+			if (!reportOptionXref.isEmpty()) {
+				// collect info for links to object definitions
+				if (!misc.isEmpty() && (capLine.startsWith("CREATE ") || capLine.startsWith("ALTER "))) {
+					String contextKey = context;
+					if (context.equals(BatchContext)) {
+						if (capLine.startsWith("CREATE VIEW")) {
+							contextKey = "VIEW " + itemDetail;
+						}
+						else {
+							contextKey = null;
+						}
+					}
+					if (contextKey != null) {
+						int ln = Integer.parseInt(lineNrInFile)+Integer.parseInt(lineNr)-1;
+						contextKey += sortKeySeparator + appName;
+						agg.contextLinks.add(new CompassCaptureAggregate.SrcFileKey(contextKey.toUpperCase(), agg.srcFileIx(srcFile), 2, Integer.toString(ln), appName, null));
+					}
+				}
+			}
+
+			// count issues per object
+			boolean skipItemIssue = false;
+			if (status.equals(Rewritten)) {
+				// in case we run only a report, don't miss out any rewritten cases
+				// already tested earlier above, but play it safe
+				rewriteFound = true;
+				agg.rewritten++;
+			}
+			if (status.equals(Supported) || status.equals(Ignored) || status.equals(ReviewSemantics) || status.equals(ReviewPerformance)  || status.equals(Rewritten) || status.equals(ObjCountOnly) || status.equals(XRefOnly)) {
+				// do not count as issue
+				skipItemIssue = true;
+			}
+			if (context.equalsIgnoreCase(BatchContext)) {
+				// skip batches
+				skipItemIssue = true;
+			}
+			if (!getPatternGroup(item, "^(ALTER TABLE..(NO)?CHECK CONSTRAINT)", 1).isEmpty()) {
+				// skip ALTER TABLE..[NO]CHECK CONSTRAINT, it does not affect the CREATE TABLE
+				skipItemIssue = true;
+			}
+			if (!skipItemIssue) {
+				String c = context;
+				String k = c;
+				if (c.contains(" ")) {
+					k = c.substring(c.lastIndexOf(" ")+1);
+				}
+				k = (k + sortKeySeparator + appName).toUpperCase();
+				agg.objIssueCount.put(k, agg.objIssueCount.getOrDefault(k,0)+1);
+
+				if (!context.equals(BatchContext)) {
+					if (hasComplexityEffort(status)) {
+						String objK = (context + sortKeySeparator + appName+ sortKeySeparator + itemGroup + sortKeySeparator + item + sortKeySeparator + status).toUpperCase();
+						agg.objComplexityCountTmp.add(objK);
+					}
+				}
+			}
+
+			// weight factors are applied when all capture files have been read
+			agg.lastItemGroup.put(status, itemGroup);
+
+
+			String itemGroupSort = getGroupSortKey(itemGroup);
+
+
+			String itemTmp = item;
+			// uncomment to make the 'detail' flag apply to the summary as well; but that doesn't look very useful.
+//				if (!reportOptionDetail.isEmpty()) {
+//					if (!itemDetail.isEmpty()) {
+//						itemTmp = item + ": " + itemDetail;
+//					}
+//				}
+			// sort key for status summary
+			String sortKey = createSortKey(status,itemGroupSort,itemTmp);
+			String keyApp = createSortKey(sortKey,appName);
+			agg.itemCount.put(sortKey, agg.itemCount.getOrDefault(sortKey, 0) + 1);
+			agg.appItemListRaw.put(keyApp, agg.appItemListRaw.getOrDefault(keyApp, 0) + 1);
+			agg.constructsFound++;
+			if (!agg.constructsFoundDistinct.containsKey(sortKey)) agg.constructsFoundDistinct.put(sortKey,0);
+			agg.sortSizeSummary += sortKey.length();
+
+			// sort key for X-ref ordered by feature
+			if (!reportOptionXref.isEmpty()) {
+				if (!reportOptionDetail.isEmpty()) {
+					if (!itemDetail.isEmpty()) {
+						item += ": " + itemDetail;
+					}
+				}
+
+				// repeating fields are taken from the dictionary; the source file is filled in when the file is added to the report
+				status = dict.get(status);
+				itemGroupSort = dict.get(itemGroupSort);
+				item = dict.get(item);
+				appName = dict.get(appName);
+				context = dict.get(context);
+				subContext = dict.get(subContext);
+				int srcFileIx = agg.srcFileIx(srcFile);
+				if (doXref(status, "feature")) {
+					String lineNrSort = zeroPad(Integer.parseInt(lineNrInFile), 8) + "." + zeroPad(Integer.parseInt(lineNr), 6);
+					CompassCaptureAggregate.SrcFileKey k = new CompassCaptureAggregate.SrcFileKey(status, srcFileIx, 4, status,itemGroupSort,item,appName,null,lineNrSort,lineNr,batchNr,lineNrInFile,context, subContext, "closing dummy");
+					agg.xrefByFeature.add(k);
+					agg.sortSizeXRefByFeature += k.length();
+				}
+
+				if (context.equals(BatchContext)) context = BatchContextLastSort;
+
+				if (doXref(status, "object")) {
+					CompassCaptureAggregate.SrcFileKey k;
+					if (reportShowBatchNr.isEmpty()) {
+						String lineNrSort = zeroPad(Integer.parseInt(lineNr) + Integer.parseInt(lineNrInFile) - 1, 8);
+						k = new CompassCaptureAggregate.SrcFileKey(status, srcFileIx, 3, status,context,appName,null,itemGroupSort,item,lineNrSort,lineNr,batchNr,lineNrInFile);
+					}
+					else {
+						// report batchnr
+						String lineNrSort = zeroPad(Integer.parseInt(lineNrInFile), 8);
+						k = new CompassCaptureAggregate.SrcFileKey(status, srcFileIx, 3, status,context,appName,null,lineNrSort,itemGroupSort,item,lineNr,batchNr,lineNrInFile);
+					}
+					agg.xrefByObject.add(k);
+					agg.sortSizeXRefByObject += k.length();
+				}
+			}
+		}
+		capFile.close();
+		if ((resolveVersion != null) && (statusKeyCount == 0) && (agg.capCount > 0)) {
+			agg.msgs.add("\nAnalysis file "+cf.toString()+" was written for "+babelfishProg+" v."+cfVersion+" and does not contain the information to report for v."+resolveVersion+":");
+			agg.msgs.add("items in this file are reported as for v."+cfVersion+". Re-process with -analyze to report for v."+resolveVersion+".");
+		}
+		return agg;
+	}
+
 	public boolean createReport(String reportName) throws IOException {
 		if (debugging) dbgOutput(thisProc()+"reportOptionXref=["+reportOptionXref+"] ", debugReport);
 		if (debugging) dbgOutput(thisProc()+"reportOptionStatus=["+reportOptionStatus+"] ", debugReport);
@@ -6196,25 +7069,28 @@ tooltipsHTMLPlaceholder +
 		}
 
 
-		Map<String, Integer> appCount = new HashMap<>();
-		Map<String, Integer> srcFileCount = new HashMap<>();
-		Map<String, Integer> objTypeCount = new HashMap<>();
-		Map<String, Integer> objTypeLineCount = new HashMap<>();
-		Map<String, String>  objTypeMap = new HashMap<>();
-		Map<String, String>  objTypeMapCase = new HashMap<>();
-		Map<String, Integer> objTypeMapCount = new HashMap<>();
-		Map<String, Integer> objIssueCount = new HashMap<>();
-		List<String> objComplexityCountTmp = new ArrayList<String>();
+		CompassCaptureAggregate total = new CompassCaptureAggregate(true);
+		Map<String, Integer> appCount = total.appCount;
+		Map<String, Integer> srcFileCount = total.srcFileCount;
+		Map<String, Integer> objTypeCount = total.objTypeCount;
+		Map<String, Integer> objTypeLineCount = total.objTypeLineCount;
+		Map<String, String>  objTypeMap = total.objTypeMap;
+		Map<String, String>  objTypeMapCase = total.objTypeMapCase;
+		Map<String, Integer> objTypeMapCount = total.objTypeMapCount;
+		Map<String, Integer> objIssueCount = total.objIssueCount;
+		List<String> objComplexityCountTmp = total.objComplexityCountTmp;
 		Map<String, List<Integer>> objComplexityCount = new HashMap<>();
 		Map<String, List<Integer>> objTypeComplexityCount = new HashMap<>();
 		int linesSQLInObjects = 0;
 		boolean showObjectIssuesList = false;
-		Map<String, Long> statusCount = new HashMap<>();
-		Map<String, Integer> itemCount = new HashMap<>();
-		Map<String, Integer> appItemListRaw = new HashMap<>();
+		Map<String, Long> statusCount = total.statusCount;
+		Map<String, Integer> itemCount = total.itemCount;
+		Map<String, Integer> appItemListRaw = total.appItemListRaw;
 		Map<String, String> appItemList = new LinkedHashMap<>();
-		List<String> xRefByFeature = new ArrayList<String>();
-		List<String> xRefByObject = new ArrayList<String>();
+		// X-ref sort keys are sorted per status, spilling to disk when they take more memory than the budget
+		long xrefSortMem = (reportOptionXrefMem > 0) ? reportOptionXrefMem * 1024L * 1024L : Runtime.getRuntime().maxMemory() / 8;
+		CompassExternalSort xRefByFeature = new CompassExternalSort(xrefSortMem / 2, getReportDirPathname(reportName));
+		CompassExternalSort xRefByObject = new CompassExternalSort(xrefSortMem / 2, getReportDirPathname(reportName));
 
 		String currentAppName = "";
 		String currentSrcFile = "";
@@ -6248,15 +7124,25 @@ tooltipsHTMLPlaceholder +
 
 		// process captured items
 		constructsFound = 0;
-		Integer totalLinesDDL = 0;
-		int totalBatches = 0;
-		int totalErrorBatches = 0;
-
-		long sortSizeSummary = 0L;
-		long sortSizeXRefByFeature = 0L;
-		long sortSizeXRefByObject = 0L;
 
-		for (Path cf : captureFiles) {
+		// capture files are read in parallel, a few files ahead, and added to the report in their order
+		int capThreads = debugging ? 1 : Math.max(1, Runtime.getRuntime().availableProcessors());
+		int capLookAhead = capThreads + 1;
+		ExecutorService capPool = Executors.newFixedThreadPool(capThreads, r -> {
+			Thread t = new Thread(r, "compass-report");
+			t.setDaemon(true);
+			return t;
+		});
+		List<Future<CompassCaptureAggregate>> capFutures = new ArrayList<>();
+		final boolean showObjectIssues = showObjectIssuesList;
+		CompassSortKey.Dictionary sortKeyDict = new CompassSortKey.Dictionary();
+
+		for (int cfIx = 0; cfIx < captureFiles.size(); cfIx++) {
+			while ((capFutures.size() < captureFiles.size()) && (capFutures.size() <= cfIx + capLookAhead)) {
+				Path f = captureFiles.get(capFutures.size());
+				capFutures.add(capPool.submit(() -> readCaptureFile(f, showObjectIssues, sortKeyDict)));
+			}
+			Path cf = captureFiles.get(cfIx);
 			String cfLine = captureFileFirstLine(cf.toString());   // read only first line
 			String cfReportName = captureFileAttribute(cfLine, 1);
 			if (cfReportName.isEmpty()) {
@@ -6294,346 +7180,53 @@ tooltipsHTMLPlaceholder +
 				}					
 			}			
 
-			FileInputStream cfis = new FileInputStream(new File(cf.toString()));
-			InputStreamReader cfisr = new InputStreamReader(cfis, StandardCharsets.UTF_8);
-			BufferedReader capFile = new BufferedReader(cfisr);
-			if (debugging) dbgOutput(thisProc() + "reading captureFile=[" + cf + "]", debugReport);
+			CompassCaptureAggregate part;
+			try {
+				part = capFutures.get(cfIx).get();
+			} catch (InterruptedException e) {
+				throw new IOException(e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+				if (e.getCause() instanceof Error) throw (Error) e.getCause();
+				throw new RuntimeException(e.getCause());
+			}
+			capFutures.set(cfIx, null);
+			addCaptureAggregate(total, part, xRefByFeature, xRefByObject);
+
+			int capCount = part.capCount;
+			if (debugging) dbgOutput(thisProc()+"capCount=["+capCount+"] sortCnt="+itemCount.size()+" sortSizeSummary KB=["+total.sortSizeSummary/1024+"] ", debugReport);
+			if (debugging) dbgOutput(thisProc()+"capCount=["+capCount+"] sortRuns="+xRefByFeature.getNrRuns()+" sortSizeXRefByFeature KB=["+total.sortSizeXRefByFeature/1024+"]", debugReport);
+			if (debugging) dbgOutput(thisProc()+"capCount=["+capCount+"] sortRuns="+xRefByObject.getNrRuns()+" sortSizeXRefByObject KB=["+total.sortSizeXRefByObject/1024+"]", debugReport);
+		}
+		capPool.shutdown();
+
+		Integer totalLinesDDL = total.totalLinesDDL;
+		int totalBatches = total.totalBatches;
+		int totalErrorBatches = total.totalErrorBatches;
+		linesSQLInObjects = total.linesSQLInObjects;
+		constructsFound = total.constructsFound;
+		constructsFoundDistinct.putAll(total.constructsFoundDistinct);
+
+		// apply weight factors, for the group of the last item found with each status
+		for (Map.Entry<String, String> e : total.lastItemGroup.entrySet()) {
+			String status = e.getKey();
+			String itemGroup = e.getValue();
+			int weightFactor = supportOptionsWeightDefault.get(supportOptions.indexOf(status));
+			// is there a user-defined weight factor?
+			if (userWeightFactor.containsKey(itemGroup)) {
+				weightFactor = userWeightFactor.get(itemGroup);
+				if (debugging) dbgOutput(thisProc() + "found user-defined weight factor for itemGroup=[" + itemGroup + "] ", debugReport);
+			}
+			statusCount.put(status + WeightedStr, statusCount.get(status) * weightFactor);
+		}
 
-			String capLine = "";
-			int capCount = 0;
-
-			while (true) {
-				capLine = capFile.readLine();
-				if (capLine == null) {
-					//EOF
-					break;
-				}
-				capLine = capLine.trim();
-				if (capLine.isEmpty()) continue;
-				if (capLine.charAt(0) == '#') {
-					if (capCount == 0) {
-						if (debugging) dbgOutput("first line of cf=[" + cf.toString() + "] : [" + capLine + "] ", debugReport);
-					}
-					continue;
-				}
-				capCount++;
-				if (debugging) if (capCount%100000 == 0) dbgOutput("read "+capCount, debugReport);
-
-				// check for metrics lines
-				if (capLine.charAt(0) == metricsLineChar1) {
-					String metricsLine = getPatternGroup(capLine, "^." + metricsLineTag + metricsLineChar2 + "(.*)$", 1);
-
-					assert !metricsLine.isEmpty() : "metricsLine cannot be blank";
-
-					List<String> tmpList = new ArrayList<String>(Arrays.asList(metricsLine.split(captureFileSeparator)));
-					String srcFileTmp = tmpList.get(0);
-					String appNameTmp = tmpList.get(1);
-					totalBatches += Integer.parseInt(tmpList.get(2));
-					totalErrorBatches += Integer.parseInt(tmpList.get(3));
-					int loc = Integer.parseInt(tmpList.get(4));
-					totalLinesDDL += loc;
-					appCount.put(appNameTmp, appCount.getOrDefault(appNameTmp, 0) + loc);
-					srcFileCount.put(srcFileTmp, srcFileCount.getOrDefault(srcFileTmp, 0) + 1);
-
-					continue;
-				}
-				//un-escape backslashes
-				if (capLine.contains("\\\\")) {
-					capLine = applyPatternAll(capLine, "\\\\\\\\", "\\\\");
-				}
-
-				List<String> itemList = new ArrayList<String>(Arrays.asList(capLine.split(captureFileSeparator)));
-				// sanity checks on #fields on the line read
-				if (itemList.size() < capPosLastField) {
-					appOutput("\nError at line "+capCount+" of "+cf.toString()+":");
-					appOutput("Invalid capture item read: expected "+(capPosLastField)+" fields, found "+itemList.size()+". Skipping this item:");
-					appOutput("["+capLine+"]");
-					continue;
-				}
-				
-				
-
-				String objType = getPatternGroup(itemList.get(capPosItem), "^CREATE (OR ALTER )?(.*)$", 2);
-				if (objType.isEmpty()) {
-					objType = getPatternGroup(itemList.get(capPosItem), "^Constraint (.*?)(\\(.*)?$", 1);
-					String objTypeTmp = getPatternGroup(objType, "^(.*?),.*$", 1);
-					objType = objTypeTmp.isEmpty() ? objType : objTypeTmp;
-					if (!objType.isEmpty()) {
-						objType = "constraint " + objType;
-					}
-				}
-				else {
-					if (objType.startsWith("TYPE")) {
-						objType = objType.replaceFirst("TYPE", "user-defined datatype (UDD)");
-					}
-					else if (objType.startsWith("INDEX")) {
-						objType = objType.replaceFirst("INDEX", "index");
-					}
-					else if (objType.startsWith("DATABASE")) {
-						objType = objType.substring(0, "DATABASE".length());
-					}
-					else if (objType.startsWith("PROCEDURE")) {
-						objType = "PROCEDURE";
-					}
-				}
-				String item = itemList.get(capPosItem).replaceAll(captureFileSeparatorMarker, captureFileSeparator);
-				String itemDetail = itemList.get(capPosItemDetail).replaceAll(captureFileSeparatorMarker, captureFileSeparator);
-				String itemGroup = itemList.get(capPosItemGroup).replaceAll(captureFileSeparatorMarker, captureFileSeparator);
-				String status = itemList.get(capPosStatus);
-				String lineNr = itemList.get(capPosLineNr);
-				String context = itemList.get(capPosContext).replaceAll(captureFileSeparatorMarker, captureFileSeparator);
-				String subContext = itemList.get(capPosSubContext).replaceAll(captureFileSeparatorMarker, captureFileSeparator);
-				String appName = itemList.get(capPosAppName);
-				String batchNr = itemList.get(capPosBatchNr);
-				String lineNrInFile = itemList.get(capPosLineNrInFile);
-				String srcFile = itemList.get(capPosSrcFile);
-				String misc = itemList.get(capPosMisc);
-
-				if (debugging) dbgOutput(thisProc() + "capLine=[" + capLine + "] objType=[" + objType + "] item=[" + item + "] itemDetail=[" + itemDetail + "] itemGroup=[" + itemGroup + "] status=[" + status + "] lineNr=[" + lineNr + "] misc=[" + misc + "] ", debugReport);
-				assert supportOptions.contains(status) : "Invalid status value[" + status + "] in line=[" + capLine + "] ";
-
-				// skip dependency records
-				if (status.equals(ObjectReference)) {
-					continue;
-				}
-				
-				// filter out the rewriteoppty cases before going any further
-				if (status.equals(RewriteOppty)) {
-					if (!rewrite) {
-						// report the oppties
-						if (!rewriteOppties.containsKey(item)) {
-							rewriteOppties.put(rewriteOpptiesUnique, rewriteOppties.getOrDefault(rewriteOpptiesUnique, 0)+1);
-						}						
-						rewriteOppties.put(item, rewriteOppties.getOrDefault(item, 0)+1);
-						rewriteOppties.put(rewriteOpptiesTotal, rewriteOppties.getOrDefault(rewriteOpptiesTotal, 0)+1);
-					}
-					else {
-						// report the actual rewritten case, discard the oppties
-					}
-					continue;
-				}
-
-				if (!objType.isEmpty()) {
-					if (!status.equals(Ignored) && (!status.equals(XRefOnly))) {
-						// massage the object type strings to the format we need for the object count output section
-						if ((!objType.equals("constraint column DEFAULT")) && (!objType.equals("constraint PRIMARY KEY/UNIQUE"))) {
-							objType = applyPatternFirst(objType, "^(.*?,.*?),.*$", "$1");
-							if (objType.startsWith("PARTITION FUNCTION,")) objType = "PARTITION FUNCTION";
-							if (objType.startsWith("TRIGGER,")) objType = "TRIGGER";
-							if (objType.startsWith("SYNONYM")) objType = "SYNONYM";
-							if (objType.startsWith("TRIGGER (DDL")) {
-								objType = "TRIGGER (DDL)";
-								if (misc.equals("0")) {
-									// this comes from a multi-action DDL trigger, count avoid counting double
-									objTypeCount.put(objType, objTypeCount.getOrDefault(objType, 0) - 1);
-								}
-							}
-							objType = objType.replaceFirst(", external", "");
-							objType = objType.replaceFirst(", CLUSTERED", "");
-							if (objType.contains("<"))  // for cases like CREATE xxx <somename>
-								objType = objType.substring(0,objType.indexOf("<"));
-							if (objType.contains("&"))  // for cases like CREATE xxx &gt;somename&lt;
-								objType = objType.substring(0,objType.indexOf("&"));
-							if (objType.contains(captureFileSeparatorMarker))
-								objType = getPatternGroup(objType, "^(.*?)\\s*\\b\\w*" + captureFileSeparatorMarker + ".*$", 1);       // for proc versioning
-							objType = objType.trim();
-							objTypeCount.put(objType, objTypeCount.getOrDefault(objType, 0) + 1);
-							if (debugging) dbgOutput(thisProc() + "counting objType=[" + objType + "]=["+objTypeCount.get(objType)+"] ", debugReport);
-							int loc = 0;
-							if (!misc.isEmpty()) loc = Integer.parseInt(misc);
-							objTypeLineCount.put(objType, objTypeLineCount.getOrDefault(objType, 0) + loc);  // misc contains #lines for procedural CREATE object stmts
-							linesSQLInObjects += loc;
-
-							if (item.startsWith("CREATE ")) {
-								if (objType.startsWith("PROCEDURE") || objType.startsWith("FUNCTION") || objType.startsWith("TRIGGER") || objType.startsWith("TABLE") || objType.startsWith("VIEW")) {
-									if (!objType.startsWith("TABLE ")) {  // skip table type -- note the space!
-										String key = (itemDetail + sortKeySeparator + appName).toUpperCase();
-										if (!objTypeMap.containsKey(key)) {
-											if (showObjectIssuesList) {
-												objTypeMapCase.put(itemDetail + sortKeySeparator + appName, objType);
-											}
-										}
-										objTypeMap.put(key, objType);
-										objTypeMapCount.put(itemDetail.toUpperCase(), objTypeMapCount.getOrDefault(itemDetail.toUpperCase(), 0)+1);
-										if (debugging) dbgOutput(thisProc() + "objType=[" + objType + "] for key=["+key+"] ", debugReport);
-									}
-								}
-							}
-
-						}
-					}
-				}
-
-				// count columns for tables; put this in objTypeLineCount as well
-				if ((item.endsWith(" column")) || (item.startsWith("Computed column"))) {
-					String tabType = "";
-					if (context.startsWith("TABLE ")) {
-						tabType = context.substring(6);
-					}
-					else if (subContext.startsWith("TABLE ")) {
-						tabType = subContext.substring(6);
-					}
-					if (!tabType.isEmpty()) {
-						String tabTypeReport = "TABLE " + CompassAnalyze.getTmpTableType(tabType);
-						tabTypeReport = tabTypeReport.trim();
-						objTypeLineCount.put(tabTypeReport, objTypeLineCount.getOrDefault(tabTypeReport, 0) + 1);
-					}
-				}
-
-				// for items logged only to drive the object count, stop here
-				if (status.equals(ObjCountOnly)) {
-					continue;
-				}
-				// for items logged only to xref the report to the original cfg sections, put 'm in a buffer and discard
-				if (status.equals(XRefOnly)) {
-					//appOutput(thisProc()+"XRefOnly line=["+capLine+"] ");
-					getXrefOnlyMappings(item, itemGroup, lineNr, appName);
-					continue;
-				}
-
-				statusCount.put(status, statusCount.getOrDefault(status, 0L) + 1);
-				String statusUnique = status+uniqueCntTag;
-				String itemUnique = status+miscDelimiter+item;
-				if (!statusCount.containsKey(itemUnique)) {
-					statusCount.put(itemUnique, 0L);
-					statusCount.put(statusUnique, statusCount.getOrDefault(statusUnique, 0L) + 1);
-				}
-				
-
-				if (!reportOptionXref.isEmpty()) {
-					// collect info for links to object definitions
-					if (!misc.isEmpty() && (capLine.startsWith("CREATE ") || capLine.startsWith("ALTER "))) {
-						String contextKey = context;
-						if (context.equals(BatchContext)) {
-							if (capLine.startsWith("CREATE VIEW")) {
-								contextKey = "VIEW " + itemDetail;
-							}
-							else {
-								contextKey = null;
-							}
-						}
-						if (contextKey != null) {
-							int ln = Integer.parseInt(lineNrInFile)+Integer.parseInt(lineNr)-1;
-							String s = ln + sortKeySeparator + appName + sortKeySeparator + addSrcFileNameMap(srcFile);
-							contextKey += sortKeySeparator + appName;
-							contextLinkMap.put(contextKey.toUpperCase(), s);
-						}
-					}
-				}
-
-				// count issues per object
-				boolean skipItemIssue = false;
-				if (status.equals(Rewritten)) {
-					// in case we run only a report, don't miss out any rewritten cases
-					// already tested earlier above, but play it safe
-					rewrite = true;
-					if (rewriteReportOnly) nrRewritesDone++;
-				}
-				if (status.equals(Supported) || status.equals(Ignored) || status.equals(ReviewSemantics) || status.equals(ReviewPerformance)  || status.equals(Rewritten) || status.equals(ObjCountOnly) || status.equals(XRefOnly)) {
-					// do not count as issue
-					skipItemIssue = true;
-				}
-				if (context.equalsIgnoreCase(BatchContext)) {
-					// skip batches
-					skipItemIssue = true;
-				}
-				if (!getPatternGroup(item, "^(ALTER TABLE..(NO)?CHECK CONSTRAINT)", 1).isEmpty()) {
-					// skip ALTER TABLE..[NO]CHECK CONSTRAINT, it does not affect the CREATE TABLE
-					skipItemIssue = true;
-				}
-				if (!skipItemIssue) {
-					String c = context;
-					String k = c;
-					if (c.contains(" ")) {
-						k = c.substring(c.lastIndexOf(" ")+1);
-					}
-					k = (k + sortKeySeparator + appName).toUpperCase();
-					objIssueCount.put(k, objIssueCount.getOrDefault(k,0)+1);
-
-					if (!context.equals(BatchContext)) {
-						if (hasComplexityEffort(status)) {
-							String objK = (context + sortKeySeparator + appName+ sortKeySeparator + itemGroup + sortKeySeparator + item + sortKeySeparator + status).toUpperCase();
-							objComplexityCountTmp.add(objK);
-						}
-					}
-				}
-
-				// apply weight factors
-				String sw = status + WeightedStr;
-				int weightFactor = supportOptionsWeightDefault.get(supportOptions.indexOf(status));
-				// is there a user-defined weight factor?
-				if (userWeightFactor.containsKey(itemGroup)) {
-					weightFactor = userWeightFactor.get(itemGroup);
-					if (debugging) dbgOutput(thisProc() + "found user-defined weight factor for itemGroup=[" + itemGroup + "] ", debugReport);
-				}
-				Long weighted = statusCount.getOrDefault(status, 0L) * weightFactor;
-				statusCount.put(sw, weighted);
-				//if (debugging) dbgOutput(thisProc() + "status=[" + status + "] val=[" + statusCount.getOrDefault(status, 0L) + "]  sw=[" + sw + "] weighted=[" + weighted + "] weightFactor=[" + weightFactor + "] ", debugReport);
-
-
-				String itemGroupSort = getGroupSortKey(itemGroup);
-
-
-				String itemTmp = item;
-				// uncomment to make the 'detail' flag apply to the summary as well; but that doesn't look very useful.
-//				if (!reportOptionDetail.isEmpty()) {
-//					if (!itemDetail.isEmpty()) {
-//						itemTmp = item + ": " + itemDetail;
-//					}
-//				}
-				// sort key for status summary
-				String sortKey = createSortKey(status,itemGroupSort,itemTmp);
-				String keyApp = createSortKey(sortKey,appName);
-				itemCount.put(sortKey, itemCount.getOrDefault(sortKey, 0) + 1);
-				appItemListRaw.put(keyApp, appItemListRaw.getOrDefault(keyApp, 0) + 1);
-				constructsFound++;
-				if (!constructsFoundDistinct.containsKey(sortKey)) constructsFoundDistinct.put(sortKey,0);
-				sortSizeSummary += sortKey.length();
-
-				// sort key for X-ref ordered by feature
-				// this may run out of memory for very big data sets, would need different sort approach for smaller memory sizes
-				if (!reportOptionXref.isEmpty()) {
-					if (!reportOptionDetail.isEmpty()) {
-						if (!itemDetail.isEmpty()) {
-							item += ": " + itemDetail;
-						}
-					}
-
-					String lineNrSort = String.format("%08d", Integer.parseInt(lineNrInFile)) + "." + String.format("%06d", Integer.parseInt(lineNr));
-					sortKey = createSortKey(status,itemGroupSort,item,appName,addSrcFileNameMap(srcFile),lineNrSort,lineNr,batchNr,lineNrInFile,context, subContext, "closing dummy");
-					xRefByFeature.add(sortKey);
-					sortSizeXRefByFeature += sortKey.length();
-
-					if (context.equals(BatchContext)) context = BatchContextLastSort;
-
-					if (reportShowBatchNr.isEmpty()) {
-						lineNrSort = String.format("%08d", Integer.parseInt(lineNr.toString()) + Integer.parseInt(lineNrInFile.toString()) - 1);
-						sortKey = createSortKey(status,context,appName,addSrcFileNameMap(srcFile),itemGroupSort,item,lineNrSort,lineNr,batchNr,lineNrInFile);
-					}
-					else {
-						// report batchnr
-						lineNrSort = String.format("%08d", Integer.parseInt(lineNrInFile));
-						sortKey = createSortKey(status,context,appName,addSrcFileNameMap(srcFile),lineNrSort,itemGroupSort,item,lineNr,batchNr,lineNrInFile);
-					}
-
-					xRefByObject.add(sortKey);
-					sortSizeXRefByObject += sortKey.length();
-				}
-			}
-			capFile.close();
-
-			if (debugging) dbgOutput(thisProc()+"capCount=["+capCount+"] sortCnt="+itemCount.size()+" sortSizeSummary KB=["+sortSizeSummary/1024+"] ", debugReport);
-			if (debugging) dbgOutput(thisProc()+"capCount=["+capCount+"] sortCnt="+xRefByFeature.size()+" sortSizeXRefByFeature KB=["+sortSizeXRefByFeature/1024+"]", debugReport);
-			if (debugging) dbgOutput(thisProc()+"capCount=["+capCount+"] sortCnt="+xRefByObject.size()+" sortSizeXRefByObject KB=["+sortSizeXRefByObject/1024+"]", debugReport);
-		}
-
-		// get complexity per object
-		for (String k : objComplexityCountTmp) {
-			List<String> kTmp = new ArrayList<>(Arrays.asList(k.split(sortKeySeparator)));
-			String item = kTmp.get(3);
-			String itemGroup = kTmp.get(2);
-			String itemStatus = kTmp.get(4);
-			String complexityDefined = getComplexityEffort(CompassConfig.complexityTag, item, itemGroup, itemStatus);
+		// get complexity per object
+		for (String k : objComplexityCountTmp) {
+			List<String> kTmp = new ArrayList<>(Arrays.asList(k.split(sortKeySeparator)));
+			String item = kTmp.get(3);
+			String itemGroup = kTmp.get(2);
+			String itemStatus = kTmp.get(4);
+			String complexityDefined = getComplexityEffort(CompassConfig.complexityTag, item, itemGroup, itemStatus);
 
 			String context = kTmp.get(0);
 			String appName = kTmp.get(1);
@@ -7194,23 +7787,76 @@ tooltipsHTMLPlaceholder +
 			}
 		}
 
-		// sort for X-ref by feature
-		List<String> sortedListXRefByFeature = xRefByFeature.stream().sorted(String.CASE_INSENSITIVE_ORDER).collect(Collectors.toList());
-		sortedListXRefByFeature.add(stringRepeat(lastItem + sortKeySeparator, 20));
-		xRefByFeature.clear();
-		for (int i=0; i <supportOptionsIterate.size(); i++) {
-			reportXrefByFeature(supportOptionsIterate.get(i), sortedListXRefByFeature);
+		// X-ref by feature
+		String[] lastItemFields = new String[20];
+		Arrays.fill(lastItemFields, lastItem);
+		List<CompassSortKey> lastItemList = Collections.singletonList(new CompassSortKey(lastItemFields));
+		boolean xrefPages = (reportOptionXrefPages > 0) && !reportOptionXref.isEmpty();
+		if (xrefPages) {
+			xrefPagesDirPath = getReportDirPathname(reportName, xrefDirName);
+			Files.createDirectories(Paths.get(xrefPagesDirPath));
+			CompassXrefPages.clearDir(xrefPagesDirPath);
+			xrefPagesIndex.clear();
+		}
+		try {
+			if (xrefPages) {
+				// each section is written to its own pages, so the sections are generated in parallel
+				int xrefThreads = debugging ? 1 : Math.max(1, Runtime.getRuntime().availableProcessors());
+				ExecutorService xrefPool = Executors.newFixedThreadPool(xrefThreads, r -> {
+					Thread t = new Thread(r, "compass-xref");
+					t.setDaemon(true);
+					return t;
+				});
+				List<Future<List<String>>> xrefFutures = new ArrayList<>();
+				for (int i=0; i <supportOptionsIterate.size(); i++) {
+					String status = supportOptionsIterate.get(i);
+					xrefFutures.add(xrefPool.submit(() -> reportXrefByFeature(status, concatIterable(xRefByFeature.sorted(status), lastItemList))));
+				}
+				try {
+					for (Future<List<String>> f : xrefFutures) {
+						writeReportFile(f.get());
+					}
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+					if (e.getCause() instanceof Error) throw (Error) e.getCause();
+					throw new RuntimeException(e.getCause());
+				} finally {
+					xrefPool.shutdown();
+				}
+			}
+			else {
+				for (int i=0; i <supportOptionsIterate.size(); i++) {
+					String status = supportOptionsIterate.get(i);
+					writeReportFile(reportXrefByFeature(status, concatIterable(xRefByFeature.sorted(status), lastItemList)));
+				}
+			}
+		} finally {
+			xRefByFeature.close();
 		}
-		sortedListXRefByFeature.clear();
 
-		// sort for X-ref by object
-		List<String> sortedListXRefByObject = xRefByObject.stream().sorted(String.CASE_INSENSITIVE_ORDER).collect(Collectors.toList());
-		sortedListXRefByObject.add(stringRepeat(lastItem + sortKeySeparator, 20));
-		xRefByObject.clear();
-		for (int i=0; i <supportOptionsIterate.size(); i++) {
-			reportXrefByObject(supportOptionsIterate.get(i), sortedListXRefByObject);
+		// X-ref by object
+		// this is not done in parallel, since the object anchors are numbered in the order found
+		try {
+			for (int i=0; i <supportOptionsIterate.size(); i++) {
+				String status = supportOptionsIterate.get(i);
+				writeReportFile(reportXrefByObject(status, concatIterable(xRefByObject.sorted(status), lastItemList)));
+			}
+		} finally {
+			xRefByObject.close();
+		}
+
+		if (xrefPages) {
+			List<String> sections = new ArrayList<>();
+			for (String tag : Arrays.asList(tagByFeature, tagByObject)) {
+				for (int i=0; i <supportOptionsIterate.size(); i++) {
+					String section = xrefPagesIndex.get(tag+supportOptionsIterate.get(i));
+					if (section != null) sections.add(section);
+				}
+			}
+			CompassXrefPages.writeIndex(xrefPagesDirPath, xrefPageHeader("X-ref"), sections);
 		}
-		sortedListXRefByObject.clear();
 
 		if (showObjectIssuesList) {
 			reportObjectsIssues(objTypeMapCase, objTypeMapCount, objIssueCount, objComplexityCount);
@@ -7227,9 +7873,25 @@ tooltipsHTMLPlaceholder +
 		appOutput("\n", false, true);
 
 		appOutput("\n\n"+execSummaryLine);
-		
+
+		if (!reportVersionMatrix.isEmpty()) {
+			createVersionMatrix(reportName, captureFiles);
+		}
+
 		return true;
 	}
+
+	// compare the captured items across the Babelfish versions specified with -versionmatrix
+	private void createVersionMatrix(String reportName, List<Path> captureFiles) throws IOException {
+		CompassVersionMatrix matrix = new CompassVersionMatrix(reportVersionMatrix);
+		for (Path cf : captureFiles) {
+			matrix.readCaptureFile(cf);
+		}
+		String f = applyPatternFirst(reportFilePathName, "\\.\\w+$", "-versions."+CSVSuffix);
+		String now = new SimpleDateFormat("dd-MMM-yyyy HH:mm:ss").format(new Date());
+		matrix.write(f, "This file created at " + now + " for report " + reportName + " and " + babelfishProg + " versions " + String.join(" ", reportVersionMatrix) + " by " + thisProgName + " version " + thisProgVersion);
+		versionMatrixFilePathName = f;
+	}
 	
 	private String formatEffortEstimate(int nrMinutes) {	
 		// Convert #minutes to a pragmatic days/weeks effort estimate							
@@ -7443,18 +8105,16 @@ tooltipsHTMLPlaceholder +
 		String nowFmt = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(now);
 
 		int capCount = 0;
-		BufferedWriter PGImportFileWriter = null;
-    	String PGImportFilePathName = getPGImportFilePathname(reportName);
     	checkDir(getReportDirPathname(reportName, capDirName), true);
-		PGImportFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(PGImportFilePathName), StandardCharsets.UTF_8)));
+		List<String> chunkFiles = new ArrayList<>();
 		boolean containsDelimiter = false;
 		String cfUserCfgFilErrMsg = "";
 		String firstCfUserCfgFile = "";
 		boolean firstCfUserCfgFileInit = false;
 
-		// first pass to pick up all XREFONLY records
+		// validate the capture files
 		for (Path cf : captureFiles) {
-			if (debugging) dbgOutput(thisProc() + "pass 1: cf=["+cf+"] ", debugReport);
+			if (debugging) dbgOutput(thisProc() + "validate: cf=["+cf+"] ", debugReport);
 			String cfLine = captureFileFirstLine(cf.toString());   // read only first line
 			String cfReportName = captureFileAttribute(cfLine, 1);
 			String cfUserCfgFile = captureFileAttribute(cfLine, 5);
@@ -7510,143 +8170,56 @@ tooltipsHTMLPlaceholder +
 				}		
 				if ((captureFilesAnon > 0) && (captureFilesNotAnon > 0)) {
 					appOutput("\nCannot process mix of anonymized and not-anonymized analysis files. Re-process with -analyze [-anon]\nFile is not anonymized: "+cf.toString()+"\n");
-					errorExit();					
-				}					
-			}
-
-			FileInputStream cfis = new FileInputStream(new File(cf.toString()));
-			InputStreamReader cfisr = new InputStreamReader(cfis, StandardCharsets.UTF_8);
-			BufferedReader capFile = new BufferedReader(cfisr);
-
-			String capLine = "";
-
-			while (true) {
-				capLine = capFile.readLine();
-				if (capLine == null) {
-					//EOF
-					break;
-				}
-				capLine = capLine.trim();
-				if (capLine.isEmpty()) continue;
-				if ((capLine.charAt(0) == '#') || (capLine.charAt(0) == metricsLineChar1)) {
-					continue;
-				}
-				// for items logged only to xref the report to the original cfg sections, put 'm in a buffer and discard
-				if (capLine.contains(captureFileSeparator+XRefOnly+captureFileSeparator)) {
-					List<String> capFieldsTmp = new ArrayList<>(Arrays.asList(capLine.split(captureFileSeparator)));
-					String item = capFieldsTmp.get(capPosItem);
-					String itemGroup = capFieldsTmp.get(capPosItemGroup);
-					String lineNr = capFieldsTmp.get(capPosLineNr);
-					String appName = capFieldsTmp.get(capPosAppName);
-					//appOutput(thisProc()+"XRefOnly line=["+capLine+"] item=["+item+"] itemGroup=["+itemGroup+"] lineNr=["+lineNr+"] appName=["+appName+"] ");
-					getXrefOnlyMappings(item, itemGroup, lineNr, appName);
+					errorExit();
 				}
 			}
-			capFile.close();
 		}
 
-		for (Path cf : captureFiles) {
-			// validations already done on first pass
-			if (debugging) dbgOutput(thisProc() + "pass 2: cf=["+cf+"] ", debugReport);
-
-			FileInputStream cfis = new FileInputStream(new File(cf.toString()));
-			InputStreamReader cfisr = new InputStreamReader(cfis, StandardCharsets.UTF_8);
-			BufferedReader capFile = new BufferedReader(cfisr);
-
-			String capLine = "";
-			int lineNr = 0;
-			while (true) {
-				capLine = capFile.readLine();
-				lineNr++;
-				if (capLine == null) {
-					//EOF
-					break;
-				}
-				capLine = capLine.trim();
-				if (capLine.isEmpty()) continue;
-				if ((capLine.charAt(0) == '#') || (capLine.charAt(0) == metricsLineChar1)) {
-					continue;
-				}
-				if (capLine.contains(captureFileSeparator+ObjCountOnly+captureFileSeparator)) continue;
-				if (capLine.contains(captureFileSeparator+RewriteOppty+captureFileSeparator)) continue;
-				if (capLine.contains(captureFileSeparator+XRefOnly+captureFileSeparator)) continue;
-
-				capCount++;
-
-				// strip off the last three semicolons, incl. the misc field (not needed here)
-				capLine = capLine.substring(0,capLine.lastIndexOf(captureFileSeparator));
-				capLine = capLine.substring(0,capLine.lastIndexOf(captureFileSeparator));
-				capLine = capLine.substring(0,capLine.lastIndexOf(captureFileSeparator));
-
-				// max length check
-				capFields = new ArrayList<>(Arrays.asList(capLine.split(captureFileSeparator)));
-				String status = capFields.get(capPosStatus);
-				String complexityDefined = "";
-				String effortDefined = "";
-				String effortDefinedScale  = "";
-				String effortDefinedLearningCurve = "";
-				String effortDefinedScaleMinutes   = "0";	
-				String effortDefinedLearningCurveMinutes = "0";			
-				
-				if (hasComplexityEffort(status)) {
-					String item = capFields.get(capPosItem);
-					complexityDefined = getComplexityEffort(CompassConfig.complexityTag, item.toString(), capFields.get(capPosItemGroup), status);
-					effortDefined     = getComplexityEffort(CompassConfig.effortTag, item.toString(), capFields.get(capPosItemGroup), status, complexityDefined);
-
-				 	effortDefinedScale          = CompassConfig.getEffortValue(effortDefined, CompassConfig.effortPartScale);
-				 	effortDefinedLearningCurve  = CompassConfig.getEffortValue(effortDefined, CompassConfig.effortPartLearningCurve);					 			
-				
-					if (!effortDefinedScale.trim().isEmpty()) {
-						effortDefinedScaleMinutes = CompassConfig.convertEffortValue(effortDefinedScale).toString();
-						effortDefinedScale        = CompassConfig.formatEffort(effortDefinedScale);
-					}
-	
-					if (!effortDefinedLearningCurve.trim().isEmpty()) {
-						effortDefinedLearningCurveMinutes  = CompassConfig.convertEffortValue(effortDefinedLearningCurve).toString();
-						effortDefinedLearningCurve         = CompassConfig.formatEffort(effortDefinedLearningCurve);
-					}
-					
-					//appOutput(thisProc()+"status=["+status+"] item=["+item+"] group=["+capFields.get(capPosItemGroup)+"] complexityDefined=["+complexityDefined+"] effortDefined=["+effortDefined+"] effortDefinedScale=["+effortDefinedScale+"] effortDefinedLearningCurve=["+effortDefinedLearningCurve+"] ");
-				}
-
-				// assuming 'captureFileFormatVersion = 1' but this is not verified since so far there is only one version
-				// field positions in capLine, and total #fields, are hard-coded here
-
-				// some fields could potentially be too long, and the import would fail
-				boolean fieldModified = false;				
-				fieldModified |= importPGField("Item", capPosItem, pgImportItemLength, lineNr, cf);
-				fieldModified |= importPGField("ItemDetail", capPosItemDetail, pgImportItemDetailLength, lineNr, cf);
-				fieldModified |= importPGField("SrcFile", capPosSrcFile, pgImportSrcFileLength, lineNr, cf);
-				
-				int numFields = 12;
-				if (fieldModified) {
-					capLine = String.join(captureFileSeparator, capFields);
-					if (capFields.size() < numFields-1) {
-						capLine += stringRepeat(captureFileSeparator, (numFields-capFields.size()-1));
-					}
+		// the capture files are read in parallel, first for the XREFONLY records, then to write the chunk files;
+		// complexity and effort of an item can depend on XREFONLY records in any capture file, so all of these are
+		// picked up first
+		int pgThreads = debugging ? 1 : Math.max(1, Runtime.getRuntime().availableProcessors());
+		ExecutorService pgPool = Executors.newFixedThreadPool(pgThreads, r -> {
+			Thread t = new Thread(r, "compass-pgimport");
+			t.setDaemon(true);
+			return t;
+		});
+		try {
+			List<Future<List<String[]>>> xrefFutures = new ArrayList<>();
+			for (Path cf : captureFiles) {
+				xrefFutures.add(pgPool.submit(() -> importPGXrefOnly(cf)));
+			}
+			for (Future<List<String[]>> f : xrefFutures) {
+				for (String[] x : getWorkerResult(f)) {
+					getXrefOnlyMappings(x[0], x[1], x[2], x[3]);
 				}
+			}
 
-				capLine = unEscapeHTMLChars(capLine);
-
-				// add date & babelfish version
-				capLine = cfVersion + captureFileSeparator + nowFmt + captureFileSeparator + capLine + captureFileSeparator + complexityDefined.trim() + captureFileSeparator + effortDefinedScaleMinutes.trim() + captureFileSeparator + effortDefinedLearningCurveMinutes.trim();
+			deletePGImportChunkFiles(reportName);
+			List<CompassPGImportChunk> chunks = new ArrayList<>();
+			int nrChunks = Math.min(captureFiles.size(), pgThreads);
+			for (int c = 1; c <= nrChunks; c++) {
+				chunks.add(new CompassPGImportChunk(getPGImportFilePathname(reportName, c)));
+			}
+			CompassPGImportChunk.assign(captureFiles, chunks);
 
-				//remove double quotes for Redshift import
-				if (pgImportNoDoubleQuotes) {
-					if (capLine.contains("\"")) {
-						capLine = applyPatternAll(capLine, "\"", "");
-					}
+			List<Future<CompassPGImportChunk>> chunkFutures = new ArrayList<>();
+			for (CompassPGImportChunk chunk : chunks) {
+				chunkFutures.add(pgPool.submit(() -> chunk.write(cfVersion, nowFmt)));
+			}
+			for (Future<CompassPGImportChunk> f : chunkFutures) {
+				CompassPGImportChunk chunk = getWorkerResult(f);
+				for (String msg : chunk.msgs) {
+					appOutput(msg);
 				}
-
-				PGImportFileWriter.write(capLine+"\n");
-				//appOutput(thisProc()+"writing line "+capCount+": capLine=["+capLine+"]  ");
-
-				if (!containsDelimiter) if (capLine.contains(captureFileSeparatorMarker)) containsDelimiter = true;
+				capCount += chunk.capCount;
+				containsDelimiter |= chunk.containsDelimiter;
+				chunkFiles.add(Paths.get(chunk.filePathName).getFileName().toString());
 			}
-			capFile.close();
+		} finally {
+			pgPool.shutdown();
 		}
-		PGImportFileWriter.close();
-		appOutput("Items written for import: "+capCount + " (in "+PGImportFilePathName+")");
+		appOutput("Items written for import: "+capCount + " (in "+chunkFiles.size()+" file"+(chunkFiles.size() == 1 ? "" : "s")+" in "+getReportDirPathname(reportName, capDirName)+")");
 
 		// do not write the password etc. in any file but keep in envvar only:
 		String PGUserEnvvar   = "BBFCOMPASSPSQLUSERNAME";
@@ -7662,10 +8235,7 @@ tooltipsHTMLPlaceholder +
 		psqlCmd= applyPatternFirst(psqlCmd, "~port~",     envvarPrefix+ PGPortEnvvar   +envvarSuffix);
 		psqlCmd= applyPatternFirst(psqlCmd, "~dbname~",   envvarPrefix+ PGDBnameEnvvar +envvarSuffix);
 
-		String psqlFile = psqlImportFileName + "." + psqlFileSuffix;
-		psqlCmd= applyPatternFirst(psqlCmd, "~file~", psqlFile);
-
-		String cmdFile = writePsqlFile(append, reportName, psqlCmd, containsDelimiter);
+		String cmdFile = writePsqlFile(append, reportName, psqlCmd, chunkFiles, containsDelimiter);
 
 		// compose the command line
 		String runCmd= "";
@@ -7691,14 +8261,122 @@ tooltipsHTMLPlaceholder +
 		}
 	}
 
-	private boolean importPGField(String name, int pos, int len, int lineNr, Path cf) {
+	// the XREFONLY records in a capture file, as item, item group, line number and application name
+	private List<String[]> importPGXrefOnly(Path cf) throws IOException {
+		List<String[]> result = new ArrayList<>();
+		try (BufferedReader capFile = new BufferedReader(new InputStreamReader(new FileInputStream(cf.toFile()), StandardCharsets.UTF_8))) {
+			String capLine;
+			while ((capLine = capFile.readLine()) != null) {
+				// for items logged only to xref the report to the original cfg sections, put 'm in a buffer and discard
+				if (!capLine.contains(captureFileSeparator+XRefOnly+captureFileSeparator)) continue;
+				capLine = capLine.trim();
+				if ((capLine.charAt(0) == '#') || (capLine.charAt(0) == metricsLineChar1)) {
+					continue;
+				}
+				List<String> capFieldsTmp = new ArrayList<>(Arrays.asList(capLine.split(captureFileSeparator)));
+				result.add(new String[] {capFieldsTmp.get(capPosItem), capFieldsTmp.get(capPosItemGroup), capFieldsTmp.get(capPosLineNr), capFieldsTmp.get(capPosAppName)});
+			}
+		}
+		return result;
+	}
+
+	private <T> T getWorkerResult(Future<T> f) throws IOException {
+		try {
+			return f.get();
+		} catch (InterruptedException e) {
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+			if (e.getCause() instanceof Error) throw (Error) e.getCause();
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	// converts a line of a capture file into a line for import; returns null if the line is not imported.
+	// Messages are added to msgs, for printing by the caller
+	public String importPGLine(String capLine, int lineNr, Path cf, String cfVersion, String nowFmt, List<String> msgs) {
+		capLine = capLine.trim();
+		if (capLine.isEmpty()) return null;
+		if ((capLine.charAt(0) == '#') || (capLine.charAt(0) == metricsLineChar1)) {
+			return null;
+		}
+		if (capLine.contains(captureFileSeparator+ObjCountOnly+captureFileSeparator)) return null;
+		if (capLine.contains(captureFileSeparator+RewriteOppty+captureFileSeparator)) return null;
+		if (capLine.contains(captureFileSeparator+XRefOnly+captureFileSeparator)) return null;
+
+		// strip off the last three semicolons, incl. the misc field (not needed here)
+		capLine = capLine.substring(0,capLine.lastIndexOf(captureFileSeparator));
+		capLine = capLine.substring(0,capLine.lastIndexOf(captureFileSeparator));
+		capLine = capLine.substring(0,capLine.lastIndexOf(captureFileSeparator));
+
+		// max length check
+		List<String> capFields = new ArrayList<>(Arrays.asList(capLine.split(captureFileSeparator)));
+		String status = capFields.get(capPosStatus);
+		String complexityDefined = "";
+		String effortDefined = "";
+		String effortDefinedScale  = "";
+		String effortDefinedLearningCurve = "";
+		String effortDefinedScaleMinutes   = "0";
+		String effortDefinedLearningCurveMinutes = "0";
+
+		if (hasComplexityEffort(status)) {
+			String item = capFields.get(capPosItem);
+			complexityDefined = getComplexityEffort(CompassConfig.complexityTag, item.toString(), capFields.get(capPosItemGroup), status);
+			effortDefined     = getComplexityEffort(CompassConfig.effortTag, item.toString(), capFields.get(capPosItemGroup), status, complexityDefined);
+
+		 	effortDefinedScale          = CompassConfig.getEffortValue(effortDefined, CompassConfig.effortPartScale);
+		 	effortDefinedLearningCurve  = CompassConfig.getEffortValue(effortDefined, CompassConfig.effortPartLearningCurve);
+
+			if (!effortDefinedScale.trim().isEmpty()) {
+				effortDefinedScaleMinutes = CompassConfig.convertEffortValue(effortDefinedScale).toString();
+				effortDefinedScale        = CompassConfig.formatEffort(effortDefinedScale);
+			}
+
+			if (!effortDefinedLearningCurve.trim().isEmpty()) {
+				effortDefinedLearningCurveMinutes  = CompassConfig.convertEffortValue(effortDefinedLearningCurve).toString();
+				effortDefinedLearningCurve         = CompassConfig.formatEffort(effortDefinedLearningCurve);
+			}
+		}
+
+		// assuming 'captureFileFormatVersion = 1' but this is not verified since so far there is only one version
+		// field positions in capLine, and total #fields, are hard-coded here
+
+		// some fields could potentially be too long, and the import would fail
+		boolean fieldModified = false;
+		fieldModified |= importPGField(capFields, "Item", capPosItem, pgImportItemLength, lineNr, cf, msgs);
+		fieldModified |= importPGField(capFields, "ItemDetail", capPosItemDetail, pgImportItemDetailLength, lineNr, cf, msgs);
+		fieldModified |= importPGField(capFields, "SrcFile", capPosSrcFile, pgImportSrcFileLength, lineNr, cf, msgs);
+
+		int numFields = 12;
+		if (fieldModified) {
+			capLine = String.join(captureFileSeparator, capFields);
+			if (capFields.size() < numFields-1) {
+				capLine += stringRepeat(captureFileSeparator, (numFields-capFields.size()-1));
+			}
+		}
+
+		capLine = unEscapeHTMLChars(capLine);
+
+		// add date & babelfish version
+		capLine = cfVersion + captureFileSeparator + nowFmt + captureFileSeparator + capLine + captureFileSeparator + complexityDefined.trim() + captureFileSeparator + effortDefinedScaleMinutes.trim() + captureFileSeparator + effortDefinedLearningCurveMinutes.trim();
+
+		//remove double quotes for Redshift import
+		if (pgImportNoDoubleQuotes) {
+			if (capLine.contains("\"")) {
+				capLine = applyPatternAll(capLine, "\"", "");
+			}
+		}
+		return capLine;
+	}
+
+	private boolean importPGField(List<String> capFields, String name, int pos, int len, int lineNr, Path cf, List<String> msgs) {
 		if (capFields.get(pos).length() <= len) {
 			return false;
 		}
 		
 		// truncate field to column length, but take care not to cut through a marker
 		if (devOptions) {
-			appOutput("pgimport: Truncating line "+lineNr+" from "+capFields.get(pos).length()+" to "+len+" in field '"+name+"' in ["+cf+"]");
+			msgs.add("pgimport: Truncating line "+lineNr+" from "+capFields.get(pos).length()+" to "+len+" in field '"+name+"' in ["+cf+"]");
 		}
 		String tag = "(...)";
 		String s = capFields.get(pos);
@@ -7831,7 +8509,15 @@ userCfgComplexityHdrLine202308 + "\n" +
 	public String openUserCfgFile(String fileName, boolean newFile) throws IOException {
 		checkDir(getDocDirPathname(), false, true);
 		String userCfgFilePathName = getUserCfgFilePathName(fileName);
-		userCfgFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(userCfgFilePathName, (!newFile)), StandardCharsets.UTF_8)));
+		String writePathName = userCfgFilePathName;
+		if (newFile) {
+			// a new file is written under a temporary name and moved into place when closed, since
+			// several processes (e.g. with -shard) may be creating it at the same time
+			userCfgFileNewPath = Files.createTempFile(Paths.get(userCfgFilePathName).getParent(), Paths.get(userCfgFilePathName).getFileName().toString(), ".tmp");
+			writePathName = userCfgFileNewPath.toString();
+			userCfgFileNewTarget = userCfgFilePathName;
+		}
+		userCfgFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(writePathName, (!newFile)), StandardCharsets.UTF_8)));
 		String now = new SimpleDateFormat("dd-MMM-yyyy HH:mm:ss").format(new Date());
 		if (newFile) {
 			String initLine = "# This file created at " + now + " by " + thisProgName + " version " + thisProgVersion + ", " + thisProgVersionDate;
@@ -7910,6 +8596,15 @@ userCfgComplexityHdrLine202308 + "\n" +
 		}
 	    userCfgFileWriter.close();
 	    userCfgFileWriter = null;
+	    if (userCfgFileNewPath != null) {
+	    	Path userCfgFilePath = Paths.get(userCfgFileNewTarget);
+			try {
+				Files.move(userCfgFileNewPath, userCfgFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(userCfgFileNewPath, userCfgFilePath, StandardCopyOption.REPLACE_EXISTING);
+			}
+			userCfgFileNewPath = null;
+	    }
 	}
 
     public void installOptimisticCfgFile() throws IOException {
@@ -7998,17 +8693,16 @@ userCfgComplexityHdrLine202308 + "\n" +
 	}
 
 	// keep track of added characters
-	public void addOffsets(Integer iteration) {
-		Map<Integer, Map<Integer, Integer>> offsetIteration = new LinkedHashMap<>();
-		for (int i = offsetCols.size(); i < iteration; i++) {
-			offsetCols.add(offsetIteration);
+	public void addOffsets(CompassRewriteContext rwr, Integer iteration) {
+		for (int i = rwr.offsetCols.size(); i < iteration; i++) {
+			rwr.offsetCols.add(new CompassOffsetIndex());
 			if (debugging) dbgOutput(thisProc()+"initializing iteration=["+(i+1)+"] at ["+i+"]", debugRewrite);
 		}
 	}
 
-	public void addOffsets(Integer iteration, Integer lineNo, Integer lineNoOrig, Integer startColOrig, String origStr, String reportOrigStr, String newStr, String newStrNoComment, String report, String fName, String rewriteType) {
-		addOffsets(iteration);
-		assert (offsetCols.get(iteration-1) != null) : thisProc()+"iteration=["+iteration+"] not found in offsetCols";
+	public void addOffsets(CompassRewriteContext rwr, Integer iteration, Integer lineNo, Integer lineNoOrig, Integer startColOrig, String origStr, String reportOrigStr, String newStr, String newStrNoComment, String report, String fName, String rewriteType) {
+		addOffsets(rwr, iteration);
+		assert (rwr.offsetCols.get(iteration-1) != null) : thisProc()+"iteration=["+iteration+"] not found in offsetCols";
 
 		List<String> linesOrig = new ArrayList<>(Arrays.asList(origStr.split("\n")));
 		List<String> linesNew  = new ArrayList<>(Arrays.asList((newStr).split("\n")));
@@ -8020,8 +8714,7 @@ userCfgComplexityHdrLine202308 + "\n" +
 		if (debugging) dbgOutput(thisProc()+"newStr=["+newStr+"] ", debugRewrite);
 
 
-		Map<Integer, Map<Integer, Integer>> offsetIteration = new LinkedHashMap<>();
-		offsetIteration = offsetCols.get(iteration-1);
+		CompassOffsetIndex offsetIteration = rwr.offsetCols.get(iteration-1);
 
 		// check for line length changes on each line
 		// assumption is that the replacement is at least as many lines as the original
@@ -8035,31 +8728,19 @@ userCfgComplexityHdrLine202308 + "\n" +
 			if (debugging) dbgOutput(thisProc()+"lineNo=i=["+i+"] diffLength=["+diffLength+"] ", debugRewrite);
 			if (diffLength == 0) continue;
 
-			Map<Integer, Integer> offsetLineNo = new LinkedHashMap<>();
-			if (!offsetIteration.containsKey(i)) offsetIteration.put(i, offsetLineNo);
-			offsetLineNo = offsetIteration.get(i);
-
 			int col = 0;
 			if (i == lineNo) col = startColOrig;
-			offsetLineNo.put(col, diffLength);
+			offsetIteration.put(i, col, diffLength);
 			if (debugging) dbgOutput(thisProc()+"(col) lineNo=i=["+i+"] col=["+col+"] diffLength=["+diffLength+"]", debugRewrite);
 		}
 
 		if (linesOrig.size() < linesNew.size()) {
 			// for lines that have been added: indicate by col = -1, and the #lines added as diffLength
 			for (int i = lineNo; i<=(lineNo+linesNew.size()-1); i++) {
-				Map<Integer, Integer> offsetLineNo = new LinkedHashMap<>();
-				if (!offsetIteration.containsKey(i)) offsetIteration.put(i, offsetLineNo);
-				offsetLineNo = offsetIteration.get(i);
-
 				if (i == (lineNo+linesOrig.size()-1)) {
 					int extraLines = linesNew.size() - linesOrig.size();
-					offsetLineNo.put(-1, extraLines);
-
-					Map<Integer, Integer> lineNrOffset = new LinkedHashMap<>();
-					if (!offsetLines.containsKey(fName)) offsetLines.put(fName, lineNrOffset);
-					lineNrOffset = offsetLines.get(fName);
-					lineNrOffset.put(i,extraLines);
+					offsetIteration.put(i, CompassOffsetIndex.addedLinesCol, extraLines);
+					rwr.offsetLines.computeIfAbsent(fName, k -> new CompassOffsetIndex()).put(i, CompassOffsetIndex.addedLinesCol, extraLines);
 
 					if (debugging) dbgOutput(thisProc()+"lineNo=i=["+i+"] adding "+extraLines+" extra lines at col= -1", debugRewrite);
 					break;
@@ -8072,7 +8753,7 @@ userCfgComplexityHdrLine202308 + "\n" +
 
 				int col = 0;
 				if (i == lineNo) col = startColOrig;
-				offsetLineNo.put(col, diffLength);
+				offsetIteration.put(i, col, diffLength);
 				if (debugging) dbgOutput(thisProc()+"(line) lineNo=i=["+i+"] col=["+col+"] diffLength=["+diffLength+"]", debugRewrite);
 
 			}
@@ -8090,55 +8771,96 @@ userCfgComplexityHdrLine202308 + "\n" +
 		if (newStrNoComment.length() > 100) newStrNoComment = newStrNoComment.substring(0,100) + "(...)";
 		newStrNoComment = newStrNoComment.replace("/*", "/ *"); // avoid generating a nested bracketed comment causing 'reset' to be seen as a proc call
 		newStrNoComment = newStrNoComment.replace("*/", "* /");
-		String msg = String.format("%08d", lineNoOrig) + captureFileSeparator +  String.format("%08d", rewritesDone.size()) + captureFileSeparator +  Integer.toString(lineNoOrig + linesOrig.size() - 1) + captureFileSeparator+ report+": changed ["+reportOrigStr+"] to ["+newStrNoComment+"]" + captureFileSeparator + rewriteType;
-		rewritesDone.add(msg);
+		String msg = String.format("%08d", lineNoOrig) + captureFileSeparator +  String.format("%08d", rwr.rewritesDone.size()) + captureFileSeparator +  Integer.toString(lineNoOrig + linesOrig.size() - 1) + captureFileSeparator+ report+": changed ["+reportOrigStr+"] to ["+newStrNoComment+"]" + captureFileSeparator + rewriteType;
+		rwr.rewritesDone.add(msg);
 	}
 
 
+	// starts collecting the rewrites for the next file; the rewrites collected so far may still be in use by a worker
 	public void resetRewrites() {
-		rewriteTextListKeys.clear();
-		rewriteTextList.clear();
-		rewriteTextListOrigText.clear();
-		rewriteIDDetails.clear();
-		offsetCols.clear();
-		offsetLines.clear();
-		rewritesDone.clear();
+		rewriteTextListKeys = new ArrayList<>();
+		rewriteTextList = new HashMap<>();
+		rewriteTextListOrigText = new HashMap<>();
+		rewriteIDDetails = new HashMap<>();
 	}
 
-	// calculate adjusted line number, taking earlier added lines into account
-	public Integer calcOffsetLine (Integer iteration, Integer lineOrig, String rewriteType) {
-		Integer lineNew = lineOrig;
-		Integer iterationLineNoAdded = 0;
-		if (debugging) dbgOutput(thisProc()+"entry: iteration=["+iteration+"] lineOrig=["+lineOrig+"] offsetCols.size()=["+offsetCols.size()+"] rewriteType=["+rewriteType+"] ", debugRewrite);
-		if (iteration > 0) {
-			for (int i = 0; i < iteration; i++) {
-				if (debugging) dbgOutput(thisProc()+"iteration=["+(i+1)+"] at i=["+i+"]", debugRewrite);
-				if (i >= offsetCols.size()) {
-					if (debugging) dbgOutput(thisProc()+"i=["+i+"], exiting", debugRewrite);
-					break;
-				}
+	// hands the rewrites found in the file just analyzed to a worker, which applies them while the next files are analyzed
+	public void submitRewriting(String reportName, String appName, String inFileCopy) throws IOException {
+		CompassRewriteContext rwr = new CompassRewriteContext(reportName, appName, inFileCopy, rewriteTextListKeys, rewriteTextList, rewriteTextListOrigText, rewriteIDDetails);
+		rwr.mappedInput = CompassMappedFile.open(inFileCopy);
+		resetRewrites();
 
-				lineOrig += iterationLineNoAdded;
-				if (debugging) dbgOutput(thisProc()+"adding "+iterationLineNoAdded+" lines for previous iteration level: lineOrig=["+lineOrig+"] ", debugRewrite);
+		// these are shared by all rewritten files, so set them up before the workers use them
+		if (rwrTabRegex.isEmpty()) rwrTabRegex = escapeRegexChars(rwrTag.trim());
+		checkDir(getReportDirPathname(reportName, rewrittenDirName), false, true);
+		checkDir(getReportDirPathname(reportName, rewrittenDirName, rewrittenHTMLDirName), false, true);
+		formatFooterHTML();
+
+		if (debugging) {
+			// keep the debug output in sequence
+			mergeRewriteResult(rewriteFile(rwr));
+			return;
+		}
+		if (rewritePool == null) {
+			int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+			rewritePool = Executors.newFixedThreadPool(threads, r -> {
+				Thread t = new Thread(r, "compass-rewrite");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		rewritesPending.add(rewritePool.submit(() -> rewriteFile(rwr)));
 
-				iterationLineNoAdded = 0;
-				Map<Integer, Map<Integer, Integer>> offsetIteration = new LinkedHashMap<>();
-				offsetIteration = offsetCols.get(i);
-				for (Integer lineNo : offsetIteration.keySet().stream().sorted().collect(Collectors.toList())) {
-					for (Integer colx : offsetIteration.get(lineNo).keySet().stream().sorted().collect(Collectors.toList())) {
-						Integer offset = offsetIteration.get(lineNo).get(colx);
-						if (debugging) dbgOutput(thisProc()+"     offsets: lineNo=["+lineNo+"] colx=["+colx+"] offset=["+offset+"]", debugRewrite);
-						if (colx != -1) continue; // this is not an added-line count
-						if (lineOrig >= lineNo) {
-							lineNew += offset;
-							if (debugging) dbgOutput(thisProc()+"Adding line offset=["+offset+"] , lineNew=["+lineNew+"]", debugRewrite);
+		// pick up the files that are done, in file order
+		while ((!rewritesPending.isEmpty()) && rewritesPending.peekFirst().isDone()) {
+			mergeRewriteResult(getWorkerResult(rewritesPending.pollFirst()));
+		}
+	}
 
-							iterationLineNoAdded += offset;
-							if (debugging) dbgOutput(thisProc()+"added, iterationLineNoAdded=["+iterationLineNoAdded+"] ", debugRewrite);
-						}
-					}
-				}
+	// waits until all files are rewritten
+	public void waitForRewriting() throws IOException {
+		try {
+			while (!rewritesPending.isEmpty()) {
+				mergeRewriteResult(getWorkerResult(rewritesPending.pollFirst()));
 			}
+		} finally {
+			rewritesPending.clear();
+			if (rewritePool != null) rewritePool.shutdownNow();
+			rewritePool = null;
+		}
+	}
+
+	private CompassRewriteContext rewriteFile(CompassRewriteContext rwr) throws IOException {
+		long startRewrite = System.currentTimeMillis();
+		performRewriting(rwr);
+		rwr.millis = System.currentTimeMillis() - startRewrite;
+		return rwr;
+	}
+
+	// adds the results for a rewritten file to the totals
+	private void mergeRewriteResult(CompassRewriteContext rwr) {
+		for (String msg : rwr.msgs) appOutput(msg);
+		if (rwr.aborted && (debugging || devOptions)) errorExit();
+		offsetLines.putAll(rwr.offsetLines);
+		for (Map.Entry<String,Integer> e : rwr.rewrittenOppties.entrySet()) {
+			rewrittenOppties.put(e.getKey(), rewrittenOppties.getOrDefault(e.getKey(), 0) + e.getValue());
+		}
+		nrRewritesDone += rwr.nrRewritesDone;
+		rewriteMillis += rwr.millis;
+		if (devOptions) {
+			appOutput("SQL rewrite time: " + (rwr.millis/1000) + " seconds" );
+		}
+	}
+
+	// calculate adjusted line number, taking earlier added lines into account
+	public Integer calcOffsetLine (CompassRewriteContext rwr, Integer iteration, Integer lineOrig, String rewriteType) {
+		Integer lineNew = lineOrig;
+		if (debugging) dbgOutput(thisProc()+"entry: iteration=["+iteration+"] lineOrig=["+lineOrig+"] offsetCols.size()=["+rwr.offsetCols.size()+"] rewriteType=["+rewriteType+"] ", debugRewrite);
+		for (int i = 0; (i < iteration) && (i < rwr.offsetCols.size()); i++) {
+			// lines added by this iteration level at or before the line, as numbered after the previous level
+			int added = rwr.offsetCols.get(i).addedLines(lineNew);
+			lineNew += added;
+			if (debugging) dbgOutput(thisProc()+"iteration=["+(i+1)+"] at i=["+i+"]: adding "+added+" lines, lineNew=["+lineNew+"]", debugRewrite);
 		}
 		if (debugging) dbgOutput(thisProc()+"result: lineNew=["+lineNew+"]", debugRewrite);
 		return lineNew;
@@ -8149,49 +8871,26 @@ userCfgComplexityHdrLine202308 + "\n" +
 	public Integer calcOffsetLineHLink (String fName, Integer lineOrig) {
 		Integer lineNew = lineOrig;
 		if (debugging) dbgOutput(thisProc()+"entry: fName=["+fName+"] lineOrig=["+lineOrig+"]", debugRewrite);
-		Map<Integer, Integer> lineNrOffset = new LinkedHashMap<>();
 		if (fName.isEmpty()) {
 			fName = offsetLines.keySet().iterator().next();
 		}
 		if (offsetLines.containsKey(fName)) {
-			lineNrOffset = offsetLines.get(fName);
-
-			for (Integer l : lineNrOffset.keySet().stream().sorted().collect(Collectors.toList())) {
-				Integer extraLines = lineNrOffset.get(l);
-				if (debugging) dbgOutput(thisProc()+"fName=["+fName+"] line=["+l+"] extraLines=["+extraLines+"]", debugRewrite);
-				if (lineOrig >= l) {
-					lineNew += extraLines;
-					if (debugging) dbgOutput(thisProc()+"Adding extraLines=["+extraLines+"], lineNew=["+lineNew+"]", debugRewrite);
-				}
-			}
+			lineNew += offsetLines.get(fName).addedLines(lineOrig);
 		}
 		if (debugging) dbgOutput(thisProc()+"result: lineNew=["+lineNew+"]", debugRewrite);
 		return lineNew;
 	}
 
 	// calculate adjusted column position, taking earlier added chars into account
-	public Integer calcOffsetCol (Integer iteration, Integer lineNo, Integer col) {
+	public Integer calcOffsetCol (CompassRewriteContext rwr, Integer iteration, Integer lineNo, Integer col) {
 		Integer colNew = col;
 		if (debugging) dbgOutput(thisProc()+"entry: iteration=["+iteration+"] lineNo=["+lineNo+"] col=["+col+"]", debugRewrite);
 		if (iteration > 0) {
-			if (offsetCols.size() >= iteration) {
+			if (rwr.offsetCols.size() >= iteration) {
 				for (int i = 0; i < iteration; i++) {
-					if (debugging) dbgOutput(thisProc()+"iteration=["+(i+1)+"] at i=["+i+"]", debugRewrite);
-					Map<Integer, Map<Integer, Integer>> offsetIteration = new LinkedHashMap<>();
-					offsetIteration = offsetCols.get(i);
-					if (debugging) dbgOutput(thisProc()+"offsetIteration.size()=["+offsetIteration.size()+"] keys=["+offsetIteration.keySet()+"] ", debugRewrite);
-					if (offsetIteration.containsKey(lineNo)) {
-						if (debugging) dbgOutput(thisProc()+"found "+offsetIteration.get(lineNo).keySet().size()+" entries for iteration=["+(i+1)+"] lineNo=["+lineNo+"]", debugRewrite);
-						for (Integer colx : offsetIteration.get(lineNo).keySet().stream().sorted().collect(Collectors.toList())) {
-							Integer offset = offsetIteration.get(lineNo).get(colx);
-							if (debugging) dbgOutput(thisProc()+"   lineNo=["+lineNo+"] colx=["+colx+"] offset=["+offset+"]", debugRewrite);
-							if (colx == -1) continue; // this is an added-line count
-							if (col > colx) {
-								colNew += offset;
-								if (debugging) dbgOutput(thisProc()+"Adding offset=["+offset+"], colNew=["+colNew+"]", debugRewrite);
-							}
-						}
-					}
+					int added = rwr.offsetCols.get(i).addedChars(lineNo, col);
+					colNew += added;
+					if (debugging) dbgOutput(thisProc()+"iteration=["+(i+1)+"] at i=["+i+"]: adding offset=["+added+"], colNew=["+colNew+"]", debugRewrite);
 				}
 			}
 		}
@@ -8200,78 +8899,33 @@ userCfgComplexityHdrLine202308 + "\n" +
 	}
 
 	// calculate adjusted length, taking earlier added chars into account
-	public Integer calcOffsetLength (Integer iteration, Integer startLineNo, Integer startCol, Integer endLineNo, Integer endCol, String rewriteType) {
+	public Integer calcOffsetLength (CompassRewriteContext rwr, Integer iteration, Integer startLineNo, Integer startCol, Integer endLineNo, Integer endCol, String rewriteType) {
 		Integer lengthNew = 0;
 		Integer iterationStartLineNoAdded = 0;
 		Integer iterationEndLineNoAdded = 0;
-		if (debugging) dbgOutput(thisProc()+"entry: iteration=["+iteration+"] startLineNo=["+startLineNo+"] startCol=["+startCol+"] endLineNo=["+endLineNo+"] endCol=["+endCol+"] offsetCols.size()=["+offsetCols.size()+"] rewriteType=["+rewriteType+"] ", debugRewrite);
+		if (debugging) dbgOutput(thisProc()+"entry: iteration=["+iteration+"] startLineNo=["+startLineNo+"] startCol=["+startCol+"] endLineNo=["+endLineNo+"] endCol=["+endCol+"] offsetCols.size()=["+rwr.offsetCols.size()+"] rewriteType=["+rewriteType+"] ", debugRewrite);
 		if (iteration > 0) {
-			if (offsetCols.size() >= iteration) {
+			if (rwr.offsetCols.size() >= iteration) {
 				for (int i = 0; i < iteration; i++) {
-					if (debugging) dbgOutput(thisProc()+"iteration=["+(i+1)+"] at i=["+i+"]", debugRewrite);
-					Map<Integer, Map<Integer, Integer>> offsetIteration = new LinkedHashMap<>();
-					offsetIteration = offsetCols.get(i);
+					CompassOffsetIndex offsetIteration = rwr.offsetCols.get(i);
 
-					if (debugging) dbgOutput(thisProc()+"offsetIteration.size()=["+offsetIteration.size()+"] keys=["+offsetIteration.keySet()+"] ", debugRewrite);
+					// line numbers as numbered after the previous iteration level
 					startLineNo += iterationStartLineNoAdded;
 					endLineNo   += iterationEndLineNoAdded;
-
-					if (debugging) dbgOutput(thisProc()+"adding "+iterationEndLineNoAdded+" end lines for previous iteration level: endLineNo=["+endLineNo+"] ", debugRewrite);
-					if (debugging) dbgOutput(thisProc()+"adding "+iterationStartLineNoAdded+" lines for previous iteration level: startLineNo=["+startLineNo+"] ", debugRewrite);
-					iterationStartLineNoAdded = 0;
-					iterationEndLineNoAdded = 0;
-
-					//for (Integer lineNo=startLineNo; lineNo<=endLineNo; lineNo++) {
-					for (Integer lineNo=1; lineNo<=endLineNo; lineNo++) {
-						if (!offsetIteration.containsKey(lineNo)) continue;
-						if (debugging) dbgOutput(thisProc()+"lineNo=["+lineNo+"]", debugRewrite);
-
-						if (debugging) dbgOutput(thisProc()+"found entries for iteration=["+(i+1)+"] lineNo=["+lineNo+"]", debugRewrite);
-						for (Integer colx : offsetIteration.get(lineNo).keySet().stream().sorted().collect(Collectors.toList())) {
-							Integer offset = offsetIteration.get(lineNo).get(colx);
-							if (debugging) dbgOutput(thisProc()+"   lineNo=["+lineNo+"] colx=["+colx+"] offset=["+offset+"]", debugRewrite);
-							if (colx == -1) {
-								// this is an added-line count
-								// add line offset for startLineNo for next iteration level
-								if (lineNo <= startLineNo) {
-									iterationStartLineNoAdded += offset;
-									if (debugging) dbgOutput(thisProc()+"added offset=["+offset+"] for lineNo=["+lineNo+"] startLineNo=["+startLineNo+"]  iterationStartLineNoAdded=["+iterationStartLineNoAdded+"] ", debugRewrite);
-								}
-								if (lineNo < endLineNo) {
-									iterationEndLineNoAdded += offset;
-									if (debugging) dbgOutput(thisProc()+"added offset=["+offset+"] for lineNo=["+lineNo+"] endLineNo=[$endLineNo]  iterationEndLineNoAdded=["+iterationEndLineNoAdded+"] ", debugRewrite);
-								}
-								continue;
-							}
-
-							if (lineNo < startLineNo) continue;
-
-							if ((lineNo.equals(startLineNo)) && (startCol > colx)) {
-								if (debugging) dbgOutput(thisProc()+"   == startLineNo: before startCol, skip, lengthNew=["+lengthNew+"]", debugRewrite);
-								continue;
-							}
-							if ((lineNo.equals(startLineNo)) && (colx > endCol)) {
-								if (debugging) dbgOutput(thisProc()+"   == startLineNo: after endCol, skip, lengthNew=["+lengthNew+"]", debugRewrite);
-								continue;
-							}
-
-							if ((lineNo.equals(startLineNo)) && (colx >= startCol)) {
-								lengthNew += offset;
-								if (debugging) dbgOutput(thisProc()+"   == startLineNo: Adding offset=["+offset+"], lengthNew=["+lengthNew+"]", debugRewrite);
-							}
-							else if ((lineNo.equals(endLineNo)) && (endCol > colx)) {
-								lengthNew += offset;
-								if (debugging) dbgOutput(thisProc()+"   == endLineNo: Adding offset=["+offset+"], lengthNew=["+lengthNew+"]", debugRewrite);
-							}
-							else if ((lineNo > startLineNo) && (lineNo < endLineNo)) {
-								lengthNew += offset;
-								if (debugging) dbgOutput(thisProc()+"   >startlineNo, < endlineNo: Adding offset=["+offset+"], lengthNew=["+lengthNew+"]", debugRewrite);
-							}
-							else {
-								if (debugging) dbgOutput(thisProc()+"   no match, lengthNew=["+lengthNew+"] ", debugRewrite);
-							}
-						}
+					if (debugging) dbgOutput(thisProc()+"iteration=["+(i+1)+"] at i=["+i+"]: startLineNo=["+startLineNo+"] endLineNo=["+endLineNo+"] ", debugRewrite);
+
+					// lines added by this level: up to the start line, and before the end line
+					iterationStartLineNoAdded = offsetIteration.addedLines(Math.min(startLineNo, endLineNo));
+					iterationEndLineNoAdded = offsetIteration.addedLines(endLineNo-1);
+
+					// chars added within the range: on the start line up to endCol, on the end line before endCol, and on the lines in between
+					if (startLineNo > endLineNo) continue;
+					lengthNew += offsetIteration.addedChars(startLineNo, startCol, endCol);
+					if (endLineNo > startLineNo) {
+						lengthNew += offsetIteration.addedChars(endLineNo, endCol);
+						lengthNew += offsetIteration.addedCharsBetween(startLineNo, endLineNo);
 					}
+					if (debugging) dbgOutput(thisProc()+"iteration=["+(i+1)+"] lengthNew=["+lengthNew+"]", debugRewrite);
 				}
 			}
 		}
@@ -8279,17 +8933,13 @@ userCfgComplexityHdrLine202308 + "\n" +
 		return lengthNew;
 	}
 
-	public void dumpOffsetCols(String s) {
-		if (debugging) dbgOutput(thisProc()+s+": offsetCols: #iteration levels=["+offsetCols.size()+"]", debugRewrite);
-		for (int i = 0; i < offsetCols.size(); i++) {
+	public void dumpOffsetCols(CompassRewriteContext rwr, String s) {
+		if (debugging) dbgOutput(thisProc()+s+": offsetCols: #iteration levels=["+rwr.offsetCols.size()+"]", debugRewrite);
+		for (int i = 0; i < rwr.offsetCols.size(); i++) {
 			if (debugging) dbgOutput(thisProc()+"iteration=["+(i+1)+"] at i=["+i+"]", debugRewrite);
-			Map<Integer, Map<Integer, Integer>> offsetIteration = new LinkedHashMap<>();
-			offsetIteration = offsetCols.get(i);
-			//if (debugging) dbgOutput(thisProc()+"offsetIteration.size()=["+offsetIteration.size()+"] keys=["+offsetIteration.keySet()+"] ", debugRewrite);
-			for (Integer lineNo : offsetIteration.keySet().stream().sorted().collect(Collectors.toList())) {
-				//if (debugging) dbgOutput(thisProc()+"   offsets: lineNo=["+lineNo+"]", debugRewrite);
-				for (Integer col : offsetIteration.get(lineNo).keySet().stream().sorted().collect(Collectors.toList())) {
-					if (debugging) dbgOutput(thisProc()+"     offsets: lineNo=["+lineNo+"] col=["+col+"] offset=["+offsetIteration.get(lineNo).get(col)+"]", debugRewrite);
+			for (Map.Entry<Integer, SortedMap<Integer, Integer>> e : rwr.offsetCols.get(i).getOffsets().entrySet()) {
+				for (Integer col : e.getValue().keySet()) {
+					if (debugging) dbgOutput(thisProc()+"     offsets: lineNo=["+e.getKey()+"] col=["+col+"] offset=["+e.getValue().get(col)+"]", debugRewrite);
 				}
 			}
 		}
@@ -8299,20 +8949,21 @@ userCfgComplexityHdrLine202308 + "\n" +
 	public void dumpOffsetLines(String s) {
 		if (debugging) dbgOutput(thisProc()+s+": offsetLines: #files=["+offsetLines.size()+"]", debugRewrite);
 		for (String f : offsetLines.keySet().stream().sorted().collect(Collectors.toList())) {
-			Map<Integer, Integer> lineNrOffset = new LinkedHashMap<>();
-			lineNrOffset = offsetLines.get(f);
-			for (Integer l : lineNrOffset.keySet().stream().sorted().collect(Collectors.toList())) {
-				Integer extraLines = lineNrOffset.get(l);
-				if (debugging) dbgOutput(thisProc()+"f=["+f+"] line=["+l+"] extraLines=["+extraLines+"]", debugRewrite);
+			for (Map.Entry<Integer, SortedMap<Integer, Integer>> e : offsetLines.get(f).getOffsets().entrySet()) {
+				Integer extraLines = e.getValue().get(CompassOffsetIndex.addedLinesCol);
+				if (debugging) dbgOutput(thisProc()+"f=["+f+"] line=["+e.getKey()+"] extraLines=["+extraLines+"]", debugRewrite);
 			}
 		}
 		if (debugging) dbgOutput(thisProc(), debugRewrite);
 	}
 
 	// apply text substitutions
-	public void performRewriting(String reportName, String appName, String inFileCopy) throws IOException {
-		if (debugging) dbgOutput(thisProc()+"performing rewrites=["+rewriteTextListKeys.size()+"] to copy of ["+inFileCopy+"]", debugRewrite);
-		if (rewriteTextListKeys.size() == 0) return;
+	public void performRewriting(CompassRewriteContext rwr) throws IOException {
+		String reportName = rwr.reportName;
+		String appName = rwr.appName;
+		String inFileCopy = rwr.inFileCopy;
+		if (debugging) dbgOutput(thisProc()+"performing rewrites=["+rwr.rewriteTextListKeys.size()+"] to copy of ["+inFileCopy+"]", debugRewrite);
+		if (rwr.rewriteTextListKeys.size() == 0) return;
 
 		// determine whether there are any substitutions that are overlapping with other ones
 		// when sorted by startPos, the larger range will be sorted first, and the smaller range within that range will be next
@@ -8338,26 +8989,31 @@ userCfgComplexityHdrLine202308 + "\n" +
 		String sPrev = "";
 		List<String> tmpRemovedItems = new ArrayList<>();
 		List<String> tmpToDoItems = new ArrayList<>();
-		tmpToDoItems.addAll(rewriteTextListKeys);
-
-		// one-time init
-		if (rwrTabRegex.isEmpty()) rwrTabRegex = escapeRegexChars(rwrTag.trim());
+		tmpToDoItems.addAll(rwr.rewriteTextListKeys);
 
 		// next: copy inputfile copy to tmp file; read tmp file as input; write target file as output
 		// next: keep track of added lines/columns and adjust in subsequent cycles
 		String rewrittenDir = getReportDirPathname(reportName, rewrittenDirName);
 		String rewrittenHTMLDir = getReportDirPathname(reportName, rewrittenDirName, rewrittenHTMLDirName);
-		checkDir(rewrittenDir, false, true);
-		checkDir(rewrittenHTMLDir, false, true);
 
-		String tmpFile = getFilePathname(rewrittenDir, rewrittenTmpFile);
 		String fName = Paths.get(inFileCopy).getFileName().toString().replaceAll(importFileTag, rewrittenFileTag);
 		String rewrittenFile = getFilePathname(rewrittenDir, fName);
 		String rewrittenHTMLFile = getFilePathname(rewrittenHTMLDir, fName);
 		rewrittenHTMLFile = changeFilenameSuffix(rewrittenHTMLFile, importFileSuffix, HTMLSuffix);
-		String inFile = inFileCopy;
 
-		Integer tmpCnt = 0;
+		// the text is read once; rewrites containing other rewrites are applied in a later pass than those, over the
+		// text as rewritten by the earlier passes, and positions are adjusted for the earlier passes
+		CompassPieceTable text;
+		try {
+			text = readRewriteInput(rwr.mappedInput);
+		} finally {
+			CompassMappedFile.close(rwr.mappedInput);
+			rwr.mappedInput = null;
+		}
+
+		// sorted by batch and start position
+		tmpToDoItems.sort(null);
+
 		Integer iteration = -1;
 		boolean abortNow = false;
 
@@ -8365,40 +9021,16 @@ userCfgComplexityHdrLine202308 + "\n" +
 			iteration++;
 			if (debugging) dbgOutput(thisProc()+"top: iteration=["+iteration+"]", debugRewrite);
 
-			checkDir(rewrittenDir, true, true);
-			checkDir(rewrittenHTMLDir, true, true);
-			deleteFile(tmpFile);
-			copyFile(inFile, tmpFile);
-			if (debugging) dbgOutput(thisProc()+"copied inFile=["+inFile+"] to tmpFile=["+tmpFile+"] target rewrittenFile=["+rewrittenFile+"] rewrittenHTMLFile=["+rewrittenHTMLFile+"] ", debugRewrite);
-
-			openRewrittenFile(reportName, appName, tmpFile, rewrittenFile);
-			inFile = rewrittenFile;
-
-			// DEBUG Only: for next iteration, keep temp file
-			if (debugging && debugRewrite) {
-				tmpCnt++;
-				tmpFile = applyPatternFirst(tmpFile, "\\.\\d+$", "") + "." + tmpCnt.toString();
-			}
-
-			List<String> tmpSorted = tmpToDoItems.stream().sorted().collect(Collectors.toList());
+			List<String> tmpSorted = new ArrayList<>(tmpToDoItems);
 			tmpRemovedItems.clear();
 			if (debugging) dbgOutput(thisProc()+"tmpToDoItems top=["+tmpToDoItems.size()+"]", debugRewrite);
 
-			for (String s : tmpToDoItems.stream().sorted().collect(Collectors.toList())) {
+			for (String s : tmpToDoItems) {
 				if (debugging) dbgOutput(thisProc()+"s=["+s+"]", debugRewrite);
 				List<String> tmp = new ArrayList<>(Arrays.asList(s.split(captureFileSeparator)));
 				batchNo  = Integer.parseInt(tmp.get(0));
 				startPos = Integer.parseInt(tmp.get(1));
 				endPos = Integer.parseInt(tmp.get(2));
-				startLine = Integer.parseInt(tmp.get(3));
-				startCol  = Integer.parseInt(tmp.get(4));
-				endLine = Integer.parseInt(tmp.get(6));
-				endCol  = Integer.parseInt(tmp.get(7));
-				origLen  = endPos - startPos + 1;
-				rewriteType  = tmp.get(8);
-				report   = tmp.get(9);
-				rewriteText = rewriteTextList.get(s);
-				if (debugging) dbgOutput(thisProc()+"startLine=["+startLine+"] startCol=["+startCol+"] startPos=["+startPos+"] endPos=["+endPos+"] endLine=["+endLine+"] endCol=["+endCol+"] origLen=["+origLen+"] rewriteType=["+rewriteType+"]  rewriteText=["+rewriteText+"] report=["+report+"]", debugRewrite);
 
 				if (batchNoPrev == batchNo) {
 					if (startPos >= startPrev && endPos <= endPrev) {
@@ -8430,282 +9062,149 @@ userCfgComplexityHdrLine202308 + "\n" +
 				for (String s : tmpToDoItems) {
 					dbgOutput(thisProc()+"tmpToDoItems: after range check: s=["+s+"] ", debugRewrite);
 				}
-				dumpOffsetCols("after range chk");
+				dumpOffsetCols(rwr, "after range chk");
 			}
 
-			int rewriteCount = 0;
-			boolean nextRewrite = true;
-
-			int lineNo = 0;
-			int remainingLength = -1;
-			boolean endOfFile = false;
-			String origStrFull = "";
-			int startLineOrig = -1;
-
-			while (true) {
-				String line = rewrittenInFileReader.readLine();
-				if (line == null) {
-					endOfFile = true;
-					break;
+			CompassPieceTable.Pass pass = text.newPass();
+			for (String k : tmpSorted) {
+				rewriteText = rwr.rewriteTextList.get(k);
+				List<String> tmp = new ArrayList<>(Arrays.asList(k.split(captureFileSeparator)));
+				batchNo  = Integer.parseInt(tmp.get(0));
+				startPos = Integer.parseInt(tmp.get(1));
+				endPos = Integer.parseInt(tmp.get(2));
+				startLine = Integer.parseInt(tmp.get(3));
+				startCol  = Integer.parseInt(tmp.get(4));
+				endLine = Integer.parseInt(tmp.get(6));
+				endCol  = Integer.parseInt(tmp.get(7));
+				rewriteType  = tmp.get(8);
+				report   = tmp.get(9);
+				if (startPos == endPos) {
+					if (report.startsWith(CompassAnalyze.PGOpWhitespaceFmt)) origLen = 1;
+					else if (report.startsWith(CompassAnalyze.UnaryStringPlusOp)) origLen = 1;
+					else origLen = 0;
 				}
-				if (lineNo == 0) {
-					if (!importFileAttribute(line,1).isEmpty()) {
-						if (!importFileAttribute(line,2).isEmpty()) {
-							// this is the header line from the import copy, discard it
-							continue;
-						}
-					}
+				else {
+					origLen = endPos - startPos + 1;
 				}
-				lineNo++;
-				int lineCut = 0;
-				boolean keepLine = false;
-				int startColOrig = -1;
-				while (true) {
-					if (nextRewrite) {
-						String k = tmpSorted.get(rewriteCount);
-						rewriteText = rewriteTextList.get(k);
-						if (debugging) dbgOutput(thisProc()+"rewriteCount=["+rewriteCount+"]  k=["+k+"] rewriteText=["+rewriteText+"]", debugRewrite);
-
-						List<String> tmp = new ArrayList<>(Arrays.asList(k.split(captureFileSeparator)));
-						batchNo  = Integer.parseInt(tmp.get(0));
-						startPos = Integer.parseInt(tmp.get(1));
-						endPos = Integer.parseInt(tmp.get(2));
-						startLine = Integer.parseInt(tmp.get(3));
-						startCol  = Integer.parseInt(tmp.get(4));
-						endLine = Integer.parseInt(tmp.get(6));
-						endCol  = Integer.parseInt(tmp.get(7));
-						rewriteType  = tmp.get(8);
-						report   = tmp.get(9);						
-						if (startPos == endPos) {
-							if (report.startsWith(CompassAnalyze.PGOpWhitespaceFmt)) origLen = 1;
-							else if (report.startsWith(CompassAnalyze.UnaryStringPlusOp)) origLen = 1;
-							else origLen = 0;
-						}
-						else {
-							origLen = endPos - startPos + 1;
-						}
 
-						if (debugging) dbgOutput(thisProc()+"rewriteCount=["+rewriteCount+"] iteration=["+iteration+"] startPos=["+startPos+"] endPos=["+endPos+"] startLine=["+startLine+"] startCol=["+startCol+"] endLine=["+endLine+"] endCol=["+endCol+"] origLen=["+origLen+"] rewriteType=["+rewriteType+"] rewriteText=["+rewriteText+"] report=["+report+"]", debugRewrite);
+				if (debugging) dbgOutput(thisProc()+"iteration=["+iteration+"] startPos=["+startPos+"] endPos=["+endPos+"] startLine=["+startLine+"] startCol=["+startCol+"] endLine=["+endLine+"] endCol=["+endCol+"] origLen=["+origLen+"] rewriteType=["+rewriteType+"] rewriteText=["+rewriteText+"] report=["+report+"]", debugRewrite);
 
-						if (debugging && debugRewrite) dumpOffsetCols("before calc");
+				if (debugging && debugRewrite) dumpOffsetCols(rwr, "before calc");
 
-						startLineOrig = startLine;
-						startLine = calcOffsetLine(iteration, startLine, rewriteType);
-						if (debugging) dbgOutput(thisProc()+"startLine after adjust=["+startLine+"] delta=["+(startLine-startLineOrig)+"] ", debugRewrite);
+				int startLineOrig = startLine;
+				startLine = calcOffsetLine(rwr, iteration, startLine, rewriteType);
+				if (debugging) dbgOutput(thisProc()+"startLine after adjust=["+startLine+"] delta=["+(startLine-startLineOrig)+"] ", debugRewrite);
 
-						Integer startColNew = calcOffsetCol(iteration, startLineOrig, startCol);
-						if (debugging) dbgOutput(thisProc()+"startCol=["+startCol+"] startColNew=["+startColNew+"]", debugRewrite);
+				Integer startColNew = calcOffsetCol(rwr, iteration, startLineOrig, startCol);
+				if (debugging) dbgOutput(thisProc()+"startCol=["+startCol+"] startColNew=["+startColNew+"]", debugRewrite);
 
-						Integer endColNew = calcOffsetCol(iteration, endLine, endCol);
-						if (debugging) dbgOutput(thisProc()+"endCol=["+startCol+"] endColNew=["+endColNew+"]", debugRewrite);
+				Integer offsetLength = calcOffsetLength(rwr, iteration, startLineOrig, startCol, endLine, endCol, rewriteType);
+				if (debugging) dbgOutput(thisProc()+"offsetLength=["+offsetLength+"] origLen=["+origLen+"] origLenNew=["+(origLen + offsetLength)+"]", debugRewrite);
 
-						Integer offsetLength = calcOffsetLength(iteration, startLineOrig, startCol, endLine, endCol, rewriteType);
-						Integer origLenNew = origLen + offsetLength;
-						if (debugging) dbgOutput(thisProc()+"offsetLength=["+offsetLength+"]", debugRewrite);
-						if (debugging) dbgOutput(thisProc()+"origLen=["+origLen+"] origLenNew=["+origLenNew+"]", debugRewrite);
+				startCol = startColNew;
+				origLen = origLen + offsetLength;
 
-						startCol = startColNew;
-						startColOrig = startCol;
-						origLen = origLenNew;
+				// a rewrite starting on a line already passed cannot be applied, and neither can the ones after it
+				if (startLine < pass.getLine()) break;
+				int lineCut = (startLine == pass.getLine()) ? pass.getCol() : 0;
+				if (!pass.seek(startLine, lineCut)) break;
 
-						nextRewrite = false;
-					}
-
-					if (debugging) dbgOutput(thisProc()+"lineNo=["+lineNo+"]=["+line+"]  lineCut=["+lineCut+"]", debugRewrite);
-					if (debugging) dbgOutput(thisProc()+"startLine=["+startLine+"]", debugRewrite);
-					if (lineNo == startLine) {
-						// reached startline for sub; apply it
-						if (debugging) dbgOutput(thisProc()+"*** applying rewrite=["+rewriteCount+"] origLen=["+origLen+"]", debugRewrite);
-						keepLine = false; // new rewrite to be done
-
-						if (debugging) dbgOutput(thisProc()+"startCol orig=["+startColOrig+"] lineCut=["+lineCut+"] ", debugRewrite);
-						if (startColOrig == -1) startColOrig = startCol;
-						startCol = startColOrig - lineCut;
-						if (debugging) dbgOutput(thisProc()+"startCol adjusted=["+startCol+"] ", debugRewrite);
-
-						// sanity check on line length
-						if (line.length() < startCol+1) {
-							// something went wrong, exit without further processing
-							appOutput(thisProc()+inFileCopy+": Internal error at line "+lineNo+": length="+line.length()+". expected at least "+(startCol+1)+". Aborting rewrite for this file.");
-							appOutput(thisProc()+"line=["+line+"] ");
-							abortNow = true;
-							if (debugging || devOptions) errorExit();
-							break;
-						}
-
-						// sanity check on startCol -- in rare cases we could go astray here
-						if (startCol < 0) {
-							// something went wrong, exit without further processing
-							appOutput(thisProc()+inFileCopy+": Internal error at line "+lineNo+": length="+line.length()+". startCol=["+startCol+"]. Aborting rewrite for this file.");
-							appOutput(thisProc()+"line=["+line+"] ");
-							abortNow = true;
-							if (debugging || devOptions) errorExit();
-							break;
-						}
-
-						// find start & end of original part
-						remainingLength = origLen;
-						String pre = line.substring(0,startCol);
-						lineCut += pre.length();
-						writeRewrittenFile(pre);
-						if (debugging) dbgOutput(thisProc()+"pre=["+pre+"] remainingLength=["+remainingLength+"] ", debugRewrite);
-
-						if (debugging) dbgOutput(thisProc()+"remainingLength=["+remainingLength+"] line.length()=["+line.length()+"] pre.length()=["+pre.length()+"] keepLine=["+keepLine+"] ", debugRewrite);
-						if (line.length() - pre.length() >= remainingLength) {
-							if (debugging) dbgOutput(thisProc()+"ends on this line(A), remainingLength=["+remainingLength+"]", debugRewrite);
-							// it's all on this line
-							String origStr = line.substring(startCol, startCol+remainingLength);
-							origStrFull += origStr;
-							remainingLength -= origStr.length();
-							if (debugging) dbgOutput(thisProc()+"origStr A=["+origStr+"] remainingLength=["+remainingLength+"]", debugRewrite);
-							if (debugging) dbgOutput(thisProc()+"origStrFull=["+origStrFull+"] ", debugRewrite);
-							assert (remainingLength == 0) : thisProc()+"error, remainingLength("+remainingLength+") should be 0: line=["+line+"] pre=["+pre+"] ";
-							String post = line.substring(pre.length() + origStr.length());
-							line = post;
-							lineCut += origStr.length();
-							keepLine = true;
-
-							List<String> newStr = applyRewrite(rewriteType, report, rewriteText, origStrFull);
-							addOffsets(iteration+1, startLine, startLineOrig, startColOrig, origStrFull, newStr.get(2), newStr.get(0), newStr.get(1), report, fName, rewriteType);
-
-							writeRewrittenFile(newStr.get(0));
-							origStrFull = "";
-						}						
-						else {
-							// original text extends to next line(s)
-							if (debugging) dbgOutput(thisProc()+"extends on next line(B), remainingLength=["+remainingLength+"]", debugRewrite);
-							String origStr = line.substring(startCol);
-							origStrFull += origStr + "\n";
-							remainingLength -= origStr.length();
-							remainingLength--; // for the newline char
-							if (debugging) dbgOutput(thisProc()+"extends on next line(B), origStrFull=["+origStrFull+"]", debugRewrite);
-						}
-					}
-					else if (remainingLength > 0) {
-						if (debugging) dbgOutput (thisProc()+"extending from previous line(C), remainingLength=["+remainingLength+"]", debugRewrite);
-
-						if (debugging) dbgOutput(thisProc()+"startCol orig=["+startColOrig+"] lineCut=["+lineCut+"] ", debugRewrite);
-						if (startColOrig == -1) startColOrig = startCol;
-						startCol = startColOrig - lineCut;
-						if (debugging) dbgOutput(thisProc()+"startCol adjusted=["+startCol+"] ", debugRewrite);
-
-						// continue collecting the original string
-						if (line.length() < remainingLength) {
-							// extends to another line
-							remainingLength -= line.length();
-							remainingLength--; // for the newline char
-							origStrFull += line + "\n";
-							if (debugging) dbgOutput(thisProc()+"extends on next line(D)=["+line+"] remainingLength=["+remainingLength+"] origStrFull=["+origStrFull+"]=["+origStrFull.length()+"]", debugRewrite);
-						}
-						else {
-							// ends on this line
-							if (debugging) dbgOutput(thisProc()+"ends on this line(E), remainingLength=["+remainingLength+"]", debugRewrite);
-							String origStr = line.substring(0,remainingLength);
-							origStrFull += origStr;
-							remainingLength -= origStr.length();
-							assert (remainingLength == 0) : "error, remainingLength("+remainingLength+") should be 0: line=["+line+"] ";
-							String post = line.substring(origStr.length());
-							line = post;
-							lineCut += origStr.length();
-							keepLine = true;
-
-							if (debugging) dbgOutput(thisProc()+"origStrFull=["+origStrFull+"]=["+origStrFull.length()+"]", debugRewrite);
-							List<String> newStr = applyRewrite(rewriteType, report, rewriteText, origStrFull);
-							addOffsets(iteration+1, startLine, startLineOrig, startColOrig, origStrFull, newStr.get(2), newStr.get(0), newStr.get(1), report, fName, rewriteType);
-
-							writeRewrittenFile(newStr.get(0));
-							origStrFull = "";
-						}
-					}
-					else {
-						String newStr = line + "\n";
-						writeRewrittenFile(newStr);
-						if (debugging) dbgOutput(thisProc()+"write newStr(F), =["+newStr+"] ", debugRewrite);
-						break;
-					}
-
-					if (remainingLength == 0) {
-						// when rewrite is done, move to next rewrite
-						rewriteCount++;
-						if (debugging) dbgOutput(thisProc()+"next rewrite: rewriteCount=["+rewriteCount+"]", debugRewrite);
-						nextRewrite = true;
-						remainingLength = -1;
-						if (rewriteCount >= tmpSorted.size()) {
-							// no more subs to apply
-							if (debugging) dbgOutput(thisProc()+"rewriteCount=["+rewriteCount+"] no more rewrites to apply", debugRewrite);
-							startLine = -1;
-							nextRewrite = false;
-						}
-					}
-
-					if (!keepLine) {
-						if (debugging) dbgOutput(thisProc()+"keepLine=["+keepLine+"], breaking", debugRewrite);
-						break;
-					}
+				// sanity checks on the position -- in rare cases we could go astray here
+				String line = pass.peekLine();
+				if (line.length() < startCol-lineCut+1) {
+					// something went wrong, exit without further processing
+					rwr.msgs.add(thisProc()+inFileCopy+": Internal error at line "+startLine+": length="+line.length()+". expected at least "+(startCol-lineCut+1)+". Aborting rewrite for this file.");
+					rwr.msgs.add(thisProc()+"line=["+line+"] ");
+					abortNow = true;
+					break;
 				}
-				if (abortNow) break;
-			}
-			if (abortNow) break;
-
-			// add list of rewrites to bottom of rewritten file
-			if (tmpToDoItems.size() == 0) {
-				writeRewrittenFile("\n");
-				writeRewrittenFile("/*\n");
-				writeRewrittenFile(SQLcodeRewrittenText +rewritesDone.size()+"\n");
-				if (rewritesDone.size() > 0) {
-					for (String s : rewritesDone.stream().sorted().collect(Collectors.toList())) {
-						nrRewritesDone++;
-						List<String> tmp = new ArrayList<>(Arrays.asList(s.split(captureFileSeparator)));
-						Integer firstLine = Integer.parseInt(tmp.get(0));
-						Integer lastLine = Integer.parseInt(tmp.get(2));
-						String origMsg = tmp.get(3);
-						String rewriteTypeMsg = tmp.get(4);
-
-						firstLine = calcOffsetLine(calcOffsetIterationMax, firstLine, rewriteTypeMsg);
-						lastLine = calcOffsetLine(calcOffsetIterationMax, lastLine, rewriteTypeMsg);
-
-						String lastLineStr = "";
-						if (!firstLine.equals(lastLine)) {
-							lastLineStr = "-"  + lastLine.toString();
-						}
-
-						String msg = "line " + firstLine.toString() + lastLineStr + ": " + origMsg;
-						msg = msg.replaceAll("[\\t ]+", " ");
-						msg = msg.replaceAll("\n\\s*", " \\\\n ");
-						msg = lineIndent + msg;
-						writeRewrittenFile(msg+"\n");
-					}
+				if (startCol-lineCut < 0) {
+					rwr.msgs.add(thisProc()+inFileCopy+": Internal error at line "+startLine+": length="+line.length()+". startCol=["+(startCol-lineCut)+"]. Aborting rewrite for this file.");
+					rwr.msgs.add(thisProc()+"line=["+line+"] ");
+					abortNow = true;
+					break;
 				}
-				writeRewrittenFile("*/\n");
-				writeRewrittenFile("reset\n");
-				writeRewrittenFile("go\n");
-			}
-			closeRewrittenFile();
 
-			if (!(debugging && debugRewrite)) {
-				deleteFile(tmpFile);
+				pass.seek(startLine, startCol);
+				String origStrFull = pass.take(origLen);
+				if (origStrFull == null) break;
+				if (debugging) dbgOutput(thisProc()+"*** applying rewrite origStrFull=["+origStrFull+"]", debugRewrite);
+
+				List<String> newStr = applyRewrite(rwr, rewriteType, report, rewriteText, origStrFull);
+				addOffsets(rwr, iteration+1, startLine, startLineOrig, startCol, origStrFull, newStr.get(2), newStr.get(0), newStr.get(1), report, fName, rewriteType);
+				pass.insert(newStr.get(0));
 			}
+			if (abortNow) break;
+			pass.finish();
 		}
 
 		if (abortNow) {
 			// clean up
-			closeRewrittenFile();
+			rwr.aborted = true;
 			deleteFile(rewrittenFile);
 			deleteFile(rewrittenHTMLFile);
+			return;
 		}
-		else {
-			// copy to HTML format
-			writeRewrittenHTMLFile(reportName, appName, rewrittenFile, rewrittenHTMLFile);
 
-			// rename rewritten file
-			File fSrc  = new File(rewrittenFile);
-			File fDest = new File(renameRewrittenFile(appName, rewrittenFile));
-	    	Files.move(fSrc.toPath(), fDest.toPath(), StandardCopyOption.REPLACE_EXISTING);
-	    }
+		// add list of rewrites to bottom of rewritten file
+		StringBuilder rewritesList = new StringBuilder();
+		rewritesList.append("\n");
+		rewritesList.append("/*\n");
+		rewritesList.append(SQLcodeRewrittenText +rwr.rewritesDone.size()+"\n");
+		if (rwr.rewritesDone.size() > 0) {
+			for (String s : rwr.rewritesDone.stream().sorted().collect(Collectors.toList())) {
+				rwr.nrRewritesDone++;
+				List<String> tmp = new ArrayList<>(Arrays.asList(s.split(captureFileSeparator)));
+				Integer firstLine = Integer.parseInt(tmp.get(0));
+				Integer lastLine = Integer.parseInt(tmp.get(2));
+				String origMsg = tmp.get(3);
+				String rewriteTypeMsg = tmp.get(4);
+
+				firstLine = calcOffsetLine(rwr, calcOffsetIterationMax, firstLine, rewriteTypeMsg);
+				lastLine = calcOffsetLine(rwr, calcOffsetIterationMax, lastLine, rewriteTypeMsg);
+
+				String lastLineStr = "";
+				if (!firstLine.equals(lastLine)) {
+					lastLineStr = "-"  + lastLine.toString();
+				}
+
+				String msg = "line " + firstLine.toString() + lastLineStr + ": " + origMsg;
+				msg = msg.replaceAll("[\\t ]+", " ");
+				msg = msg.replaceAll("\n\\s*", " \\\\n ");
+				msg = lineIndent + msg;
+				rewritesList.append(msg+"\n");
+			}
+		}
+		rewritesList.append("*/\n");
+		rewritesList.append("reset\n");
+		rewritesList.append("go\n");
+		text.append(rewritesList.toString());
 
+		writeRewrittenFiles(reportName, appName, text, rewrittenFile, rewrittenHTMLFile);
 	}
 
-	private List<String> applyRewrite(String rewriteType, String report, String rewriteText, String origStrFull) {
+	// reads the import copy for rewriting, without its header line; each line is terminated by a newline
+	private CompassPieceTable readRewriteInput(CompassMappedFile inFileCopy) throws IOException {
+		StringBuilder s = new StringBuilder();
+		CompassMappedFile.LineReader inFileReader = inFileCopy.newReader();
+		boolean firstLine = true;
+		String line;
+		while ((line = inFileReader.readLine()) != null) {
+			if (firstLine) {
+				if (!importFileAttribute(line,1).isEmpty()) {
+					if (!importFileAttribute(line,2).isEmpty()) {
+						// this is the header line from the import copy, discard it
+						continue;
+					}
+				}
+			}
+			firstLine = false;
+			s.append(line).append("\n");
+		}
+		return new CompassPieceTable(s.toString());
+	}
+
+	private List<String> applyRewrite(CompassRewriteContext rwr, String rewriteType, String report, String rewriteText, String origStrFull) {
 		if (debugging) dbgOutput(thisProc()+"rewriteType=["+rewriteType+"] report=["+report+"] rewriteText=["+rewriteText+"] origStrFull=["+origStrFull+"]", debugRewrite);
 
 		String origStrReport = origStrFull;
@@ -8713,7 +9212,7 @@ userCfgComplexityHdrLine202308 + "\n" +
 		List<String> result = new ArrayList<>();
 		String newStr = "";
 		String newStrNoComment = "";
-		rewrittenOppties.put(report, rewrittenOppties.getOrDefault(report, 0)+1);
+		rwr.rewrittenOppties.put(report, rwr.rewrittenOppties.getOrDefault(report, 0)+1);
 		if (rewriteType.equals(rewriteTypeExpr1)) {
 			newStr = rwrTag + rewriteText.replaceAll(CompassAnalyze.rewriteTag1, origStrFull);
 			newStr = newStr.trim();
@@ -8776,9 +9275,9 @@ userCfgComplexityHdrLine202308 + "\n" +
 			// used for inline index only: partially replace (to comment out), and append new statement after end of stmt
 			Integer rwrID = Integer.valueOf(rewriteText);
 
-			assert (rewriteIDDetails.containsKey(rwrID)) : thisProc()+"rwrID not found: "+rwrID;
+			assert (rwr.rewriteIDDetails.containsKey(rwrID)) : thisProc()+"rwrID not found: "+rwrID;
 			Map<String, List<Integer>> positions = new HashMap<>();
-			positions = rewriteIDDetails.get(rwrID);
+			positions = rwr.rewriteIDDetails.get(rwrID);
 
 			Map<String, String> tmpRwr = new HashMap<>();
 			int indent = positions.get("indent").get(0);
@@ -8790,7 +9289,7 @@ userCfgComplexityHdrLine202308 + "\n" +
 			origStrReport = origStrFull.substring(0,lengthClause);
 
 			// pick up rewritten CREATE INDEX statement
-			rewriteText = rewriteTextListOrigText.get(rwrID.toString());
+			rewriteText = rwr.rewriteTextListOrigText.get(rwrID.toString());
 			if (debugging) dbgOutput(thisProc()+"rewriteText=["+rewriteText+"]", debugRewrite);
 
 			// handle case where it's a table-level index rather than column-level
@@ -8848,13 +9347,13 @@ userCfgComplexityHdrLine202308 + "\n" +
 			// ToDo: combine with MERGE below as parts are identical	
 			Integer rwrID = Integer.valueOf(rewriteText);
 						
-			assert (rewriteIDDetails.containsKey(rwrID)) : thisProc()+"rwrID not found: "+rwrID;
+			assert (rwr.rewriteIDDetails.containsKey(rwrID)) : thisProc()+"rwrID not found: "+rwrID;
 			Map<String, List<Integer>> positions = new HashMap<>();
-			positions = rewriteIDDetails.get(rwrID);
+			positions = rwr.rewriteIDDetails.get(rwrID);
 
-			nrMergeRewrites++;
-			String colName = "string_agg_col_rewritten_"+nrMergeRewrites;
-			String corrName = "correlation_rewritten_"+nrMergeRewrites;		
+			rwr.nrMergeRewrites++;
+			String colName = "string_agg_col_rewritten_"+rwr.nrMergeRewrites;
+			String corrName = "correlation_rewritten_"+rwr.nrMergeRewrites;		
 								
 			int startCtx = positions.get("select").get(0);
 			int endStmt = positions.get("select").get(1);
@@ -8918,9 +9417,9 @@ userCfgComplexityHdrLine202308 + "\n" +
 			// for ALTER TABLE..ADD, pick up the various parts
 			Integer rwrID = Integer.valueOf(rewriteText);
 
-			assert (rewriteIDDetails.containsKey(rwrID)) : thisProc()+"rwrID not found: "+rwrID;
+			assert (rwr.rewriteIDDetails.containsKey(rwrID)) : thisProc()+"rwrID not found: "+rwrID;
 			Map<String, List<Integer>> positions = new HashMap<>();
-			positions = rewriteIDDetails.get(rwrID);
+			positions = rwr.rewriteIDDetails.get(rwrID);
 
 			int startCtx = positions.get("start").get(0);
 			int endStmt = positions.get("start").get(1);
@@ -8987,9 +9486,9 @@ userCfgComplexityHdrLine202308 + "\n" +
 			// for MERGE, pick up the various parts
 			Integer rwrID = Integer.valueOf(rewriteText);
 
-			assert (rewriteIDDetails.containsKey(rwrID)) : thisProc()+"rwrID not found: "+rwrID;
+			assert (rwr.rewriteIDDetails.containsKey(rwrID)) : thisProc()+"rwrID not found: "+rwrID;
 			Map<String, List<Integer>> positions = new HashMap<>();
-			positions = rewriteIDDetails.get(rwrID);
+			positions = rwr.rewriteIDDetails.get(rwrID);
 
 			int startCtx = positions.get("start").get(0);
 
@@ -9039,17 +9538,17 @@ userCfgComplexityHdrLine202308 + "\n" +
 			// ToDo: if we want to reset this counter in every batch (which would work fine), then
 			// we need to take the batch number along when we identify a rewrite case. Since applying
 			// the rewrites is done on a per-file basis, there is no batch concept at this time
-			nrMergeRewrites++;
-
-			String savePt   = "savept_merge_rewritten_"+nrMergeRewrites;
-			String errVar   = "@MERGE_REWRITTEN_ERROR_"+nrMergeRewrites;
-			String rcTmpVar = "@MERGE_REWRITTEN_RCTMP_"+nrMergeRewrites;
-			String rcVar    = "@MERGE_REWRITTEN_ROWCOUNT_"+nrMergeRewrites;
-			String rollbkLbl= "lbl_rollback_merge_rewritten_"+nrMergeRewrites;
-			String commitLbl= "lbl_commit_merge_rewritten_"+nrMergeRewrites;
+			rwr.nrMergeRewrites++;
+
+			String savePt   = "savept_merge_rewritten_"+rwr.nrMergeRewrites;
+			String errVar   = "@MERGE_REWRITTEN_ERROR_"+rwr.nrMergeRewrites;
+			String rcTmpVar = "@MERGE_REWRITTEN_RCTMP_"+rwr.nrMergeRewrites;
+			String rcVar    = "@MERGE_REWRITTEN_ROWCOUNT_"+rwr.nrMergeRewrites;
+			String rollbkLbl= "lbl_rollback_merge_rewritten_"+rwr.nrMergeRewrites;
+			String commitLbl= "lbl_commit_merge_rewritten_"+rwr.nrMergeRewrites;
 			String stmtEnd  = "SELECT "+errVar+ "=@@ERROR, "+rcTmpVar+ "=@@ROWCOUNT\nIF "+errVar+ " <> 0 GOTO "+rollbkLbl+"\nSET "+rcVar+" += "+rcTmpVar+ "\n";
 
-			String mergeSteps = "\n"+rwrTag+"\n/* --- start rewritten MERGE statement #"+nrMergeRewrites+" --- */\n";
+			String mergeSteps = "\n"+rwrTag+"\n/* --- start rewritten MERGE statement #"+rwr.nrMergeRewrites+" --- */\n";
 			mergeSteps += "/* Note: please review/modify the rewritten SQL code below, especially for handling of ROLLBACK */\n";
 			mergeSteps += "BEGIN\n";
 			mergeSteps += "BEGIN TRANSACTION\n";
@@ -9215,7 +9714,7 @@ userCfgComplexityHdrLine202308 + "\n" +
 			mergeSteps += "\n"+rollbkLbl+": ROLLBACK TRANSACTION "+savePt+"\n";
 			mergeSteps += "\n"+commitLbl+":   COMMIT\n";
 			mergeSteps += "\nEND";
-			mergeSteps += ";/* --- end rewritten MERGE statement #"+nrMergeRewrites+" --- */\n";
+			mergeSteps += ";/* --- end rewritten MERGE statement #"+rwr.nrMergeRewrites+" --- */\n";
 			mergeSteps = rewriteStmtPatchup(mergeSteps, origStrFull, "USING");
 			rewriteText = mergeSteps;
 
@@ -9296,7 +9795,7 @@ userCfgComplexityHdrLine202308 + "\n" +
 	}
 
 	// When specifying the -anon flag, all customer-specific identifiers will be removed and replaced by
-	// names like 'procedureN', 'appN', etc. (N=1,2,3....)
+	// names like 'procedure_<id>', 'app_<id>', etc. (see CompassAnonymizer)
 	// This is for cases where a report (or the capture files will be shared with a 3rd party and there are concerns about 
 	// exposing confidential information. 
 	public void anonymizeCapturedData() throws IOException {
@@ -9314,191 +9813,56 @@ userCfgComplexityHdrLine202308 + "\n" +
 			errorExit();
 		}
 		
-		String cfVersion = captureFilesValid("tgtversion", captureFiles, true);
-
-		Date now = new Date();
-		String nowFmt = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(now);
-
-		BufferedWriter anonFileWriter = null;
-    	String anonPathName = getAnonymizedFilename(reportName);
     	checkDir(getReportDirPathname(reportName, capDirName), true);
 
-		int itemCount = 0;
-		for (Path cf : captureFiles) {
-			String cfLine = captureFileFirstLine(cf.toString());   // read only first line
-			String cfReportName = captureFileAttribute(cfLine, 1);
-			if (cfReportName.isEmpty()) {
-				appOutput("\nInvalid format on line 1 of "+cf.toString()+":["+cfLine+"]; run with -analyze to fix.");							
-				errorExit();
-			}
-			if (captureFileIsAnonymized(cfLine)) {
-				appOutput("Capture file "+cf.toString()+" is already anonymized.");	
-				continue;										
-			}
-			FileInputStream cfis = new FileInputStream(new File(cf.toString()));
-			InputStreamReader cfisr = new InputStreamReader(cfis, StandardCharsets.UTF_8);
-			BufferedReader capFile = new BufferedReader(cfisr);
-			anonFileWriter = new BufferedWriter((new OutputStreamWriter(new FileOutputStream(anonPathName), StandardCharsets.UTF_8)));
-
-			String capLine = "";
-			while (true) {
-				capLine = capFile.readLine();
-				if (capLine == null) {
-					//EOF
-					break;
-				}
-				capLine = capLine.trim();
-				if (capLine.isEmpty()) continue;
-				if (capLine.charAt(0) == '#') {				
-					// uncomment the below to anonymize report name; note that the report file name is still not anonymized
-					// we keep the report name otherwise it's not possile to identify the customer/app for whom the report is
-					//capLine = captureFileLinePart1 + "[" + "anon" + capLine.substring(capLine.indexOf("]"));
-					
-					// anonymize user-defined cfg file if not using the defaults
-					String cfgFileName = captureFileAttribute(cfLine, 5);	
-					//appOutput(thisProc()+"cfLine=["+cfLine+"] cfgFileName=["+cfgFileName+"] ");
-					if (!cfgFileName.equalsIgnoreCase(defaultUserCfgFileName) && !cfgFileName.equalsIgnoreCase(optimisticUserCfgFileName)) {
-						capLine = capLine.substring(0,capLine.lastIndexOf("[")+1) + "anonymized]";
-					}		
-					
-					// mark file as anonymized
-					if (!capLine.endsWith(captureFileLinePart6)) capLine += captureFileLinePart6;
-					
-					anonFileWriter.write(capLine+"\n");
-					continue;
-				}
-				if (capLine.charAt(0) == metricsLineChar1) {
-					// handle metrics line
-					List<String> tmp = new ArrayList<>(Arrays.asList(capLine.split(captureFileSeparator)));
-					tmp.set(0, tmp.get(0).substring(tmp.get(0).indexOf(metricsLineChar2)+1));
-					tmp.set(0, tmp.get(0).replaceAll("\\\\", "\\\\\\\\"));
-					if (!anonFileNames.containsKey(tmp.get(0).toLowerCase())) anonFileNames.put(tmp.get(0).toLowerCase(), "file"+(anonFileNames.size()+1));
-					tmp.set(0,anonFileNames.get(tmp.get(0).toLowerCase()));			
-										
-					if (!anonAppNames.containsKey(tmp.get(1).toLowerCase())) anonAppNames.put(tmp.get(1).toLowerCase(), "file"+(anonAppNames.size()+1));
-					tmp.set(1,anonAppNames.get(tmp.get(1).toLowerCase()));								
-					capLine = metricsLineChar1 + metricsLineTag + metricsLineChar2 + String.join(captureFileSeparator, tmp) + captureFileSeparator;
-
-					anonFileWriter.write(capLine+"\n");
-					continue;
-				}
-
-				itemCount++;
-
-				// strip off the last two semicolons
-				capLine = capLine.substring(0,capLine.lastIndexOf(captureFileSeparator));
-				capLine = capLine.substring(0,capLine.lastIndexOf(captureFileSeparator));
-				capLine = unEscapeHTMLChars(capLine);
-				
-				// remove customer-specific items
-				List<String> tmp = new ArrayList<>(Arrays.asList(capLine.split(captureFileSeparator)));
-				
-				int n = tmp.size();
-				for (int i = 0; i < (12-n); i++) {
-					tmp.add("");  // compensate for some empty fields
-				}
-									
-				if (!(tmp.get(9).equals(BatchContext))) {
-					// anonymize identifiers in context
-					String objType = getPatternGroup(tmp.get(9),"^(\\w+)\\s+(.*)$",1);
-					String objName = getPatternGroup(tmp.get(9),"^(\\w+)\\s+(.*)$",2).toLowerCase();
-					if (!objType.isEmpty()) {
-						if (!anonObjNames.containsKey(objName)) anonObjNames.put(objName, objType.toLowerCase()+(anonObjNames.size()+1));
-						tmp.set(9, objType+" "+anonObjNames.get(objName));
-					}
-				}
-				
-				if (tmp.size() >= 11) {
-					if (!tmp.get(10).isEmpty()) {
-						// anonymize identifiers in context
-						String objType = getPatternGroup(tmp.get(10),"^(\\w+)\\s+(.*)$",1);
-						String objName = getPatternGroup(tmp.get(10),"^\\w+\\s+(.*)$",1).toLowerCase();
-						if (!objType.isEmpty()) {
-							if (!anonObjNames.containsKey(objName)) anonObjNames.put(objName, "table"+(anonObjNames.size()+1));
-							tmp.set(10, objType+" "+anonObjNames.get(objName));
-						}
-					}
-				}
-								
-				// anonymize input file name
-				if (!anonFileNames.containsKey(tmp.get(6).toLowerCase())) anonFileNames.put(tmp.get(6).toLowerCase(), "file"+(anonFileNames.size()+1));
-				tmp.set(6,anonFileNames.get(tmp.get(6).toLowerCase()));				
-
-				// anonymize appname
-				if (!anonAppNames.containsKey(tmp.get(5).toLowerCase())) anonAppNames.put(tmp.get(5).toLowerCase(), "app"+(anonAppNames.size()+1));
-				tmp.set(5,anonAppNames.get(tmp.get(5).toLowerCase()));
-
-				tmp.set(1, anonField(tmp.get(1)));
-
-				// anonymize UDD name
-				if (tmp.get(0).indexOf(" (UDD ") > -1) {
-					String uddName = tmp.get(0).substring(tmp.get(0).indexOf(" (UDD ")+6).toLowerCase();
-					uddName = uddName.substring(0,uddName.lastIndexOf(")"));
-					if (!anonUddNames.containsKey(uddName)) anonUddNames.put(uddName, "udd"+(anonUddNames.size()+1));	
-					tmp.set(0, tmp.get(0).substring(0, tmp.get(0).indexOf(" (UDD "))+" (UDD "+anonUddNames.get(uddName)+")" + tmp.get(0).substring(tmp.get(0).lastIndexOf(")")+1));
+		// the files are anonymized in parallel, each into its own temporary file
+		CompassAnonymizer anonymizer = new CompassAnonymizer();
+		int anonThreads = debugging ? 1 : Math.max(1, Runtime.getRuntime().availableProcessors());
+		ExecutorService anonPool = Executors.newFixedThreadPool(anonThreads, r -> {
+			Thread t = new Thread(r, "compass-anon");
+			t.setDaemon(true);
+			return t;
+		});
+		List<Future<?>> anonFiles = new ArrayList<>();
+		List<String> msgs = new ArrayList<>();
+		try {
+			for (Path cf : captureFiles) {
+				String cfLine = captureFileFirstLine(cf.toString());   // read only first line
+				String cfReportName = captureFileAttribute(cfLine, 1);
+				if (cfReportName.isEmpty()) {
+					appOutput("\nInvalid format on line 1 of "+cf.toString()+":["+cfLine+"]; run with -analyze to fix.");							
+					errorExit();
 				}
-				else if (tmp.get(0).indexOf(" (UDD, ") > -1) {
-					String uddName = tmp.get(0).substring(0,tmp.get(0).indexOf(" (UDD, ")+6).toLowerCase();
-					if (!anonUddNames.containsKey(uddName)) anonUddNames.put(uddName, "udd"+(anonUddNames.size()+1));	
-					tmp.set(0, anonUddNames.get(uddName) + tmp.get(0).substring(tmp.get(0).indexOf(" (UDD, ")));
+				if (captureFileIsAnonymized(cfLine)) {
+					anonFiles.add(null);
+					msgs.add("Capture file "+cf.toString()+" is already anonymized.");	
+					continue;										
 				}
+				String cfgFileName = captureFileAttribute(cfLine, 5);
+				String anonPathName = getAnonymizedFilename(reportName, anonFiles.size()+1);
+				anonFiles.add(anonPool.submit(() -> {
+					anonymizer.anonymizeFile(cf, cfgFileName, anonPathName);
+					return null;
+				}));
+				msgs.add(anonPathName);
+			}
 
-				// anonymize DB name		
-				if (tmp.get(0).startsWith("USE ")) {
-					String dbName = tmp.get(0).substring(4).toLowerCase();
-					tmp.set(0, "USE " +anonDbName(dbName, anonDbNames));
-				}
-				if (tmp.get(0).contains(" DATABASE ")) {
-					String dbName = tmp.get(0).substring(tmp.get(0).indexOf(" DATABASE ")+" DATABASE ".length()).toLowerCase();
-					tmp.set(0, tmp.get(0).substring(0, tmp.get(0).indexOf(" DATABASE ")+" DATABASE ".length())+anonDbName(dbName, anonDbNames));
+			for (int i = 0; i < captureFiles.size(); i++) {
+				if (anonFiles.get(i) == null) {
+					appOutput(msgs.get(i));
+					continue;
 				}
-				tmp.add("~");
-				capLine = String.join(captureFileSeparator, tmp) + captureFileSeparator;
+				getWorkerResult(anonFiles.get(i));
 
-				anonFileWriter.write(capLine+"\n");
+				// Replace original capture file with just-created file
+				String cf = captureFiles.get(i).toString();
+				if (debugging) dbgOutput(thisProc() + "Renaming anonPathName=["+msgs.get(i)+"]  to cf.toString()=["+cf+"] ", debugReport);			
+				Files.move(Paths.get(msgs.get(i)), Paths.get(cf), StandardCopyOption.REPLACE_EXISTING);		
+				appOutput("All identifiers and customer-specific details have been removed from\n"+cf);	    		    		
 			}
-			capFile.close();
-			anonFileWriter.close();
-			
-			// Replace original capture file with just-created file
-			if (debugging) dbgOutput(thisProc() + "Renaming anonPathName=["+anonPathName+"]  to cf.toString()=["+cf.toString()+"] ", debugReport);			
-			File fSrc  = new File(anonPathName);
-			File fDest = new File(cf.toString());
-	    	Files.move(fSrc.toPath(), fDest.toPath(), StandardCopyOption.REPLACE_EXISTING);		
-			appOutput("All identifiers and customer-specific details have been removed from\n"+cf.toString());	    		    		
+		} finally {
+			anonPool.shutdownNow();
 		}
-
-	}
-	
-	private String anonField(String s) {
-		if (s.trim().length() == 0) return s.trim();
-		List<String> valuesOK = Arrays.asList("schema::", "dbo", "guest", "master", "tempdb", "msdb", "model", "db_owner", "on", "off", "\\.", "\\W+");
-		s = applyPatternAll(s, "^([@]+)\\w+\\b", "$1" + "anonvar");
-		String s2 = s;
-		s2 = applyPatternAll(s2, "^[@]+anonvar", " ");
-		for (int i = 0; i < valuesOK.size(); i++) {
-			String k = valuesOK.get(i);
-			s2 = applyPatternFirst(s2, "\\b"+k+"\\b", " ");
-		}
-		if (s2.trim().length() == 0) return s;
-		return "anonymized";
-	}
-
-	
-	private String anonDbName(String s, Map<String,String> anonDbNames) {
-		if (s.trim().length() == 0) return s.trim();
-		List<String> valuesOK = Arrays.asList("master", "tempdb", "msdb", "model");
-		String s2 = s.toLowerCase();		
-		for (int i = 0; i < valuesOK.size(); i++) {
-			String k = valuesOK.get(i);
-			s2 = applyPatternFirst(s2, "\\b"+k+"\\b", " ");
-		}
-		if (s2.trim().length() == 0) return s;
-		
-		s = s.toLowerCase();
-		if (anonDbNames.size() == 1) anonDbNames.put("", ""); // avoid confusion	
-		if (!anonDbNames.containsKey(s)) anonDbNames.put(s, "db"+(anonDbNames.size()+1));			
-		return anonDbNames.get(s);
 	}
 	
 	public void checkForUpdate () {
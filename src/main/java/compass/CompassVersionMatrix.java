@@ -0,0 +1,112 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+// compares the captured items of a report across a number of Babelfish versions, without analyzing the input files again.
+// An item preceded by a status key in the capture file (see CompassConfig.resolveStatusKey()) gets its status resolved
+// for each version; other items have the status they were captured with in all versions.
+// The result is a .csv file with a line per distinct report group, item and status per version, with the number of occurrences,
+// followed by the number of items per status for each version.
+public class CompassVersionMatrix {
+	static CompassUtilities u = CompassUtilities.getInstance();
+
+	private final List<String> versions;
+	private final Map<String, Integer> rows = new TreeMap<>();
+	private final Map<String, List<String>> resolved = new HashMap<>();
+	private final Map<String, long[]> statusCount = new LinkedHashMap<>();
+
+	public CompassVersionMatrix(List<String> versions) {
+		this.versions = versions;
+		for (String status : CompassUtilities.cfgStatusOptions) {
+			statusCount.put(status, new long[versions.size()]);
+		}
+	}
+
+	public void readCaptureFile(Path cf) throws IOException {
+		String sep = CompassUtilities.captureFileSeparator;
+		try (BufferedReader capFile = new BufferedReader(new InputStreamReader(new FileInputStream(cf.toFile()), StandardCharsets.UTF_8))) {
+			String capLine;
+			String statusKey = null;
+			while ((capLine = capFile.readLine()) != null) {
+				capLine = capLine.trim();
+				if (capLine.isEmpty()) continue;
+				if (capLine.startsWith(CompassUtilities.statusKeyLineTag)) {
+					statusKey = capLine.substring(CompassUtilities.statusKeyLineTag.length());
+					continue;
+				}
+				String itemStatusKey = statusKey;
+				statusKey = null;
+				if ((capLine.charAt(0) == '#') || (capLine.charAt(0) == CompassUtilities.metricsLineChar1)) continue;
+				if (capLine.contains("\\\\")) capLine = capLine.replace("\\\\", "\\");
+
+				List<String> itemList = Arrays.asList(capLine.split(sep));
+				if (itemList.size() < CompassUtilities.capPosLastField) continue;
+				String status = itemList.get(CompassUtilities.capPosStatus);
+				if (!CompassUtilities.cfgStatusOptions.contains(status)) continue;
+				add(itemList.get(CompassUtilities.capPosItemGroup), itemList.get(CompassUtilities.capPosItem), status, itemStatusKey);
+			}
+		}
+	}
+
+	void add(String itemGroup, String item, String status, String statusKey) {
+		List<String> statuses = null;
+		if (statusKey != null) {
+			statuses = resolved.computeIfAbsent(statusKey, this::resolve);
+		}
+		if (statuses == null) {
+			statuses = Collections.nCopies(versions.size(), status);
+		}
+
+		StringBuilder row = new StringBuilder(csvField(itemGroup)).append(CompassUtilities.CSVseparator).append(csvField(item));
+		for (int i = 0; i < versions.size(); i++) {
+			String s = statuses.get(i);
+			row.append(CompassUtilities.CSVseparator).append(CompassUtilities.supportOptionsDisplay.get(CompassUtilities.supportOptions.indexOf(s)));
+			statusCount.get(s)[i]++;
+		}
+		rows.merge(row.toString(), 1, Integer::sum);
+	}
+
+	// the status for each version; null if the key cannot be resolved
+	private List<String> resolve(String statusKey) {
+		List<String> statuses = new ArrayList<>();
+		for (String v : versions) {
+			String s = CompassConfig.resolveStatusKey(v, statusKey);
+			if ((s == null) || !CompassUtilities.cfgStatusOptions.contains(s)) return null;
+			statuses.add(s);
+		}
+		return statuses;
+	}
+
+	private static String csvField(String s) {
+		s = s.replaceAll(CompassUtilities.captureFileSeparatorMarker, CompassUtilities.captureFileSeparator);
+		return u.collapseWhitespace(u.unEscapeHTMLChars(s).replaceAll(CompassUtilities.CSVseparator, " "));
+	}
+
+	public void write(String filePathName, String header) throws IOException {
+		String sep = CompassUtilities.CSVseparator;
+		try (BufferedWriter w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filePathName), StandardCharsets.UTF_8))) {
+			w.write(header + "\n\n");
+			StringBuilder hdr = new StringBuilder("Report group" + sep + "Item");
+			for (String v : versions) hdr.append(sep).append("v.").append(v);
+			w.write(hdr + sep + "Count\n");
+			for (Map.Entry<String, Integer> e : rows.entrySet()) {
+				w.write(e.getKey() + sep + e.getValue() + "\n");
+			}
+
+			w.write("\n" + hdr.substring(hdr.indexOf(sep) + 1).replaceFirst("^Item", "Status") + "\n");
+			for (Map.Entry<String, long[]> e : statusCount.entrySet()) {
+				StringBuilder line = new StringBuilder(CompassUtilities.supportOptionsDisplay.get(CompassUtilities.supportOptions.indexOf(e.getKey())));
+				for (long n : e.getValue()) line.append(sep).append(n);
+				w.write(line + "\n");
+			}
+		}
+	}
+}
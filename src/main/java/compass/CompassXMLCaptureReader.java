@@ -0,0 +1,376 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.io.*;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+// streaming extraction of the captured SQL from Extended Events and SQL Server Profiler XML files.
+// The file is pull-parsed, and only the text of the elements holding the SQL is kept, so memory use does not depend on the
+// size of the capture.
+// Extended Events files are often a series of <event> elements without a root element, so the input is wrapped in a root element.
+public class CompassXMLCaptureReader {
+	private final boolean profiler;
+	private final XMLStreamReader xr;
+	private long nrEvents = 0;
+	private int depth = 0;
+
+	// XE event being processed
+	private int eventDepth = -1;
+	private String statement;
+	private String batchText;
+	private String sqlText;
+	private String lastDataName;
+	private String dataBeforeSqlText;
+
+	// element whose text is being collected
+	private int collectDepth = -1;
+	private String collectTarget;
+	private StringBuilder collected = new StringBuilder();
+
+	public CompassXMLCaptureReader(Reader in, String importFormat) throws IOException, XMLStreamException {
+		this.profiler = importFormat.equalsIgnoreCase(CompassUtilities.SQLServerProfilerXMLFmt);
+		BufferedReader reader = new BufferedReader(in, 64 * 1024);
+		skipXMLDeclaration(reader);
+
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		xr = factory.createXMLStreamReader(new WrappedReader(reader));
+	}
+
+	// the XML declaration cannot appear inside the root element we wrap around the input
+	private static void skipXMLDeclaration(BufferedReader r) throws IOException {
+		int lookAhead = 4096;
+		r.mark(lookAhead);
+		char[] buf = new char[lookAhead];
+		int n = r.read(buf, 0, lookAhead);
+		r.reset();
+		if (n <= 0) return;
+		String s = new String(buf, 0, n);
+		int start = 0;
+		while (start < s.length() && (s.charAt(start) == '\uFEFF' || Character.isWhitespace(s.charAt(start)))) start++;
+		if (!s.startsWith("<?xml", start)) return;
+		int end = s.indexOf("?>", start);
+		if (end < 0) return;
+		r.skip(end + 2);
+	}
+
+	// number of events read so far
+	public long getEventCount() {
+		return nrEvents;
+	}
+
+	// returns the next captured SQL statement, or null at the end of the file
+	public String nextStatement() throws XMLStreamException {
+		while (xr.hasNext()) {
+			int type = xr.next();
+			if (type == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+				startElement();
+			}
+			else if (type == XMLStreamConstants.END_ELEMENT) {
+				String stmt = endElement();
+				depth--;
+				if (stmt != null) return stmt;
+			}
+			else if (collectDepth > 0) {
+				if (type == XMLStreamConstants.CHARACTERS || type == XMLStreamConstants.CDATA || type == XMLStreamConstants.SPACE) {
+					collected.append(xr.getText());
+				}
+			}
+		}
+		xr.close();
+		return null;
+	}
+
+	private void startElement() {
+		String name = xr.getLocalName();
+		if (profiler) {
+			// captured SQL is in <Column id="1" name="TextData">
+			if (name.equals("Event")) {
+				nrEvents++;
+			}
+			else if (name.equals("Column") && "1".equals(attr("id")) && "TextData".equals(attr("name"))) {
+				collect("TextData");
+			}
+			return;
+		}
+
+		if (name.equals("event") && eventDepth < 0) {
+			nrEvents++;
+			eventDepth = depth;
+			statement = null;
+			batchText = null;
+			sqlText = null;
+			lastDataName = null;
+			dataBeforeSqlText = null;
+			return;
+		}
+		if (eventDepth < 0) return;
+
+		if (depth == eventDepth + 1) {
+			if (name.equals("action") && "sql_text".equals(attr("name")) && "sqlserver".equals(attr("package"))) {
+				collectTarget = null;
+				if (sqlText == null) {
+					dataBeforeSqlText = lastDataName;
+					collectTarget = "sql_text";
+				}
+				lastDataName = null;
+			}
+			else if (name.equals("data")) {
+				String dataName = attr("name");
+				collectTarget = dataName;
+				// an empty parameterized_plan_handle between the statement and the sql_text does not count
+				if (!"parameterized_plan_handle".equals(dataName)) lastDataName = dataName;
+			}
+			else {
+				collectTarget = null;
+				lastDataName = null;
+			}
+		}
+		else if (depth == eventDepth + 2 && name.equals("value") && collectTarget != null) {
+			if (collectTarget.equals("statement") || collectTarget.equals("batch_text") || collectTarget.equals("sql_text") || collectTarget.equals("parameterized_plan_handle")) {
+				collect(collectTarget);
+			}
+		}
+	}
+
+	private String endElement() {
+		if (depth == collectDepth) {
+			String text = normalizeLines(collected.toString());
+			String target = collectTarget;
+			collectDepth = -1;
+			collected.setLength(0);
+			if (profiler) {
+				return text;
+			}
+			if (target.equals("statement")) {
+				if (statement == null) statement = text;
+			}
+			else if (target.equals("batch_text")) {
+				if (batchText == null) batchText = text;
+			}
+			else if (target.equals("sql_text")) {
+				if (sqlText == null) sqlText = text;
+			}
+			else if (target.equals("parameterized_plan_handle")) {
+				if (!text.isEmpty()) lastDataName = target;
+			}
+			return null;
+		}
+
+		if (!profiler && depth == eventDepth) {
+			eventDepth = -1;
+			String stmtName = "statement";
+			String stmt = statement;
+			if (stmt == null) {
+				stmtName = "batch_text";
+				stmt = batchText;
+			}
+			if (stmt == null) {
+				// no SQL in this event, skip it
+				return null;
+			}
+			if ((sqlText != null) && stmtName.equals(dataBeforeSqlText)) {
+				// the sql_text directly follows the statement: the caller decides which one to keep
+				stmt += CompassUtilities.XESpecialSplitMarker + sqlText;
+			}
+			return stmt;
+		}
+		return null;
+	}
+
+	private void collect(String target) {
+		collectTarget = target;
+		collectDepth = depth;
+		collected.setLength(0);
+	}
+
+	private String attr(String name) {
+		return xr.getAttributeValue(null, name);
+	}
+
+	// line-based extraction trimmed every line of the XML file: do the same for lines inside the captured SQL
+	static String normalizeLines(String s) {
+		if (s.indexOf('\n') < 0 && s.indexOf('\r') < 0) return s;
+		String[] lines = s.split("\r\n|\r|\n", -1);
+		StringBuilder sb = new StringBuilder(s.length());
+		for (int i = 0; i < lines.length; i++) {
+			String line = lines[i];
+			int start = 0;
+			int end = line.length();
+			if (i > 0) {
+				while (start < end && line.charAt(start) <= ' ') start++;
+			}
+			if (i < lines.length - 1) {
+				while (end > start && line.charAt(end - 1) <= ' ') end--;
+			}
+			if (i > 0) sb.append('\n');
+			sb.append(line, start, end);
+		}
+		return sb.toString();
+	}
+
+	// splits an XML capture into chunks of complete events, which can be extracted independently.
+	// Anything outside the events (XML declaration, header, enclosing elements) is dropped.
+	// CDATA sections and comments are skipped when looking for the event tags, since the captured SQL may contain these tags
+	public static class ChunkSplitter {
+		static final int defaultChunkSize = 4 * 1024 * 1024;  // chars
+		private static final String cdataStart = "<![CDATA[";
+		private static final String commentStart = "<!--";
+
+		private final int chunkSize;
+		private final Reader in;
+		private final String startTag;
+		private final String endTag;
+		private final StringBuilder buf = new StringBuilder();
+		private final char[] readBuf = new char[64 * 1024];
+		private boolean eof = false;
+
+		// scan state: the buffer starts at an event start tag, the position to continue scanning, and the end of the last event
+		private boolean started = false;
+		private int scanPos = 0;
+		private int lastEnd = 0;
+
+		public ChunkSplitter(Reader in, String importFormat) {
+			this(in, importFormat, defaultChunkSize);
+		}
+
+		ChunkSplitter(Reader in, String importFormat, int chunkSize) {
+			this.in = in;
+			this.chunkSize = chunkSize;
+			String eventTag = importFormat.equalsIgnoreCase(CompassUtilities.SQLServerProfilerXMLFmt) ? "Event" : "event";
+			startTag = "<" + eventTag;
+			endTag = "</" + eventTag + ">";
+		}
+
+		private boolean at(int ix, String s) {
+			if (ix + s.length() > buf.length()) return false;
+			for (int i = 0; i < s.length(); i++) {
+				if (buf.charAt(ix + i) != s.charAt(i)) return false;
+			}
+			return true;
+		}
+
+		// event start tag; not matching longer tag names like <Events>
+		private boolean atStartTag(int ix) {
+			int next = ix + startTag.length();
+			if (next >= buf.length() || !at(ix, startTag)) return false;
+			char c = buf.charAt(next);
+			return c == '>' || c == '/' || Character.isWhitespace(c);
+		}
+
+		// scans the buffer as far as possible; returns true when a chunk can be cut at lastEnd
+		private boolean scan() {
+			int lookAhead = Math.max(cdataStart.length(), Math.max(startTag.length() + 1, endTag.length()));
+			while (true) {
+				int lt = buf.indexOf("<", scanPos);
+				if (lt < 0) {
+					scanPos = buf.length();
+					break;
+				}
+				if (lt + lookAhead > buf.length() && !eof) {
+					// the tag may not be complete yet
+					scanPos = lt;
+					break;
+				}
+				String open = at(lt, cdataStart) ? cdataStart : at(lt, commentStart) ? commentStart : null;
+				if (open != null) {
+					String close = open.equals(cdataStart) ? "]]>" : "-->";
+					int ix = buf.indexOf(close, lt + open.length());
+					if (ix < 0) {
+						scanPos = lt;
+						break;
+					}
+					scanPos = ix + close.length();
+				}
+				else if (!started && atStartTag(lt)) {
+					buf.delete(0, lt);
+					started = true;
+					scanPos = 1;
+				}
+				else if (started && at(lt, endTag)) {
+					lastEnd = scanPos = lt + endTag.length();
+					if (lastEnd >= chunkSize) return true;
+				}
+				else {
+					scanPos = lt + 1;
+				}
+			}
+			if (!started) {
+				buf.delete(0, scanPos);
+				scanPos = 0;
+			}
+			return started && eof && lastEnd > 0;
+		}
+
+		// returns the next chunk, starting at an event start tag and ending after the first event end tag beyond the chunk size;
+		// null at the end of the input
+		public String next() throws IOException {
+			while (true) {
+				if (scan()) {
+					String chunk = buf.substring(0, lastEnd);
+					buf.delete(0, lastEnd);
+					started = false;
+					scanPos = 0;
+					lastEnd = 0;
+					return chunk;
+				}
+				if (eof) {
+					// an incomplete event at the end is discarded
+					return null;
+				}
+				int n = in.read(readBuf);
+				if (n < 0) eof = true;
+				else buf.append(readBuf, 0, n);
+			}
+		}
+	}
+
+	// puts a root element around the input
+	private static class WrappedReader extends Reader {
+		private final Reader in;
+		private final String head = "<bbf-capture>";
+		private final String tail = "</bbf-capture>";
+		private int headPos = 0;
+		private int tailPos = -1;
+
+		WrappedReader(Reader in) {
+			this.in = in;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			if (len == 0) return 0;
+			if (headPos < head.length()) {
+				int n = Math.min(len, head.length() - headPos);
+				head.getChars(headPos, headPos + n, cbuf, off);
+				headPos += n;
+				return n;
+			}
+			if (tailPos < 0) {
+				int n = in.read(cbuf, off, len);
+				if (n >= 0) return n;
+				tailPos = 0;
+			}
+			if (tailPos >= tail.length()) return -1;
+			int n = Math.min(len, tail.length() - tailPos);
+			tail.getChars(tailPos, tailPos + n, cbuf, off);
+			tailPos += n;
+			return n;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+}
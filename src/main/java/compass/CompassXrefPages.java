@@ -0,0 +1,137 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// writes an X-ref section as a series of HTML pages of a bounded number of lines, instead of into the report file.
+// Lines are added in blocks (one item, or one object), and a new page starts only between blocks, so a block is never split.
+// Each block is written when added, so the memory used does not depend on the size of the section.
+// The pages are in a subdirectory of the report directory; links in the pages are relative to the report directory.
+public class CompassXrefPages {
+	private final String dirPath;
+	private final String dirName;
+	private final String pagePrefix;
+	private final String header;
+	private final String title;
+	private final int maxLines;
+
+	private BufferedWriter pageWriter = null;
+	private int pageLines = 0;
+	private final List<String> pageFiles = new ArrayList<>();
+	private final List<String> pageFirst = new ArrayList<>();
+	private final List<String> pageLast = new ArrayList<>();
+
+	// header: HTML up to and including <body>; pagePrefix: first part of the page file names
+	public CompassXrefPages(String dirPath, String dirName, String pagePrefix, String header, String title, int maxLines) {
+		this.dirPath = dirPath;
+		this.dirName = dirName;
+		this.pagePrefix = pagePrefix;
+		this.header = header;
+		this.title = title;
+		this.maxLines = maxLines;
+	}
+
+	// adds a block of lines; label identifies the block in the list of pages.
+	// Returns the page file the block was written to, relative to the report directory
+	public String add(CharSequence block, String label) throws IOException {
+		if ((pageWriter == null) || (pageLines >= maxLines)) {
+			newPage(label);
+		}
+		pageWriter.append(block);
+		pageLines += countLines(block);
+		pageLast.set(pageLast.size()-1, label);
+		return dirName + "/" + pageFiles.get(pageFiles.size()-1);
+	}
+
+	public int getNrPages() {
+		return pageFiles.size();
+	}
+
+	private void newPage(String label) throws IOException {
+		if (pageWriter != null) {
+			closePage(true);
+		}
+		String file = pagePrefix + "_" + (pageFiles.size()+1) + ".html";
+		pageFiles.add(file);
+		pageFirst.add(label);
+		pageLast.add(label);
+		pageWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(dirPath + File.separator + file), StandardCharsets.UTF_8), 64 * 1024);
+		pageWriter.write(header);
+		pageWriter.write("<pre>\n");
+		pageWriter.write(title + ", page " + pageFiles.size() + "\n");
+		pageWriter.write(navigation(pageFiles.size(), false) + "\n\n");
+		pageLines = 0;
+	}
+
+	private void closePage(boolean hasNext) throws IOException {
+		pageWriter.write("\n" + navigation(pageFiles.size(), hasNext) + "\n");
+		pageWriter.write("</pre>\n</body></html>\n");
+		pageWriter.close();
+		pageWriter = null;
+	}
+
+	// links to the index and the previous/next page; page is numbered from 1
+	private String navigation(int page, boolean hasNext) {
+		String s = "<a href=\"" + dirName + "/" + CompassXrefPages.indexFileName + "\">Index</a>";
+		if (page > 1) s += " | <a href=\"" + dirName + "/" + pageFiles.get(page-2) + "\">Previous page</a>";
+		if (hasNext) s += " | <a href=\"" + dirName + "/" + pagePrefix + "_" + (page+1) + ".html\">Next page</a>";
+		return s;
+	}
+
+	// completes the last page
+	public void close() throws IOException {
+		if (pageWriter != null) {
+			closePage(false);
+		}
+	}
+
+	// a line with a link for each page, with the first and last block on the page
+	public String pageList(String indent) {
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < pageFiles.size(); i++) {
+			s.append(indent).append("<a href=\"").append(dirName).append("/").append(pageFiles.get(i)).append("\">page ").append(i+1).append("</a>: ");
+			s.append(pageFirst.get(i));
+			if (!pageLast.get(i).equals(pageFirst.get(i))) s.append(" ... ").append(pageLast.get(i));
+			s.append("\n");
+		}
+		return s.toString();
+	}
+
+	static final String indexFileName = "index.html";
+
+	// writes the index page, with the section titles and their page lists
+	public static void writeIndex(String dirPath, String header, List<String> sections) throws IOException {
+		try (BufferedWriter w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(dirPath + File.separator + indexFileName), StandardCharsets.UTF_8))) {
+			w.write(header);
+			w.write("<pre>\n");
+			for (String s : sections) {
+				w.write(s);
+				w.write("\n");
+			}
+			w.write("</pre>\n</body></html>\n");
+		}
+	}
+
+	// removes the pages of an earlier report
+	public static void clearDir(String dirPath) {
+		File[] files = new File(dirPath).listFiles((d, name) -> name.endsWith(".html"));
+		if (files == null) return;
+		for (File f : files) {
+			f.delete();
+		}
+	}
+
+	static int countLines(CharSequence s) {
+		int n = 0;
+		for (int i = 0; i < s.length(); i++) {
+			if (s.charAt(i) == '\n') n++;
+		}
+		return n;
+	}
+}
@@ -31,11 +31,14 @@ lexer grammar TSQLLexer;
 
 @header {
 package parser;
-import compass.CompassUtilities;
 }
 
 @members {
-private CompassUtilities u = CompassUtilities.getInstance();
+// called for unmatched characters; the lexer does not refer to Compass classes, so it can be shared by Compass daemon requests
+public interface UnmatchedCharacterHandler {
+	void unmatchedCharacter(int line, int col, String text);
+}
+public UnmatchedCharacterHandler unmatchedCharacterHandler = null;
 public static boolean QUOTED_IDENTIFIER_FLAG = true;
 }
 
@@ -1356,5 +1359,5 @@ fragment LETTER
     ;
 
 
-UNMATCHED_CHARACTER: .+?    { u.setErrorMsg(getLine(), getCharPositionInLine(), getText()); }
+UNMATCHED_CHARACTER: .+?    { if (unmatchedCharacterHandler != null) unmatchedCharacterHandler.unmatchedCharacter(getLine(), getCharPositionInLine(), getText()); }
 ;
@@ -0,0 +1,42 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassAnalyzeTest {
+
+    @Test
+    @DisplayName("Only batches that can add to the symbol table are parsed in pass 1")
+    void testPass1Needed() {
+        for (String b : Arrays.asList(
+                "create table t1 (a int)",
+                "CREATE OR ALTER PROCEDURE p1 AS SELECT 1",
+                "alter table t1 add b varchar(10)",
+                "use db1",
+                "SET QUOTED_IDENTIFIER OFF",
+                "exec sp_addtype 'mytype', 'int'",
+                "exec [sp_addtype] mytype, 'int'",
+                "select 1\ncreate view v1 as select 2",
+                "select 'create' from t1")) {
+            assertTrue(CompassAnalyze.pass1Needed(b), b);
+        }
+        for (String b : Arrays.asList(
+                "select a, b from t1 where c > 1",
+                "update t1 set b = 'x' where a = 1",
+                "insert into t1 (created, altered) select @use, #alter from t2",
+                "delete from t1 where users_id = 1",
+                "exec sp_addtype2 'x'",
+                "")) {
+            assertFalse(CompassAnalyze.pass1Needed(b), b);
+        }
+    }
+}
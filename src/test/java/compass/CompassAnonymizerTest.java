@@ -0,0 +1,90 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassAnonymizerTest {
+
+    @TempDir
+    Path tmpPath;
+
+    private final byte[] key = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    @DisplayName("Names depend on the identifier, its kind and the key, not on case")
+    void testName() {
+        CompassAnonymizer a = new CompassAnonymizer(key);
+        String n = a.name("procedure", "obj", "dbo.MyProc");
+        assertTrue(n.matches("procedure_[0-9a-f]{" + CompassAnonymizer.idLength + "}"), n);
+        assertEquals(n, a.name("procedure", "obj", "DBO.MYPROC"));
+        assertEquals(n, new CompassAnonymizer(key).name("procedure", "obj", "dbo.myproc"));
+        assertNotEquals(n, a.name("procedure", "obj", "dbo.MyProc2"));
+        assertEquals(n.substring("procedure".length()), a.name("table", "obj", "dbo.MyProc").substring("table".length()));
+        assertNotEquals(a.name("app", "app", "x").substring(3), a.name("app", "file", "x").substring(3));
+        assertNotEquals(n, new CompassAnonymizer().name("procedure", "obj", "dbo.MyProc"));
+    }
+
+    @Test
+    @DisplayName("Identifiers in captured items are replaced, the rest is kept")
+    void testItemLine() {
+        CompassAnonymizer a = new CompassAnonymizer(key);
+        String line = a.anonymizeLine("  USE SalesDB;@cust;Miscellaneous SQL Features;SUPPORTED;12;Sales;c:\\src\\orders.sql;3;7;PROCEDURE dbo.GetOrders;TABLE dbo.Orders;;~;  ", "BabelfishFeatures.cfg");
+        assertEquals("USE " + a.name("db", "db", "salesdb") + ";@anonvar;Miscellaneous SQL Features;SUPPORTED;12;"
+            + a.name("app", "app", "Sales") + ";" + a.name("file", "file", "c:\\src\\orders.sql") + ";3;7;PROCEDURE "
+            + a.name("procedure", "obj", "dbo.GetOrders") + ";TABLE " + a.name("table", "obj", "dbo.orders") + ";;~;", line);
+
+        line = a.anonymizeLine("USE master;;Miscellaneous SQL Features;SUPPORTED;1;Sales;a.sql;1;1;T-SQL batch;;;~;", "BabelfishFeatures.cfg");
+        assertEquals("USE master;;Miscellaneous SQL Features;SUPPORTED;1;" + a.name("app", "app", "sales") + ";" + a.name("file", "file", "A.SQL") + ";1;1;T-SQL batch;;;~;", line);
+
+        line = a.anonymizeLine("VARCHAR column (UDD MyType);dbo;Datatypes;SUPPORTED;1;Sales;a.sql;1;1;T-SQL batch;;;~;", "BabelfishFeatures.cfg");
+        assertTrue(line.startsWith("VARCHAR column (UDD " + a.name("udd", "udd", "mytype") + ");dbo;"), line);
+        assertNull(a.anonymizeLine("   ", "BabelfishFeatures.cfg"));
+    }
+
+    @Test
+    @DisplayName("Header and metrics lines")
+    void testOtherLines() {
+        CompassAnonymizer a = new CompassAnonymizer(key);
+        String hdr = "# Captured items for report [r1] with targeted Babelfishversion [5.5.0] user-defined .cfg file [mycfg.cfg]";
+        assertEquals("# Captured items for report [r1] with targeted Babelfishversion [5.5.0] user-defined .cfg file [anonymized]" + CompassUtilities.getInstance().captureFileLinePart6, a.anonymizeLine(hdr, "mycfg.cfg"));
+        assertEquals(a.anonymizeLine(hdr, "mycfg.cfg"), a.anonymizeLine(a.anonymizeLine(hdr, "mycfg.cfg"), "mycfg.cfg"));
+
+        assertEquals("#status=N;Table hint;NOLOCK", a.anonymizeLine("#status=N;Table hint;NOLOCK", "mycfg.cfg"));
+
+        String metrics = a.anonymizeLine("*metrics=a.sql;Sales;3;0;120;", "BabelfishFeatures.cfg");
+        assertEquals("*metrics=" + a.name("file", "file", "a.sql") + ";" + a.name("app", "app", "Sales") + ";3;0;120;", metrics);
+    }
+
+    @Test
+    @DisplayName("A capture file is anonymized line by line, consistently with other files")
+    void testFile() throws IOException {
+        CompassAnonymizer a = new CompassAnonymizer(key);
+        Path cf = tmpPath.resolve("captured.a.dat");
+        Files.write(cf, Arrays.asList(
+            "# Captured items for report [r1] with targeted Babelfishversion [5.5.0] user-defined .cfg file [BabelfishFeatures.cfg]",
+            "",
+            "INT column;a;Datatypes;SUPPORTED;1;app1;a.sql;1;1;TABLE dbo.t1;;;~;",
+            "*metrics=a.sql;app1;1;0;10;"), StandardCharsets.UTF_8);
+        Path out = tmpPath.resolve("anon.tmp");
+        a.anonymizeFile(cf, "BabelfishFeatures.cfg", out.toString());
+        List<String> lines = Files.readAllLines(out, StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).endsWith(CompassUtilities.getInstance().captureFileLinePart6));
+        assertEquals("INT column;anonymized;Datatypes;SUPPORTED;1;" + a.name("app", "app", "app1") + ";" + a.name("file", "file", "a.sql") + ";1;1;TABLE " + a.name("table", "obj", "dbo.t1") + ";;;~;", lines.get(1));
+        assertTrue(lines.get(2).contains(a.name("file", "file", "a.sql") + ";" + a.name("app", "app", "app1") + ";"));
+    }
+}
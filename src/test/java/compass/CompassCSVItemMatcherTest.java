@@ -0,0 +1,78 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassCSVItemMatcherTest {
+
+    @Test
+    @DisplayName("The first entry in file order that matches is found")
+    void testMatch() {
+        CompassCSVItemMatcher m = new CompassCSVItemMatcher(Arrays.asList("CREATE TABLE", "CREATE", "SET \\D+ ROWS", "SET ANSI_NULLS \\W+", "SET"));
+        assertEquals("CREATE TABLE", m.match("CREATE TABLE"));
+        assertEquals("CREATE TABLE", m.match("CREATE TABLE T1"));
+        assertEquals("CREATE", m.match("CREATE VIEW"));
+        assertEquals("SET \\D+ ROWS", m.match("SET 100 ROWS"));
+        assertEquals("SET ANSI_NULLS \\W+", m.match("SET ANSI_NULLS OFF"));
+        assertEquals("SET", m.match("SET X ROWS"));
+        assertEquals("", m.match("DROP TABLE"));
+        assertEquals("", new CompassCSVItemMatcher(new ArrayList<>()).match("X"));
+    }
+
+    @Test
+    @DisplayName("Patterns only use \\d+ and \\w+; other characters are literal")
+    void testToPattern() {
+        assertTrue(Pattern.compile(CompassCSVItemMatcher.toPattern("A.B(\\D+)")).matcher("A.B(12)").matches());
+        assertFalse(Pattern.compile(CompassCSVItemMatcher.toPattern("A.B(\\D+)")).matcher("AXB(12)").matches());
+        assertTrue(Pattern.compile(CompassCSVItemMatcher.toPattern("\\W+ $X")).matcher("AB_1 $X").matches());
+    }
+
+    @Test
+    @DisplayName("Results are the same as matching each entry in turn")
+    void testSameAsLinearScan() {
+        String[] words = {"SET", "CREATE", "TABLE", "\\D+", "\\W+", "1", "AB", "(", ")", ".", "$", "*"};
+        Random rnd = new Random(3);
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) entries.add(randomText(rnd, words, 1 + rnd.nextInt(3)));
+        CompassCSVItemMatcher m = new CompassCSVItemMatcher(entries);
+        String[] itemWords = {"SET", "CREATE", "TABLE", "1", "22", "AB", "X_1", "(", ")", ".", "$", "*"};
+        for (int i = 0; i < 5000; i++) {
+            String item = randomText(rnd, itemWords, 1 + rnd.nextInt(4));
+            assertEquals(linearScan(entries, item), m.match(item), item);
+        }
+    }
+
+    private String randomText(Random rnd, String[] words, int n) {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) s.append(" ");
+            s.append(words[rnd.nextInt(words.length)]);
+        }
+        return s.toString();
+    }
+
+    // how items were matched before: each entry in turn, with a regex for entries with \d+ or \w+
+    private String linearScan(List<String> entries, String item) {
+        CompassUtilities u = CompassUtilities.getInstance();
+        for (String s : entries) {
+            if (s.contains("\\D+") || s.contains("\\W+")) {
+                String rgx = u.escapeRegexChars(s);
+                rgx = rgx.replaceAll("\\\\\\\\D\\\\\\+", "\\\\d" + "+");
+                rgx = rgx.replaceAll("\\\\\\\\W\\\\\\+", "\\\\w" + "+");
+                if (!CompassUtilities.getPatternGroup(item, "^(" + rgx + ")", 1).isEmpty()) return s;
+            }
+            if (item.startsWith(s)) return s;
+        }
+        return "";
+    }
+}
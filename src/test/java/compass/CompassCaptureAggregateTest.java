@@ -0,0 +1,135 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassCaptureAggregateTest {
+
+    @TempDir
+    Path tmpPath;
+
+    @Test
+    @DisplayName("Unique item counts are counted across capture files")
+    void testStatusUnique() {
+        CompassCaptureAggregate f1 = new CompassCaptureAggregate(false);
+        f1.addStatusItem("NOTSUPPORTED", "NOTSUPPORTED~a", "NOTSUPPORTEDu");
+        f1.addStatusItem("NOTSUPPORTED", "NOTSUPPORTED~a", "NOTSUPPORTEDu");
+        f1.addStatusItem("NOTSUPPORTED", "NOTSUPPORTED~b", "NOTSUPPORTEDu");
+        CompassCaptureAggregate f2 = new CompassCaptureAggregate(false);
+        f2.addStatusItem("NOTSUPPORTED", "NOTSUPPORTED~b", "NOTSUPPORTEDu");
+        f2.addStatusItem("NOTSUPPORTED", "NOTSUPPORTED~c", "NOTSUPPORTEDu");
+
+        CompassCaptureAggregate total = new CompassCaptureAggregate(true);
+        total.add(f1);
+        total.add(f2);
+        assertEquals(5L, total.statusCount.get("NOTSUPPORTED"));
+        assertEquals(3L, total.statusCount.get("NOTSUPPORTEDu"));
+        assertEquals(0L, total.statusCount.get("NOTSUPPORTED~c"));
+    }
+
+    @Test
+    @DisplayName("Object names keep the case in which they were first found")
+    void testObjTypeMapCase() {
+        CompassCaptureAggregate f1 = new CompassCaptureAggregate(false);
+        f1.objTypeMapCase.put("MyProc~app", "PROCEDURE");
+        f1.objTypeMap.put("MYPROC~APP", "PROCEDURE");
+        CompassCaptureAggregate f2 = new CompassCaptureAggregate(false);
+        f2.objTypeMapCase.put("MYPROC~app", "PROCEDURE");
+        f2.objTypeMap.put("MYPROC~APP", "PROCEDURE");
+        f2.objTypeMapCase.put("v1~app", "VIEW");
+        f2.objTypeMap.put("V1~APP", "VIEW");
+
+        CompassCaptureAggregate total = new CompassCaptureAggregate(true);
+        total.add(f1);
+        total.add(f2);
+        assertEquals(new HashSet<>(Arrays.asList("MyProc~app", "v1~app")), total.objTypeMapCase.keySet());
+        assertEquals(2, total.objTypeMap.size());
+    }
+
+    @Test
+    @DisplayName("Counts are added, and keys are first added in file order")
+    void testCounts() {
+        CompassCaptureAggregate f1 = new CompassCaptureAggregate(false);
+        f1.itemCount.put("b", 1);
+        f1.itemCount.put("a", 2);
+        f1.totalLinesDDL = 10;
+        CompassCaptureAggregate f2 = new CompassCaptureAggregate(false);
+        f2.itemCount.put("c", 1);
+        f2.itemCount.put("a", 1);
+        f2.totalLinesDDL = 5;
+
+        CompassCaptureAggregate total = new CompassCaptureAggregate(false);
+        total.add(f1);
+        total.add(f2);
+        assertIterableEquals(Arrays.asList("b", "a", "c"), total.itemCount.keySet());
+        assertEquals(3, total.itemCount.get("a"));
+        assertEquals(15, total.totalLinesDDL);
+    }
+
+    @Test
+    @DisplayName("Source files are numbered locally in the order found")
+    void testSrcFileKey() {
+        CompassCaptureAggregate f = new CompassCaptureAggregate(false);
+        assertEquals(0, f.srcFileIx("x.sql"));
+        assertEquals(1, f.srcFileIx("y.sql"));
+        assertEquals(0, f.srcFileIx("x.sql"));
+        CompassCaptureAggregate.SrcFileKey k = new CompassCaptureAggregate.SrcFileKey("SUPPORTED", 1, 1, "SUPPORTED", null, "12");
+        assertEquals("SUPPORTED  ~~~f7  ~~~12", k.key("f7").toString());
+    }
+
+    @Test
+    @DisplayName("Sidecar files are read back only for the same version and contents")
+    void testSidecar() throws IOException {
+        CompassCaptureAggregate a = new CompassCaptureAggregate(false);
+        a.capCount = 12;
+        a.totalLinesDDL = 300;
+        a.rewritten = 2;
+        a.itemCount.put("z", 1);
+        a.itemCount.put("a", 4);
+        a.objTypeMap.put("P1~APP", "PROCEDURE");
+        a.addStatusItem("SUPPORTED", "SUPPORTED~x", "SUPPORTEDu");
+        a.lastItemGroup.put("SUPPORTED", "DML");
+        a.objComplexityCountTmp.add("k");
+        a.msgs.add("\u00e9rror");
+        a.rewriteOpptyItems.put("item", 3);
+        a.xrefOnlyItems.add(new String[] {"i", "g", "1", "app"});
+        // X-ref keys are not saved
+        a.xrefByFeature.add(new CompassCaptureAggregate.SrcFileKey("SUPPORTED", 0, 1, "SUPPORTED", null));
+
+        String path = tmpPath.resolve("captured.x.dat.agg").toString();
+        byte[] hash = {1, 2, 3};
+        a.writeSidecar(path, "v1", hash);
+
+        CompassCaptureAggregate b = CompassCaptureAggregate.readSidecar(path, "v1", hash);
+        assertNotNull(b);
+        assertEquals(12, b.capCount);
+        assertEquals(300, b.totalLinesDDL);
+        assertEquals(2, b.rewritten);
+        assertIterableEquals(Arrays.asList("z", "a"), b.itemCount.keySet(), "order is kept");
+        assertEquals("PROCEDURE", b.objTypeMap.get("P1~APP"));
+        assertEquals(1L, b.statusCount.get("SUPPORTED"));
+        assertEquals("SUPPORTEDu", b.statusItems.get("SUPPORTED~x"));
+        assertEquals("DML", b.lastItemGroup.get("SUPPORTED"));
+        assertEquals(Arrays.asList("k"), b.objComplexityCountTmp);
+        assertEquals(Arrays.asList("\u00e9rror"), b.msgs);
+        assertEquals(3, b.rewriteOpptyItems.get("item"));
+        assertArrayEquals(new String[] {"i", "g", "1", "app"}, b.xrefOnlyItems.get(0));
+        assertTrue(b.xrefByFeature.isEmpty());
+
+        assertNull(CompassCaptureAggregate.readSidecar(path, "v1", new byte[] {1, 2, 4}), "other contents");
+        assertNull(CompassCaptureAggregate.readSidecar(path, "v2", hash), "other version");
+        assertNull(CompassCaptureAggregate.readSidecar(path + "x", "v1", hash), "no sidecar");
+    }
+}
@@ -0,0 +1,159 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassConfigCacheTest {
+
+    @TempDir
+    Path tmpPath;
+
+    private Map<String, Map<String, String>> savedCfg;
+    private List<String> savedCfgSections;
+    private List<String> savedVersionList;
+    private Map<String, Map<String, List<String>>> savedSectionList;
+    private Map<String, Map<String, List<String>>> savedSectionComplexityList;
+    private Map<String, String> savedFeatureArgOptions;
+    private Map<String, String> savedVersionAliasList;
+    private Integer savedFileFormatVersion;
+    private String savedFileTimestamp;
+
+    @BeforeEach
+    void init() {
+        savedCfg = CompassConfig.cfg;
+        savedCfgSections = new ArrayList<>(CompassConfig.cfgSections);
+        savedVersionList = CompassConfig.Babelfish_VersionList;
+        savedSectionList = CompassConfig.sectionList;
+        savedSectionComplexityList = CompassConfig.sectionComplexityList;
+        savedFeatureArgOptions = CompassConfig.featureArgOptions;
+        savedVersionAliasList = CompassConfig.versionAliasList;
+        savedFileFormatVersion = CompassUtilities.cfgFileFormatVersionRead;
+        savedFileTimestamp = CompassUtilities.getInstance().cfgFileTimestamp;
+
+        Map<String, Map<String, String>> cfg = new LinkedHashMap<>();
+        cfg.put(CompassConfig.Babelfish_Compass_Name, new LinkedHashMap<>(Collections.singletonMap("VALID_VERSIONS", "1.0.0,1.1.0")));
+        cfg.put("DATEDIFF", new LinkedHashMap<>(Collections.singletonMap("supported-1.0.0", "arg1=DAY,MONTH")));
+        CompassConfig.cfg = cfg;
+        CompassConfig.cfgSections.clear();
+        CompassConfig.cfgSections.addAll(Arrays.asList(CompassConfig.Babelfish_Compass_Name, "DATEDIFF"));
+        CompassConfig.Babelfish_VersionList = new ArrayList<>(Arrays.asList("1.0.0", "1.1.0"));
+        Map<String, List<String>> featureList = new LinkedHashMap<>();
+        featureList.put("LIST", new ArrayList<>(Arrays.asList("DAY", "MONTH", "W%")));
+        featureList.put("SUPPORTED/1.0.0/ARG1", new ArrayList<>(Arrays.asList("DAY", "MONTH")));
+        featureList.put("WILDCARD", null);
+        CompassConfig.sectionList = new LinkedHashMap<>(Collections.singletonMap("DATEDIFF", featureList));
+        CompassConfig.sectionComplexityList = new LinkedHashMap<>(Collections.singletonMap("DATEDIFF", new LinkedHashMap<>(Collections.singletonMap("COMPLEXITY_SCORE-LOW", new ArrayList<>(Collections.singletonList("DAY"))))));
+        CompassConfig.featureArgOptions = new LinkedHashMap<>(Collections.singletonMap("DATEDIFF", "ARG1"));
+        CompassConfig.versionAliasList = new LinkedHashMap<>(Collections.singletonMap("1.1.0", "1.0.0"));
+        CompassUtilities.cfgFileFormatVersionRead = 2;
+        CompassUtilities.getInstance().cfgFileTimestamp = "01-Jan-2026 é";
+    }
+
+    @AfterEach
+    void restore() {
+        CompassConfig.cfg = savedCfg;
+        CompassConfig.cfgSections.clear();
+        CompassConfig.cfgSections.addAll(savedCfgSections);
+        CompassConfig.Babelfish_VersionList = savedVersionList;
+        CompassConfig.sectionList = savedSectionList;
+        CompassConfig.sectionComplexityList = savedSectionComplexityList;
+        CompassConfig.featureArgOptions = savedFeatureArgOptions;
+        CompassConfig.versionAliasList = savedVersionAliasList;
+        CompassUtilities.cfgFileFormatVersionRead = savedFileFormatVersion;
+        CompassUtilities.getInstance().cfgFileTimestamp = savedFileTimestamp;
+    }
+
+    private void clearConfig() {
+        CompassConfig.cfg = null;
+        CompassConfig.cfgSections.clear();
+        CompassConfig.Babelfish_VersionList = new ArrayList<>();
+        CompassConfig.sectionList = new LinkedHashMap<>();
+        CompassConfig.sectionComplexityList = new LinkedHashMap<>();
+        CompassConfig.featureArgOptions = new LinkedHashMap<>();
+        CompassConfig.versionAliasList = new LinkedHashMap<>();
+        CompassUtilities.cfgFileFormatVersionRead = 0;
+        CompassUtilities.getInstance().cfgFileTimestamp = "";
+    }
+
+    @Test
+    @DisplayName("The cached structures are the same as those that were saved, in the same order")
+    void testRoundTrip() {
+        String cache = tmpPath.resolve("f.cfg.cache").toString();
+        long[] key = { 100, 12345 };
+        Map<String, Map<String, String>> cfg = CompassConfig.cfg;
+        Map<String, Map<String, List<String>>> sectionList = CompassConfig.sectionList;
+        Map<String, Map<String, List<String>>> sectionComplexityList = CompassConfig.sectionComplexityList;
+        CompassConfigCache.save(cache, key);
+
+        clearConfig();
+        assertTrue(CompassConfigCache.load(cache, key));
+        assertEquals(cfg, CompassConfig.cfg);
+        assertEquals(new ArrayList<>(cfg.keySet()), new ArrayList<>(CompassConfig.cfg.keySet()));
+        assertEquals(Arrays.asList(CompassConfig.Babelfish_Compass_Name, "DATEDIFF"), CompassConfig.cfgSections);
+        assertEquals(Arrays.asList("1.0.0", "1.1.0"), CompassConfig.Babelfish_VersionList);
+        assertEquals(sectionList, CompassConfig.sectionList);
+        assertEquals(Arrays.asList("LIST", "SUPPORTED/1.0.0/ARG1", "WILDCARD"), new ArrayList<>(CompassConfig.sectionList.get("DATEDIFF").keySet()));
+        assertTrue(CompassConfig.sectionList.get("DATEDIFF").containsKey("WILDCARD"));
+        assertNull(CompassConfig.sectionList.get("DATEDIFF").get("WILDCARD"));
+        assertEquals(sectionComplexityList, CompassConfig.sectionComplexityList);
+        assertEquals("ARG1", CompassConfig.featureArgOptions.get("DATEDIFF"));
+        assertEquals("1.0.0", CompassConfig.versionAliasList.get("1.1.0"));
+        assertEquals(2, (int) CompassUtilities.cfgFileFormatVersionRead);
+        assertEquals("01-Jan-2026 é", CompassUtilities.getInstance().cfgFileTimestamp);
+
+        // lists can still be added to, as validating the user .cfg file may do
+        CompassConfig.sectionList.get("DATEDIFF").get("LIST").add("YEAR");
+    }
+
+    @Test
+    @DisplayName("A cache for other .cfg file contents, or a damaged cache, is not used")
+    void testNotUsed() throws IOException {
+        String cache = tmpPath.resolve("f.cfg.cache").toString();
+        assertFalse(CompassConfigCache.load(cache, new long[] { 100, 12345 }));
+        CompassConfigCache.save(cache, new long[] { 100, 12345 });
+
+        clearConfig();
+        assertFalse(CompassConfigCache.load(cache, new long[] { 100, 12346 }));
+        assertFalse(CompassConfigCache.load(cache, new long[] { 101, 12345 }));
+        assertTrue(CompassConfig.sectionList.isEmpty());
+
+        byte[] b = Files.readAllBytes(tmpPath.resolve("f.cfg.cache"));
+        Files.write(tmpPath.resolve("f.cfg.cache"), Arrays.copyOf(b, b.length - 10));
+        assertFalse(CompassConfigCache.load(cache, new long[] { 100, 12345 }));
+        assertTrue(CompassConfig.sectionList.isEmpty());
+        assertNull(CompassConfig.cfg);
+
+        Files.write(tmpPath.resolve("f.cfg.cache"), "[Babelfish for T-SQL]".getBytes(StandardCharsets.UTF_8));
+        assertFalse(CompassConfigCache.load(cache, new long[] { 100, 12345 }));
+    }
+
+    @Test
+    @DisplayName("The key changes when the .cfg file contents change")
+    void testFileKey() throws IOException {
+        Path f = tmpPath.resolve("f.cfg");
+        Files.write(f, "[Babelfish for T-SQL]\nVALID_VERSIONS=1.0.0\n".getBytes(StandardCharsets.UTF_8));
+        long[] k1 = CompassConfigCache.fileKey(f.toString());
+        assertArrayEquals(k1, CompassConfigCache.fileKey(f.toString()));
+        Files.write(f, "[Babelfish for T-SQL]\nVALID_VERSIONS=1.0.1\n".getBytes(StandardCharsets.UTF_8));
+        long[] k2 = CompassConfigCache.fileKey(f.toString());
+        assertEquals(k1[0], k2[0]);
+        assertNotEquals(k1[1], k2[1]);
+        assertTrue(CompassConfigCache.getCachePathName("x" + java.io.File.separator + "BabelfishFeatures.cfg").endsWith(java.io.File.separator + "BabelfishFeatures.cfg.cache"));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassDaemonTest {
+
+    @TempDir
+    Path tmpPath;
+
+    @Test
+    @DisplayName("Each request gets its own Compass classes, the parser classes are shared")
+    void testClassLoader() throws Exception {
+        URL[] cp = { CompassDaemon.class.getProtectionDomain().getCodeSource().getLocation() };
+        try (CompassDaemon.RequestClassLoader l1 = new CompassDaemon.RequestClassLoader(cp, CompassDaemon.class.getClassLoader());
+             CompassDaemon.RequestClassLoader l2 = new CompassDaemon.RequestClassLoader(cp, CompassDaemon.class.getClassLoader())) {
+            Class<?> c1 = Class.forName("compass.CompassUtilities", false, l1);
+            Class<?> c2 = Class.forName("compass.CompassUtilities", false, l2);
+            assertNotSame(c1, c2);
+            assertNotSame(CompassUtilities.class, c1);
+            assertSame(c1, Class.forName("compass.CompassUtilities", false, l1));
+            assertSame(parser.TSQLParser.class, Class.forName("parser.TSQLParser", false, l1));
+            assertSame(parser.TSQLLexer.class, Class.forName("parser.TSQLLexer", false, l2));
+        }
+    }
+
+    @Test
+    @DisplayName("Without a daemon, the client runs the request itself")
+    void testNoDaemon() throws IOException {
+        Path daemonFile = tmpPath.resolve(CompassDaemon.daemonFileName);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertNull(CompassDaemon.request(daemonFile, CompassDaemon.requestRun, Arrays.asList("r1", "a.sql"), out));
+        assertFalse(CompassDaemon.isRunning(daemonFile));
+
+        // a daemon file left behind by a daemon that is gone
+        int port;
+        try (ServerSocket s = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = s.getLocalPort();
+        }
+        Files.write(daemonFile, (port + " abc\n").getBytes(StandardCharsets.UTF_8));
+        assertNull(CompassDaemon.request(daemonFile, CompassDaemon.requestRun, Arrays.asList("r1", "a.sql"), out));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    @DisplayName("The request is sent with the token, Compass build, directory and environment, output and exit code come back")
+    void testRequest() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Path daemonFile = tmpPath.resolve(CompassDaemon.daemonFileName);
+            Files.write(daemonFile, (server.getLocalPort() + " tok123\n").getBytes(StandardCharsets.UTF_8));
+            List<String> received = new ArrayList<>();
+            Thread fake = new Thread(() -> {
+                for (int reply : new int[] { CompassDaemon.replyExit, CompassDaemon.replyNotHere, CompassDaemon.replyOtherBuild }) {
+                    try (Socket s = server.accept()) {
+                        DataInputStream in = new DataInputStream(s.getInputStream());
+                        received.add(readString(in));
+                        received.add(readString(in));
+                        received.add(String.valueOf((char) in.readByte()));
+                        received.add(readString(in));
+                        for (int n = in.readInt(); n > 0; n--) received.add(readString(in));
+                        Map<String, String> env = new HashMap<>();
+                        for (int n = in.readInt(); n > 0; n--) env.put(readString(in), readString(in));
+                        received.add(env.equals(System.getenv()) ? "env" : "other env");
+
+                        DataOutputStream out = new DataOutputStream(s.getOutputStream());
+                        if (reply == CompassDaemon.replyExit) {
+                            PrintStream ps = new PrintStream(new CompassDaemon.FrameOutputStream(out), true, "UTF-8");
+                            ps.println("line 1");
+                            ps.print("line 2 é");
+                            ps.flush();
+                        }
+                        out.writeInt(reply);
+                        out.writeInt(3);
+                        out.flush();
+                    } catch (IOException e) {
+                        received.add(e.toString());
+                    }
+                }
+            });
+            fake.start();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(3, (int) CompassDaemon.request(daemonFile, CompassDaemon.requestRun, Arrays.asList("r1", "ä.sql"), out));
+            assertEquals("line 1" + System.lineSeparator() + "line 2 é", new String(out.toByteArray(), StandardCharsets.UTF_8));
+            assertNull(CompassDaemon.request(daemonFile, CompassDaemon.requestRun, Collections.singletonList("r2"), out));
+            assertNull(CompassDaemon.request(daemonFile, CompassDaemon.requestRun, Collections.singletonList("r3"), out));
+            fake.join();
+
+            String build = CompassDaemon.getBuild();
+            assertTrue(build.startsWith(CompassUtilities.thisProgVersion + " " + CompassUtilities.thisProgVersionDate + " "), build);
+            assertEquals(Arrays.asList("tok123", build, "R", new File("").getAbsolutePath(), "r1", "ä.sql", "env"), received.subList(0, 7));
+            assertEquals(Arrays.asList("r2", "env"), received.subList(11, 13));
+            assertEquals(Arrays.asList("r3", "env"), received.subList(17, 19));
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] b = new byte[in.readInt()];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
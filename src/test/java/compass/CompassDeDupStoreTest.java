@@ -0,0 +1,77 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassDeDupStoreTest {
+
+    @TempDir
+    Path tmpPath;
+
+    private boolean add(CompassDeDupStore store, String key, String orig) throws IOException {
+        return store.add(CompassDeDupStore.fingerprint(key), orig);
+    }
+
+    private List<String> readAll(CompassDeDupStore store) throws IOException {
+        List<String> result = new ArrayList<>();
+        CompassDeDupStore.QueryReader r = store.openReader();
+        String q;
+        while ((q = r.next()) != null) result.add(q + " /" + r.getDupCount());
+        return result;
+    }
+
+    @Test
+    @DisplayName("First occurrence is kept, duplicates are counted, order is preserved")
+    void testDeDup() throws IOException {
+        for (String spillDir : Arrays.asList(null, tmpPath.toString())) {
+            CompassDeDupStore store = new CompassDeDupStore();
+            store.startFile(spillDir);
+            assertTrue(add(store, "select 'string'", "select 'a'"));
+            assertTrue(add(store, "select 9999", "select 1"));
+            assertFalse(add(store, "select 'string'", "select 'b'"));
+            assertFalse(add(store, "select 'string'", "select 'c'"));
+            assertTrue(add(store, "select 9999 from t", "select 1\nfrom t"));
+            assertEquals(3, store.size());
+            assertIterableEquals(Arrays.asList("select 'a' /2", "select 1 /0", "select 1\nfrom t /0"), readAll(store), "spillDir=" + spillDir);
+            store.close();
+
+            // queries found in an earlier file are duplicates, but are not counted in the next file
+            store.startFile(spillDir);
+            assertFalse(add(store, "select 9999", "select 2"));
+            assertTrue(add(store, "select 'string',9999", "select 'x', 3"));
+            assertIterableEquals(Arrays.asList("select 'x', 3 /0"), readAll(store));
+            store.close();
+        }
+        assertEquals(0, Files.list(tmpPath).count(), "spill files are removed");
+    }
+
+    @Test
+    @DisplayName("Many distinct queries")
+    void testGrow() throws IOException {
+        CompassDeDupStore store = new CompassDeDupStore();
+        store.startFile(null);
+        for (int i = 0; i < 20000; i++) {
+            assertTrue(add(store, "q" + i, "Q" + i));
+            if (i % 3 == 0) assertFalse(add(store, "q" + (i / 2), "dup"));
+        }
+        assertEquals(20000, store.size());
+        List<String> all = readAll(store);
+        assertEquals("Q0 /1", all.get(0));
+        assertEquals("Q19999 /0", all.get(19999));
+    }
+}
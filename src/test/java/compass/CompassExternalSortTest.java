@@ -0,0 +1,99 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassExternalSortTest {
+
+    @TempDir
+    Path tmpPath;
+
+    private List<String> toList(Iterable<CompassSortKey> it) {
+        List<String> result = new ArrayList<>();
+        for (CompassSortKey k : it) result.add(k.toString());
+        return result;
+    }
+
+    @Test
+    @DisplayName("Sorting with spills gives the same order as an in-memory stable sort")
+    void testSpill() throws IOException {
+        Random rnd = new Random(42);
+        List<String> statuses = Arrays.asList("NOTSUPPORTED", "REVIEWMANUALLY", "SUPPORTED");
+        Map<String, List<String>> expected = new HashMap<>();
+        CompassExternalSort sorter = new CompassExternalSort(4000, tmpPath.toString());
+        for (int i = 0; i < 5000; i++) {
+            String status = statuses.get(rnd.nextInt(statuses.size()));
+            // keys differing only in case compare equal, and must keep their order
+            CompassSortKey key = new CompassSortKey(status, (rnd.nextBoolean() ? "Item" : "ITEM") + rnd.nextInt(300), Integer.toString(i));
+            if (rnd.nextInt(10) == 0) key = new CompassSortKey(status, "dup");
+            sorter.add(status, key);
+            expected.computeIfAbsent(status, k -> new ArrayList<>()).add(key.toString());
+        }
+        assertTrue(sorter.getNrRuns() > 10, "nrRuns=" + sorter.getNrRuns());
+
+        for (String status : statuses) {
+            List<String> exp = expected.get(status).stream().sorted(String.CASE_INSENSITIVE_ORDER).collect(Collectors.toList());
+            assertIterableEquals(exp, toList(sorter.sorted(status)), status);
+            assertIterableEquals(exp, toList(sorter.sorted(status)), "read twice: " + status);
+        }
+        assertTrue(toList(sorter.sorted("IGNORED")).isEmpty());
+
+        sorter.close();
+        assertEquals(0, Files.list(tmpPath).count(), "run files are removed");
+    }
+
+    @Test
+    @DisplayName("The memory used by a key follows the sizes of its fields, counting shared fields once")
+    void testMemSize() {
+        String item = "Table hint NOLOCK";
+        CompassSortKey k1 = new CompassSortKey("SUPPORTED", item, "1");
+        CompassSortKey k2 = new CompassSortKey("SUPPORTED", item, "12345678901234567890");
+        CompassSortKey k3 = new CompassSortKey("SUPPORTED", item, "2");
+        long size1 = CompassExternalSort.memSize(k1, null);
+        assertTrue(CompassExternalSort.memSize(k2, null) > size1);
+        assertEquals(CompassExternalSort.stringSize("12345678") + 8, CompassExternalSort.stringSize("\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac"), "2 bytes per char");
+        assertEquals(size1 - CompassExternalSort.stringSize("SUPPORTED") - CompassExternalSort.stringSize(item), CompassExternalSort.memSize(k1, k3), "shared fields");
+        assertEquals(size1, CompassExternalSort.memSize(k1, new CompassSortKey(new String("SUPPORTED"), new String(item), new String("1"))), "equal but not shared");
+    }
+
+    @Test
+    @DisplayName("A spill writes a run only for the partitions holding keys")
+    void testSpillNonEmpty() throws IOException {
+        CompassExternalSort sorter = new CompassExternalSort(1, tmpPath.toString());
+        sorter.add("A", new CompassSortKey("b"));
+        sorter.add("A", new CompassSortKey("a"));
+        sorter.add("B", new CompassSortKey("c"));
+        assertEquals(3, sorter.getNrRuns());
+        assertEquals(3, Files.list(tmpPath).count());
+        assertIterableEquals(Arrays.asList("a", "b"), toList(sorter.sorted("A")));
+        sorter.close();
+    }
+
+    @Test
+    @DisplayName("Without spilling, keys are sorted in memory")
+    void testInMemory() throws IOException {
+        CompassExternalSort sorter = new CompassExternalSort(Long.MAX_VALUE, tmpPath.toString());
+        sorter.add("A", new CompassSortKey("b"));
+        sorter.add("A", new CompassSortKey("B"));
+        sorter.add("A", new CompassSortKey("a"));
+        sorter.add("C", new CompassSortKey("c"));
+        assertEquals(0, sorter.getNrRuns());
+        assertIterableEquals(Arrays.asList("a", "b", "B"), toList(sorter.sorted("A")));
+        assertIterableEquals(Arrays.asList("c"), toList(sorter.sorted("C")));
+        sorter.close();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassInputDiscoveryTest {
+
+    @TempDir
+    Path tmpPath;
+
+    @Test
+    @DisplayName("Walk finds files at all levels, up to the maximum depth")
+    void testWalk() throws IOException {
+        for (int i = 0; i < 30; i++) {
+            Path dir = Files.createDirectories(tmpPath.resolve("d" + (i % 3)).resolve("sub" + i));
+            Files.createFile(dir.resolve("f" + i + ".sql"));
+            Files.createFile(dir.resolve("f" + i + ".txt"));
+        }
+        Files.createFile(tmpPath.resolve("top.sql"));
+
+        CompassInputDiscovery d = new CompassInputDiscovery(tmpPath, Integer.MAX_VALUE, null, null);
+        Set<String> files = d.walk();
+        assertEquals(61, files.size());
+        assertTrue(files.contains(tmpPath.resolve("d1").resolve("sub4").resolve("f4.sql").toString()));
+
+        d = new CompassInputDiscovery(tmpPath, 1, null, null);
+        assertEquals(1, d.walk().size(), "depth 1");
+    }
+
+    @Test
+    @DisplayName("Skipped paths are counted, and only the first ones are reported")
+    void testIncludeExclude() throws IOException {
+        for (int i = 0; i < 25; i++) {
+            Files.createFile(tmpPath.resolve("f" + i + ".sql"));
+            Files.createFile(tmpPath.resolve("f" + i + ".txt"));
+        }
+        Files.createFile(tmpPath.resolve("x.sql"));
+        PathMatcher includes = FileSystems.getDefault().getPathMatcher("glob:**.sql");
+        PathMatcher excludes = FileSystems.getDefault().getPathMatcher("glob:**x.sql");
+        CompassInputDiscovery d = new CompassInputDiscovery(tmpPath, Integer.MAX_VALUE, includes, excludes);
+        assertEquals(25, d.walk().size());
+        assertEquals(25, d.getNrNotIncluded());
+        assertEquals(1, d.getNrExcluded());
+
+        List<String> msgs = d.skippedPathsReport();
+        assertEquals(CompassInputDiscovery.maxPathsReported + 2, msgs.size());
+        assertTrue(msgs.get(0).startsWith("Ignoring not included path '"));
+        assertEquals("Ignoring 15 more not included paths", msgs.get(CompassInputDiscovery.maxPathsReported));
+        assertEquals("Excluding path '" + tmpPath.resolve("x.sql") + "'", msgs.get(CompassInputDiscovery.maxPathsReported + 1));
+    }
+
+    @Test
+    @DisplayName("Symbolic link loops are not followed")
+    void testLinkLoop() throws IOException {
+        Path dir = Files.createDirectories(tmpPath.resolve("a").resolve("b"));
+        Files.createFile(dir.resolve("f.sql"));
+        try {
+            Files.createSymbolicLink(dir.resolve("loop"), tmpPath.resolve("a"));
+        } catch (UnsupportedOperationException | IOException e) {
+            return;
+        }
+        CompassInputDiscovery d = new CompassInputDiscovery(tmpPath, Integer.MAX_VALUE, null, null);
+        assertEquals(1, d.walk().size());
+    }
+
+    @Test
+    @DisplayName("Application name from the first directory containing the file")
+    void testPrefixTrie() {
+        CompassInputDiscovery.PrefixTrie trie = new CompassInputDiscovery.PrefixTrie();
+        trie.add("src/app1", "app1");
+        trie.add("src", "src");
+        trie.add("C:\\Proj\\App2", "App2");
+        assertEquals("app1", trie.lookup("src/app1/x/y.sql"));
+        assertEquals("src", trie.lookup("src/app10/y.sql"));
+        assertEquals("src", trie.lookup("SRC/other.sql"), "case-insensitive");
+        assertEquals("App2", trie.lookup("c:/proj/app2/z.sql"));
+        assertEquals("App2", trie.lookup("C:\\Proj\\App2\\z.sql"));
+        assertNull(trie.lookup("other/src/a.sql"));
+        assertNull(trie.lookup("src"));
+    }
+}
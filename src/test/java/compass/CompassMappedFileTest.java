@@ -0,0 +1,157 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassMappedFileTest {
+
+    @TempDir
+    Path tmpPath;
+
+    @AfterEach
+    void cleanup() {
+        CompassMappedFile.releaseAll();
+    }
+
+    private List<String> readAll(CompassMappedFile.LineReader r) {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = r.readLine()) != null) lines.add(line);
+        return lines;
+    }
+
+    private List<String> readAllBuffered(String s) throws IOException {
+        List<String> lines = new ArrayList<>();
+        BufferedReader br = new BufferedReader(new StringReader(s));
+        String line;
+        while ((line = br.readLine()) != null) lines.add(line);
+        return lines;
+    }
+
+    @Test
+    @DisplayName("Lines are split the same way as BufferedReader.readLine")
+    void testReadLineSemantics() throws IOException {
+        String[] contents = { "", "a", "a\n", "a\nb", "a\r\nb\r\n", "a\rb\r", "\n\n", "﻿select 1\ngo\n", "café 中文\nü" };
+        int i = 0;
+        for (String content : contents) {
+            Path f = tmpPath.resolve("f" + (i++) + ".dat");
+            Files.write(f, content.getBytes(StandardCharsets.UTF_8));
+            CompassMappedFile mf = CompassMappedFile.open(f.toString());
+            assertIterableEquals(readAllBuffered(content), readAll(mf.newReader()), "content=[" + content + "]");
+        }
+    }
+
+    @Test
+    @DisplayName("Random access to lines")
+    void testRandomAccess() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) sb.append("line ").append(i).append("\n");
+        Path f = tmpPath.resolve("lines.dat");
+        Files.write(f, sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        CompassMappedFile mf = CompassMappedFile.open(f.toString());
+        assertEquals("line 999", mf.readLine(999));
+        assertEquals("line 0", mf.readLine(0));
+        assertEquals("line 130", mf.readLine(130));
+        assertNull(mf.readLine(1000), "Reading past last line returns NULL");
+        assertSame(mf, CompassMappedFile.open(f.toString()), "Unmodified file re-uses the mapping");
+        assertSame(mf, CompassMappedFile.getIfMapped(f.toString()));
+
+        CompassMappedFile.release(f.toString());
+        assertNull(CompassMappedFile.getIfMapped(f.toString()), "Released mapping is gone");
+    }
+
+    @Test
+    @DisplayName("Files above the mapping threshold are memory-mapped")
+    void testMappedFile() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int n = 0;
+        while (sb.length() < CompassMappedFile.mapMinSize + 100) {
+            sb.append("insert into t values(").append(n++).append(", 'abc')\r\n");
+        }
+        Path f = tmpPath.resolve("big.dat");
+        Files.write(f, sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        CompassMappedFile mf = CompassMappedFile.open(f.toString());
+        List<String> lines = readAll(mf.newReader());
+        assertEquals(n, lines.size());
+        assertEquals("insert into t values(" + (n - 1) + ", 'abc')", lines.get(n - 1));
+        assertEquals(lines.get(n / 2), mf.readLine(n / 2));
+    }
+
+    @Test
+    @DisplayName("A released file is unmapped when it is no longer open")
+    void testUnmap() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < CompassMappedFile.mapMinSize + 100) {
+            sb.append("select 1\n");
+        }
+        Path f = tmpPath.resolve("big.dat");
+        Files.write(f, sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        CompassMappedFile mf = CompassMappedFile.open(f.toString());
+        CompassMappedFile.close(mf);
+        assertFalse(mf.unmapped, "Kept in the cache");
+        assertSame(mf, CompassMappedFile.open(f.toString()));
+        CompassMappedFile.release(f.toString());
+        assertFalse(mf.unmapped, "Still open");
+        assertEquals("select 1", mf.readLine(100));
+        CompassMappedFile.close(mf);
+        assertTrue(mf.unmapped);
+
+        // can be rewritten now, also on Windows
+        Files.write(f, "select 2\n".getBytes(StandardCharsets.UTF_8));
+        CompassMappedFile mf2 = CompassMappedFile.open(f.toString());
+        assertNotSame(mf, mf2);
+        assertEquals("select 2", mf2.readLine(0));
+        CompassMappedFile.close(mf2);
+    }
+
+    @Test
+    @DisplayName("The cache drops the least recently used files when it is full")
+    void testCacheSize() throws IOException {
+        long savedMax = CompassMappedFile.cacheMaxSize;
+        try {
+            CompassMappedFile.cacheMaxSize = 250;
+            List<Path> files = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Path f = tmpPath.resolve("f" + i + ".dat");
+                Files.write(f, new byte[100]);
+                files.add(f);
+            }
+            CompassMappedFile.open(files.get(0).toString());
+            CompassMappedFile.open(files.get(1).toString());
+            CompassMappedFile.getIfMapped(files.get(0).toString());
+            CompassMappedFile.open(files.get(2).toString());
+            assertNotNull(CompassMappedFile.getIfMapped(files.get(0).toString()), "Recently used");
+            assertNull(CompassMappedFile.getIfMapped(files.get(1).toString()), "Least recently used");
+            assertNotNull(CompassMappedFile.getIfMapped(files.get(2).toString()));
+
+            CompassMappedFile.cacheMaxSize = 50;
+            CompassMappedFile.open(files.get(1).toString());
+            assertNotNull(CompassMappedFile.getIfMapped(files.get(1).toString()), "A file larger than the cache is kept while in use");
+            assertNull(CompassMappedFile.getIfMapped(files.get(0).toString()));
+            assertNull(CompassMappedFile.getIfMapped(files.get(2).toString()));
+        } finally {
+            CompassMappedFile.cacheMaxSize = savedMax;
+        }
+    }
+}
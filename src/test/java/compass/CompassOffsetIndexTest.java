@@ -0,0 +1,198 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassOffsetIndexTest {
+
+    CompassUtilities u;
+    CompassRewriteContext rwr;
+
+    @BeforeEach
+    void init() {
+        CompassTestUtils.resetStatics();
+        u = CompassUtilities.getInstance();
+        CompassUtilities.rwrTabRegex = "\\t";
+        rwr = new CompassRewriteContext("r1", "app1", "f.sql", new ArrayList<>(), new HashMap<>(), new HashMap<>(), new HashMap<>());
+    }
+
+    private void rewrite(int iteration, int lineNo, int startCol, String origStr, String newStr) {
+        u.addOffsets(rwr, iteration, lineNo, lineNo, startCol, origStr, "", newStr, newStr, "report", "f.sql", CompassUtilities.rewriteTypeReplace);
+    }
+
+    @Test
+    @DisplayName("Sums of added lines and chars by line and column")
+    void testIndex() {
+        CompassOffsetIndex x = new CompassOffsetIndex();
+        x.put(3, 5, 2);
+        x.put(3, 10, 4);
+        x.put(3, CompassOffsetIndex.addedLinesCol, 2);
+        x.put(7, 0, -1);
+        x.put(9, CompassOffsetIndex.addedLinesCol, 1);
+        assertEquals(0, x.addedLines(2));
+        assertEquals(2, x.addedLines(3));
+        assertEquals(3, x.addedLines(100));
+        assertEquals(0, x.addedChars(3, 5));
+        assertEquals(2, x.addedChars(3, 6));
+        assertEquals(6, x.addedChars(3, 11));
+        assertEquals(0, x.addedChars(4, 11));
+        assertEquals(4, x.addedChars(3, 6, 10));
+        assertEquals(0, x.addedChars(3, 10, 6));
+        assertEquals(-1, x.addedCharsBetween(3, 8));
+        assertEquals(0, x.addedCharsBetween(3, 7));
+        x.put(3, 10, 1);
+        assertEquals(3, x.addedChars(3, 11));
+    }
+
+    @Test
+    @DisplayName("A rewrite on one line moves the columns after it")
+    void testSameLine() {
+        // {fn ucase(x)} -> UPPER(x), at col 7 of line 2
+        rewrite(1, 2, 7, "{fn ucase(x)}", "UPPER(x)");
+        assertEquals(2, (int) u.calcOffsetLine(rwr, 1, 2, ""));
+        assertEquals(7, (int) u.calcOffsetCol(rwr, 1, 2, 7));
+        assertEquals(25, (int) u.calcOffsetCol(rwr, 1, 2, 30));
+        assertEquals(30, (int) u.calcOffsetCol(rwr, 1, 3, 30));
+        assertEquals(-5, (int) u.calcOffsetLength(rwr, 1, 2, 0, 2, 40, ""));
+        assertEquals(0, (int) u.calcOffsetLength(rwr, 1, 2, 21, 2, 40, ""));
+        CompassUtilities.offsetLines.putAll(rwr.offsetLines);
+        assertEquals(2, (int) u.calcOffsetLineHLink("f.sql", 2));
+    }
+
+    @Test
+    @DisplayName("A rewrite that adds lines moves the lines after it")
+    void testAddedLines() {
+        // a 2-line MERGE replaced by 5 lines, at col 0 of line 4
+        rewrite(1, 4, 0, "merge t1\nusing t2;", "/* merge t1\nusing t2; */\nupdate t1\nset a = 1;\ninsert t1 select 1;");
+        assertEquals(3, (int) u.calcOffsetLine(rwr, 1, 3, ""));
+        assertEquals(8, (int) u.calcOffsetLine(rwr, 1, 5, ""));
+        assertEquals(9, (int) u.calcOffsetLine(rwr, CompassUtilities.calcOffsetIterationMax, 6, ""));
+        assertEquals(4, (int) u.calcOffsetCol(rwr, 1, 4, 1));
+        assertEquals(6, (int) u.calcOffsetLength(rwr, 1, 4, 0, 5, 9, ""));
+        CompassUtilities.offsetLines.putAll(rwr.offsetLines);
+        assertEquals(3, (int) u.calcOffsetLineHLink("f.sql", 3));
+        assertEquals(4, (int) u.calcOffsetLineHLink("", 4));
+        assertEquals(8, (int) u.calcOffsetLineHLink("", 5));
+    }
+
+    @Test
+    @DisplayName("Nested rewrites: the outer range is adjusted for the inner rewrites")
+    void testNested() {
+        // EOMONTH(EOMONTH(d)) on line 1 from col 7: the inner one is rewritten first
+        rewrite(1, 1, 15, "EOMONTH(d)", "DATEADD(DD,-1,DATEADD(MM,1,d))");
+        assertEquals(7, (int) u.calcOffsetCol(rwr, 1, 1, 7));
+        assertEquals(20, (int) u.calcOffsetLength(rwr, 1, 1, 7, 1, 26, ""));
+        rewrite(2, 1, 7, "EOMONTH(DATEADD(DD,-1,DATEADD(MM,1,d)))", "DATEADD(DD,-1,DATEADD(MM,1,\nDATEADD(DD,-1,DATEADD(MM,1,d))))");
+        assertEquals(1, (int) u.calcOffsetLine(rwr, 1, 1, ""));
+        assertEquals(2, (int) u.calcOffsetLine(rwr, 2, 1, ""));
+        assertEquals(3, (int) u.calcOffsetLine(rwr, 2, 2, ""));
+        assertEquals(2, rwr.rewritesDone.size());
+    }
+
+    @Test
+    @DisplayName("Results are the same as going through all offsets of each iteration")
+    void testSameAsScan() {
+        Random rnd = new Random(7);
+        for (int t = 0; t < 50; t++) {
+            List<Map<Integer, Map<Integer, Integer>>> scan = new ArrayList<>();
+            List<CompassOffsetIndex> index = new ArrayList<>();
+            int iterations = 1 + rnd.nextInt(3);
+            for (int i = 0; i < iterations; i++) {
+                Map<Integer, Map<Integer, Integer>> m = new HashMap<>();
+                CompassOffsetIndex x = new CompassOffsetIndex();
+                for (int n = rnd.nextInt(30); n > 0; n--) {
+                    int line = 1 + rnd.nextInt(20);
+                    int col = rnd.nextInt(5) == 0 ? CompassOffsetIndex.addedLinesCol : rnd.nextInt(30);
+                    int offset = (col == CompassOffsetIndex.addedLinesCol) ? 1 + rnd.nextInt(3) : rnd.nextInt(21) - 10;
+                    m.computeIfAbsent(line, k -> new HashMap<>()).put(col, offset);
+                    x.put(line, col, offset);
+                }
+                scan.add(m);
+                index.add(x);
+            }
+            rwr.offsetCols.clear();
+            rwr.offsetCols.addAll(index);
+            for (int q = 0; q < 200; q++) {
+                int iteration = 1 + rnd.nextInt(iterations);
+                int startLine = 1 + rnd.nextInt(22);
+                int endLine = startLine + rnd.nextInt(5) - 1;
+                int startCol = rnd.nextInt(32);
+                int endCol = rnd.nextInt(32);
+                assertEquals(scanLine(scan, iteration, startLine), (int) u.calcOffsetLine(rwr, iteration, startLine, ""));
+                assertEquals(scanCol(scan, iteration, startLine, startCol), (int) u.calcOffsetCol(rwr, iteration, startLine, startCol));
+                assertEquals(scanLength(scan, iteration, startLine, startCol, endLine, endCol), (int) u.calcOffsetLength(rwr, iteration, startLine, startCol, endLine, endCol, ""));
+            }
+        }
+    }
+
+    // the lookups as they were done before there was an index: going through all offsets of each iteration
+
+    private int scanLine(List<Map<Integer, Map<Integer, Integer>>> offsetCols, int iteration, int lineOrig) {
+        int lineNew = lineOrig;
+        int iterationLineNoAdded = 0;
+        for (int i = 0; i < iteration && i < offsetCols.size(); i++) {
+            lineOrig += iterationLineNoAdded;
+            iterationLineNoAdded = 0;
+            for (Map.Entry<Integer, Map<Integer, Integer>> e : offsetCols.get(i).entrySet()) {
+                Integer offset = e.getValue().get(-1);
+                if (offset != null && lineOrig >= e.getKey()) {
+                    lineNew += offset;
+                    iterationLineNoAdded += offset;
+                }
+            }
+        }
+        return lineNew;
+    }
+
+    private int scanCol(List<Map<Integer, Map<Integer, Integer>>> offsetCols, int iteration, int lineNo, int col) {
+        int colNew = col;
+        for (int i = 0; i < iteration; i++) {
+            Map<Integer, Integer> cols = offsetCols.get(i).getOrDefault(lineNo, new HashMap<>());
+            for (Map.Entry<Integer, Integer> c : cols.entrySet()) {
+                if (c.getKey() != -1 && col > c.getKey()) colNew += c.getValue();
+            }
+        }
+        return colNew;
+    }
+
+    private int scanLength(List<Map<Integer, Map<Integer, Integer>>> offsetCols, int iteration, int startLineNo, int startCol, int endLineNo, int endCol) {
+        int lengthNew = 0;
+        int startAdded = 0;
+        int endAdded = 0;
+        for (int i = 0; i < iteration; i++) {
+            startLineNo += startAdded;
+            endLineNo += endAdded;
+            startAdded = 0;
+            endAdded = 0;
+            for (int lineNo = 1; lineNo <= endLineNo; lineNo++) {
+                if (!offsetCols.get(i).containsKey(lineNo)) continue;
+                for (Map.Entry<Integer, Integer> c : offsetCols.get(i).get(lineNo).entrySet()) {
+                    int colx = c.getKey();
+                    int offset = c.getValue();
+                    if (colx == -1) {
+                        if (lineNo <= startLineNo) startAdded += offset;
+                        if (lineNo < endLineNo) endAdded += offset;
+                        continue;
+                    }
+                    if (lineNo < startLineNo) continue;
+                    if (lineNo == startLineNo && startCol > colx) continue;
+                    if (lineNo == startLineNo && colx > endCol) continue;
+                    if (lineNo == startLineNo && colx >= startCol) lengthNew += offset;
+                    else if (lineNo == endLineNo && endCol > colx) lengthNew += offset;
+                    else if (lineNo > startLineNo && lineNo < endLineNo) lengthNew += offset;
+                }
+            }
+        }
+        return lengthNew;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassPGImportChunkTest {
+
+    @TempDir
+    Path tmpPath;
+
+    private Path captureFile(String name, String... lines) throws IOException {
+        Path p = tmpPath.resolve(name);
+        Files.write(p, Arrays.asList(lines), StandardCharsets.UTF_8);
+        return p;
+    }
+
+    @Test
+    @DisplayName("Capture files are divided over the chunks by size, keeping their order")
+    void testAssign() throws IOException {
+        Path f1 = captureFile("f1.dat", "xxxxxxxxxxxxxxxxxxxxxxxxxxxxxx");
+        Path f2 = captureFile("f2.dat", "xxxxxxxxxx");
+        Path f3 = captureFile("f3.dat", "xxxxxxxxxx");
+        Path f4 = captureFile("f4.dat", "xxxxxxxxxx");
+        List<CompassPGImportChunk> chunks = Arrays.asList(new CompassPGImportChunk("c1"), new CompassPGImportChunk("c2"));
+        CompassPGImportChunk.assign(Arrays.asList(f1, f2, f3, f4), chunks);
+        assertEquals(Arrays.asList(f1), chunks.get(0).files);
+        assertEquals(Arrays.asList(f2, f3, f4), chunks.get(1).files);
+    }
+
+    @Test
+    @DisplayName("Only captured items are written to the chunk file, with version and date added")
+    void testWrite() throws IOException {
+        Path cf = captureFile("captured.a.dat",
+            "# Captured items for report [r1] with targeted Babelfishversion [5.5.0]",
+            "INT column;a;Datatypes;SUPPORTED;1;app1;a.sql;1;1;TABLE dbo.t1;;;~;",
+            "EXECUTE procedure sp_addtype;;System Stored Procedures;XREFONLY;SYSTEM STORED PROCEDURES;SP_ADDTYPE;;;;;;;~;",
+            "",
+            "INT column;a" + CompassUtilities.captureFileSeparatorMarker + "b;Datatypes;SUPPORTED;2;app1;a.sql;1;1;TABLE dbo.t1;;;~;");
+        String chunkFile = tmpPath.resolve("pg_import.1.dat").toString();
+        CompassPGImportChunk chunk = new CompassPGImportChunk(chunkFile);
+        CompassPGImportChunk.assign(Arrays.asList(cf), Arrays.asList(chunk));
+        chunk.write("5.5.0", "2026-01-01 00:00:00");
+
+        assertEquals(2, chunk.capCount);
+        assertTrue(chunk.containsDelimiter);
+        assertTrue(chunk.msgs.isEmpty());
+        assertEquals(Arrays.asList(
+            "5.5.0;2026-01-01 00:00:00;INT column;a;Datatypes;SUPPORTED;1;app1;a.sql;1;1;TABLE dbo.t1;;;0;0",
+            "5.5.0;2026-01-01 00:00:00;INT column;a" + CompassUtilities.captureFileSeparatorMarker + "b;Datatypes;SUPPORTED;2;app1;a.sql;1;1;TABLE dbo.t1;;;0;0"),
+            Files.readAllLines(tmpPath.resolve("pg_import.1.dat"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("The psql scripts load each chunk, and the chunks are loaded concurrently; a failing chunk stops the import")
+    void testScripts() {
+        CompassUtilities u = CompassUtilities.getInstance();
+        Map<String, String> scripts = u.psqlImportScripts(false, Arrays.asList("pg_import.1.dat", "pg_import.2.dat"), false);
+        assertEquals(Arrays.asList("pg_import.psql", "pg_import.1.psql", "pg_import.2.psql", "pg_import.post.psql"), new ArrayList<>(scripts.keySet()));
+        assertTrue(scripts.get("pg_import.psql").contains("CREATE TABLE " + u.psqlImportTableName));
+        assertTrue(scripts.get("pg_import.2.psql").contains("\\COPY " + u.psqlImportTableName + " FROM 'pg_import.2.dat'"));
+        assertFalse(scripts.get("pg_import.post.psql").contains("UPDATE"));
+
+        List<String> lines = u.psqlImportCmdLines(scripts.keySet(), "psql --file=~file~", true);
+        assertEquals(Arrays.asList("psql --file=pg_import.psql",
+            "pids=\"\"", "psql --file=pg_import.1.psql &", "pids=\"$pids $!\"", "psql --file=pg_import.2.psql &", "pids=\"$pids $!\"",
+            "failed=0", "for pid in $pids; do wait $pid || failed=1; done",
+            "if [ $failed -ne 0 ]; then echo \"Loading into PostgreSQL table '" + u.psqlImportTableName + "' failed\"; exit 1; fi",
+            "psql --file=pg_import.post.psql"), lines);
+        lines = u.psqlImportCmdLines(scripts.keySet(), "psql --file=~file~", false);
+        assertEquals(Arrays.asList("psql --file=pg_import.psql", "psql --file=pg_import.1.psql", "psql --file=pg_import.2.psql", "psql --file=pg_import.post.psql"), lines);
+
+        scripts = u.psqlImportScripts(true, Arrays.asList("pg_import.1.dat"), true);
+        assertEquals(Arrays.asList("pg_import.1.psql", "pg_import.post.psql"), new ArrayList<>(scripts.keySet()));
+        assertTrue(scripts.get("pg_import.post.psql").contains("UPDATE"));
+        lines = u.psqlImportCmdLines(scripts.keySet(), "psql --file=~file~", true);
+        assertEquals(Arrays.asList("psql --file=pg_import.1.psql", "psql --file=pg_import.post.psql"), lines);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassPieceTableTest {
+
+    @Test
+    @DisplayName("Ranges are addressed by line and column and replaced")
+    void testRewrite() {
+        CompassPieceTable text = new CompassPieceTable("select 1\nselect eomonth(x), 2\ngo\n");
+        CompassPieceTable.Pass pass = text.newPass();
+        assertTrue(pass.seek(2, 7));
+        assertEquals("eomonth(x), 2", pass.peekLine());
+        assertEquals("eomonth(x)", pass.take(10));
+        pass.insert("EOMONTH(x)");
+        assertEquals(2, pass.getLine());
+        assertEquals(17, pass.getCol());
+        pass.finish();
+        assertEquals("select 1\nselect EOMONTH(x), 2\ngo\n", text.toString());
+    }
+
+    @Test
+    @DisplayName("A range can span lines, and a column past the end of the line stops at the newline")
+    void testMultiLine() {
+        CompassPieceTable text = new CompassPieceTable("a(\n  b\n)\nc\n");
+        CompassPieceTable.Pass pass = text.newPass();
+        assertTrue(pass.seek(1, 1));
+        assertEquals("(\n  b\n)", pass.take(7));
+        assertEquals(3, pass.getLine());
+        assertEquals(1, pass.getCol());
+        pass.insert("(b)");
+        assertTrue(pass.seek(3, 50));
+        assertEquals(1, pass.getCol());
+        assertFalse(pass.seek(9, 0));
+        pass.finish();
+        assertEquals("a(b)\nc\n", text.toString());
+    }
+
+    @Test
+    @DisplayName("Taking past the end removes nothing")
+    void testTakePastEnd() {
+        CompassPieceTable text = new CompassPieceTable("abc");
+        CompassPieceTable.Pass pass = text.newPass();
+        pass.seek(1, 1);
+        assertNull(pass.take(5));
+        assertEquals(1, pass.getCol());
+        assertEquals("bc", pass.take(2));
+        pass.finish();
+        assertEquals("a", text.toString());
+    }
+
+    @Test
+    @DisplayName("A later pass addresses the text as rewritten by the earlier pass")
+    void testPasses() {
+        CompassPieceTable text = new CompassPieceTable("x = f(g(1))\ny\n");
+        CompassPieceTable.Pass pass = text.newPass();
+        pass.seek(1, 6);
+        pass.take(4);
+        pass.insert("G(1,\n2)");
+        pass.finish();
+        assertEquals("x = f(G(1,\n2))\ny\n", text.toString());
+
+        pass = text.newPass();
+        pass.seek(1, 4);
+        assertEquals("f(G(1,\n2))", pass.take(10));
+        pass.insert("F");
+        pass.seek(3, 0);
+        assertEquals("y", pass.peekLine());
+        pass.finish();
+        text.append("-- end\n");
+        assertEquals("x = F\ny\n-- end\n", text.toString());
+        assertEquals(text.toString().length(), text.length());
+    }
+
+    @Test
+    @DisplayName("Random rewrites give the same text as rewriting a string")
+    void testSameAsString() {
+        Random rnd = new Random(5);
+        for (int t = 0; t < 200; t++) {
+            StringBuilder s = new StringBuilder();
+            for (int i = 0, n = rnd.nextInt(200); i < n; i++) s.append("ab\n".charAt(rnd.nextInt(3)));
+            String expected = s.toString();
+            CompassPieceTable text = new CompassPieceTable(expected);
+            for (int p = 0; p < 3; p++) {
+                CompassPieceTable.Pass pass = text.newPass();
+                StringBuilder result = new StringBuilder();
+                int pos = 0;
+                while (true) {
+                    int line = pass.getLine() + rnd.nextInt(2);
+                    int col = rnd.nextInt(4);
+                    int target = offset(expected, line, col);
+                    if (line == pass.getLine()) target = Math.max(target, pos);
+                    if (target < 0) break;
+                    assertTrue(pass.seek(line, Math.max(col, line == pass.getLine() ? pass.getCol() : 0)));
+                    result.append(expected, pos, target);
+                    pos = target;
+                    int len = rnd.nextInt(5);
+                    String taken = pass.take(len);
+                    if (taken == null) break;
+                    assertEquals(expected.substring(pos, pos + len), taken);
+                    pos += len;
+                    String ins = rnd.nextBoolean() ? "" : "X\nY".substring(rnd.nextInt(3));
+                    pass.insert(ins);
+                    result.append(ins);
+                }
+                pass.finish();
+                result.append(expected, pos, expected.length());
+                expected = result.toString();
+                assertEquals(expected, text.toString());
+            }
+        }
+    }
+
+    // position of a line and column in a string; the column stops at the end of the line. -1 if there is no such line
+    private int offset(String s, int line, int col) {
+        int pos = 0;
+        for (int l = 1; l < line; l++) {
+            pos = s.indexOf('\n', pos) + 1;
+            if (pos == 0) return -1;
+        }
+        int eol = s.indexOf('\n', pos);
+        if (eol < 0) eol = s.length();
+        return Math.min(pos + col, eol);
+    }
+
+    @Test
+    @DisplayName("Lines are read with their terminators, like BufferedReader")
+    void testLineReader() {
+        CompassPieceTable text = new CompassPieceTable("a\r\nb");
+        text.append("\rc\n\nd");
+        CompassPieceTable.LineReader r = text.lineReader();
+        List<String> lines = new ArrayList<>();
+        List<String> terminators = new ArrayList<>();
+        String line;
+        while ((line = r.readLine()) != null) {
+            lines.add(line);
+            terminators.add(r.getTerminator());
+        }
+        assertEquals(Arrays.asList("a", "b", "c", "", "d"), lines);
+        assertEquals(Arrays.asList("\r\n", "\r", "\n", "\n", ""), terminators);
+        assertNull(new CompassPieceTable("").lineReader().readLine());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassShardTest {
+
+    @TempDir
+    Path tmpPath;
+
+    @Test
+    @DisplayName("Valid and invalid -shard arguments")
+    void testParse() {
+        CompassShard s = CompassShard.parse("2/3");
+        assertNotNull(s);
+        assertEquals(2, s.shardNr);
+        assertEquals(3, s.nrShards);
+        assertEquals("2/3", s.toString());
+        assertEquals("shard2of3", s.fileNameTag());
+        assertNotNull(CompassShard.parse("1/1"));
+        for (String bad : Arrays.asList("0/3", "4/3", "1/0", "3", "a/b", "1/2/3", "-1/2", "99999999999/99999999999")) {
+            assertNull(CompassShard.parse(bad), bad);
+        }
+    }
+
+    @Test
+    @DisplayName("The shards are disjoint and together contain all files")
+    void testPartition() {
+        List<CompassShard> shards = Arrays.asList(new CompassShard(1, 3), new CompassShard(2, 3), new CompassShard(3, 3));
+        int[] count = new int[shards.size()];
+        for (int f = 0; f < 3000; f++) {
+            String name = "dir" + (f % 7) + "/file" + f + ".sql";
+            int n = 0;
+            for (int i = 0; i < shards.size(); i++) {
+                if (shards.get(i).contains(name)) {
+                    n++;
+                    count[i]++;
+                }
+            }
+            assertEquals(1, n, name);
+        }
+        for (int c : count) assertTrue(c > 800, Arrays.toString(count));
+
+        for (CompassShard s : shards) {
+            assertEquals(s.contains("dir/a.sql"), s.contains("DIR\\A.sql"));
+        }
+    }
+
+    @Test
+    @DisplayName("Shards imported and analyzed by separate processes see the symbols of all shards")
+    void testProcesses() throws Exception {
+        // a type defined in a file in one shard, and used in a file in the other shard
+        CompassShard shard1 = new CompassShard(1, 2);
+        String defFile = null;
+        String useFile = null;
+        for (int i = 1; (defFile == null) || (useFile == null); i++) {
+            String f = "f" + i + ".sql";
+            boolean inShard1 = shard1.contains(f + "." + CompassUtilities.importFileTag + ".app." + CompassUtilities.importFileSuffix);
+            if (inShard1 && (defFile == null)) defFile = f;
+            if (!inShard1 && (useFile == null)) useFile = f;
+        }
+        Path in = Files.createDirectories(tmpPath.resolve("in"));
+        Files.write(in.resolve(defFile), Arrays.asList("CREATE TYPE mytype FROM varchar(10)", "go"), StandardCharsets.UTF_8);
+        Files.write(in.resolve(useFile), Arrays.asList("CREATE TABLE t1(c mytype)", "go"), StandardCharsets.UTF_8);
+        // run from a directory with only the .cfg file, so nothing is installed from the project directory
+        Files.copy(Paths.get(CompassUtilities.getInstance().defaultCfgFileName), tmpPath.resolve(CompassUtilities.getInstance().defaultCfgFileName));
+
+        List<Process> procs = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            procs.add(compass("imp" + i, "r", in.resolve(defFile).toString(), in.resolve(useFile).toString(), "-appname", "app", "-shard", i + "/2"));
+        }
+        waitFor(procs);
+        // each file is in the same shard at import as with -analyze
+        assertTrue(output("imp1").contains("Shard 1/2: importing 1 of 2 input files"), output("imp1"));
+        assertTrue(output("imp2").contains("Shard 2/2: importing 1 of 2 input files"), output("imp2"));
+        for (int i = 1; i <= 2; i++) {
+            procs.add(compass("ana" + i, "r", "-analyze", "-shard", i + "/2"));
+        }
+        waitFor(procs);
+        assertTrue(output("ana1").contains(defFile), output("ana1"));
+        assertTrue(output("ana2").contains(useFile), output("ana2"));
+        assertTrue(output("ana1").contains("Shard 1/2: analyzing 1 of 2 imported files"), output("ana1"));
+        assertTrue(output("ana2").contains("Shard 2/2: analyzing 1 of 2 imported files"), output("ana2"));
+
+        procs.add(compass("rpt", "r", "-reportonly"));
+        waitFor(procs);
+
+        Path reportDir;
+        try (Stream<Path> dirs = Files.walk(tmpPath.resolve("home"))) {
+            reportDir = dirs.filter(p -> p.getFileName().toString().equals(CompassUtilities.capDirName)).findFirst().get().getParent();
+        }
+        String captured;
+        try (Stream<Path> files = Files.list(reportDir.resolve(CompassUtilities.capDirName))) {
+            List<Path> capFiles = files.filter(p -> p.toString().endsWith(".dat")).collect(Collectors.toList());
+            assertEquals(2, capFiles.size(), capFiles.toString());
+            captured = capFiles.stream().map(this::read).collect(Collectors.joining());
+        }
+        assertTrue(captured.contains("VARCHAR(10) (UDD MYTYPE) column;c;Datatypes;"), captured);
+        try (Stream<Path> files = Files.list(reportDir)) {
+            assertEquals(1, files.filter(p -> p.getFileName().toString().matches("report-r-.+\\.html")).count());
+        }
+    }
+
+    private Process compass(String outName, String... args) throws IOException {
+        List<String> cmd = new ArrayList<>(Arrays.asList(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+            "-Duser.home=" + tmpPath.resolve("home"), "-cp", System.getProperty("java.class.path"), "compass.Compass"));
+        cmd.addAll(Arrays.asList(args));
+        cmd.addAll(Arrays.asList("-noupdatechk", "-nopopupwindow"));
+        return new ProcessBuilder(cmd).directory(tmpPath.toFile()).redirectErrorStream(true).redirectOutput(tmpPath.resolve(outName + ".out").toFile()).start();
+    }
+
+    private void waitFor(List<Process> procs) throws InterruptedException {
+        for (Process p : procs) {
+            assertEquals(0, p.waitFor());
+        }
+        procs.clear();
+    }
+
+    private String output(String outName) {
+        return read(tmpPath.resolve(outName + ".out"));
+    }
+
+    private String read(Path p) {
+        try {
+            return new String(Files.readAllBytes(p), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
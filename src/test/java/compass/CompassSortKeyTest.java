@@ -0,0 +1,75 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassSortKeyTest {
+
+    private static final List<String> values = Arrays.asList("", "a", "A", "ab", "aB", "abc", "ab c", "ab\tc", "ab ", "ab  ~~~", "ab!", "b", "~", "00012", "0001");
+
+    @Test
+    @DisplayName("Keys sort in the same order as the joined strings")
+    void testOrder() {
+        Random rnd = new Random(7);
+        List<CompassSortKey> keys = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            String[] fields = new String[1 + rnd.nextInt(4)];
+            for (int j = 0; j < fields.length; j++) {
+                fields[j] = values.get(rnd.nextInt(values.size()));
+            }
+            keys.add(new CompassSortKey(fields));
+        }
+        for (int i = 0; i < keys.size() - 1; i++) {
+            CompassSortKey a = keys.get(i);
+            CompassSortKey b = keys.get(i + 1);
+            int expected = Integer.signum(String.CASE_INSENSITIVE_ORDER.compare(a.toString(), b.toString()));
+            assertEquals(expected, Integer.signum(CompassSortKey.ORDER.compare(a, b)), a + " vs " + b);
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (CompassSortKey k : keys) expected.add(k.toString());
+        expected.sort(String.CASE_INSENSITIVE_ORDER);
+        keys.sort(CompassSortKey.ORDER);
+        List<String> actual = new ArrayList<>();
+        for (CompassSortKey k : keys) actual.add(k.toString());
+        assertIterableEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("Fields are joined with the sort key separator")
+    void testFields() {
+        CompassSortKey k = new CompassSortKey("SUPPORTED", "item", "");
+        assertEquals("SUPPORTED  ~~~item  ~~~", k.toString());
+        assertEquals(3, k.size());
+        assertEquals("item", k.get(1));
+        assertTrue(k.startsWith("SUPP"));
+        assertFalse(k.startsWith("item"));
+    }
+
+    @Test
+    @DisplayName("The dictionary returns one instance per distinct string")
+    void testDictionary() {
+        CompassSortKey.Dictionary dict = new CompassSortKey.Dictionary();
+        String a = dict.get(new String("item"));
+        assertSame(a, dict.get(new String("item")));
+        assertEquals(1, dict.size());
+    }
+
+    @Test
+    @DisplayName("Zero padding is the same as String.format")
+    void testZeroPad() {
+        for (int n : new int[] {0, 7, 1234567, 12345678, 123456789, -5}) {
+            assertEquals(String.format("%08d", n), CompassUtilities.zeroPad(n, 8));
+        }
+        assertEquals(String.format("%06d", 42), CompassUtilities.zeroPad(42, 6));
+    }
+}
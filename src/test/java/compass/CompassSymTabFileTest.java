@@ -0,0 +1,151 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassSymTabFileTest {
+
+    @TempDir
+    Path tmpPath;
+
+    private List<Map<String, String>> emptySymTabs() {
+        List<Map<String, String>> symTabs = new ArrayList<>();
+        for (int k = 0; k < CompassSymTabFile.nrKinds; k++) symTabs.add(new HashMap<>());
+        return symTabs;
+    }
+
+    @Test
+    @DisplayName("Entries written can be looked up per kind")
+    void testWriteLookup() throws IOException {
+        List<Map<String, String>> symTabs = emptySymTabs();
+        symTabs.get(CompassSymTabFile.kindObjType).put("DB1.DBO.T1", "TABLE");
+        symTabs.get(CompassSymTabFile.kindObjType).put("DB1.DBO.V1", "VIEW");
+        symTabs.get(CompassSymTabFile.kindSUDF).put("DB1.DBO.T1", "INT");
+        symTabs.get(CompassSymTabFile.kindCol).put("DB1.DBO.T1;CÖL", "VARCHAR NULL");
+        for (int i = 0; i < 1000; i++) {
+            symTabs.get(CompassSymTabFile.kindProc).put("DB1.DBO.P" + i, "PROCEDURE" + i);
+        }
+        // same String hash code
+        symTabs.get(CompassSymTabFile.kindUDD).put("Aa", "first");
+        symTabs.get(CompassSymTabFile.kindUDD).put("BB", "second");
+
+        Path f = tmpPath.resolve("a.bbf~symtab.app.dat");
+        assertEquals(1006, CompassSymTabFile.write(f.toString(), symTabs));
+        assertTrue(CompassSymTabFile.isBinary(f.toString()));
+
+        CompassSymTabFile stf = CompassSymTabFile.open(f.toString());
+        assertNotNull(stf);
+        assertEquals("TABLE", stf.lookup(CompassSymTabFile.kindObjType, "DB1.DBO.T1"));
+        assertEquals("VIEW", stf.lookup(CompassSymTabFile.kindObjType, "DB1.DBO.V1"));
+        assertEquals("INT", stf.lookup(CompassSymTabFile.kindSUDF, "DB1.DBO.T1"), "Same key in another kind");
+        assertEquals("VARCHAR NULL", stf.lookup(CompassSymTabFile.kindCol, "DB1.DBO.T1;CÖL"));
+        assertEquals("PROCEDURE512", stf.lookup(CompassSymTabFile.kindProc, "DB1.DBO.P512"));
+        assertEquals("first", stf.lookup(CompassSymTabFile.kindUDD, "Aa"));
+        assertEquals("second", stf.lookup(CompassSymTabFile.kindUDD, "BB"));
+        assertNull(stf.lookup(CompassSymTabFile.kindObjType, "DB1.DBO.T2"));
+        assertNull(stf.lookup(CompassSymTabFile.kindTrig, "DB1.DBO.T1"), "Empty kind");
+
+        assertEquals(symTabs.get(CompassSymTabFile.kindProc), stf.entries(CompassSymTabFile.kindProc));
+    }
+
+    @Test
+    @DisplayName("Text symtab files are not opened as binary")
+    void testTextSymTab() throws IOException {
+        Path f = tmpPath.resolve("b.bbf~symtab.app.dat");
+        Files.write(f, "# This file: b\nobjtype;DB1.DBO.T1;TABLE\n".getBytes(StandardCharsets.UTF_8));
+        assertFalse(CompassSymTabFile.isBinary(f.toString()));
+        assertNull(CompassSymTabFile.open(f.toString()));
+    }
+
+    @Test
+    @DisplayName("Merged symtab files keep the entry of the last file for a key")
+    void testMerge() throws IOException {
+        List<Map<String, String>> symTabs = emptySymTabs();
+        symTabs.get(CompassSymTabFile.kindObjType).put("DB1.DBO.T1", "TABLE");
+        symTabs.get(CompassSymTabFile.kindUDD).put("MYTYPE", "VARCHAR(10)");
+        Path a = tmpPath.resolve("a.bbf~symtab.app.dat");
+        CompassSymTabFile.write(a.toString(), symTabs);
+
+        symTabs = emptySymTabs();
+        symTabs.get(CompassSymTabFile.kindObjType).put("DB1.DBO.V1", "VIEW");
+        symTabs.get(CompassSymTabFile.kindUDD).put("MYTYPE", "INT");
+        Path b = tmpPath.resolve("b.bbf~symtab.app.dat");
+        CompassSymTabFile.write(b.toString(), symTabs);
+
+        Path m = tmpPath.resolve("merged.dat");
+        assertTrue(CompassSymTabFile.merge(Arrays.asList(a.toString(), b.toString()), m.toString()));
+        CompassSymTabFile stf = CompassSymTabFile.open(m.toString());
+        assertNotNull(stf);
+        assertEquals("TABLE", stf.lookup(CompassSymTabFile.kindObjType, "DB1.DBO.T1"));
+        assertEquals("VIEW", stf.lookup(CompassSymTabFile.kindObjType, "DB1.DBO.V1"));
+        assertEquals("INT", stf.lookup(CompassSymTabFile.kindUDD, "MYTYPE"));
+
+        Path t = tmpPath.resolve("c.bbf~symtab.app.dat");
+        Files.write(t, "# This file: c\nobjtype;DB1.DBO.T2;TABLE\n".getBytes(StandardCharsets.UTF_8));
+        Path m2 = tmpPath.resolve("merged2.dat");
+        assertFalse(CompassSymTabFile.merge(Arrays.asList(a.toString(), t.toString()), m2.toString()));
+        assertFalse(Files.exists(m2));
+    }
+
+    @Test
+    @DisplayName("Merging many files with colliding hashes keeps every key once")
+    void testMergeMany() throws IOException {
+        // "Aa" and "BB" have the same hash
+        List<String> files = new ArrayList<>();
+        for (int f = 0; f < 5; f++) {
+            List<Map<String, String>> symTabs = emptySymTabs();
+            for (int i = f; i < 200; i += 2) {
+                symTabs.get(CompassSymTabFile.kindCol).put("T.C" + i, "INT" + f);
+            }
+            symTabs.get(CompassSymTabFile.kindProc).put((f % 2 == 0) ? "Aa" : "BB", "P" + f);
+            Path p = tmpPath.resolve("f" + f + ".dat");
+            CompassSymTabFile.write(p.toString(), symTabs);
+            files.add(p.toString());
+        }
+        Path m = tmpPath.resolve("merged.dat");
+        assertTrue(CompassSymTabFile.merge(files, m.toString()));
+        CompassSymTabFile stf = CompassSymTabFile.open(m.toString());
+        assertEquals(200, stf.size(CompassSymTabFile.kindCol));
+        for (int i = 0; i < 200; i++) {
+            // the last file with this key
+            int f = 4;
+            while ((f > i) || ((i - f) % 2 != 0)) f--;
+            assertEquals("INT" + f, stf.lookup(CompassSymTabFile.kindCol, "T.C" + i), "T.C" + i);
+        }
+        assertEquals(2, stf.size(CompassSymTabFile.kindProc));
+        assertEquals("P4", stf.lookup(CompassSymTabFile.kindProc, "Aa"));
+        assertEquals("P3", stf.lookup(CompassSymTabFile.kindProc, "BB"));
+        stf.close();
+    }
+
+    @Test
+    @DisplayName("A symtab file larger than the offsets allow is refused")
+    void testMaxFileSize() {
+        long savedMax = CompassSymTabFile.maxFileSize;
+        try {
+            CompassSymTabFile.maxFileSize = 200;
+            List<Map<String, String>> symTabs = emptySymTabs();
+            for (int i = 0; i < 20; i++) {
+                symTabs.get(CompassSymTabFile.kindCol).put("T.C" + i, "INT");
+            }
+            IOException e = assertThrows(IOException.class, () -> CompassSymTabFile.write(tmpPath.resolve("big.dat").toString(), symTabs));
+            assertTrue(e.getMessage().contains("larger than 200 bytes"), e.getMessage());
+        } finally {
+            CompassSymTabFile.maxFileSize = savedMax;
+        }
+    }
+}
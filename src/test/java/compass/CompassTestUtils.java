@@ -114,6 +114,7 @@ public class CompassTestUtils {
                 "JSON query", "extended events/XML", "generic SQL XML");
         CompassUtilities.importFormat = CompassUtilities.autoFmt.toLowerCase();
         CompassUtilities.deDupExtracted = true;
+        CompassUtilities.deDupSpill = false;
         CompassUtilities.deDupSkipped = 0;
         CompassUtilities.hintIcon = "&#x1F6C8;";
         CompassUtilities.reportShowAppName = true;
@@ -127,6 +128,8 @@ public class CompassTestUtils {
         CompassUtilities.reportOptionFilter = "";
         CompassUtilities.reportOptionNotabs = false;
         CompassUtilities.reportOptionLineNrs = false;
+        CompassUtilities.reportOptionXrefMem = 0;
+        CompassUtilities.reportOptionXrefPages = 0;
         CompassUtilities.linesSQLInReport = 0;
         CompassUtilities.reportHdrLines = "";
         CompassUtilities.maxLineNrsInListDefault = 10;
@@ -176,15 +179,13 @@ public class CompassTestUtils {
         CompassUtilities.rewriteOppties = new HashMap<>();
         CompassUtilities.rwrTabRegex = "";
         CompassUtilities.nrRewritesDone = 0;
-        CompassUtilities.nrMergeRewrites = 0;
+        CompassUtilities.rewriteMillis = 0;
         CompassUtilities.rewriteTypeExpr1 = "expr(1)";
         CompassUtilities.rewriteTypeReplace = "replace";
         CompassUtilities.rewriteTypeODBCfunc1 = "ODBCfunc1";
         CompassUtilities.rewriteTypeODBClit1 = "ODBClit1";
         CompassUtilities.rewriteTypeBlockReplace = "BlockReplace";
-        CompassUtilities.offsetCols = new ArrayList<>();
         CompassUtilities.offsetLines = new HashMap<>();
-        CompassUtilities.rewritesDone = new ArrayList<>();
         CompassUtilities.devOptions = false;
         CompassUtilities.caching = false;
         CompassUtilities.grammarRuleNames = null;
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -324,4 +325,61 @@ class CompassUtilitiesTest {
         actual = CompassUtilities.nameFormatValid("report", name);
         assertEquals(expected, actual, "Golden path");
     }
+
+    @Test
+    @DisplayName("HTML report lines are converted to text as with the regex replacements")
+    void testHTMLToText() {
+        CompassUtilities utilities = CompassUtilities.getInstance();
+        assertEquals(utilities.docLinkURLText + " x", utilities.removeHTMLTags("<div class=\"x\">" + utilities.docLinkURL + " x"));
+        assertEquals("a \u2139 b", utilities.removeHTMLTags("a <a HREF=\"#x\">\u2139</a> b"));
+        assertEquals("a <a href=\"x\nb", utilities.removeHTMLTags("a <a href=\"x\nb"), "a tag does not end on another line");
+        assertEquals("x  y", utilities.removeHTMLTags("x <span class=\"tip\">tip</span> y"));
+        assertEquals("<b>&amp;", utilities.unEscapeHTMLChars("&amp;lt;b&GT;&amp;amp;"));
+
+        // random lines built from the parts that are replaced
+        String marker = CompassUtilities.captureFileSeparatorMarker;
+        String[] parts = {"<a ", "<a class=\"c\">", "<a href=\"#h\">", "<A NAME=\"n\">", "</a>", "<div ", "<div class=\"d\">", "</DIV>",
+                          "<span ", "<span class=\"s\">", "</span>", ">", "<", "&", "amp;", "&amp;", "&lt;", "&Gt;", "&quot;", "&apos;", "&nbsp;",
+                          "&amp" + marker, "&lt" + marker, "&nbsp" + marker, "lt;", "\n", "\r", "\u2028", "\u0131", "x", " ",
+                          CompassUtilities.hintIcon, utilities.backToToCText, utilities.docLinkURL};
+        Random rnd = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder line = new StringBuilder();
+            for (int n = rnd.nextInt(12); n > 0; n--) line.append(parts[rnd.nextInt(parts.length)]);
+            String s = line.toString();
+            assertEquals(regexRemoveHTMLTags(utilities, s), utilities.removeHTMLTags(s), s);
+            assertEquals(regexUnEscapeHTMLChars(s), utilities.unEscapeHTMLChars(s), s);
+        }
+    }
+
+    // the regex-based conversion the report used before
+    private String regexRemoveHTMLTags(CompassUtilities u, String line) {
+        if (line.contains("<a ")) {
+            line = CompassUtilities.applyPatternFirst(line, u.docLinkURL, u.docLinkURLText);
+            line = CompassUtilities.applyPatternAll(line, "<a class=.*?>", "");
+            line = CompassUtilities.applyPatternAll(line, "<a href=.*?>", "");
+            line = CompassUtilities.applyPatternAll(line, "<a name=.*?>", "");
+            line = CompassUtilities.applyPatternAll(line, "</a>", "");
+            line = CompassUtilities.applyPatternAll(line, u.backToToCText, "");
+        }
+        if (line.contains("<div ")) {
+            line = CompassUtilities.applyPatternAll(line, "<div class=.*?>", "");
+            line = CompassUtilities.applyPatternAll(line, "</div>", "");
+            line = CompassUtilities.applyPatternAll(line, CompassUtilities.hintIcon, " ");
+        }
+        if (line.contains("<span ")) {
+            line = CompassUtilities.applyPatternAll(line, "<span class.*?</span>", "");
+        }
+        return line;
+    }
+
+    private String regexUnEscapeHTMLChars(String line) {
+        String marker = CompassUtilities.captureFileSeparatorMarker;
+        if (line.contains("&")) {
+            String[][] replace = {{"&amp;", "&"}, {"&amp" + marker, "&"}, {"&lt;", "<"}, {"&lt" + marker, "<"}, {"&gt;", ">"}, {"&gt" + marker, ">"},
+                                  {"&quot;", "\""}, {"&quot" + marker, "\""}, {"&apos;", "\""}, {"&apos" + marker, "\""}, {"&nbsp;", " "}, {"&nbsp" + marker, " "}};
+            for (String[] r : replace) line = CompassUtilities.applyPatternAll(line, r[0], r[1]);
+        }
+        return line;
+    }
 }
@@ -0,0 +1,130 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassVersionMatrixTest {
+
+    @TempDir
+    Path tmpPath;
+
+    private Map<String, Map<String, List<String>>> savedSectionList;
+
+    @BeforeEach
+    void init() {
+        savedSectionList = CompassConfig.sectionList;
+        Map<String, List<String>> hints = new LinkedHashMap<>();
+        hints.put("LIST", new ArrayList<>(Arrays.asList("NOLOCK", "TABLOCK", "A;B")));
+        hints.put("REVIEWSEMANTICS/1.0.0", new ArrayList<>(Collections.singletonList("NOLOCK")));
+        hints.put("SUPPORTED/2.0.0", new ArrayList<>(Arrays.asList("TABLOCK", "A;B")));
+        Map<String, List<String>> dbcc = new LinkedHashMap<>();
+        dbcc.put("SUPPORTED/3.0.0", new ArrayList<>(Collections.singletonList("*")));
+        CompassConfig.sectionList = new LinkedHashMap<>();
+        CompassConfig.sectionList.put("TABLE HINT", hints);
+        CompassConfig.sectionList.put("DBCC CHECKIDENT", dbcc);
+    }
+
+    @AfterEach
+    void restore() {
+        CompassConfig.sectionList = savedSectionList;
+    }
+
+    @Test
+    @DisplayName("A status key gives the status of the lookup for any version")
+    void testResolveStatusKey() {
+        String key = CompassConfig.statusKey(CompassConfig.statusKeyName, "Table hint", "TABLOCK");
+        assertEquals("N;Table hint;TABLOCK", key);
+        assertEquals(CompassUtilities.NotSupported, CompassConfig.resolveStatusKey("1.0.0", key));
+        assertEquals(CompassUtilities.Supported, CompassConfig.resolveStatusKey("2.0.0", key));
+        assertEquals(CompassUtilities.Supported, CompassConfig.resolveStatusKey("5.5.0", key));
+        assertEquals(CompassUtilities.ReviewSemantics, CompassConfig.resolveStatusKey("1.0.0", "N;Table hint;nolock"));
+        assertArrayEquals(new String[] { "TABLE HINT", "TABLOCK" }, CompassConfig.statusKeyCfgCheck(key));
+
+        // the separator in a name
+        key = CompassConfig.statusKey(CompassConfig.statusKeyName, "Table hint", "A;B");
+        assertEquals(3, key.split(CompassUtilities.captureFileSeparator).length);
+        assertEquals(CompassUtilities.Supported, CompassConfig.resolveStatusKey("2.0.0", key));
+
+        key = CompassConfig.statusKey(CompassConfig.statusKeySection, "DBCC CHECKIDENT");
+        assertEquals(CompassUtilities.NotSupported, CompassConfig.resolveStatusKey("2.0.0", key));
+        assertEquals(CompassUtilities.Supported, CompassConfig.resolveStatusKey("3.0.0", key));
+
+        assertNull(CompassConfig.resolveStatusKey("2.0.0", "N;Table hint"));
+        assertNull(CompassConfig.resolveStatusKey("2.0.0", "X;Table hint;TABLOCK"));
+    }
+
+    @Test
+    @DisplayName("The status key of a lookup resolves to the status of that lookup")
+    void testFeatureStatusKey() {
+        String savedVersion = CompassUtilities.getInstance().targetBabelfishVersion;
+        try {
+            CompassUtilities.getInstance().targetBabelfishVersion = "1.0.0";
+            String hint = CompassAnalyze.featureSupportedInVersion("Table hint", "TABLOCK");
+            String dbcc = CompassAnalyze.featureSupportedInVersion("DBCC CHECKIDENT");
+            String hintKey = CompassAnalyze.featureStatusKey("Table hint", "TABLOCK");
+            String dbccKey = CompassAnalyze.featureStatusKey("DBCC CHECKIDENT");
+            assertEquals("N;Table hint;TABLOCK", hintKey);
+            assertEquals("S;DBCC CHECKIDENT", dbccKey);
+            assertEquals(hint, CompassConfig.resolveStatusKey("1.0.0", hintKey));
+            assertEquals(dbcc, CompassConfig.resolveStatusKey("1.0.0", dbccKey));
+        } finally {
+            CompassUtilities.getInstance().targetBabelfishVersion = savedVersion;
+        }
+    }
+
+    @Test
+    @DisplayName("Items with a status key are compared across versions, other items keep their status")
+    void testMatrix() throws IOException {
+        Path cf = tmpPath.resolve("captured.a.dat");
+        Files.write(cf, Arrays.asList(
+            "# Captured items for report [r1] with targeted Babelfishversion [1.0.0] generated at 01-Jan-2026 10:00:00 with capture file format [1] user config file [BabelfishCompassUser.cfg]",
+            "#status=N;Table hint;TABLOCK",
+            "Table hint TABLOCK;;DML;NOTSUPPORTED;1;app1;a.sql;1;1;T-SQL batch;;;~;",
+            "Table hint TABLOCK;;DML;XREFONLY;TABLE HINT;TABLOCK;;;;;;;~;",
+            "#status=N;Table hint;TABLOCK",
+            "Table hint TABLOCK;;DML;NOTSUPPORTED;5;app1;a.sql;2;3;T-SQL batch;;;~;",
+            "MERGE;;DML;NOTSUPPORTED;1;app1;a.sql;3;7;T-SQL batch;;;~;",
+            "#status=S;DBCC CHECKIDENT",
+            "DBCC CHECKIDENT;;DBCC statements;NOTSUPPORTED;1;app1;a.sql;4;9;T-SQL batch;;;~;",
+            "SELECT;T1;SELECT;OBJECTREFERENCE;1;app1;a.sql;4;9;T-SQL batch;;;~;",
+            "*metrics=a.sql;app1;4;0;10"), StandardCharsets.UTF_8);
+
+        CompassVersionMatrix matrix = new CompassVersionMatrix(Arrays.asList("1.0.0", "2.0.0", "3.0.0"));
+        matrix.readCaptureFile(cf);
+        Path out = tmpPath.resolve("versions.csv");
+        matrix.write(out.toString(), "header");
+
+        List<String> lines = Files.readAllLines(out, StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList(
+            "header",
+            "",
+            "Report group,Item,v.1.0.0,v.2.0.0,v.3.0.0,Count",
+            "DBCC statements,DBCC CHECKIDENT,Not Supported,Not Supported,Supported,1",
+            "DML,MERGE,Not Supported,Not Supported,Not Supported,1",
+            "DML,Table hint TABLOCK,Not Supported,Supported,Supported,2",
+            "",
+            "Status,v.1.0.0,v.2.0.0,v.3.0.0",
+            "Supported,0,2,3",
+            "Not Supported,4,2,1",
+            "Review Semantics,0,0,0",
+            "Review Performance,0,0,0",
+            "Review Manually,0,0,0",
+            "Ignored,0,0,0"), lines);
+    }
+}
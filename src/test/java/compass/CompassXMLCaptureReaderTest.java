@@ -0,0 +1,112 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassXMLCaptureReaderTest {
+
+    private List<String> readAll(String xml, String fmt, long expectedEvents) throws Exception {
+        CompassXMLCaptureReader r = new CompassXMLCaptureReader(new StringReader(xml), fmt);
+        List<String> stmts = new ArrayList<>();
+        String s;
+        while ((s = r.nextStatement()) != null) stmts.add(s);
+        assertEquals(expectedEvents, r.getEventCount(), "events read");
+        return stmts;
+    }
+
+    @Test
+    @DisplayName("Extended Events without a root element")
+    void testExtendedEvents() throws Exception {
+        String xml = "event_data\n"
+                + "<event name=\"sql_statement_completed\" package=\"sqlserver\"><data name=\"statement\"><value>select 1 where a &lt; 2</value></data>"
+                + "<action name=\"sql_text\" package=\"sqlserver\"><value>select 1 where a &lt; 2</value></action></event>\n"
+                + "<event name=\"sql_batch_completed\" package=\"sqlserver\">\n  <data name=\"batch_text\">\n    <value>select 2\n      from t  \n   where x=1</value>\n  </data>\n</event>\n"
+                + "<event name=\"login\" package=\"sqlserver\"><data name=\"x\"><value>no sql</value></data></event>\n"
+                + "<event name=\"rpc_completed\" package=\"sqlserver\"><data name=\"statement\"><value>exec p</value></data><data name=\"object_name\"><value>p</value></data>"
+                + "<action name=\"sql_text\" package=\"sqlserver\"><value>{call p}</value></action></event>\n";
+        List<String> stmts = readAll(xml, CompassUtilities.extendedEventsXMLFmt, 4);
+        assertEquals(3, stmts.size());
+        assertEquals("select 1 where a < 2" + CompassUtilities.XESpecialSplitMarker + "select 1 where a < 2", stmts.get(0), "sql_text following the statement");
+        assertEquals("select 2\nfrom t\nwhere x=1", stmts.get(1), "lines are trimmed");
+        assertEquals("exec p", stmts.get(2), "sql_text not directly following the statement");
+    }
+
+    @Test
+    @DisplayName("SQL Server Profiler XML")
+    void testProfiler() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"utf-16\"?>\n<TraceData><Events>\n"
+                + "<Event id=\"12\" name=\"SQL:BatchCompleted\"><Column id=\"1\" name=\"TextData\">select 1</Column><Column id=\"3\" name=\"DatabaseID\">5</Column></Event>\n"
+                + "<Event id=\"10\" name=\"RPC:Completed\"><Column id=\"1\" name=\"TextData\"><![CDATA[exec p 'a<b']]></Column></Event>\n"
+                + "</Events></TraceData>\n";
+        List<String> stmts = readAll(xml, CompassUtilities.SQLServerProfilerXMLFmt, 2);
+        assertIterableEquals(Arrays.asList("select 1", "exec p 'a<b'"), stmts);
+    }
+
+    @Test
+    @DisplayName("Splitting into chunks at event boundaries gives the same batches")
+    void testChunkSplitter() throws Exception {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\"?>\n<TraceData><Events>\n");
+        for (int i = 0; i < 100; i++) {
+            sb.append("<Event id=\"12\" name=\"SQL:BatchCompleted\">\n<Column id=\"1\" name=\"TextData\">select ").append(i).append("\n from t</Column>\n</Event>\n");
+        }
+        sb.append("</Events></TraceData>\n");
+        String xml = sb.toString();
+        List<String> expected = readAll(xml, CompassUtilities.SQLServerProfilerXMLFmt, 100);
+
+        CompassXMLCaptureReader.ChunkSplitter splitter = new CompassXMLCaptureReader.ChunkSplitter(new StringReader(xml), CompassUtilities.SQLServerProfilerXMLFmt, 500);
+        List<String> stmts = new ArrayList<>();
+        int nrChunks = 0;
+        long nrEvents = 0;
+        String chunk;
+        while ((chunk = splitter.next()) != null) {
+            nrChunks++;
+            assertTrue(chunk.startsWith("<Event ") && chunk.endsWith("</Event>"), "chunk=[" + chunk + "]");
+            CompassXMLCaptureReader r = new CompassXMLCaptureReader(new StringReader(chunk), CompassUtilities.SQLServerProfilerXMLFmt);
+            String s;
+            while ((s = r.nextStatement()) != null) stmts.add(s);
+            nrEvents += r.getEventCount();
+        }
+        assertTrue(nrChunks > 10, "nrChunks=" + nrChunks);
+        assertEquals(100, nrEvents);
+        assertIterableEquals(expected, stmts);
+    }
+
+    @Test
+    @DisplayName("Event tags inside CDATA sections and comments do not split a chunk")
+    void testChunkSplitterCData() throws Exception {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\"?>\n<!-- <Event id=\"0\"> --><TraceData><Events>\n");
+        for (int i = 0; i < 50; i++) {
+            sb.append("<Event id=\"12\" name=\"SQL:BatchCompleted\">\n<Column id=\"1\" name=\"TextData\"><![CDATA[select '</Event>', '<Event id=\"1\">' from t").append(i)
+              .append("]]></Column>\n<!-- </Event> -->\n</Event>\n");
+        }
+        sb.append("</Events></TraceData>\n");
+        String xml = sb.toString();
+        List<String> expected = readAll(xml, CompassUtilities.SQLServerProfilerXMLFmt, 50);
+        assertEquals("select '</Event>', '<Event id=\"1\">' from t49", expected.get(49));
+
+        for (int chunkSize = 1; chunkSize < 400; chunkSize += 7) {
+            CompassXMLCaptureReader.ChunkSplitter splitter = new CompassXMLCaptureReader.ChunkSplitter(new StringReader(xml), CompassUtilities.SQLServerProfilerXMLFmt, chunkSize);
+            List<String> stmts = new ArrayList<>();
+            String chunk;
+            while ((chunk = splitter.next()) != null) {
+                assertTrue(chunk.startsWith("<Event id=\"12\"") && chunk.endsWith("-->\n</Event>"), "chunkSize=" + chunkSize + " chunk=[" + chunk + "]");
+                CompassXMLCaptureReader r = new CompassXMLCaptureReader(new StringReader(chunk), CompassUtilities.SQLServerProfilerXMLFmt);
+                String s;
+                while ((s = r.nextStatement()) != null) stmts.add(s);
+            }
+            assertIterableEquals(expected, stmts, "chunkSize=" + chunkSize);
+        }
+    }
+}
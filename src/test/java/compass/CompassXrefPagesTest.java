@@ -0,0 +1,67 @@
+/*
+Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package compass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompassXrefPagesTest {
+
+    @TempDir
+    Path tmpPath;
+
+    private String read(String file) throws IOException {
+        return new String(Files.readAllBytes(tmpPath.resolve(file)), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("A new page starts between blocks once a page has the max. number of lines")
+    void testPages() throws IOException {
+        CompassXrefPages pages = new CompassXrefPages(tmpPath.toString(), "xref", "byfeature_x", "<html><body>\n", "X-ref", 3);
+        assertEquals("xref/byfeature_x_1.html", pages.add("a1\na2\n", "a"));
+        assertEquals("xref/byfeature_x_1.html", pages.add("b1\nb2\n", "b"));
+        assertEquals("xref/byfeature_x_2.html", pages.add("c1\n", "c"));
+        pages.close();
+        assertEquals(2, pages.getNrPages());
+
+        String page1 = read("byfeature_x_1.html");
+        assertTrue(page1.contains("a1\na2\nb1\nb2\n"), "blocks are not split");
+        assertTrue(page1.contains("href=\"xref/byfeature_x_2.html\">Next page"));
+        assertFalse(page1.contains("Previous page"));
+        String page2 = read("byfeature_x_2.html");
+        assertTrue(page2.contains("href=\"xref/byfeature_x_1.html\">Previous page"));
+        assertFalse(page2.contains("Next page"));
+        assertTrue(page2.endsWith("</pre>\n</body></html>\n"));
+
+        String list = pages.pageList("  ");
+        assertEquals("  <a href=\"xref/byfeature_x_1.html\">page 1</a>: a ... b\n  <a href=\"xref/byfeature_x_2.html\">page 2</a>: c\n", list);
+
+        CompassXrefPages.writeIndex(tmpPath.toString(), "<html><body>\n", Arrays.asList("X-ref\n" + list));
+        assertTrue(read(CompassXrefPages.indexFileName).contains(list));
+
+        CompassXrefPages.clearDir(tmpPath.toString());
+        assertEquals(0, Files.list(tmpPath).count());
+    }
+
+    @Test
+    @DisplayName("Without blocks, no pages are written")
+    void testEmpty() throws IOException {
+        CompassXrefPages pages = new CompassXrefPages(tmpPath.toString(), "xref", "byobject_x", "", "X-ref", 10);
+        pages.close();
+        assertEquals(0, pages.getNrPages());
+        assertEquals("", pages.pageList("  "));
+        assertEquals(0, Files.list(tmpPath).count());
+    }
+}